@@ -19,7 +19,19 @@
 package net.fchauvel.mutable;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import net.fchauvel.mutable.column.BooleanColumn;
+import net.fchauvel.mutable.column.CharacterColumn;
+import net.fchauvel.mutable.column.DoubleColumn;
+import net.fchauvel.mutable.column.FloatColumn;
+import net.fchauvel.mutable.column.IntegerColumn;
+import net.fchauvel.mutable.column.LongColumn;
+import net.fchauvel.mutable.column.StringColumn;
 import net.fchauvel.mutable.expression.Expression;
+import net.fchauvel.mutable.sketch.HyperLogLog;
+import net.fchauvel.mutable.sketch.QuantileSketch;
 
 /**
  * Factor out some common code between ResultSet and DataTable
@@ -51,6 +63,258 @@ public abstract class AbstractTable implements Table {
         return new ResultSet(this, query);
     }
 
+    @Override
+    public int count(Expression criteria) {
+        requireValidCriteria(criteria);
+        final Expression boundCriteria = criteria.bindTo(this);
+        final Cursor cursor = new Cursor(this, 0);
+        int count = 0;
+        while (cursor.hasNext()) {
+            cursor.moveToNext();
+            if ((boolean) boundCriteria.evaluate(cursor)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean exists(Expression criteria) {
+        requireValidCriteria(criteria);
+        return !where(criteria).isEmpty();
+    }
+
+    @Override
+    public SortedView orderBy(String... fieldNames) {
+        if (fieldNames == null) {
+            throw new IllegalArgumentException("Invalid sort keys ('null' found)");
+        }
+        final SortKey[] keys = new SortKey[fieldNames.length];
+        for (int index = 0; index < fieldNames.length; index++) {
+            keys[index] = SortKey.ascending(fieldNames[index]);
+        }
+        return orderBy(keys);
+    }
+
+    @Override
+    public SortedView orderBy(SortKey... keys) {
+        return new SortedView(this, RowOrder.extracted(this, keys).sort());
+    }
+
+    @Override
+    public SortedView topK(String fieldName, int k) {
+        return topK(k, SortKey.descending(fieldName));
+    }
+
+    @Override
+    public SortedView topK(int k, SortKey... keys) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Invalid number of rows " + k + " (should be positive)");
+        }
+        return new SortedView(this, RowOrder.direct(this, keys).top(k));
+    }
+
+    @Override
+    public ColumnStatistics statisticsOf(String fieldName) {
+        final ColumnStatistics statistics = new ColumnStatistics();
+        summarizeRows(this, numericColumnIndexOf(fieldName), null, getRowCount(), statistics);
+        return statistics;
+    }
+
+    @Override
+    public double sum(String fieldName) {
+        return statisticsOf(fieldName).getSum();
+    }
+
+    @Override
+    public double min(String fieldName) {
+        return statisticsOf(fieldName).getMin();
+    }
+
+    @Override
+    public double max(String fieldName) {
+        return statisticsOf(fieldName).getMax();
+    }
+
+    @Override
+    public double mean(String fieldName) {
+        return statisticsOf(fieldName).getMean();
+    }
+
+    @Override
+    public double variance(String fieldName) {
+        return statisticsOf(fieldName).getVariance();
+    }
+
+    /**
+     * Account for the values of the given column at the given rows. Values
+     * are gathered into primitive blocks, which are then reduced at once.
+     *
+     * @param table the table holding the values
+     * @param columnIndex the index of a numeric column, from 1 to n
+     * @param rows the indices of the rows of interest, or null for the rows
+     * from 1 to rowCount
+     * @param rowCount the number of rows of interest
+     * @param statistics the statistics to update
+     */
+    static void summarizeRows(Table table, int columnIndex, Selection rows, int rowCount, ColumnStatistics statistics) {
+        final int blockSize = Math.min(rowCount, ColumnStatistics.BLOCK_SIZE);
+        switch (table.getSchema().getField(columnIndex).getType()) {
+            case INTEGER: {
+                final int[] block = new int[blockSize];
+                for (int start = 1; start <= rowCount; start += blockSize) {
+                    final int length = Math.min(blockSize, rowCount - start + 1);
+                    for (int index = 0; index < length; index++) {
+                        block[index] = table.getInteger(rows == null ? start + index : rows.get(start + index), columnIndex);
+                    }
+                    statistics.accept(block, 0, length);
+                }
+                break;
+            }
+            case LONG: {
+                final long[] block = new long[blockSize];
+                for (int start = 1; start <= rowCount; start += blockSize) {
+                    final int length = Math.min(blockSize, rowCount - start + 1);
+                    for (int index = 0; index < length; index++) {
+                        block[index] = table.getLong(rows == null ? start + index : rows.get(start + index), columnIndex);
+                    }
+                    statistics.accept(block, 0, length);
+                }
+                break;
+            }
+            case FLOAT: {
+                final float[] block = new float[blockSize];
+                for (int start = 1; start <= rowCount; start += blockSize) {
+                    final int length = Math.min(blockSize, rowCount - start + 1);
+                    for (int index = 0; index < length; index++) {
+                        block[index] = table.getFloat(rows == null ? start + index : rows.get(start + index), columnIndex);
+                    }
+                    statistics.accept(block, 0, length);
+                }
+                break;
+            }
+            default: {
+                final double[] block = new double[blockSize];
+                for (int start = 1; start <= rowCount; start += blockSize) {
+                    final int length = Math.min(blockSize, rowCount - start + 1);
+                    for (int index = 0; index < length; index++) {
+                        block[index] = table.getDouble(rows == null ? start + index : rows.get(start + index), columnIndex);
+                    }
+                    statistics.accept(block, 0, length);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the values of the given column at the given rows, as an array
+     * of primitive values (e.g., int[] for INTEGER)
+     * @param table the table holding the values
+     * @param columnIndex the index of the column, from 1 to n
+     * @param rows the indices of the rows of interest, from 1 to n
+     */
+    static Object valuesAt(Table table, int columnIndex, int[] rows) {
+        switch (table.getSchema().getField(columnIndex).getType()) {
+            case INTEGER: {
+                final int[] values = new int[rows.length];
+                for (int index = 0; index < rows.length; index++) {
+                    values[index] = table.getInteger(rows[index], columnIndex);
+                }
+                return values;
+            }
+            case LONG: {
+                final long[] values = new long[rows.length];
+                for (int index = 0; index < rows.length; index++) {
+                    values[index] = table.getLong(rows[index], columnIndex);
+                }
+                return values;
+            }
+            case FLOAT: {
+                final float[] values = new float[rows.length];
+                for (int index = 0; index < rows.length; index++) {
+                    values[index] = table.getFloat(rows[index], columnIndex);
+                }
+                return values;
+            }
+            case DOUBLE: {
+                final double[] values = new double[rows.length];
+                for (int index = 0; index < rows.length; index++) {
+                    values[index] = table.getDouble(rows[index], columnIndex);
+                }
+                return values;
+            }
+            case BOOLEAN: {
+                final boolean[] values = new boolean[rows.length];
+                for (int index = 0; index < rows.length; index++) {
+                    values[index] = table.getBoolean(rows[index], columnIndex);
+                }
+                return values;
+            }
+            case CHARACTER: {
+                final char[] values = new char[rows.length];
+                for (int index = 0; index < rows.length; index++) {
+                    values[index] = table.getCharacter(rows[index], columnIndex);
+                }
+                return values;
+            }
+            default: {
+                final String[] values = new String[rows.length];
+                for (int index = 0; index < rows.length; index++) {
+                    values[index] = table.getString(rows[index], columnIndex);
+                }
+                return values;
+            }
+        }
+    }
+
+    @Override
+    public HyperLogLog distinctCountSketch(String fieldName) {
+        requireValidFieldName(fieldName);
+        final int columnIndex = getSchema().getFieldIndex(fieldName);
+        final HyperLogLog sketch = new HyperLogLog();
+        for (int row = 1; row <= getRowCount(); row++) {
+            sketch.add(this, row, columnIndex);
+        }
+        return sketch;
+    }
+
+    @Override
+    public QuantileSketch quantileSketch(String fieldName) {
+        final int columnIndex = numericColumnIndexOf(fieldName);
+        final QuantileSketch sketch = new QuantileSketch();
+        for (int row = 1; row <= getRowCount(); row++) {
+            sketch.add(this, row, columnIndex);
+        }
+        return sketch;
+    }
+
+    @Override
+    public DataTable distinct(String... fieldNames) {
+        return groupBy(allFieldsIfNone(fieldNames)).distinct();
+    }
+
+    @Override
+    public ResultSet dropDuplicates(String... fieldNames) {
+        return groupBy(allFieldsIfNone(fieldNames)).first();
+    }
+
+    private String[] allFieldsIfNone(String[] fieldNames) {
+        if (fieldNames != null && fieldNames.length == 0) {
+            return getSchema().getFieldNames().toArray(new String[getColumnCount()]);
+        }
+        return fieldNames;
+    }
+
+    @Override
+    public Join join(Table right) {
+        return new Join(this, right);
+    }
+
+    @Override
+    public GroupBy groupBy(String... fieldNames) {
+        return new GroupBy(this, fieldNames);
+    }
+
     @Override
     public Iterator<Row> iterator() {
         return new RowIterator(new Cursor(this, 0));
@@ -61,4 +325,371 @@ public abstract class AbstractTable implements Table {
         return new Cursor(this, 1);
     }
 
+    @Override
+    public void scan(RowConsumer consumer) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("Invalid row consumer ('null' found)");
+        }
+        final Cursor cursor = new Cursor(this, 0);
+        while (cursor.hasNext()) {
+            cursor.moveToNext();
+            consumer.accept(cursor);
+        }
+    }
+
+    /**
+     * @return a spliterator over row indices, which knows its exact size and
+     * splits in halves
+     */
+    @Override
+    public Spliterator<Row> spliterator() {
+        return new RowSpliterator(this);
+    }
+
+    @Override
+    public Stream<Row> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @Override
+    public Stream<Row> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * @return an iterator that returns the very same row instance, moved from
+     * one row to the next, instead of a new row each time. Rows it returns are
+     * only valid until the next call to next().
+     */
+    public Iterator<Row> reusingIterator() {
+        return new RowIterator(new Cursor(this, 0), true);
+    }
+
+    @Override
+    public int getInteger(int rowIndex, int columnIndex) {
+        return getDataAs(Integer.class, rowIndex, columnIndex);
+    }
+
+    @Override
+    public long getLong(int rowIndex, int columnIndex) {
+        return getDataAs(Long.class, rowIndex, columnIndex);
+    }
+
+    @Override
+    public float getFloat(int rowIndex, int columnIndex) {
+        return getDataAs(Float.class, rowIndex, columnIndex);
+    }
+
+    @Override
+    public double getDouble(int rowIndex, int columnIndex) {
+        return getDataAs(Double.class, rowIndex, columnIndex);
+    }
+
+    @Override
+    public boolean getBoolean(int rowIndex, int columnIndex) {
+        return getDataAs(Boolean.class, rowIndex, columnIndex);
+    }
+
+    @Override
+    public char getCharacter(int rowIndex, int columnIndex) {
+        return getDataAs(Character.class, rowIndex, columnIndex);
+    }
+
+    @Override
+    public String getString(int rowIndex, int columnIndex) {
+        return getDataAs(String.class, rowIndex, columnIndex);
+    }
+
+    /**
+     * @return the value at the given position, casted in the given type
+     * @param <T> the type in which the value should be casted
+     * @param type the class that represent the type Java
+     * @param rowIndex the row number, from 1 to n
+     * @param columnIndex the column index, from 1 to n
+     */
+    protected <T> T getDataAs(Class<T> type, int rowIndex, int columnIndex) {
+        final Object value = getData(rowIndex, columnIndex);
+        try {
+            return type.cast(value);
+
+        } catch (ClassCastException cce) {
+            final FieldType expectedType = getSchema().getField(columnIndex).getType();
+            final String error = String.format("Type conversion error for field no. %d (from '%s' to '%s')", columnIndex, expectedType.getClassName(), type.getName());
+            throw new IllegalArgumentException(error, cce);
+
+        }
+    }
+
+    @Override
+    public IntegerColumn integerColumn(String fieldName) {
+        final int columnIndex = columnIndexOf(fieldName, FieldType.INTEGER);
+        return new IntegerColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public int get(int rowIndex) {
+                return getInteger(rowIndex, columnIndex);
+            }
+
+            @Override
+            public void copyTo(int[] destination) {
+                final int size = requireLargeEnough(destination.length);
+                for (int index = 0; index < size; index++) {
+                    destination[index] = getInteger(index + 1, columnIndex);
+                }
+            }
+
+        };
+    }
+
+    @Override
+    public LongColumn longColumn(String fieldName) {
+        final int columnIndex = columnIndexOf(fieldName, FieldType.LONG);
+        return new LongColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public long get(int rowIndex) {
+                return getLong(rowIndex, columnIndex);
+            }
+
+            @Override
+            public void copyTo(long[] destination) {
+                final int size = requireLargeEnough(destination.length);
+                for (int index = 0; index < size; index++) {
+                    destination[index] = getLong(index + 1, columnIndex);
+                }
+            }
+
+        };
+    }
+
+    @Override
+    public FloatColumn floatColumn(String fieldName) {
+        final int columnIndex = columnIndexOf(fieldName, FieldType.FLOAT);
+        return new FloatColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public float get(int rowIndex) {
+                return getFloat(rowIndex, columnIndex);
+            }
+
+            @Override
+            public void copyTo(float[] destination) {
+                final int size = requireLargeEnough(destination.length);
+                for (int index = 0; index < size; index++) {
+                    destination[index] = getFloat(index + 1, columnIndex);
+                }
+            }
+
+        };
+    }
+
+    @Override
+    public DoubleColumn doubleColumn(String fieldName) {
+        final int columnIndex = columnIndexOf(fieldName, FieldType.DOUBLE);
+        return new DoubleColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public double get(int rowIndex) {
+                return getDouble(rowIndex, columnIndex);
+            }
+
+            @Override
+            public void copyTo(double[] destination) {
+                final int size = requireLargeEnough(destination.length);
+                for (int index = 0; index < size; index++) {
+                    destination[index] = getDouble(index + 1, columnIndex);
+                }
+            }
+
+        };
+    }
+
+    @Override
+    public BooleanColumn booleanColumn(String fieldName) {
+        final int columnIndex = columnIndexOf(fieldName, FieldType.BOOLEAN);
+        return new BooleanColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public boolean get(int rowIndex) {
+                return getBoolean(rowIndex, columnIndex);
+            }
+
+            @Override
+            public void copyTo(boolean[] destination) {
+                final int size = requireLargeEnough(destination.length);
+                for (int index = 0; index < size; index++) {
+                    destination[index] = getBoolean(index + 1, columnIndex);
+                }
+            }
+
+        };
+    }
+
+    @Override
+    public CharacterColumn characterColumn(String fieldName) {
+        final int columnIndex = columnIndexOf(fieldName, FieldType.CHARACTER);
+        return new CharacterColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public char get(int rowIndex) {
+                return getCharacter(rowIndex, columnIndex);
+            }
+
+            @Override
+            public void copyTo(char[] destination) {
+                final int size = requireLargeEnough(destination.length);
+                for (int index = 0; index < size; index++) {
+                    destination[index] = getCharacter(index + 1, columnIndex);
+                }
+            }
+
+        };
+    }
+
+    @Override
+    public StringColumn stringColumn(String fieldName) {
+        final int columnIndex = columnIndexOf(fieldName, FieldType.STRING);
+        return new StringColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public String get(int rowIndex) {
+                return getString(rowIndex, columnIndex);
+            }
+
+            @Override
+            public void copyTo(String[] destination) {
+                final int size = requireLargeEnough(destination.length);
+                for (int index = 0; index < size; index++) {
+                    destination[index] = getString(index + 1, columnIndex);
+                }
+            }
+
+        };
+    }
+
+    /**
+     * @return the index of the given field, provided it has the given type
+     * @param fieldName the name of the field of interest
+     * @param type the expected type of the field
+     * @throws IllegalArgumentException if the field does not exist or is not
+     * of the expected type
+     */
+    protected int columnIndexOf(String fieldName, FieldType type) throws IllegalArgumentException {
+        requireValidFieldName(fieldName);
+        final Field field = getSchema().getField(fieldName);
+        if (field.getType() != type) {
+            final String error = String.format("Field '%s' is of type '%s' (expecting type '%s')", fieldName, field.getType().name(), type.name());
+            throw new IllegalArgumentException(error);
+        }
+        return getSchema().getFieldIndex(fieldName);
+    }
+
+    /**
+     * @return the index of the given field, provided it is numeric (i.e.,
+     * INTEGER, LONG, FLOAT or DOUBLE)
+     */
+    protected int numericColumnIndexOf(String fieldName) throws IllegalArgumentException {
+        requireValidFieldName(fieldName);
+        final FieldType type = getSchema().getField(fieldName).getType();
+        if (type != FieldType.INTEGER && type != FieldType.LONG && type != FieldType.FLOAT && type != FieldType.DOUBLE) {
+            final String error = String.format("Field '%s' is of type '%s' (expecting a numeric type)", fieldName, type.name());
+            throw new IllegalArgumentException(error);
+        }
+        return getSchema().getFieldIndex(fieldName);
+    }
+
+    /**
+     * @return the number of rows in this table, provided it does not exceed
+     * the given capacity
+     * @param capacity the length of an array meant to hold a whole column
+     */
+    protected int requireLargeEnough(int capacity) throws IllegalArgumentException {
+        final int rowCount = getRowCount();
+        if (capacity < rowCount) {
+            final String error = String.format("Destination too small (%d rows, but only %d cells)", rowCount, capacity);
+            throw new IllegalArgumentException(error);
+        }
+        return rowCount;
+    }
+
+    /**
+     * Check the validity of the given field name
+     */
+    protected void requireValidFieldName(String fieldName) throws IllegalArgumentException {
+        if (!getSchema().hasFieldNamed(fieldName)) {
+            final String error = String.format("Unknown field name '%s' (fields are %s)", fieldName, getSchema().getFieldNames());
+            throw new IllegalArgumentException(error);
+        }
+    }
+
+    /**
+     * Check that the given criteria is defined
+     */
+    protected void requireValidCriteria(Expression criteria) throws IllegalArgumentException {
+        if (criteria == null) {
+            throw new IllegalArgumentException("Invalid criteria ('null' found)");
+        }
+    }
+
+    /**
+     * Check the validity of the given row index, w.r.t. the row count
+     */
+    protected void requireValidRowIndex(int rowIndex) throws IllegalArgumentException {
+        if (rowIndex <= 0 || rowIndex > getRowCount()) {
+            String error = String.format("Invalid row index '%d' (should be within [1, %d])", rowIndex, getRowCount());
+            if (getRowCount() == 0) {
+                error = "Invalid row index '%d' (empty table)";
+            }
+            throw new IllegalArgumentException(error);
+        }
+    }
+
+    /**
+     * Check the validity of the given column index, w.r.t. the row count
+     */
+    protected void requireValidColumnIndex(int columnIndex) throws IllegalArgumentException {
+        if (columnIndex <= 0 || columnIndex > getColumnCount()) {
+            String error = String.format("Invalid column index '%d' (should be within [1, %d])", columnIndex, getColumnCount());
+            if (getColumnCount() == 0) {
+                error = "Invalid column index '%d' (empty table)";
+            }
+            throw new IllegalArgumentException(error);
+        }
+    }
+
 }
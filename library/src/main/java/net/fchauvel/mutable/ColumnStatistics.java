@@ -0,0 +1,266 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+/**
+ * The count, sum, extrema, mean and variance of some numeric values.
+ *
+ * Values are accepted by blocks of primitive arrays. Each block is reduced in
+ * two tight loops (one for the sum and the extrema, one for the squared
+ * deviations from the block mean) and blocks are then combined pairwise, so
+ * that the variance remains accurate even for large values.
+ */
+public final class ColumnStatistics {
+
+    /**
+     * The number of values reduced at once, small enough for a block to stay
+     * in cache between its two passes
+     */
+    static final int BLOCK_SIZE = 4096;
+
+    private long count;
+    private double sum;
+    private double min;
+    private double max;
+    private double mean;
+    private double squaredDeviations;
+
+    /**
+     * Create statistics over no value
+     */
+    public ColumnStatistics() {
+        this.count = 0;
+        this.sum = 0;
+        this.min = Double.NaN;
+        this.max = Double.NaN;
+        this.mean = Double.NaN;
+        this.squaredDeviations = 0;
+    }
+
+    /**
+     * @return the number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of the values, 0 if there is none
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the smallest value, or NaN if there is none
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return the largest value, or NaN if there is none
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @return the arithmetic mean of the values, or NaN if there is none
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return the population variance of the values, or NaN if there is none
+     */
+    public double getVariance() {
+        return count == 0 ? Double.NaN : squaredDeviations / count;
+    }
+
+    /**
+     * @return the sample variance of the values (i.e., with Bessel's
+     * correction), or NaN if there are less than two values
+     */
+    public double getSampleVariance() {
+        return count < 2 ? Double.NaN : squaredDeviations / (count - 1);
+    }
+
+    /**
+     * Account for the values of the given array, from the first index
+     * (included) to the last one (excluded)
+     *
+     * @param values the values
+     * @param from the index of the first value
+     * @param to the index after the last value
+     */
+    public void accept(int[] values, int from, int to) {
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            final int end = Math.min(to, start + BLOCK_SIZE);
+            long blockSum = 0;
+            int blockMin = Integer.MAX_VALUE;
+            int blockMax = Integer.MIN_VALUE;
+            for (int index = start; index < end; index++) {
+                final int value = values[index];
+                blockSum += value;
+                blockMin = Math.min(blockMin, value);
+                blockMax = Math.max(blockMax, value);
+            }
+            final double blockMean = (double) blockSum / (end - start);
+            double blockDeviations = 0;
+            for (int index = start; index < end; index++) {
+                final double deviation = values[index] - blockMean;
+                blockDeviations += deviation * deviation;
+            }
+            combine(end - start, blockSum, blockMin, blockMax, blockDeviations);
+        }
+    }
+
+    /**
+     * Account for the values of the given array, from the first index
+     * (included) to the last one (excluded)
+     *
+     * @param values the values
+     * @param from the index of the first value
+     * @param to the index after the last value
+     */
+    public void accept(long[] values, int from, int to) {
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            final int end = Math.min(to, start + BLOCK_SIZE);
+            double blockSum = 0;
+            long blockMin = Long.MAX_VALUE;
+            long blockMax = Long.MIN_VALUE;
+            for (int index = start; index < end; index++) {
+                final long value = values[index];
+                blockSum += value;
+                blockMin = Math.min(blockMin, value);
+                blockMax = Math.max(blockMax, value);
+            }
+            final double blockMean = blockSum / (end - start);
+            double blockDeviations = 0;
+            for (int index = start; index < end; index++) {
+                final double deviation = values[index] - blockMean;
+                blockDeviations += deviation * deviation;
+            }
+            combine(end - start, blockSum, blockMin, blockMax, blockDeviations);
+        }
+    }
+
+    /**
+     * Account for the values of the given array, from the first index
+     * (included) to the last one (excluded)
+     *
+     * @param values the values
+     * @param from the index of the first value
+     * @param to the index after the last value
+     */
+    public void accept(float[] values, int from, int to) {
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            final int end = Math.min(to, start + BLOCK_SIZE);
+            double blockSum = 0;
+            float blockMin = Float.POSITIVE_INFINITY;
+            float blockMax = Float.NEGATIVE_INFINITY;
+            for (int index = start; index < end; index++) {
+                final float value = values[index];
+                blockSum += value;
+                blockMin = Math.min(blockMin, value);
+                blockMax = Math.max(blockMax, value);
+            }
+            final double blockMean = blockSum / (end - start);
+            double blockDeviations = 0;
+            for (int index = start; index < end; index++) {
+                final double deviation = values[index] - blockMean;
+                blockDeviations += deviation * deviation;
+            }
+            combine(end - start, blockSum, blockMin, blockMax, blockDeviations);
+        }
+    }
+
+    /**
+     * Account for the values of the given array, from the first index
+     * (included) to the last one (excluded)
+     *
+     * @param values the values
+     * @param from the index of the first value
+     * @param to the index after the last value
+     */
+    public void accept(double[] values, int from, int to) {
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            final int end = Math.min(to, start + BLOCK_SIZE);
+            double blockSum = 0;
+            double blockMin = Double.POSITIVE_INFINITY;
+            double blockMax = Double.NEGATIVE_INFINITY;
+            for (int index = start; index < end; index++) {
+                final double value = values[index];
+                blockSum += value;
+                blockMin = Math.min(blockMin, value);
+                blockMax = Math.max(blockMax, value);
+            }
+            final double blockMean = blockSum / (end - start);
+            double blockDeviations = 0;
+            for (int index = start; index < end; index++) {
+                final double deviation = values[index] - blockMean;
+                blockDeviations += deviation * deviation;
+            }
+            combine(end - start, blockSum, blockMin, blockMax, blockDeviations);
+        }
+    }
+
+    /**
+     * Account for the values summarized by the given statistics
+     *
+     * @param other the statistics of other values
+     */
+    public void combine(ColumnStatistics other) {
+        if (other.count > 0) {
+            combine(other.count, other.sum, other.min, other.max, other.squaredDeviations);
+        }
+    }
+
+    /**
+     * Merge in the statistics of a block of values, using the pairwise update
+     * of Chan et al. for the squared deviations
+     */
+    private void combine(long blockCount, double blockSum, double blockMin, double blockMax, double blockDeviations) {
+        assert blockCount > 0 : "Invalid block size " + blockCount;
+        final double blockMean = blockSum / blockCount;
+        if (count == 0) {
+            min = blockMin;
+            max = blockMax;
+            mean = blockMean;
+            squaredDeviations = blockDeviations;
+        } else {
+            final long total = count + blockCount;
+            final double delta = blockMean - mean;
+            squaredDeviations += blockDeviations + delta * delta * ((double) count * blockCount / total);
+            mean += delta * blockCount / total;
+            min = Math.min(min, blockMin);
+            max = Math.max(max, blockMax);
+        }
+        count += blockCount;
+        sum += blockSum;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, sum=%s, min=%s, max=%s, mean=%s, variance=%s", count, sum, min, max, mean, getVariance());
+    }
+
+}
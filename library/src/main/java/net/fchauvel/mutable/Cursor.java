@@ -58,83 +58,87 @@ public class Cursor implements Row {
 
     @Override
     public int getInteger(String fieldName) {
-        return getFieldAs(Integer.class, fieldName);
+        return getInteger(indexOf(fieldName));
     }
 
     @Override
     public int getInteger(int fieldIndex) {
-        return getFieldAs(Integer.class, fieldIndex);
+        requireValidIndex();
+        return source.getInteger(index, fieldIndex);
     }
 
     @Override
     public long getLong(String fieldName) {
-        return getFieldAs(Long.class, fieldName);
+        return getLong(indexOf(fieldName));
     }
 
     @Override
     public long getLong(int fieldIndex) {
-        return getFieldAs(Long.class, fieldIndex);
+        requireValidIndex();
+        return source.getLong(index, fieldIndex);
     }
 
     @Override
     public float getFloat(String fieldName) {
-        return getFieldAs(Float.class, fieldName);
+        return getFloat(indexOf(fieldName));
     }
 
     @Override
     public float getFloat(int fieldIndex) {
-        return getFieldAs(Float.class, fieldIndex);
+        requireValidIndex();
+        return source.getFloat(index, fieldIndex);
     }
 
     @Override
     public double getDouble(String fieldName) {
-        return getFieldAs(Double.class, fieldName);
+        return getDouble(indexOf(fieldName));
     }
 
     @Override
     public double getDouble(int fieldIndex) {
-        return getFieldAs(Double.class, fieldIndex);
+        requireValidIndex();
+        return source.getDouble(index, fieldIndex);
     }
 
     @Override
     public boolean getBoolean(String fieldName) {
-        return getFieldAs(Boolean.class, fieldName);
+        return getBoolean(indexOf(fieldName));
     }
 
     @Override
     public boolean getBoolean(int fieldIndex) {
-        return getFieldAs(Boolean.class, fieldIndex);
+        requireValidIndex();
+        return source.getBoolean(index, fieldIndex);
     }
 
-    /**
-     * @return the value of the selected field, casted in the given type
-     * @param <T> the type in which the value should be casted
-     * @param type the class that represent the type Java
-     * @param fieldIndex the index of the field of interest in [1, n]
-     */
-    private <T> T getFieldAs(Class<T> type, int fieldIndex) {
-        assert type != null : "Cannot cast an object to the 'null' type";
-
-        final Object value = getField(fieldIndex);
-        try {
-            return type.cast(value);
-            
-        } catch (ClassCastException cce) {
-            final FieldType expectedType = source.getSchema().getField(fieldIndex).getType();
-            final String error = String.format("Type conversion error for field no. %d (from '%s' to '%s')", fieldIndex, expectedType.getClassName(), type.getName());
-            throw new IllegalArgumentException(error, cce);
-        
-        }
+    @Override
+    public char getCharacter(String fieldName) {
+        return getCharacter(indexOf(fieldName));
+    }
+
+    @Override
+    public char getCharacter(int fieldIndex) {
+        requireValidIndex();
+        return source.getCharacter(index, fieldIndex);
+    }
+
+    @Override
+    public String getString(String fieldName) {
+        return getString(indexOf(fieldName));
+    }
+
+    @Override
+    public String getString(int fieldIndex) {
+        requireValidIndex();
+        return source.getString(index, fieldIndex);
     }
 
     /**
-     * @return the value of the selected field, casted in the given type
-     * @param <T> the type in which the value should be casted
-     * @param type the class that represent the type Java
+     * @return the index of the field whose name is given
      * @param fieldName the name of the field of interest
      */
-    private <T> T getFieldAs(Class<T> type, String fieldName) {
-        return getFieldAs(type, source.getSchema().getFieldIndex(fieldName));
+    private int indexOf(String fieldName) {
+        return source.getSchema().getFieldIndex(fieldName);
     }
 
     @Override
@@ -159,6 +163,19 @@ public class Cursor implements Row {
         this.index++;
     }
 
+    /**
+     * Move the cursor to the given row
+     *
+     * @param rowIndex the index of the row, from 1 to n
+     */
+    public void moveTo(int rowIndex) {
+        if (rowIndex <= 0 || rowIndex > source.getRowCount()) {
+            final String error = String.format("Invalid row index %d (should be within [1, %d])", rowIndex, source.getRowCount());
+            throw new IllegalArgumentException(error);
+        }
+        this.index = rowIndex;
+    }
+
     /**
      * @return true is there exists a previous row
      */
@@ -18,16 +18,45 @@
  */
 package net.fchauvel.mutable;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.lang.reflect.Array;
+import net.fchauvel.mutable.column.BooleanColumn;
+import net.fchauvel.mutable.column.BooleanStore;
+import net.fchauvel.mutable.column.CharacterColumn;
+import net.fchauvel.mutable.column.CharacterStore;
+import net.fchauvel.mutable.column.ColumnStore;
+import net.fchauvel.mutable.column.DeletionVector;
+import net.fchauvel.mutable.column.Dictionary;
+import net.fchauvel.mutable.column.DoubleColumn;
+import net.fchauvel.mutable.column.DoubleStore;
+import net.fchauvel.mutable.column.FloatColumn;
+import net.fchauvel.mutable.column.FloatStore;
+import net.fchauvel.mutable.column.IntegerColumn;
+import net.fchauvel.mutable.column.IntegerStore;
+import net.fchauvel.mutable.column.LongColumn;
+import net.fchauvel.mutable.column.LongStore;
+import net.fchauvel.mutable.column.StringColumn;
+import net.fchauvel.mutable.column.StringStore;
+import net.fchauvel.mutable.expression.Expression;
+import net.fchauvel.mutable.sketch.HyperLogLog;
+import net.fchauvel.mutable.sketch.QuantileSketch;
 
 /**
  * The table that contains data elements
  */
 public class DataTable extends AbstractTable {
 
+    /**
+     * The ratio of deleted rows beyond which the table is compacted
+     */
+    public static final double DEFAULT_COMPACTION_THRESHOLD = 0.25;
+
     private final Schema schema;
-    private final List<List<Object>> data;
+    private final ColumnStore[] columns;
+    private final DeletionVector deletions;
+    private double compactionThreshold;
+    private long modificationCount;
+    private QueryCache queryCache;
+    private final MaintainedSketches sketches;
 
     /**
      * Build a new table, where fields are initialized according the given data
@@ -37,10 +66,15 @@ public class DataTable extends AbstractTable {
      */
     public DataTable(Schema schema) {
         this.schema = schema;
-        this.data = new ArrayList<>(schema.getFields().size());
-        for (Field eachField : schema.getFields()) {
-            this.data.add(new ArrayList<>());
+        this.columns = new ColumnStore[schema.getFieldCount()];
+        for (int index = 0; index < columns.length; index++) {
+            this.columns[index] = ColumnStore.of(schema.getField(index + 1).getType());
         }
+        this.deletions = new DeletionVector();
+        this.compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+        this.modificationCount = 0;
+        this.queryCache = null;
+        this.sketches = new MaintainedSketches(this);
     }
 
     /**
@@ -61,7 +95,7 @@ public class DataTable extends AbstractTable {
         requireValidColumnIndex(columnIndex);
         requireValidRowIndex(rowIndex);
 
-        return this.data.get(columnIndex - 1).get(rowIndex - 1);
+        return this.columns[columnIndex - 1].get(positionOf(rowIndex));
     }
 
     /**
@@ -87,40 +121,414 @@ public class DataTable extends AbstractTable {
         return new Cursor(this, rowIndex);
     }
 
+    @Override
+    public int getInteger(int rowIndex, int columnIndex) {
+        final IntegerStore store = (IntegerStore) storeOf(columnIndex, FieldType.INTEGER);
+        requireValidRowIndex(rowIndex);
+
+        return store.getInteger(positionOf(rowIndex));
+    }
+
+    @Override
+    public long getLong(int rowIndex, int columnIndex) {
+        final LongStore store = (LongStore) storeOf(columnIndex, FieldType.LONG);
+        requireValidRowIndex(rowIndex);
+
+        return store.getLong(positionOf(rowIndex));
+    }
+
+    @Override
+    public float getFloat(int rowIndex, int columnIndex) {
+        final FloatStore store = (FloatStore) storeOf(columnIndex, FieldType.FLOAT);
+        requireValidRowIndex(rowIndex);
+
+        return store.getFloat(positionOf(rowIndex));
+    }
+
+    @Override
+    public double getDouble(int rowIndex, int columnIndex) {
+        final DoubleStore store = (DoubleStore) storeOf(columnIndex, FieldType.DOUBLE);
+        requireValidRowIndex(rowIndex);
+
+        return store.getDouble(positionOf(rowIndex));
+    }
+
+    @Override
+    public boolean getBoolean(int rowIndex, int columnIndex) {
+        final BooleanStore store = (BooleanStore) storeOf(columnIndex, FieldType.BOOLEAN);
+        requireValidRowIndex(rowIndex);
+
+        return store.getBoolean(positionOf(rowIndex));
+    }
+
+    @Override
+    public char getCharacter(int rowIndex, int columnIndex) {
+        final CharacterStore store = (CharacterStore) storeOf(columnIndex, FieldType.CHARACTER);
+        requireValidRowIndex(rowIndex);
+
+        return store.getCharacter(positionOf(rowIndex));
+    }
+
+    @Override
+    public String getString(int rowIndex, int columnIndex) {
+        final StringStore store = (StringStore) storeOf(columnIndex, FieldType.STRING);
+        requireValidRowIndex(rowIndex);
+
+        return store.getString(positionOf(rowIndex));
+    }
+
     /**
-     * Check the validity of the given field name
+     * @return the store of the given column, provided it holds values of the
+     * given type
+     * @param columnIndex the column index, from 1 to n
+     * @param type the expected type of the values
      */
-    private void requireValidFieldName(String fieldName) throws IllegalArgumentException {
-        if (!schema.hasFieldNamed(fieldName)) {
-            final String error = String.format("Unknown field name '%s' (fields are %s)", fieldName, schema.getFieldNames());
+    private ColumnStore storeOf(int columnIndex, FieldType type) throws IllegalArgumentException {
+        requireValidColumnIndex(columnIndex);
+        final ColumnStore store = columns[columnIndex - 1];
+        if (store.getType() != type) {
+            final String error = String.format("Type conversion error for field no. %d (from '%s' to '%s')", columnIndex, store.getType().getClassName(), type.getClassName());
             throw new IllegalArgumentException(error);
         }
+        return store;
     }
 
     /**
-     * Check the validity of the given row index, w.r.t. the row count
+     * Reduce the column store directly, chunk by chunk, skipping the runs of
+     * deleted positions if any
      */
-    private void requireValidRowIndex(int rowIndex) throws IllegalArgumentException {
-        if (rowIndex <= 0 || rowIndex > getRowCount()) {
-            String error = String.format("Invalid row index '%d' (should be within [1, %d])", rowIndex, getRowCount());
-            if (getRowCount() == 0) {
-                error = "Invalid row index '%d' (empty table)";
+    @Override
+    public ColumnStatistics statisticsOf(String fieldName) {
+        final ColumnStore store = columns[numericColumnIndexOf(fieldName) - 1];
+        final ColumnStatistics statistics = new ColumnStatistics();
+        forEachLiveRange((from, to, firstRow) -> store.summarize(from, to, statistics));
+        return statistics;
+    }
+
+    /**
+     * The column views below read the stores directly, and copy whole runs of
+     * live positions at once
+     */
+    @Override
+    public IntegerColumn integerColumn(String fieldName) {
+        final IntegerStore store = (IntegerStore) columns[columnIndexOf(fieldName, FieldType.INTEGER) - 1];
+        return new IntegerColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
             }
-            throw new IllegalArgumentException(error);
-        }
+
+            @Override
+            public int get(int rowIndex) {
+                requireValidRowIndex(rowIndex);
+                return store.getInteger(positionOf(rowIndex));
+            }
+
+            @Override
+            public void copyTo(int[] destination) {
+                requireLargeEnough(destination.length);
+                forEachLiveRange((from, to, firstRow) -> store.copyTo(from, to, destination, firstRow));
+            }
+
+        };
+    }
+
+    @Override
+    public LongColumn longColumn(String fieldName) {
+        final LongStore store = (LongStore) columns[columnIndexOf(fieldName, FieldType.LONG) - 1];
+        return new LongColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public long get(int rowIndex) {
+                requireValidRowIndex(rowIndex);
+                return store.getLong(positionOf(rowIndex));
+            }
+
+            @Override
+            public void copyTo(long[] destination) {
+                requireLargeEnough(destination.length);
+                forEachLiveRange((from, to, firstRow) -> store.copyTo(from, to, destination, firstRow));
+            }
+
+        };
+    }
+
+    @Override
+    public FloatColumn floatColumn(String fieldName) {
+        final FloatStore store = (FloatStore) columns[columnIndexOf(fieldName, FieldType.FLOAT) - 1];
+        return new FloatColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public float get(int rowIndex) {
+                requireValidRowIndex(rowIndex);
+                return store.getFloat(positionOf(rowIndex));
+            }
+
+            @Override
+            public void copyTo(float[] destination) {
+                requireLargeEnough(destination.length);
+                forEachLiveRange((from, to, firstRow) -> store.copyTo(from, to, destination, firstRow));
+            }
+
+        };
+    }
+
+    @Override
+    public DoubleColumn doubleColumn(String fieldName) {
+        final DoubleStore store = (DoubleStore) columns[columnIndexOf(fieldName, FieldType.DOUBLE) - 1];
+        return new DoubleColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public double get(int rowIndex) {
+                requireValidRowIndex(rowIndex);
+                return store.getDouble(positionOf(rowIndex));
+            }
+
+            @Override
+            public void copyTo(double[] destination) {
+                requireLargeEnough(destination.length);
+                forEachLiveRange((from, to, firstRow) -> store.copyTo(from, to, destination, firstRow));
+            }
+
+        };
+    }
+
+    @Override
+    public BooleanColumn booleanColumn(String fieldName) {
+        final BooleanStore store = (BooleanStore) columns[columnIndexOf(fieldName, FieldType.BOOLEAN) - 1];
+        return new BooleanColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public boolean get(int rowIndex) {
+                requireValidRowIndex(rowIndex);
+                return store.getBoolean(positionOf(rowIndex));
+            }
+
+            @Override
+            public void copyTo(boolean[] destination) {
+                requireLargeEnough(destination.length);
+                forEachLiveRange((from, to, firstRow) -> store.copyTo(from, to, destination, firstRow));
+            }
+
+        };
+    }
+
+    @Override
+    public CharacterColumn characterColumn(String fieldName) {
+        final CharacterStore store = (CharacterStore) columns[columnIndexOf(fieldName, FieldType.CHARACTER) - 1];
+        return new CharacterColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public char get(int rowIndex) {
+                requireValidRowIndex(rowIndex);
+                return store.getCharacter(positionOf(rowIndex));
+            }
+
+            @Override
+            public void copyTo(char[] destination) {
+                requireLargeEnough(destination.length);
+                forEachLiveRange((from, to, firstRow) -> store.copyTo(from, to, destination, firstRow));
+            }
+
+        };
+    }
+
+    @Override
+    public StringColumn stringColumn(String fieldName) {
+        final StringStore store = (StringStore) columns[columnIndexOf(fieldName, FieldType.STRING) - 1];
+        return new StringColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public String get(int rowIndex) {
+                requireValidRowIndex(rowIndex);
+                return store.getString(positionOf(rowIndex));
+            }
+
+            @Override
+            public void copyTo(String[] destination) {
+                requireLargeEnough(destination.length);
+                forEachLiveRange((from, to, firstRow) -> store.copyTo(from, to, destination, firstRow));
+            }
+
+        };
     }
 
     /**
-     * Check the validity of the given column index, w.r.t. the row count
+     * Visit, in order, the runs of consecutive positions in the column stores
+     * that hold live rows, skipping the rows that are deleted but not
+     * compacted yet
      */
-    private void requireValidColumnIndex(int columnIndex) throws IllegalArgumentException {
-        if (columnIndex <= 0 || columnIndex > getColumnCount()) {
-            String error = String.format("Invalid column index '%d' (should be within [1, %d])", columnIndex, getColumnCount());
-            if (getColumnCount() == 0) {
-                error = "Invalid column index '%d' (empty table)";
+    private void forEachLiveRange(LiveRange action) {
+        final int size = columns[0].size();
+        int start = 0;
+        int firstRow = 0;
+        if (!deletions.isEmpty()) {
+            for (int position = 0; position < size; position++) {
+                if (deletions.isDeleted(position)) {
+                    if (start < position) {
+                        action.accept(start, position, firstRow);
+                        firstRow += position - start;
+                    }
+                    start = position + 1;
+                }
             }
-            throw new IllegalArgumentException(error);
         }
+        if (start < size) {
+            action.accept(start, size, firstRow);
+        }
+    }
+
+    /**
+     * A run [from, to[ of live positions in the column stores, whose first
+     * position holds the given row (counted from 0)
+     */
+    private interface LiveRange {
+
+        void accept(int from, int to, int firstRow);
+
+    }
+
+    /**
+     * Keep a distinct count sketch of the given field up to date, as rows are
+     * appended, so that distinctCountSketch no longer scans the table
+     *
+     * @param fieldName the name of the field
+     */
+    public void maintainDistinctCount(String fieldName) {
+        requireValidFieldName(fieldName);
+        sketches.maintainDistinctCount(schema.getFieldIndex(fieldName));
+    }
+
+    /**
+     * Keep a quantile sketch of the given numeric field up to date, as rows
+     * are appended, so that quantileSketch no longer scans the table
+     *
+     * @param fieldName the name of the numeric field
+     */
+    public void maintainQuantiles(String fieldName) {
+        sketches.maintainQuantiles(numericColumnIndexOf(fieldName));
+    }
+
+    @Override
+    public HyperLogLog distinctCountSketch(String fieldName) {
+        requireValidFieldName(fieldName);
+        final HyperLogLog maintained = sketches.distinctCountOf(schema.getFieldIndex(fieldName));
+        return maintained != null ? maintained : super.distinctCountSketch(fieldName);
+    }
+
+    @Override
+    public QuantileSketch quantileSketch(String fieldName) {
+        final QuantileSketch maintained = sketches.quantilesOf(numericColumnIndexOf(fieldName));
+        return maintained != null ? maintained : super.quantileSketch(fieldName);
+    }
+
+    /**
+     * @return true if the values of the given column are stored as codes in
+     * a dictionary
+     * @param columnIndex the column index, from 1 to n
+     */
+    public boolean isDictionaryEncoded(int columnIndex) {
+        requireValidColumnIndex(columnIndex);
+
+        final ColumnStore column = columns[columnIndex - 1];
+        return column instanceof StringStore && ((StringStore) column).isDictionaryEncoded();
+    }
+
+    /**
+     * @return the dictionary code of the value at the given position, or
+     * Dictionary.UNKNOWN if the column is not dictionary-encoded
+     * @param rowIndex the row number, from 1 to n
+     * @param columnIndex the column index, from 1 to n
+     */
+    public int getCode(int rowIndex, int columnIndex) {
+        requireValidRowIndex(rowIndex);
+        if (!isDictionaryEncoded(columnIndex)) {
+            return Dictionary.UNKNOWN;
+        }
+        return ((StringStore) columns[columnIndex - 1]).getCode(positionOf(rowIndex));
+    }
+
+    /**
+     * @return the dictionary code of the given value in the given column, or
+     * Dictionary.UNKNOWN if the value is not in the dictionary or if the
+     * column is not dictionary-encoded
+     * @param columnIndex the column index, from 1 to n
+     * @param value the value whose code is needed
+     */
+    public int codeOf(int columnIndex, String value) {
+        if (!isDictionaryEncoded(columnIndex)) {
+            return Dictionary.UNKNOWN;
+        }
+        return ((StringStore) columns[columnIndex - 1]).getDictionary().codeOf(value);
+    }
+
+    /**
+     * @return the dictionary of the given column, or null if the column is
+     * not dictionary-encoded. The dictionary is replaced when removed rows
+     * leave some of its values unused, so codes only hold against the
+     * dictionary they come from.
+     * @param columnIndex the column index, from 1 to n
+     */
+    public Dictionary getDictionary(int columnIndex) {
+        if (!isDictionaryEncoded(columnIndex)) {
+            return null;
+        }
+        return ((StringStore) columns[columnIndex - 1]).getDictionary();
+    }
+
+    /**
+     * @return the number of distinct values in the dictionary of the given
+     * column, or 0 if the column is not dictionary-encoded
+     * @param columnIndex the column index, from 1 to n
+     */
+    public int getDictionarySize(int columnIndex) {
+        if (!isDictionaryEncoded(columnIndex)) {
+            return 0;
+        }
+        return ((StringStore) columns[columnIndex - 1]).getDictionary().size();
+    }
+
+    /**
+     * @return the position in the column stores of the given row, skipping
+     * the rows that are deleted but not compacted yet
+     * @param rowIndex the index of the row, from 1 to n
+     */
+    private int positionOf(int rowIndex) {
+        if (deletions.isEmpty()) {
+            return rowIndex - 1;
+        }
+        return deletions.select(rowIndex - 1);
     }
 
     /**
@@ -131,13 +539,17 @@ public class DataTable extends AbstractTable {
      * the table schema
      */
     public final void appendRows(Object[][] rows) throws IllegalArgumentException {
-        final int firstNewRowIndex = getRowCount();
+        final int firstNewPosition = columns[0].size();
         for (int rowIndex = 0; rowIndex < rows.length; rowIndex++) {
             try {
                 appendRow(rows[rowIndex]);
 
             } catch (IllegalArgumentException iae) {
-                removeRows(firstNewRowIndex, firstNewRowIndex + rowIndex);
+                for (ColumnStore eachColumn : columns) {
+                    eachColumn.truncate(firstNewPosition);
+                }
+                modificationCount += rowIndex;
+                sketches.invalidate();
 
                 final String error = String.format("Invalid row #%d.", rowIndex);
                 throw new IllegalArgumentException(error, iae);
@@ -145,6 +557,67 @@ public class DataTable extends AbstractTable {
         }
     }
 
+    /**
+     * Append several rows at the end of this table, given column by column.
+     * Each column is an array of primitive values whose type matches the
+     * corresponding field (e.g., int[] for INTEGER, boolean[] for BOOLEAN or
+     * String[] for STRING). Columns are validated once for the whole batch,
+     * and their values are appended without boxing.
+     *
+     * @param columns one array of values per field, all of the same length
+     * @throws IllegalArgumentException when the columns do not match the table
+     * schema, in which case the table is left unchanged
+     */
+    public void appendColumns(Object... columns) throws IllegalArgumentException {
+        requireValidColumns(columns);
+
+        final int firstNewRow = getRowCount() + 1;
+        for (int columnIndex = 0; columnIndex < columns.length; columnIndex++) {
+            this.columns[columnIndex].appendArray(columns[columnIndex]);
+        }
+        modificationCount += Array.getLength(columns[0]);
+        if (!sketches.isEmpty()) {
+            sketches.accountFor(firstNewRow, getRowCount());
+        }
+    }
+
+    private void requireValidColumns(Object[] newColumns) throws IllegalArgumentException {
+        if (newColumns == null) {
+            throw new IllegalArgumentException("Illegal columns ('null' found)");
+        }
+        if (newColumns.length != columns.length) {
+            final String error = String.format("Invalid column count (expected %d columns but %d were found)", columns.length, newColumns.length);
+            throw new IllegalArgumentException(error);
+        }
+        int length = -1;
+        for (int columnIndex = 0; columnIndex < newColumns.length; columnIndex++) {
+            final Object eachColumn = newColumns[columnIndex];
+            if (!columns[columnIndex].acceptsArray(eachColumn)) {
+                final String actualType = eachColumn == null ? "null" : eachColumn.getClass().getSimpleName();
+                final String error = String.format("Unexpected array '%s' in column %d (expecting values of type '%s')", actualType, columnIndex, columns[columnIndex].getType().name());
+                throw new IllegalArgumentException(error);
+            }
+            final int eachLength = Array.getLength(eachColumn);
+            if (length >= 0 && eachLength != length) {
+                final String error = String.format("Columns of different lengths (column 0 has %d values but column %d has %d)", length, columnIndex, eachLength);
+                throw new IllegalArgumentException(error);
+            }
+            length = eachLength;
+            if (eachColumn instanceof Object[]) {
+                requireNoNullValue((Object[]) eachColumn, columnIndex);
+            }
+        }
+    }
+
+    private void requireNoNullValue(Object[] column, int columnIndex) throws IllegalArgumentException {
+        for (int rowIndex = 0; rowIndex < column.length; rowIndex++) {
+            if (column[rowIndex] == null) {
+                final String error = String.format("Illegal value 'null' in column %d (row #%d)", columnIndex, rowIndex);
+                throw new IllegalArgumentException(error);
+            }
+        }
+    }
+
     /**
      * Remove a range of row. Both bounds of the range are included.
      *
@@ -153,8 +626,79 @@ public class DataTable extends AbstractTable {
      */
     public void removeRows(final int startIndex, int endIndex) {
         for (int i = endIndex; i >= startIndex; i--) {
-            removeRow(i);
+            delete(i);
         }
+        compactIfNeeded();
+    }
+
+    /**
+     * Select the rows where the given criteria holds. When the query cache is
+     * enabled, a query issued again before the table is modified is answered
+     * without scanning the table, provided the first result set was fully
+     * fetched.
+     *
+     * @param criteria the predicate that must be satisfied
+     * @return a result set, potentially empty, containing the results
+     */
+    @Override
+    public ResultSet where(Expression criteria) {
+        if (queryCache == null) {
+            return super.where(criteria);
+        }
+        requireValidCriteria(criteria);
+        return queryCache.resultOf(this, criteria);
+    }
+
+    /**
+     * Look for the first matching row only, bypassing the query cache
+     */
+    @Override
+    public boolean exists(Expression criteria) {
+        requireValidCriteria(criteria);
+        return !super.where(criteria).isEmpty();
+    }
+
+    /**
+     * Cache the results of the queries run against this table
+     *
+     * @param byteBudget the maximum number of bytes used by cached results
+     */
+    public void enableQueryCache(long byteBudget) {
+        this.queryCache = new QueryCache(byteBudget);
+    }
+
+    /**
+     * Stop caching the results of queries, and drop the cached ones
+     */
+    public void disableQueryCache() {
+        this.queryCache = null;
+    }
+
+    /**
+     * @return the cache of query results, or null if it is not enabled
+     */
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * @return a result set that follows this table as rows are appended, and
+     * only evaluates the criteria on new rows
+     * @param criteria the predicate that must be satisfied
+     */
+    public LiveResultSet liveWhere(Expression criteria) {
+        requireValidCriteria(criteria);
+        return new LiveResultSet(this, criteria);
+    }
+
+    /**
+     * @return the number of rows appended to or removed from this table since
+     * its creation. Each appended row and each removed row count once, so
+     * that, between two calls, the count grows exactly as much as the row
+     * count does if and only if no row was removed.
+     */
+    public long getModificationCount() {
+        return modificationCount;
     }
 
     /**
@@ -162,7 +706,7 @@ public class DataTable extends AbstractTable {
      */
     @Override
     public int getColumnCount() {
-        return this.data.size();
+        return this.columns.length;
     }
 
     /**
@@ -170,7 +714,7 @@ public class DataTable extends AbstractTable {
      */
     @Override
     public int getRowCount() {
-        return this.data.get(0).size();
+        return this.columns[0].size() - deletions.count();
     }
 
     /**
@@ -181,20 +725,22 @@ public class DataTable extends AbstractTable {
     public void appendRow(Object[] row) {
         rejectInvalidRow(row);
 
-        final int newRowIndex = getRowCount();
-        for (int columnIndex = 0; columnIndex < row.length; columnIndex++) {
-            final Object cell = row[columnIndex];
-            final FieldType actualType = FieldType.of(cell);
-            final FieldType expectedType = schema.getField(columnIndex + 1).getType();
+        for (int columnIndex = 0; columnIndex < columns.length; columnIndex++) {
+            final FieldType actualType = FieldType.of(row[columnIndex]);
+            final FieldType expectedType = columns[columnIndex].getType();
             if (actualType != expectedType) {
-                removeRow(newRowIndex);
                 final String error = String.format("Unexpected type '%s' in column %d (expecting type '%s')", expectedType.name(), columnIndex, actualType.name());
                 throw new IllegalArgumentException(error);
-
-            } else {
-                this.data.get(columnIndex).add(row[columnIndex]);
             }
         }
+
+        for (int columnIndex = 0; columnIndex < columns.length; columnIndex++) {
+            this.columns[columnIndex].append(row[columnIndex]);
+        }
+        modificationCount++;
+        if (!sketches.isEmpty()) {
+            sketches.accountFor(getRowCount(), getRowCount());
+        }
     }
 
     private void rejectInvalidRow(Object[] row) throws IllegalArgumentException {
@@ -205,22 +751,85 @@ public class DataTable extends AbstractTable {
             final String error = String.format("Missing values (expected %d values but only %d were found)", schema.getFields().size(), row.length);
             throw new IllegalArgumentException(error);
         }
+        if (row.length > schema.getFields().size()) {
+            final String error = String.format("Too many values (expected %d values but %d were found)", schema.getFields().size(), row.length);
+            throw new IllegalArgumentException(error);
+        }
     }
 
     /**
-     * Remove a single row, whose index is given
+     * Remove a single row, whose index is given. The row is only marked as
+     * deleted, and the table is compacted once the ratio of deleted rows
+     * exceeds the compaction threshold.
      *
      * @param rowIndex the index of the row to remove
      */
     public void removeRow(final int rowIndex) {
+        delete(rowIndex);
+        compactIfNeeded();
+    }
+
+    /**
+     * Mark the given row as deleted, if it exists
+     */
+    private void delete(final int rowIndex) {
         assert rowIndex >= 0 : "Invalid row index, expected positive value (found '" + rowIndex + "')";
 
-        for (List<Object> eachColumn : this.data) {
-            if (eachColumn.size() > rowIndex) {
-                eachColumn.remove(rowIndex);
+        if (rowIndex < getRowCount()) {
+            if (deletions.delete(positionOf(rowIndex + 1))) {
+                modificationCount++;
+                sketches.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Physically remove the rows that have been deleted, in a single pass
+     * over each column
+     */
+    public void compact() {
+        if (!deletions.isEmpty()) {
+            for (ColumnStore eachColumn : columns) {
+                eachColumn.compact(deletions);
             }
+            deletions.clear();
         }
     }
 
+    private void compactIfNeeded() {
+        if (deletions.count() > compactionThreshold * columns[0].size()) {
+            compact();
+        }
+    }
+
+    /**
+     * @return the number of rows that are deleted but not compacted yet
+     */
+    public int getDeletedRowCount() {
+        return deletions.count();
+    }
+
+    /**
+     * @return the ratio of deleted rows beyond which the table is compacted
+     */
+    public double getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    /**
+     * Set the ratio of deleted rows beyond which the table is compacted. A
+     * threshold of 0 compacts the table on every removal, whereas a threshold
+     * of 1 only compacts on demand.
+     *
+     * @param threshold the ratio of deleted rows, within [0, 1]
+     */
+    public void setCompactionThreshold(double threshold) {
+        if (threshold < 0 || threshold > 1) {
+            final String error = String.format("Invalid compaction threshold %f (should be within [0, 1])", threshold);
+            throw new IllegalArgumentException(error);
+        }
+        this.compactionThreshold = threshold;
+        compactIfNeeded();
+    }
 
 }
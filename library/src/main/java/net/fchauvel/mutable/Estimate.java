@@ -0,0 +1,128 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+/**
+ * An approximate answer, computed on a sample, with its standard error. The
+ * confidence intervals assume that the estimator is normally distributed,
+ * which holds for large enough samples.
+ */
+public final class Estimate {
+
+    /**
+     * The confidence level of the default intervals
+     */
+    public static final double DEFAULT_CONFIDENCE = 0.95;
+
+    private final double value;
+    private final double standardError;
+
+    /**
+     * @param value the estimated value
+     * @param standardError the standard error of the estimate
+     */
+    public Estimate(double value, double standardError) {
+        if (standardError < 0) {
+            throw new IllegalArgumentException("Invalid standard error " + standardError + " (should be positive)");
+        }
+        this.value = value;
+        this.standardError = standardError;
+    }
+
+    /**
+     * @return the estimated value
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * @return the standard error of the estimate
+     */
+    public double getStandardError() {
+        return standardError;
+    }
+
+    /**
+     * @return the lower bound of the 95% confidence interval
+     */
+    public double getLowerBound() {
+        return getLowerBound(DEFAULT_CONFIDENCE);
+    }
+
+    /**
+     * @return the upper bound of the 95% confidence interval
+     */
+    public double getUpperBound() {
+        return getUpperBound(DEFAULT_CONFIDENCE);
+    }
+
+    /**
+     * @return the lower bound of the confidence interval at the given level
+     * @param confidence the confidence level, within ]0, 1[
+     */
+    public double getLowerBound(double confidence) {
+        return value - marginOf(confidence);
+    }
+
+    /**
+     * @return the upper bound of the confidence interval at the given level
+     * @param confidence the confidence level, within ]0, 1[
+     */
+    public double getUpperBound(double confidence) {
+        return value + marginOf(confidence);
+    }
+
+    private double marginOf(double confidence) {
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("Invalid confidence " + confidence + " (should be within ]0, 1[)");
+        }
+        return normalQuantile(0.5 + confidence / 2) * standardError;
+    }
+
+    /**
+     * @return the quantile of the standard normal distribution at the given
+     * probability, using the rational approximation of P. J. Acklam (whose
+     * relative error is below 1.2e-9)
+     */
+    static double normalQuantile(double probability) {
+        assert probability > 0 && probability < 1 : "Invalid probability " + probability;
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02, 1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02, 6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00, -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00};
+        final double low = 0.02425;
+        if (probability < low) {
+            final double q = Math.sqrt(-2 * Math.log(probability));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (probability > 1 - low) {
+            return -normalQuantile(1 - probability);
+        }
+        final double q = probability - 0.5;
+        final double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%s, %s]", value, getLowerBound(), getUpperBound());
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+/**
+ * A field of a schema, whose position is resolved once for all, so that
+ * rows can be accessed by index rather than by name.
+ */
+public final class FieldHandle {
+
+    private final Field field;
+    private final int index;
+
+    FieldHandle(Field field, int index) {
+        assert field != null : "Invalid field handle ('null' field)";
+        assert index > 0 : "Invalid field handle index " + index;
+
+        this.field = field;
+        this.index = index;
+    }
+
+    /**
+     * @return the name of the field
+     */
+    public String getName() {
+        return field.getName();
+    }
+
+    /**
+     * @return the type of the field
+     */
+    public FieldType getType() {
+        return field.getType();
+    }
+
+    /**
+     * @return the index of the field in its schema, from 1 to n
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the value of this field in the given row
+     * @param row the row of interest
+     */
+    public Object get(Row row) {
+        return row.getField(index);
+    }
+
+    /**
+     * @return the value of this field in the given row, as an int
+     * @param row the row of interest
+     */
+    public int getInteger(Row row) {
+        return row.getInteger(index);
+    }
+
+    /**
+     * @return the value of this field in the given row, as a long
+     * @param row the row of interest
+     */
+    public long getLong(Row row) {
+        return row.getLong(index);
+    }
+
+    /**
+     * @return the value of this field in the given row, as a float
+     * @param row the row of interest
+     */
+    public float getFloat(Row row) {
+        return row.getFloat(index);
+    }
+
+    /**
+     * @return the value of this field in the given row, as a double
+     * @param row the row of interest
+     */
+    public double getDouble(Row row) {
+        return row.getDouble(index);
+    }
+
+    /**
+     * @return the value of this field in the given row, as a boolean
+     * @param row the row of interest
+     */
+    public boolean getBoolean(Row row) {
+        return row.getBoolean(index);
+    }
+
+    /**
+     * @return the value of this field in the given row, as a char
+     * @param row the row of interest
+     */
+    public char getCharacter(Row row) {
+        return row.getCharacter(index);
+    }
+
+    /**
+     * @return the value of this field in the given row, as a string
+     * @param row the row of interest
+     */
+    public String getString(Row row) {
+        return row.getString(index);
+    }
+
+    @Override
+    public String toString() {
+        return field.getName() + "@" + index;
+    }
+
+}
@@ -21,23 +21,25 @@ package net.fchauvel.mutable;
 
 
 public enum FieldType {
-    STRING(String.class.getName()),
-    INTEGER(Integer.class.getName()),
-    LONG(Long.class.getName()),
-    FLOAT(Float.class.getName()),
-    DOUBLE(Double.class.getName()),
-    BOOLEAN(Boolean.class.getName()),
-    CHARACTER(Character.class.getName())
+    STRING(String.class),
+    INTEGER(Integer.class),
+    LONG(Long.class),
+    FLOAT(Float.class),
+    DOUBLE(Double.class),
+    BOOLEAN(Boolean.class),
+    CHARACTER(Character.class)
     ;
     
-    private final String className;
+    private static final FieldType[] ALL_TYPES = values();
     
-    private FieldType(String className) {
-        this.className = className;
+    private final Class<?> javaClass;
+    
+    private FieldType(Class<?> javaClass) {
+        this.javaClass = javaClass;
     }
     
     public String getClassName() {
-        return this.className;
+        return this.javaClass.getName();
     }
     
     public static FieldType of(Object object) {
@@ -45,12 +47,13 @@ public enum FieldType {
             throw new IllegalArgumentException("Unsupported column type 'null'");
         }
         
-        for(FieldType eachType: values()) {
-            if (eachType.className.equals(object.getClass().getName())) {
+        final Class<?> objectClass = object.getClass();
+        for(FieldType eachType: ALL_TYPES) {
+            if (eachType.javaClass == objectClass) {
                 return eachType;
             }
         }
-        throw new IllegalArgumentException("Unsupported column type '" + object.getClass().getName() + "'");
+        throw new IllegalArgumentException("Unsupported column type '" + objectClass.getName() + "'");
     }
     
 }
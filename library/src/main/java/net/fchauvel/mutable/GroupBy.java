@@ -0,0 +1,291 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import net.fchauvel.mutable.aggregation.Accumulator;
+import net.fchauvel.mutable.aggregation.Aggregate;
+import net.fchauvel.mutable.expression.True;
+
+/**
+ * The rows of a table, grouped by the values of some key fields, on which
+ * aggregates are computed, as in:
+ *
+ * table.groupBy("region").aggregate(count(), sum("amount"))
+ *
+ * Groups are found by hashing, and aggregates are accumulated in primitive
+ * arrays indexed by group. The resulting table holds one row per group, in
+ * the order of the first row of each group, with the key fields followed by
+ * one field per aggregate.
+ *
+ * Groups also serve to eliminate duplicates: distinct() keeps the key values
+ * only, and first() the first row of each group, as in:
+ *
+ * table.groupBy("id", "timestamp").inParallel().first()
+ */
+public class GroupBy {
+
+    private final Table source;
+    private final int[] keyColumns;
+    private ForkJoinPool pool;
+    private int chunkSize;
+
+    GroupBy(Table source, String... fieldNames) {
+        if (fieldNames == null) {
+            throw new IllegalArgumentException("Invalid group keys ('null' found)");
+        }
+        this.source = source;
+        this.keyColumns = new int[fieldNames.length];
+        for (int index = 0; index < fieldNames.length; index++) {
+            if (fieldNames[index] == null || !source.getSchema().hasFieldNamed(fieldNames[index])) {
+                final String error = String.format("Unknown field name '%s' (fields are %s)", fieldNames[index], source.getSchema().getFieldNames());
+                throw new IllegalArgumentException(error);
+            }
+            keyColumns[index] = source.getSchema().getFieldIndex(fieldNames[index]);
+        }
+        this.pool = null;
+        this.chunkSize = ResultSet.DEFAULT_CHUNK_SIZE;
+    }
+
+    /**
+     * Aggregate in parallel on the common fork-join pool, using chunks of the
+     * default size
+     *
+     * @return this group-by
+     */
+    public GroupBy inParallel() {
+        return inParallel(ForkJoinPool.commonPool(), ResultSet.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Aggregate in parallel. The rows are partitioned into chunks, each
+     * grouped and aggregated by a separate task of the given pool. Partial
+     * aggregates are then merged pairwise, by the tasks that split the rows,
+     * so that merges run in parallel as well.
+     *
+     * The source table must not be modified while it is being aggregated.
+     *
+     * @return this group-by
+     * @param pool the pool that runs the tasks
+     * @param chunkSize the number of rows aggregated by each task
+     */
+    public GroupBy inParallel(ForkJoinPool pool, int chunkSize) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Invalid fork-join pool ('null' found)");
+        }
+        if (chunkSize <= 0) {
+            final String error = String.format("Invalid chunk size (found %d, expected a positive size)", chunkSize);
+            throw new IllegalArgumentException(error);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * @return true if aggregates are computed in parallel
+     */
+    public boolean isParallel() {
+        return pool != null;
+    }
+
+    /**
+     * @return a new table holding, for each group, its key values and the
+     * value of each of the given aggregates
+     * @param aggregates the aggregates to compute
+     * @throws IllegalArgumentException if an aggregate does not apply to the
+     * source table, or if two fields of the result have the same name
+     */
+    public DataTable aggregate(Aggregate... aggregates) throws IllegalArgumentException {
+        if (aggregates == null) {
+            throw new IllegalArgumentException("Invalid aggregates ('null' found)");
+        }
+        return compute(aggregates).toTable();
+    }
+
+    /**
+     * @return a new table holding the distinct values of the key fields, in
+     * the order of their first occurrence
+     */
+    public DataTable distinct() {
+        return aggregate();
+    }
+
+    /**
+     * @return the first row of each group, that is, the rows of the source
+     * table without the later rows having the same key values
+     */
+    public ResultSet first() {
+        final int[] firstRows = compute(new Aggregate[0]).groups.firstRows();
+        final Selection selection = new Selection();
+        for (int row : firstRows) {
+            selection.add(row);
+        }
+        return ResultSet.fetched(source, new True(), selection);
+    }
+
+    /**
+     * @return the groups of all the rows and their aggregates, computed in
+     * parallel if requested
+     */
+    private Partial compute(Aggregate[] aggregates) {
+        final int rowCount = source.getRowCount();
+        if (pool == null || rowCount <= chunkSize) {
+            final Partial result = new Partial(source, keyColumns, aggregates);
+            result.aggregate(1, rowCount);
+            return result;
+        }
+        final int chunkCount = (int) (((long) rowCount + chunkSize - 1) / chunkSize);
+        return pool.invoke(new PartialAggregation(source, keyColumns, aggregates, chunkSize, 0, chunkCount));
+    }
+
+    /**
+     * The groups and the accumulated aggregates of some rows
+     */
+    private static class Partial {
+
+        private final Table source;
+        private final int[] keyColumns;
+        private final Aggregate[] aggregates;
+        private final GroupIndex groups;
+        private final Accumulator[] accumulators;
+
+        Partial(Table source, int[] keyColumns, Aggregate[] aggregates) {
+            this.source = source;
+            this.keyColumns = keyColumns;
+            this.aggregates = aggregates;
+            this.groups = new GroupIndex(source, keyColumns);
+            this.accumulators = new Accumulator[aggregates.length];
+            for (int index = 0; index < aggregates.length; index++) {
+                if (aggregates[index] == null) {
+                    throw new IllegalArgumentException("Invalid aggregates ('null' found)");
+                }
+                accumulators[index] = aggregates[index].accumulatorFor(source);
+            }
+        }
+
+        /**
+         * Aggregate the rows from the first to the last one, included
+         */
+        void aggregate(int first, int last) {
+            for (int row = first; row <= last; row++) {
+                final int group = groups.groupOf(row);
+                for (Accumulator each : accumulators) {
+                    each.ensureCapacity(groups.size());
+                    each.add(group, row);
+                }
+            }
+        }
+
+        /**
+         * Merge in the aggregates computed over later rows. The group of each
+         * other group is found from its first row, and groups first seen in
+         * the other rows come after the groups of this one.
+         */
+        void merge(Partial other) {
+            for (int otherGroup = 0; otherGroup < other.groups.size(); otherGroup++) {
+                final int group = groups.groupOf(other.groups.firstRowOf(otherGroup));
+                for (int index = 0; index < accumulators.length; index++) {
+                    accumulators[index].ensureCapacity(groups.size());
+                    accumulators[index].merge(group, other.accumulators[index], otherGroup);
+                }
+            }
+        }
+
+        DataTable toTable() {
+            final List<Field> fields = new ArrayList<>();
+            final Set<String> names = new HashSet<>();
+            for (int column : keyColumns) {
+                fields.add(source.getSchema().getField(column));
+                names.add(source.getSchema().getField(column).getName());
+            }
+            for (int index = 0; index < aggregates.length; index++) {
+                if (!names.add(aggregates[index].getName())) {
+                    throw new IllegalArgumentException("Duplicated field name '" + aggregates[index].getName() + "'");
+                }
+                fields.add(new Field(aggregates[index].getName(), accumulators[index].getType()));
+            }
+            final DataTable table = new DataTable(new Schema(fields));
+            final int groupCount = groups.size();
+            if (groupCount > 0) {
+                final Object[] columns = new Object[fields.size()];
+                final int[] firstRows = groups.firstRows();
+                for (int index = 0; index < keyColumns.length; index++) {
+                    columns[index] = AbstractTable.valuesAt(source, keyColumns[index], firstRows);
+                }
+                for (int index = 0; index < accumulators.length; index++) {
+                    columns[keyColumns.length + index] = accumulators[index].toArray(groupCount);
+                }
+                table.appendColumns(columns);
+            }
+            return table;
+        }
+
+    }
+
+    /**
+     * Aggregate a range of chunks, splitting it in halves until each task
+     * aggregates a single chunk, and merging the aggregates of both halves
+     */
+    private static class PartialAggregation extends RecursiveTask<Partial> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Table source;
+        private final int[] keyColumns;
+        private final Aggregate[] aggregates;
+        private final int chunkSize;
+        private final int fromChunk;
+        private final int toChunk;
+
+        PartialAggregation(Table source, int[] keyColumns, Aggregate[] aggregates, int chunkSize, int fromChunk, int toChunk) {
+            this.source = source;
+            this.keyColumns = keyColumns;
+            this.aggregates = aggregates;
+            this.chunkSize = chunkSize;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (toChunk - fromChunk == 1) {
+                final int first = fromChunk * chunkSize + 1;
+                final int last = (int) Math.min(source.getRowCount(), (long) first + chunkSize - 1);
+                final Partial partial = new Partial(source, keyColumns, aggregates);
+                partial.aggregate(first, last);
+                return partial;
+            }
+            final int middle = (fromChunk + toChunk) >>> 1;
+            final PartialAggregation lower = new PartialAggregation(source, keyColumns, aggregates, chunkSize, fromChunk, middle);
+            final PartialAggregation upper = new PartialAggregation(source, keyColumns, aggregates, chunkSize, middle, toChunk);
+            invokeAll(lower, upper);
+            final Partial merged = lower.join();
+            merged.merge(upper.join());
+            return merged;
+        }
+
+    }
+
+}
@@ -0,0 +1,160 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.Arrays;
+
+/**
+ * Assign the rows of a table to groups of rows sharing the same values on
+ * some key fields. Groups are numbered from 0 to n-1, in the order of their
+ * first row.
+ *
+ * Each key value is encoded as a long (its bits for numeric values, its code
+ * for strings) and groups are found in an open-addressing hash table over
+ * these encoded keys, so that no object is allocated per row.
+ */
+class GroupIndex {
+
+    private static final int INITIAL_SLOTS = 16;
+
+    private final KeyEncoder[] encoders;
+    private final long[] probe;
+    private int[] slots;
+    private long[] keys;
+    private int[] hashes;
+    private int[] firstRows;
+    private int size;
+
+    /**
+     * @param source the table whose rows are grouped
+     * @param columnIndices the indices of the key columns, from 1 to n
+     */
+    GroupIndex(Table source, int[] columnIndices) {
+        this.encoders = new KeyEncoder[columnIndices.length];
+        for (int index = 0; index < columnIndices.length; index++) {
+            encoders[index] = KeyEncoder.of(source, columnIndices[index]);
+        }
+        this.probe = new long[columnIndices.length];
+        this.slots = new int[INITIAL_SLOTS];
+        this.keys = new long[INITIAL_SLOTS * columnIndices.length];
+        this.hashes = new int[INITIAL_SLOTS];
+        this.firstRows = new int[INITIAL_SLOTS];
+        this.size = 0;
+    }
+
+    /**
+     * @return the number of groups found so far
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the index of the first row of the given group
+     * @param group the index of the group, from 0 to n-1
+     */
+    int firstRowOf(int group) {
+        assert group >= 0 && group < size : "Invalid group " + group + " (should be within [0, " + (size - 1) + "])";
+        return firstRows[group];
+    }
+
+    /**
+     * @return the indices of the first row of each group, in group order
+     */
+    int[] firstRows() {
+        return Arrays.copyOf(firstRows, size);
+    }
+
+    /**
+     * @return the group of the given row, which is created if this row is the
+     * first one with its key
+     * @param rowIndex the index of the row, from 1 to n
+     */
+    int groupOf(int rowIndex) {
+        for (int index = 0; index < encoders.length; index++) {
+            probe[index] = encoders[index].encode(rowIndex);
+        }
+        final int hash = hash(probe);
+        final int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            final int group = slots[slot] - 1;
+            if (hashes[group] == hash && hasProbedKey(group)) {
+                return group;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return insert(slot, hash, rowIndex);
+    }
+
+    private boolean hasProbedKey(int group) {
+        final int offset = group * probe.length;
+        for (int index = 0; index < probe.length; index++) {
+            if (keys[offset + index] != probe[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int insert(int slot, int hash, int rowIndex) {
+        final int group = size++;
+        if (group == firstRows.length) {
+            final int capacity = firstRows.length * 2;
+            keys = Arrays.copyOf(keys, capacity * probe.length);
+            hashes = Arrays.copyOf(hashes, capacity);
+            firstRows = Arrays.copyOf(firstRows, capacity);
+        }
+        System.arraycopy(probe, 0, keys, group * probe.length, probe.length);
+        hashes[group] = hash;
+        firstRows[group] = rowIndex;
+        slots[slot] = group + 1;
+        if (2 * size > slots.length) {
+            rehash();
+        }
+        return group;
+    }
+
+    /**
+     * Double the number of slots, so that at most half of them are used
+     */
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        final int mask = slots.length - 1;
+        for (int group = 0; group < size; group++) {
+            int slot = hashes[group] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = group + 1;
+        }
+    }
+
+    private static int hash(long[] key) {
+        long hash = 0;
+        for (long each : key) {
+            hash = 31 * hash + each;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+}
@@ -0,0 +1,310 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.Arrays;
+import net.fchauvel.mutable.expression.True;
+
+/**
+ * The join of two tables on the equality of a key field of each, as in:
+ *
+ * orders.join(customers).on("customer_id", "id").inner()
+ *
+ * By default, joins are computed by hashing: the keys of the smaller table
+ * are indexed in a primitive hash table, which is then probed with the key of
+ * each row of the other table. Alternatively, tables sorted on their keys can
+ * be merged (see usingSortMerge). Either way, matches are reported in the
+ * order of the left table, and then of the right one.
+ */
+public class Join {
+
+    private final Table left;
+    private final Table right;
+    private int leftColumn;
+    private int rightColumn;
+    private boolean sortMerge;
+
+    Join(Table left, Table right) {
+        if (right == null) {
+            throw new IllegalArgumentException("Invalid table to join ('null' found)");
+        }
+        this.left = left;
+        this.right = right;
+        this.leftColumn = 0;
+        this.rightColumn = 0;
+        this.sortMerge = false;
+    }
+
+    /**
+     * Join on the field with the given name, in both tables
+     *
+     * @return this join
+     * @param fieldName the name of the key field
+     */
+    public Join on(String fieldName) {
+        return on(fieldName, fieldName);
+    }
+
+    /**
+     * Join on the given fields
+     *
+     * @return this join
+     * @param leftField the name of the key field in the left table
+     * @param rightField the name of the key field in the right table
+     * @throws IllegalArgumentException if either field does not exist, or if
+     * their values cannot be compared
+     */
+    public Join on(String leftField, String rightField) throws IllegalArgumentException {
+        final int newLeftColumn = columnIndexOf(left, leftField);
+        final int newRightColumn = columnIndexOf(right, rightField);
+        KeyEncoder.requireComparable(left, newLeftColumn, right, newRightColumn);
+        this.leftColumn = newLeftColumn;
+        this.rightColumn = newRightColumn;
+        return this;
+    }
+
+    private static int columnIndexOf(Table table, String fieldName) {
+        if (fieldName == null || !table.getSchema().hasFieldNamed(fieldName)) {
+            final String error = String.format("Unknown field name '%s' (fields are %s)", fieldName, table.getSchema().getFieldNames());
+            throw new IllegalArgumentException(error);
+        }
+        return table.getSchema().getFieldIndex(fieldName);
+    }
+
+    /**
+     * Merge the rows of both tables in the order of their keys, rather than
+     * hashing them. This is meant for large tables that are already sorted
+     * on their keys, for which no extra memory is then needed. Unsorted
+     * tables are sorted first.
+     *
+     * @return this join
+     */
+    public Join usingSortMerge() {
+        this.sortMerge = true;
+        return this;
+    }
+
+    /**
+     * @return true if rows are merged in the order of their keys, rather than
+     * hashed
+     */
+    public boolean isSortMerge() {
+        return sortMerge;
+    }
+
+    /**
+     * @return the pairs of rows, one of each table, whose keys are equal
+     */
+    public JoinedView inner() {
+        return new JoinedView(left, right, pairs(false));
+    }
+
+    /**
+     * @return the pairs of rows, one of each table, whose keys are equal, as
+     * well as the rows of the left table that match no row of the right one
+     */
+    public JoinedView leftOuter() {
+        return new JoinedView(left, right, pairs(true));
+    }
+
+    /**
+     * @return the rows of the left table that match at least one row of the
+     * right table, each row being reported once
+     */
+    public ResultSet semi() {
+        requireKeys();
+        if (sortMerge) {
+            return ResultSet.fetched(left, new True(), new SortMergeJoin(left, leftColumn, right, rightColumn).matchingLeftRows());
+        }
+        final Selection selection = new Selection();
+        if (right.getRowCount() <= left.getRowCount()) {
+            final KeyEncoder[] encoders = KeyEncoder.pairOf(right, rightColumn, left, leftColumn);
+            final KeyTable keys = new KeyTable(encoders[0], right.getRowCount());
+            for (int row = 1; row <= left.getRowCount(); row++) {
+                if (keys.first(encoders[1].encode(row)) != 0) {
+                    selection.add(row);
+                }
+            }
+        } else {
+            final boolean[] matched = matchedLeftRows(null);
+            for (int row = 1; row <= left.getRowCount(); row++) {
+                if (matched[row]) {
+                    selection.add(row);
+                }
+            }
+        }
+        return ResultSet.fetched(left, new True(), selection);
+    }
+
+    private void requireKeys() {
+        if (leftColumn == 0) {
+            throw new IllegalStateException("Missing join keys (use on(...) first)");
+        }
+    }
+
+    /**
+     * @return the matching rows, packed as (left row, right row) longs, in
+     * order. A right row of 0 stands for a left row that matches nothing.
+     */
+    private long[] pairs(boolean keepUnmatched) {
+        requireKeys();
+        if (sortMerge) {
+            return new SortMergeJoin(left, leftColumn, right, rightColumn).pairs(keepUnmatched);
+        }
+        final Pairs pairs = new Pairs();
+        if (right.getRowCount() <= left.getRowCount()) {
+            final KeyEncoder[] encoders = KeyEncoder.pairOf(right, rightColumn, left, leftColumn);
+            final KeyTable keys = new KeyTable(encoders[0], right.getRowCount());
+            for (int leftRow = 1; leftRow <= left.getRowCount(); leftRow++) {
+                int rightRow = keys.first(encoders[1].encode(leftRow));
+                if (rightRow == 0 && keepUnmatched) {
+                    pairs.add(leftRow, 0);
+                }
+                while (rightRow != 0) {
+                    pairs.add(leftRow, rightRow);
+                    rightRow = keys.next(rightRow);
+                }
+            }
+            return pairs.toArray();
+        }
+        final boolean[] matched = matchedLeftRows(pairs);
+        if (keepUnmatched) {
+            for (int leftRow = 1; leftRow <= left.getRowCount(); leftRow++) {
+                if (!matched[leftRow]) {
+                    pairs.add(leftRow, 0);
+                }
+            }
+        }
+        final long[] result = pairs.toArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Index the left table and probe it with the rows of the right one
+     *
+     * @return whether each left row, from 1 to n, matches any right row
+     * @param pairs where to record the matching pairs, if not null
+     */
+    private boolean[] matchedLeftRows(Pairs pairs) {
+        final KeyEncoder[] encoders = KeyEncoder.pairOf(left, leftColumn, right, rightColumn);
+        final KeyTable keys = new KeyTable(encoders[0], left.getRowCount());
+        final boolean[] matched = new boolean[left.getRowCount() + 1];
+        for (int rightRow = 1; rightRow <= right.getRowCount(); rightRow++) {
+            int leftRow = keys.first(encoders[1].encode(rightRow));
+            if (pairs == null && leftRow != 0 && matched[leftRow]) {
+                // The whole chain of this key was marked by an earlier right row
+                continue;
+            }
+            while (leftRow != 0) {
+                matched[leftRow] = true;
+                if (pairs != null) {
+                    pairs.add(leftRow, rightRow);
+                }
+                leftRow = keys.next(leftRow);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * A growable array of packed pairs of rows
+     */
+    static final class Pairs {
+
+        private long[] values = new long[16];
+        private int size = 0;
+
+        void add(int leftRow, int rightRow) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1));
+            }
+            values[size++] = ((long) leftRow << 32) | rightRow;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+    }
+
+    /**
+     * The rows of a table, indexed by their encoded key in an open-addressing
+     * hash table. The rows sharing a key are chained in increasing order.
+     */
+    private static final class KeyTable {
+
+        private final long[] keys;
+        private final int[] heads;
+        private final int[] slots;
+        private final int[] next;
+        private int size;
+
+        KeyTable(KeyEncoder encoder, int rowCount) {
+            this.keys = new long[rowCount];
+            this.heads = new int[rowCount];
+            this.slots = new int[Math.max(2, Integer.highestOneBit(Math.min(1 << 28, Math.max(1, rowCount))) << 2)];
+            this.next = new int[rowCount + 1];
+            this.size = 0;
+            for (int row = rowCount; row > 0; row--) {
+                final long key = encoder.encode(row);
+                int slot = slotOf(key);
+                while (slots[slot] != 0 && keys[slots[slot] - 1] != key) {
+                    slot = (slot + 1) & (slots.length - 1);
+                }
+                if (slots[slot] == 0) {
+                    keys[size] = key;
+                    slots[slot] = ++size;
+                }
+                final int entry = slots[slot] - 1;
+                next[row] = heads[entry];
+                heads[entry] = row;
+            }
+        }
+
+        /**
+         * @return the first row with the given key, or 0 if there is none
+         */
+        int first(long key) {
+            int slot = slotOf(key);
+            while (slots[slot] != 0) {
+                if (keys[slots[slot] - 1] == key) {
+                    return heads[slots[slot] - 1];
+                }
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            return 0;
+        }
+
+        /**
+         * @return the next row with the same key as the given one, or 0
+         */
+        int next(int row) {
+            return next[row];
+        }
+
+        private int slotOf(long key) {
+            long hash = key * 0x9e3779b97f4a7c15L;
+            hash ^= hash >>> 32;
+            return (int) hash & (slots.length - 1);
+        }
+
+    }
+
+}
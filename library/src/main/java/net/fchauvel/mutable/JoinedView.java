@@ -0,0 +1,359 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import net.fchauvel.mutable.expression.True;
+import net.fchauvel.mutable.sketch.HyperLogLog;
+import net.fchauvel.mutable.sketch.QuantileSketch;
+
+/**
+ * The result of a join, as a view over the pairs of matching rows. The view
+ * holds no data but the indices of the rows of each table: values are read
+ * from the joined tables on access, unless the view is materialized.
+ *
+ * The fields of the left table come first, followed by those of the right
+ * one. A right field whose name is already used is suffixed by "_right".
+ * When a left row matches no right row (in left outer joins), right values
+ * are null through getData, and default values (e.g., 0 or false) through
+ * typed getters. Such missing values satisfy no comparison in queries, and
+ * statistics and sketches skip them. Sorting, grouping or deduplicating by
+ * a right field is rejected, and so is materializing: use matchedRows() to
+ * drop unmatched rows first.
+ */
+public class JoinedView extends AbstractTable {
+
+    private static final String SUFFIX = "_right";
+
+    private final Table left;
+    private final Table right;
+    private final int[] leftRows;
+    private final int[] rightRows;
+    private final int leftColumnCount;
+    private final Schema schema;
+    private final boolean hasUnmatchedRows;
+
+    /**
+     * @param pairs the pairs of matching rows, packed as (left row, right
+     * row) longs
+     */
+    JoinedView(Table left, Table right, long[] pairs) {
+        this.left = left;
+        this.right = right;
+        this.leftRows = new int[pairs.length];
+        this.rightRows = new int[pairs.length];
+        for (int index = 0; index < pairs.length; index++) {
+            leftRows[index] = (int) (pairs[index] >>> 32);
+            rightRows[index] = (int) pairs[index];
+        }
+        this.hasUnmatchedRows = hasZero(rightRows);
+        this.leftColumnCount = left.getColumnCount();
+        this.schema = joinedSchema(left.getSchema(), right.getSchema());
+    }
+
+    private static Schema joinedSchema(Schema left, Schema right) {
+        final List<Field> fields = new ArrayList<>(left.getFields());
+        final Set<String> names = new HashSet<>(left.getFieldNames());
+        for (Field eachField : right.getFields()) {
+            String name = eachField.getName();
+            while (!names.add(name)) {
+                name += SUFFIX;
+            }
+            fields.add(new Field(name, eachField.getType()));
+        }
+        return new Schema(fields);
+    }
+
+    /**
+     * @return the index of the left row of the given pair
+     * @param rowIndex the index of the pair, from 1 to n
+     */
+    public int getLeftRowIndex(int rowIndex) {
+        requireValidRowIndex(rowIndex);
+        return leftRows[rowIndex - 1];
+    }
+
+    /**
+     * @return the index of the right row of the given pair, or 0 if the left
+     * row matches no right row
+     * @param rowIndex the index of the pair, from 1 to n
+     */
+    public int getRightRowIndex(int rowIndex) {
+        requireValidRowIndex(rowIndex);
+        return rightRows[rowIndex - 1];
+    }
+
+    /**
+     * @return true if some left row matches no right row, as may happen in
+     * left outer joins
+     */
+    public boolean hasUnmatchedRows() {
+        return hasUnmatchedRows;
+    }
+
+    private static boolean hasZero(int[] rows) {
+        for (int row : rows) {
+            if (row == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the pairs whose left row matches some right row, that is, all
+     * of them but in left outer joins
+     */
+    public ResultSet matchedRows() {
+        final Selection selection = new Selection(rightRows.length);
+        for (int index = 0; index < rightRows.length; index++) {
+            if (rightRows[index] != 0) {
+                selection.add(index + 1);
+            }
+        }
+        return ResultSet.fetched(this, new True(), selection);
+    }
+
+    /**
+     * @return true if the given field comes from the right table and misses
+     * in some rows
+     * @param fieldName the name of the field, which must exist
+     */
+    private boolean hasMissingValues(String fieldName) {
+        return hasUnmatchedRows && schema.getFieldIndex(fieldName) > leftColumnCount;
+    }
+
+    private void requireNoMissingValues(String operation, String... fieldNames) {
+        if (fieldNames == null) {
+            return;
+        }
+        for (String eachName : fieldNames) {
+            if (eachName != null && schema.hasFieldNamed(eachName) && hasMissingValues(eachName)) {
+                final String error = String.format("Cannot %s by field '%s', which misses in unmatched rows (see matchedRows())", operation, eachName);
+                throw new IllegalStateException(error);
+            }
+        }
+    }
+
+    /**
+     * @return a new data table holding a copy of the values of this view,
+     * built column by column without boxing
+     * @throws IllegalStateException if some left row matches no right row,
+     * since data tables cannot hold missing values
+     */
+    public DataTable materialize() throws IllegalStateException {
+        if (hasUnmatchedRows()) {
+            throw new IllegalStateException("Cannot materialize a join with unmatched rows (data tables hold no missing values)");
+        }
+        final DataTable table = new DataTable(schema);
+        if (leftRows.length > 0) {
+            final Object[] columns = new Object[getColumnCount()];
+            for (int column = 1; column <= leftColumnCount; column++) {
+                columns[column - 1] = valuesAt(left, column, leftRows);
+            }
+            for (int column = 1; column <= right.getColumnCount(); column++) {
+                columns[leftColumnCount + column - 1] = valuesAt(right, column, rightRows);
+            }
+            table.appendColumns(columns);
+        }
+        return table;
+    }
+
+    /**
+     * @return the right row of the given pair, or 0 if there is none
+     */
+    private int rightRowOf(int rowIndex, int columnIndex) {
+        requireValidRowIndex(rowIndex);
+        requireValidColumnIndex(columnIndex);
+        return rightRows[rowIndex - 1];
+    }
+
+    @Override
+    public SortedView orderBy(SortKey... keys) {
+        requireNoMissingValues("sort", fieldNamesOf(keys));
+        return super.orderBy(keys);
+    }
+
+    @Override
+    public SortedView topK(int k, SortKey... keys) {
+        requireNoMissingValues("sort", fieldNamesOf(keys));
+        return super.topK(k, keys);
+    }
+
+    private static String[] fieldNamesOf(SortKey[] keys) {
+        if (keys == null) {
+            return null;
+        }
+        final String[] names = new String[keys.length];
+        for (int index = 0; index < keys.length; index++) {
+            names[index] = keys[index] == null ? null : keys[index].getFieldName();
+        }
+        return names;
+    }
+
+    /**
+     * Group by the given fields, which must not miss in any row. So does
+     * distinct and dropDuplicates, by all fields if none is given.
+     */
+    @Override
+    public GroupBy groupBy(String... fieldNames) {
+        requireNoMissingValues("group", fieldNames);
+        return super.groupBy(fieldNames);
+    }
+
+    @Override
+    public ColumnStatistics statisticsOf(String fieldName) {
+        final int columnIndex = numericColumnIndexOf(fieldName);
+        if (!hasMissingValues(fieldName)) {
+            return super.statisticsOf(fieldName);
+        }
+        final Selection matched = matchedRows().getSelection();
+        final ColumnStatistics statistics = new ColumnStatistics();
+        summarizeRows(this, columnIndex, matched, matched.size(), statistics);
+        return statistics;
+    }
+
+    @Override
+    public HyperLogLog distinctCountSketch(String fieldName) {
+        requireValidFieldName(fieldName);
+        if (!hasMissingValues(fieldName)) {
+            return super.distinctCountSketch(fieldName);
+        }
+        final int columnIndex = schema.getFieldIndex(fieldName);
+        final HyperLogLog sketch = new HyperLogLog();
+        for (int row = 1; row <= getRowCount(); row++) {
+            if (rightRows[row - 1] != 0) {
+                sketch.add(this, row, columnIndex);
+            }
+        }
+        return sketch;
+    }
+
+    @Override
+    public QuantileSketch quantileSketch(String fieldName) {
+        final int columnIndex = numericColumnIndexOf(fieldName);
+        if (!hasMissingValues(fieldName)) {
+            return super.quantileSketch(fieldName);
+        }
+        final QuantileSketch sketch = new QuantileSketch();
+        for (int row = 1; row <= getRowCount(); row++) {
+            if (rightRows[row - 1] != 0) {
+                sketch.add(this, row, columnIndex);
+            }
+        }
+        return sketch;
+    }
+
+    @Override
+    public Row getRow(int rowIndex) {
+        requireValidRowIndex(rowIndex);
+        return new Cursor(this, rowIndex);
+    }
+
+    @Override
+    public Object getData(int rowIndex, int columnIndex) {
+        if (columnIndex <= leftColumnCount) {
+            return left.getData(getLeftRowIndex(rowIndex), columnIndex);
+        }
+        final int rightRow = rightRowOf(rowIndex, columnIndex);
+        return rightRow == 0 ? null : right.getData(rightRow, columnIndex - leftColumnCount);
+    }
+
+    @Override
+    public int getInteger(int rowIndex, int columnIndex) {
+        if (columnIndex <= leftColumnCount) {
+            return left.getInteger(getLeftRowIndex(rowIndex), columnIndex);
+        }
+        final int rightRow = rightRowOf(rowIndex, columnIndex);
+        return rightRow == 0 ? 0 : right.getInteger(rightRow, columnIndex - leftColumnCount);
+    }
+
+    @Override
+    public long getLong(int rowIndex, int columnIndex) {
+        if (columnIndex <= leftColumnCount) {
+            return left.getLong(getLeftRowIndex(rowIndex), columnIndex);
+        }
+        final int rightRow = rightRowOf(rowIndex, columnIndex);
+        return rightRow == 0 ? 0L : right.getLong(rightRow, columnIndex - leftColumnCount);
+    }
+
+    @Override
+    public float getFloat(int rowIndex, int columnIndex) {
+        if (columnIndex <= leftColumnCount) {
+            return left.getFloat(getLeftRowIndex(rowIndex), columnIndex);
+        }
+        final int rightRow = rightRowOf(rowIndex, columnIndex);
+        return rightRow == 0 ? 0F : right.getFloat(rightRow, columnIndex - leftColumnCount);
+    }
+
+    @Override
+    public double getDouble(int rowIndex, int columnIndex) {
+        if (columnIndex <= leftColumnCount) {
+            return left.getDouble(getLeftRowIndex(rowIndex), columnIndex);
+        }
+        final int rightRow = rightRowOf(rowIndex, columnIndex);
+        return rightRow == 0 ? 0D : right.getDouble(rightRow, columnIndex - leftColumnCount);
+    }
+
+    @Override
+    public boolean getBoolean(int rowIndex, int columnIndex) {
+        if (columnIndex <= leftColumnCount) {
+            return left.getBoolean(getLeftRowIndex(rowIndex), columnIndex);
+        }
+        final int rightRow = rightRowOf(rowIndex, columnIndex);
+        return rightRow != 0 && right.getBoolean(rightRow, columnIndex - leftColumnCount);
+    }
+
+    @Override
+    public char getCharacter(int rowIndex, int columnIndex) {
+        if (columnIndex <= leftColumnCount) {
+            return left.getCharacter(getLeftRowIndex(rowIndex), columnIndex);
+        }
+        final int rightRow = rightRowOf(rowIndex, columnIndex);
+        return rightRow == 0 ? '\0' : right.getCharacter(rightRow, columnIndex - leftColumnCount);
+    }
+
+    @Override
+    public String getString(int rowIndex, int columnIndex) {
+        if (columnIndex <= leftColumnCount) {
+            return left.getString(getLeftRowIndex(rowIndex), columnIndex);
+        }
+        final int rightRow = rightRowOf(rowIndex, columnIndex);
+        return rightRow == 0 ? null : right.getString(rightRow, columnIndex - leftColumnCount);
+    }
+
+    @Override
+    public int getRowCount() {
+        return leftRows.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return schema.getFieldCount();
+    }
+
+    @Override
+    public Schema getSchema() {
+        return schema;
+    }
+
+}
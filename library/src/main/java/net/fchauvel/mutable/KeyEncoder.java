@@ -0,0 +1,182 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encode the values of a key column as longs, such that two values are equal
+ * if and only if their encodings are. Numeric values are encoded by their
+ * bits, and strings by a code.
+ */
+abstract class KeyEncoder {
+
+    /**
+     * @return an encoder for the given column
+     * @param source the table holding the column
+     * @param columnIndex the index of the column, from 1 to n
+     */
+    static KeyEncoder of(Table source, int columnIndex) {
+        final FieldType type = source.getSchema().getField(columnIndex).getType();
+        if (type == FieldType.STRING && source instanceof DataTable && ((DataTable) source).isDictionaryEncoded(columnIndex)) {
+            final DataTable table = (DataTable) source;
+            return new KeyEncoder() {
+                @Override
+                long encode(int rowIndex) {
+                    return table.getCode(rowIndex, columnIndex);
+                }
+            };
+        }
+        return of(source, columnIndex, new HashMap<String, Integer>(), true);
+    }
+
+    /**
+     * The code of the strings of the probed table that the built one does not
+     * hold, which matches no code of the built table
+     */
+    static final long UNKNOWN = -1;
+
+    /**
+     * @return two encoders, for a column of each table, which encode equal
+     * values the same way, so that keys of the probed table can be looked up
+     * among the keys of the built one. Only the built table assigns codes to
+     * new strings, so that memory grows with its distinct keys alone: other
+     * strings of the probed table are encoded as UNKNOWN. The built table
+     * must thus be encoded entirely before the probed one.
+     * @param build the table whose keys are indexed
+     * @param buildColumn the index of the column in the built table
+     * @param probe the table whose keys are looked up
+     * @param probeColumn the index of the column in the probed table
+     * @throws IllegalArgumentException if the values of the columns cannot be
+     * compared
+     */
+    static KeyEncoder[] pairOf(Table build, int buildColumn, Table probe, int probeColumn) throws IllegalArgumentException {
+        requireComparable(build, buildColumn, probe, probeColumn);
+        final Map<String, Integer> codes = new HashMap<>();
+        return new KeyEncoder[]{of(build, buildColumn, codes, true), of(probe, probeColumn, codes, false)};
+    }
+
+    /**
+     * Check that the values of the given columns can be compared
+     */
+    static void requireComparable(Table left, int leftColumn, Table right, int rightColumn) throws IllegalArgumentException {
+        final FieldType leftType = left.getSchema().getField(leftColumn).getType();
+        final FieldType rightType = right.getSchema().getField(rightColumn).getType();
+        if (leftType != rightType && !(isIntegral(leftType) && isIntegral(rightType))) {
+            final String error = String.format("Cannot compare keys of type '%s' with keys of type '%s'", leftType.name(), rightType.name());
+            throw new IllegalArgumentException(error);
+        }
+    }
+
+    private static boolean isIntegral(FieldType type) {
+        return type == FieldType.INTEGER || type == FieldType.LONG;
+    }
+
+    private static KeyEncoder of(final Table source, final int columnIndex, Map<String, Integer> codes, boolean assignsCodes) {
+        switch (source.getSchema().getField(columnIndex).getType()) {
+            case INTEGER:
+                return new KeyEncoder() {
+                    @Override
+                    long encode(int rowIndex) {
+                        return source.getInteger(rowIndex, columnIndex);
+                    }
+                };
+            case LONG:
+                return new KeyEncoder() {
+                    @Override
+                    long encode(int rowIndex) {
+                        return source.getLong(rowIndex, columnIndex);
+                    }
+                };
+            case FLOAT:
+                return new KeyEncoder() {
+                    @Override
+                    long encode(int rowIndex) {
+                        return Float.floatToIntBits(source.getFloat(rowIndex, columnIndex));
+                    }
+                };
+            case DOUBLE:
+                return new KeyEncoder() {
+                    @Override
+                    long encode(int rowIndex) {
+                        return Double.doubleToLongBits(source.getDouble(rowIndex, columnIndex));
+                    }
+                };
+            case BOOLEAN:
+                return new KeyEncoder() {
+                    @Override
+                    long encode(int rowIndex) {
+                        return source.getBoolean(rowIndex, columnIndex) ? 1 : 0;
+                    }
+                };
+            case CHARACTER:
+                return new KeyEncoder() {
+                    @Override
+                    long encode(int rowIndex) {
+                        return source.getCharacter(rowIndex, columnIndex);
+                    }
+                };
+            default:
+                return new StringEncoder(source, columnIndex, codes, assignsCodes);
+        }
+    }
+
+    /**
+     * @return the encoded value of the key column at the given row
+     * @param rowIndex the index of the row, from 1 to n
+     */
+    abstract long encode(int rowIndex);
+
+    /**
+     * Encode strings by the order in which they are first met, or only look
+     * them up among the strings already met
+     */
+    private static final class StringEncoder extends KeyEncoder {
+
+        private final Table source;
+        private final int columnIndex;
+        private final Map<String, Integer> codes;
+        private final boolean assignsCodes;
+
+        StringEncoder(Table source, int columnIndex, Map<String, Integer> codes, boolean assignsCodes) {
+            this.source = source;
+            this.columnIndex = columnIndex;
+            this.codes = codes;
+            this.assignsCodes = assignsCodes;
+        }
+
+        @Override
+        long encode(int rowIndex) {
+            final String value = source.getString(rowIndex, columnIndex);
+            final Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (!assignsCodes) {
+                return UNKNOWN;
+            }
+            final int newCode = codes.size();
+            codes.put(value, newCode);
+            return newCode;
+        }
+
+    }
+
+}
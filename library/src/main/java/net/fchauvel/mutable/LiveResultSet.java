@@ -0,0 +1,164 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import net.fchauvel.mutable.expression.Expression;
+
+/**
+ * A result set that follows a data table as rows are appended to it. Each
+ * access first evaluates the criteria on the rows appended since the previous
+ * one, so that rows already checked are never checked again.
+ *
+ * poll() gives access to the matching rows found since the previous poll.
+ * When rows are removed from the table, row indices shift: the result set is
+ * then rebuilt from scratch, and the next delta holds all matching rows.
+ */
+public class LiveResultSet extends AbstractTable {
+
+    private final DataTable source;
+    private final Expression criteria;
+    private final Selection selection;
+    private final Cursor cursor;
+    private int scannedRows;
+    private long modificationCount;
+    private int polledRows;
+
+    LiveResultSet(DataTable source, Expression criteria) {
+        assert source != null : "Invalid live result set source ('null' found)";
+        assert criteria != null : "Invalid live result set criteria ('null' found)";
+
+        this.source = source;
+        this.criteria = criteria.bindTo(source);
+        this.selection = new Selection();
+        this.cursor = new Cursor(source, 0);
+        this.scannedRows = 0;
+        this.modificationCount = source.getModificationCount();
+        this.polledRows = 0;
+    }
+
+    /**
+     * @return the matching rows found since the previous poll (or since the
+     * creation of this result set), as a result set over the data table
+     */
+    public ResultSet poll() {
+        refresh();
+        final Selection delta = selection.suffix(polledRows + 1);
+        polledRows = selection.size();
+        return ResultSet.fetched(source, criteria, delta);
+    }
+
+    /**
+     * Evaluate the criteria on the rows appended since the last refresh, or
+     * on all rows if some were removed in the meantime
+     */
+    private void refresh() {
+        final long modifications = source.getModificationCount() - modificationCount;
+        final int rowCount = source.getRowCount();
+        if (modifications != rowCount - scannedRows) {
+            selection.clear();
+            scannedRows = 0;
+            polledRows = 0;
+        } else if (scannedRows == rowCount) {
+            return;
+        }
+        while (scannedRows < rowCount) {
+            scannedRows++;
+            cursor.moveTo(scannedRows);
+            if ((boolean) criteria.evaluate(cursor)) {
+                selection.add(scannedRows);
+            }
+        }
+        modificationCount = source.getModificationCount();
+    }
+
+    /**
+     * @return the index, in the source table, of the given row
+     * @param rowIndex the index of the row of interest, from 1 to n
+     */
+    private int sourceIndexOf(int rowIndex) {
+        refresh();
+        if (!selection.contains(rowIndex)) {
+            final String error = String.format("Invalid row id %d (should be within [1, %d])", rowIndex, selection.size());
+            throw new IllegalArgumentException(error);
+        }
+        return selection.get(rowIndex);
+    }
+
+    @Override
+    public Row getRow(int rowIndex) {
+        return source.getRow(sourceIndexOf(rowIndex));
+    }
+
+    @Override
+    public Object getData(int rowIndex, int columnIndex) {
+        return source.getData(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public int getInteger(int rowIndex, int columnIndex) {
+        return source.getInteger(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public long getLong(int rowIndex, int columnIndex) {
+        return source.getLong(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public float getFloat(int rowIndex, int columnIndex) {
+        return source.getFloat(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public double getDouble(int rowIndex, int columnIndex) {
+        return source.getDouble(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public boolean getBoolean(int rowIndex, int columnIndex) {
+        return source.getBoolean(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public char getCharacter(int rowIndex, int columnIndex) {
+        return source.getCharacter(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public String getString(int rowIndex, int columnIndex) {
+        return source.getString(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public int getRowCount() {
+        refresh();
+        return selection.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return source.getColumnCount();
+    }
+
+    @Override
+    public Schema getSchema() {
+        return source.getSchema();
+    }
+
+}
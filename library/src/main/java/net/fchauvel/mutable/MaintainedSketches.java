@@ -0,0 +1,143 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.fchauvel.mutable.sketch.HyperLogLog;
+import net.fchauvel.mutable.sketch.QuantileSketch;
+
+/**
+ * The sketches of a data table that are kept up to date as rows are
+ * appended. Sketches cannot forget values: once rows are removed, they are
+ * rebuilt from scratch, but only when next read.
+ */
+class MaintainedSketches {
+
+    private final Table table;
+    private final Map<Integer, HyperLogLog> distinctCounts;
+    private final Map<Integer, QuantileSketch> quantiles;
+    private boolean stale;
+
+    MaintainedSketches(Table table) {
+        this.table = table;
+        this.distinctCounts = new LinkedHashMap<>();
+        this.quantiles = new LinkedHashMap<>();
+        this.stale = false;
+    }
+
+    /**
+     * @return true if no sketch is maintained
+     */
+    boolean isEmpty() {
+        return distinctCounts.isEmpty() && quantiles.isEmpty();
+    }
+
+    /**
+     * Start maintaining the distinct count of the given column
+     */
+    void maintainDistinctCount(int columnIndex) {
+        if (!distinctCounts.containsKey(columnIndex)) {
+            final HyperLogLog sketch = new HyperLogLog();
+            for (int row = 1; row <= table.getRowCount(); row++) {
+                sketch.add(table, row, columnIndex);
+            }
+            distinctCounts.put(columnIndex, sketch);
+        }
+    }
+
+    /**
+     * Start maintaining the quantiles of the given numeric column
+     */
+    void maintainQuantiles(int columnIndex) {
+        if (!quantiles.containsKey(columnIndex)) {
+            final QuantileSketch sketch = new QuantileSketch();
+            for (int row = 1; row <= table.getRowCount(); row++) {
+                sketch.add(table, row, columnIndex);
+            }
+            quantiles.put(columnIndex, sketch);
+        }
+    }
+
+    /**
+     * @return a copy of the distinct count sketch of the given column, or
+     * null if it is not maintained
+     */
+    HyperLogLog distinctCountOf(int columnIndex) {
+        refreshIfStale();
+        final HyperLogLog sketch = distinctCounts.get(columnIndex);
+        return sketch == null ? null : sketch.copy();
+    }
+
+    /**
+     * @return a copy of the quantile sketch of the given column, or null if
+     * it is not maintained
+     */
+    QuantileSketch quantilesOf(int columnIndex) {
+        refreshIfStale();
+        final QuantileSketch sketch = quantiles.get(columnIndex);
+        return sketch == null ? null : sketch.copy();
+    }
+
+    /**
+     * Account for the given appended rows
+     *
+     * @param firstRow the index of the first appended row, from 1 to n
+     * @param lastRow the index of the last appended row
+     */
+    void accountFor(int firstRow, int lastRow) {
+        if (stale) {
+            return;
+        }
+        for (Map.Entry<Integer, HyperLogLog> each : distinctCounts.entrySet()) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                each.getValue().add(table, row, each.getKey());
+            }
+        }
+        for (Map.Entry<Integer, QuantileSketch> each : quantiles.entrySet()) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                each.getValue().add(table, row, each.getKey());
+            }
+        }
+    }
+
+    /**
+     * Record that some rows were removed, so that sketches must be rebuilt
+     */
+    void invalidate() {
+        stale = !isEmpty();
+    }
+
+    private void refreshIfStale() {
+        if (stale) {
+            final Integer[] distinctCountColumns = distinctCounts.keySet().toArray(new Integer[distinctCounts.size()]);
+            final Integer[] quantileColumns = quantiles.keySet().toArray(new Integer[quantiles.size()]);
+            distinctCounts.clear();
+            quantiles.clear();
+            stale = false;
+            for (int each : distinctCountColumns) {
+                maintainDistinctCount(each);
+            }
+            for (int each : quantileColumns) {
+                maintainQuantiles(each);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,445 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.io.Closeable;
+import net.fchauvel.mutable.column.BooleanColumn;
+import net.fchauvel.mutable.column.CharacterColumn;
+import net.fchauvel.mutable.column.DirectPrimitiveStore;
+import net.fchauvel.mutable.column.DirectStore;
+import net.fchauvel.mutable.column.DirectStringStore;
+import net.fchauvel.mutable.column.DoubleColumn;
+import net.fchauvel.mutable.column.FloatColumn;
+import net.fchauvel.mutable.column.IntegerColumn;
+import net.fchauvel.mutable.column.LongColumn;
+import net.fchauvel.mutable.column.StringColumn;
+
+/**
+ * A read-only table whose data are kept outside the Java heap, in direct
+ * memory. Its memory is not managed by the garbage collector and must be
+ * released explicitly, by closing the table.
+ */
+public class OffHeapTable extends AbstractTable implements Closeable {
+
+    /**
+     * @return an off-heap copy of the given table
+     * @param source the table whose data shall be copied
+     */
+    public static OffHeapTable copyOf(Table source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Invalid source table ('null' found)");
+        }
+        return new OffHeapTable(source);
+    }
+
+    private final Schema schema;
+    private final int rowCount;
+    private final DirectStore[] columns;
+    private volatile boolean closed;
+
+    /**
+     * Copy the source column by column, through typed getters. Should the
+     * copy fail (e.g., when direct memory runs out), the memory allocated so
+     * far is released.
+     */
+    private OffHeapTable(Table source) {
+        this.schema = source.getSchema();
+        this.rowCount = source.getRowCount();
+        this.columns = new DirectStore[schema.getFieldCount()];
+        this.closed = false;
+        try {
+            for (int index = 0; index < columns.length; index++) {
+                this.columns[index] = DirectStore.allocate(schema.getField(index + 1).getType(), rowCount);
+                copyColumn(source, index + 1, columns[index]);
+            }
+
+        } catch (RuntimeException | Error failure) {
+            for (DirectStore eachColumn : columns) {
+                if (eachColumn != null) {
+                    eachColumn.release();
+                }
+            }
+            throw failure;
+        }
+    }
+
+    private void copyColumn(Table source, int columnIndex, DirectStore store) {
+        switch (store.getType()) {
+            case INTEGER:
+                for (int row = 1; row <= rowCount; row++) {
+                    ((DirectPrimitiveStore) store).appendInteger(source.getInteger(row, columnIndex));
+                }
+                break;
+            case LONG:
+                for (int row = 1; row <= rowCount; row++) {
+                    ((DirectPrimitiveStore) store).appendLong(source.getLong(row, columnIndex));
+                }
+                break;
+            case FLOAT:
+                for (int row = 1; row <= rowCount; row++) {
+                    ((DirectPrimitiveStore) store).appendFloat(source.getFloat(row, columnIndex));
+                }
+                break;
+            case DOUBLE:
+                for (int row = 1; row <= rowCount; row++) {
+                    ((DirectPrimitiveStore) store).appendDouble(source.getDouble(row, columnIndex));
+                }
+                break;
+            case CHARACTER:
+                for (int row = 1; row <= rowCount; row++) {
+                    ((DirectPrimitiveStore) store).appendCharacter(source.getCharacter(row, columnIndex));
+                }
+                break;
+            case BOOLEAN:
+                for (int row = 1; row <= rowCount; row++) {
+                    ((DirectPrimitiveStore) store).appendBoolean(source.getBoolean(row, columnIndex));
+                }
+                break;
+            default:
+                for (int row = 1; row <= rowCount; row++) {
+                    ((DirectStringStore) store).appendString(source.getString(row, columnIndex));
+                }
+        }
+    }
+
+    @Override
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @return the data at the specified position
+     * @param rowIndex the row number, from 1 to n
+     * @param columnIndex the column index, from 1 to n
+     */
+    @Override
+    public Object getData(int rowIndex, int columnIndex) {
+        requireOpen();
+        requireValidColumnIndex(columnIndex);
+        requireValidRowIndex(rowIndex);
+
+        return columns[columnIndex - 1].get(rowIndex - 1);
+    }
+
+    @Override
+    public int getInteger(int rowIndex, int columnIndex) {
+        final DirectPrimitiveStore store = (DirectPrimitiveStore) storeOf(columnIndex, FieldType.INTEGER);
+        requireValidRowIndex(rowIndex);
+
+        return store.getInteger(rowIndex - 1);
+    }
+
+    @Override
+    public long getLong(int rowIndex, int columnIndex) {
+        final DirectPrimitiveStore store = (DirectPrimitiveStore) storeOf(columnIndex, FieldType.LONG);
+        requireValidRowIndex(rowIndex);
+
+        return store.getLong(rowIndex - 1);
+    }
+
+    @Override
+    public float getFloat(int rowIndex, int columnIndex) {
+        final DirectPrimitiveStore store = (DirectPrimitiveStore) storeOf(columnIndex, FieldType.FLOAT);
+        requireValidRowIndex(rowIndex);
+
+        return store.getFloat(rowIndex - 1);
+    }
+
+    @Override
+    public double getDouble(int rowIndex, int columnIndex) {
+        final DirectPrimitiveStore store = (DirectPrimitiveStore) storeOf(columnIndex, FieldType.DOUBLE);
+        requireValidRowIndex(rowIndex);
+
+        return store.getDouble(rowIndex - 1);
+    }
+
+    @Override
+    public boolean getBoolean(int rowIndex, int columnIndex) {
+        final DirectPrimitiveStore store = (DirectPrimitiveStore) storeOf(columnIndex, FieldType.BOOLEAN);
+        requireValidRowIndex(rowIndex);
+
+        return store.getBoolean(rowIndex - 1);
+    }
+
+    @Override
+    public char getCharacter(int rowIndex, int columnIndex) {
+        final DirectPrimitiveStore store = (DirectPrimitiveStore) storeOf(columnIndex, FieldType.CHARACTER);
+        requireValidRowIndex(rowIndex);
+
+        return store.getCharacter(rowIndex - 1);
+    }
+
+    @Override
+    public String getString(int rowIndex, int columnIndex) {
+        final DirectStringStore store = (DirectStringStore) storeOf(columnIndex, FieldType.STRING);
+        requireValidRowIndex(rowIndex);
+
+        return store.getString(rowIndex - 1);
+    }
+
+    /**
+     * @return the store of the given column, provided it holds values of the
+     * given type
+     */
+    private DirectStore storeOf(int columnIndex, FieldType type) throws IllegalArgumentException {
+        requireOpen();
+        requireValidColumnIndex(columnIndex);
+        final DirectStore store = columns[columnIndex - 1];
+        if (store.getType() != type) {
+            final String error = String.format("Type conversion error for field no. %d (from '%s' to '%s')", columnIndex, store.getType().getClassName(), type.getClassName());
+            throw new IllegalArgumentException(error);
+        }
+        return store;
+    }
+
+    /**
+     * The column views below read the direct buffers in bulk, rather than
+     * value by value
+     */
+    @Override
+    public IntegerColumn integerColumn(String fieldName) {
+        final DirectPrimitiveStore store = (DirectPrimitiveStore) storeOf(columnIndexOf(fieldName, FieldType.INTEGER), FieldType.INTEGER);
+        return new IntegerColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public int get(int rowIndex) {
+                requireValidRowIndex(rowIndex);
+                return store.getInteger(rowIndex - 1);
+            }
+
+            @Override
+            public void copyTo(int[] destination) {
+                store.copyTo(0, requireLargeEnough(destination.length), destination, 0);
+            }
+
+        };
+    }
+
+    @Override
+    public LongColumn longColumn(String fieldName) {
+        final DirectPrimitiveStore store = (DirectPrimitiveStore) storeOf(columnIndexOf(fieldName, FieldType.LONG), FieldType.LONG);
+        return new LongColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public long get(int rowIndex) {
+                requireValidRowIndex(rowIndex);
+                return store.getLong(rowIndex - 1);
+            }
+
+            @Override
+            public void copyTo(long[] destination) {
+                store.copyTo(0, requireLargeEnough(destination.length), destination, 0);
+            }
+
+        };
+    }
+
+    @Override
+    public FloatColumn floatColumn(String fieldName) {
+        final DirectPrimitiveStore store = (DirectPrimitiveStore) storeOf(columnIndexOf(fieldName, FieldType.FLOAT), FieldType.FLOAT);
+        return new FloatColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public float get(int rowIndex) {
+                requireValidRowIndex(rowIndex);
+                return store.getFloat(rowIndex - 1);
+            }
+
+            @Override
+            public void copyTo(float[] destination) {
+                store.copyTo(0, requireLargeEnough(destination.length), destination, 0);
+            }
+
+        };
+    }
+
+    @Override
+    public DoubleColumn doubleColumn(String fieldName) {
+        final DirectPrimitiveStore store = (DirectPrimitiveStore) storeOf(columnIndexOf(fieldName, FieldType.DOUBLE), FieldType.DOUBLE);
+        return new DoubleColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public double get(int rowIndex) {
+                requireValidRowIndex(rowIndex);
+                return store.getDouble(rowIndex - 1);
+            }
+
+            @Override
+            public void copyTo(double[] destination) {
+                store.copyTo(0, requireLargeEnough(destination.length), destination, 0);
+            }
+
+        };
+    }
+
+    @Override
+    public BooleanColumn booleanColumn(String fieldName) {
+        final DirectPrimitiveStore store = (DirectPrimitiveStore) storeOf(columnIndexOf(fieldName, FieldType.BOOLEAN), FieldType.BOOLEAN);
+        return new BooleanColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public boolean get(int rowIndex) {
+                requireValidRowIndex(rowIndex);
+                return store.getBoolean(rowIndex - 1);
+            }
+
+            @Override
+            public void copyTo(boolean[] destination) {
+                store.copyTo(0, requireLargeEnough(destination.length), destination, 0);
+            }
+
+        };
+    }
+
+    @Override
+    public CharacterColumn characterColumn(String fieldName) {
+        final DirectPrimitiveStore store = (DirectPrimitiveStore) storeOf(columnIndexOf(fieldName, FieldType.CHARACTER), FieldType.CHARACTER);
+        return new CharacterColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public char get(int rowIndex) {
+                requireValidRowIndex(rowIndex);
+                return store.getCharacter(rowIndex - 1);
+            }
+
+            @Override
+            public void copyTo(char[] destination) {
+                store.copyTo(0, requireLargeEnough(destination.length), destination, 0);
+            }
+
+        };
+    }
+
+    @Override
+    public StringColumn stringColumn(String fieldName) {
+        final DirectStringStore store = (DirectStringStore) storeOf(columnIndexOf(fieldName, FieldType.STRING), FieldType.STRING);
+        return new StringColumn() {
+
+            @Override
+            public int size() {
+                return getRowCount();
+            }
+
+            @Override
+            public String get(int rowIndex) {
+                requireValidRowIndex(rowIndex);
+                return store.getString(rowIndex - 1);
+            }
+
+            @Override
+            public void copyTo(String[] destination) {
+                store.copyTo(0, requireLargeEnough(destination.length), destination, 0);
+            }
+
+        };
+    }
+
+    /**
+     * @return the data contained at the given position
+     * @param rowIndex the index of the row to query
+     * @param fieldName the name of the field of interest
+     */
+    @Override
+    public Object getData(int rowIndex, String fieldName) {
+        requireValidFieldName(fieldName);
+
+        return getData(rowIndex, schema.getFieldIndex(fieldName));
+    }
+
+    @Override
+    public Row getRow(int rowIndex) {
+        requireOpen();
+        requireValidRowIndex(rowIndex);
+
+        return new Cursor(this, rowIndex);
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public int getRowCount() {
+        requireOpen();
+        return rowCount;
+    }
+
+    /**
+     * @return true once the table has been closed, and its memory released
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Release the direct memory held by this table. The data cannot be
+     * accessed anymore afterwards. The table must not be closed while other
+     * threads are still reading it.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            for (DirectStore eachColumn : columns) {
+                eachColumn.release();
+            }
+        }
+    }
+
+    /**
+     * Check that the memory of this table has not been released yet
+     */
+    private void requireOpen() throws IllegalStateException {
+        if (closed) {
+            throw new IllegalStateException("Invalid access to a closed table");
+        }
+    }
+
+}
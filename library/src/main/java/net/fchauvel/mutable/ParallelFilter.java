@@ -0,0 +1,114 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import net.fchauvel.mutable.expression.Expression;
+
+/**
+ * Evaluate a criteria over a range of candidate rows on a fork-join pool. The
+ * range is cut into chunks of consecutive candidates, each filtered by a
+ * single task with its own cursor, and the matches of all chunks are then
+ * appended in order.
+ */
+class ParallelFilter extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Append to the given selection the candidate rows, from the first to the
+     * last, that satisfy the criteria, in order.
+     *
+     * The source must support concurrent reads while the filter runs.
+     *
+     * @param candidates the source rows to filter, or null to filter the
+     * source rows themselves
+     * @param first the position of the first candidate to filter, from 1 to n
+     * @param last the position of the last candidate to filter
+     */
+    static void select(Table source, Expression criteria, Selection candidates, int first, int last, ForkJoinPool pool, int chunkSize, Selection selection) {
+        assert first > 0 && first <= last : "Invalid candidate range [" + first + ", " + last + "]";
+        assert chunkSize > 0 : "Invalid chunk size " + chunkSize;
+
+        final int chunkCount = (int) (((long) last - first + chunkSize) / chunkSize);
+        final Selection[] matches = new Selection[chunkCount];
+        final ParallelFilter filter = new ParallelFilter(source, criteria, candidates, first, last, chunkSize, matches, 0, chunkCount);
+        if (chunkCount == 1) {
+            filter.compute();
+        } else {
+            pool.invoke(filter);
+        }
+        for (Selection each : matches) {
+            selection.addAll(each);
+        }
+    }
+
+    private final Table source;
+    private final Expression criteria;
+    private final Selection candidates;
+    private final int first;
+    private final int last;
+    private final int chunkSize;
+    private final Selection[] matches;
+    private final int fromChunk;
+    private final int toChunk;
+
+    private ParallelFilter(Table source, Expression criteria, Selection candidates, int first, int last, int chunkSize, Selection[] matches, int fromChunk, int toChunk) {
+        this.source = source;
+        this.criteria = criteria;
+        this.candidates = candidates;
+        this.first = first;
+        this.last = last;
+        this.chunkSize = chunkSize;
+        this.matches = matches;
+        this.fromChunk = fromChunk;
+        this.toChunk = toChunk;
+    }
+
+    @Override
+    protected void compute() {
+        if (toChunk - fromChunk == 1) {
+            matches[fromChunk] = filterChunk(fromChunk);
+            return;
+        }
+        final int middle = (fromChunk + toChunk) >>> 1;
+        invokeAll(
+                new ParallelFilter(source, criteria, candidates, first, last, chunkSize, matches, fromChunk, middle),
+                new ParallelFilter(source, criteria, candidates, first, last, chunkSize, matches, middle, toChunk));
+    }
+
+    /**
+     * @return the rows of the given chunk that satisfy the criteria
+     */
+    private Selection filterChunk(int chunk) {
+        final int start = first + chunk * chunkSize;
+        final int end = (int) Math.min(last, (long) start + chunkSize - 1);
+        final Selection selected = new Selection();
+        final Cursor cursor = new Cursor(source, 0);
+        for (int position = start; position <= end; position++) {
+            cursor.moveTo(candidates == null ? position : candidates.get(position));
+            if ((boolean) criteria.evaluate(cursor)) {
+                selected.add(cursor.getRowIndex());
+            }
+        }
+        return selected;
+    }
+
+}
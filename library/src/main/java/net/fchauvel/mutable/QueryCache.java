@@ -0,0 +1,161 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.fchauvel.mutable.expression.Expression;
+
+/**
+ * Cache the results of the queries run against a data table, so that a query
+ * issued again is answered without scanning the table.
+ *
+ * Queries are identified by their normalized form, so that equivalent
+ * criteria written differently share the same entry. The whole cache is
+ * dropped as soon as the table is modified, and the least recently used
+ * entries are evicted when the cached results exceed the byte budget.
+ */
+public class QueryCache {
+
+    /**
+     * The estimated number of bytes used by an entry, besides its results
+     */
+    private static final long ENTRY_OVERHEAD = 64;
+
+    private final long byteBudget;
+    private final LinkedHashMap<Expression, Selection> entries;
+    private long sizeInBytes;
+    private long modificationCount;
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * @param byteBudget the maximum number of bytes used by cached results
+     */
+    public QueryCache(long byteBudget) {
+        if (byteBudget <= 0) {
+            final String error = String.format("Invalid byte budget (found %d, expected a positive budget)", byteBudget);
+            throw new IllegalArgumentException(error);
+        }
+        this.byteBudget = byteBudget;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.sizeInBytes = 0;
+        this.modificationCount = -1;
+        this.hitCount = 0;
+        this.missCount = 0;
+    }
+
+    /**
+     * @return the rows of the given table that satisfy the given criteria,
+     * taken from the cache if the same query was already answered since the
+     * last modification of the table.
+     *
+     * Otherwise, the result set is fetched lazily as usual, and its rows are
+     * cached only once it is fully fetched, provided the table was not
+     * modified in the meantime. Queries that stop early, such as limits and
+     * existence checks, thus never scan more than they need.
+     *
+     * @param table the table to query
+     * @param criteria the predicate that must be satisfied
+     */
+    ResultSet resultOf(DataTable table, Expression criteria) {
+        invalidateIfModified(table);
+
+        final Expression key = criteria.normalize();
+        final Selection rows = entries.get(key);
+        if (rows != null) {
+            hitCount++;
+            return ResultSet.fetched(table, criteria, rows);
+        }
+        missCount++;
+        final long queriedAt = modificationCount;
+        return new ResultSet(table, criteria).whenFetched(selection -> {
+            if (table.getModificationCount() == queriedAt && !entries.containsKey(key)) {
+                store(key, selection);
+            }
+        });
+    }
+
+    private void invalidateIfModified(DataTable table) {
+        if (table.getModificationCount() != modificationCount) {
+            clear();
+            modificationCount = table.getModificationCount();
+        }
+    }
+
+    private void store(Expression key, Selection rows) {
+        final long entrySize = ENTRY_OVERHEAD + rows.sizeInBytes();
+        if (entrySize > byteBudget) {
+            return;
+        }
+        entries.put(key, rows);
+        sizeInBytes += entrySize;
+        final Iterator<Map.Entry<Expression, Selection>> leastRecentlyUsed = entries.entrySet().iterator();
+        while (sizeInBytes > byteBudget) {
+            final Selection evicted = leastRecentlyUsed.next().getValue();
+            leastRecentlyUsed.remove();
+            sizeInBytes -= ENTRY_OVERHEAD + evicted.sizeInBytes();
+        }
+    }
+
+    /**
+     * Drop all the cached results
+     */
+    public void clear() {
+        entries.clear();
+        sizeInBytes = 0;
+    }
+
+    /**
+     * @return the number of cached queries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the estimated number of bytes used by the cached results
+     */
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * @return the maximum number of bytes used by the cached results
+     */
+    public long getByteBudget() {
+        return byteBudget;
+    }
+
+    /**
+     * @return the number of queries answered from the cache
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of queries that required a scan of the table
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+}
@@ -18,91 +18,483 @@
  */
 package net.fchauvel.mutable;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import net.fchauvel.mutable.bitmap.RowBitmap;
 import net.fchauvel.mutable.expression.Expression;
+import net.fchauvel.mutable.expression.True;
+import static net.fchauvel.mutable.expression.Negation.not;
 
 /**
  * ResultSet caches the results of a query so that the criteria is evaluated
  * only once per row in the source table.
+ *
+ * A result set reflects its source as it was when it was fully fetched: see
+ * DataTable.liveWhere() for queries over tables that keep growing.
  */
 public class ResultSet extends AbstractTable {
 
+    /**
+     * The default number of rows evaluated by each task, in parallel mode
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
     private final Table source;
     private final Expression criteria;
-    private final Iterator<Row> iterator;
-    private final Map<Integer, Integer> cache;
+    private final Expression filter;
+    private final Selection candidates;
+    private final Cursor cursor;
+    private final Selection selection;
+    private int scanned;
+    private int limit;
     private boolean allFetched;
+    private RowBitmap bitmap;
+    private ForkJoinPool pool;
+    private int chunkSize;
+    private Consumer<Selection> whenFetched;
 
     ResultSet(Table source, Expression criteria) {
-        this(source, criteria, new HashMap<>()); 
+        this(source, criteria, new Selection()); 
+    }
+
+    ResultSet(Table source, Expression criteria, Selection selection) {
+        this(source, criteria, criteria, null, selection);
     }
 
-    ResultSet(Table source, Expression criteria, Map<Integer, Integer> cache) {
+    /**
+     * @param source the table whose rows are selected
+     * @param criteria the condition satisfied by all the selected rows
+     * @param filter the condition evaluated on the candidate rows, which
+     * implies the criteria on these rows
+     * @param candidates the source rows to scan, in order, or null to scan
+     * them all
+     * @param selection the vector where matches are recorded
+     */
+    private ResultSet(Table source, Expression criteria, Expression filter, Selection candidates, Selection selection) {
         assert source != null : "Invalid result set source ('null' found)";
         assert criteria != null : "Invalid result set criteria ('null' found)";
-        assert cache != null : "Invalid result set cache ('null' found)";
+        assert filter != null : "Invalid result set filter ('null' found)";
+        assert selection != null : "Invalid result set selection ('null' found)";
 
         this.source = source;
-        this.criteria = criteria;
-        this.cache = cache;
+        this.criteria = criteria.bindTo(source);
+        this.filter = filter == criteria ? this.criteria : filter.bindTo(source);
+        this.candidates = candidates;
+        this.selection = selection;
+        this.scanned = 0;
+        this.limit = Integer.MAX_VALUE;
         this.allFetched = false;
-        this.iterator = source.iterator();
+        this.cursor = new Cursor(source, 0);
+    }
+
+    /**
+     * Evaluate the criteria in parallel, on the common fork-join pool, when
+     * the whole source is scanned
+     *
+     * @return this result set
+     */
+    public ResultSet inParallel() {
+        return inParallel(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Evaluate the criteria in parallel when the whole source is scanned, for
+     * instance to count rows. The rows not fetched yet are then split into
+     * chunks evaluated as separate tasks of the given pool.
+     *
+     * The source table must not be modified while it is being scanned.
+     *
+     * @return this result set
+     * @param pool the pool that runs the tasks
+     * @param chunkSize the number of rows evaluated by each task
+     */
+    public ResultSet inParallel(ForkJoinPool pool, int chunkSize) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Invalid fork-join pool ('null' found)");
+        }
+        if (chunkSize <= 0) {
+            final String error = String.format("Invalid chunk size (found %d, expected a positive size)", chunkSize);
+            throw new IllegalArgumentException(error);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * @return true if the criteria is evaluated in parallel on full scans
+     */
+    public boolean isParallel() {
+        return pool != null;
+    }
+
+    /**
+     * @return a result set made of the given rows, which are known to satisfy
+     * the criteria
+     * @param source the table whose rows are selected
+     * @param criteria the condition satisfied by the selected rows
+     * @param rows the indices of the selected rows, in increasing order
+     */
+    static ResultSet fetched(Table source, Expression criteria, Selection rows) {
+        final ResultSet result = new ResultSet(source, criteria, criteria, null, rows);
+        result.markAllFetched();
+        return result;
+    }
+
+    /**
+     * Register the action that receives the selection of this result set once
+     * all its rows are fetched, if they ever are. Result sets bounded by a
+     * limit never run it.
+     *
+     * @return this result set
+     * @param action the action to run, at most once
+     */
+    ResultSet whenFetched(Consumer<Selection> action) {
+        this.whenFetched = action;
+        return this;
+    }
+
+    /**
+     * Build a result set whose rows are already known
+     */
+    private ResultSet(Table source, Expression criteria, RowBitmap rows) {
+        this(source, criteria, criteria, null, Selection.of(rows));
+        this.allFetched = true;
+        this.bitmap = rows;
+    }
+
+    /**
+     * @return the rows that belong to both this result set and the given one,
+     * computed without evaluating the criteria again
+     * @param other a result set drawn from the same table
+     */
+    public ResultSet and(ResultSet other) {
+        requireSameSource(other);
+        return new ResultSet(source, criteria.and(other.criteria), getBitmap().and(other.getBitmap()));
+    }
+
+    /**
+     * @return the rows that belong to this result set or to the given one,
+     * computed without evaluating the criteria again
+     * @param other a result set drawn from the same table
+     */
+    public ResultSet or(ResultSet other) {
+        requireSameSource(other);
+        return new ResultSet(source, criteria.or(other.criteria), getBitmap().or(other.getBitmap()));
+    }
+
+    /**
+     * @return the rows of this result set that do not belong to the given
+     * one, computed without evaluating the criteria again
+     * @param other a result set drawn from the same table
+     */
+    public ResultSet andNot(ResultSet other) {
+        requireSameSource(other);
+        return new ResultSet(source, criteria.and(not(other.criteria)), getBitmap().andNot(other.getBitmap()));
+    }
+
+    /**
+     * @return the rows of the source table that do not belong to this result
+     * set, computed without evaluating the criteria again
+     */
+    public ResultSet invert() {
+        return new ResultSet(source, not(criteria), getBitmap().flip(1, source.getRowCount() + 1));
+    }
+
+    /**
+     * @return the rows of this result set that satisfy the given query.
+     *
+     * The new result set selects rows of the underlying table directly, rather
+     * than rows of this result set. Once all the rows of this result set are
+     * known, it evaluates the query on these rows only; otherwise, it
+     * evaluates both criteria at once on the underlying table. Chains of
+     * queries thus never scan more than the underlying table.
+     *
+     * @param query the predicate that must be satisfied
+     */
+    @Override
+    public ResultSet where(Expression query) {
+        requireValidCriteria(query);
+        if (isLimited()) {
+            fetchAll();
+        }
+        final ResultSet result;
+        if (allFetched) {
+            result = new ResultSet(source, criteria.and(query), query, selection, new Selection());
+        } else {
+            result = new ResultSet(source, criteria.and(query), filter.and(query), candidates, new Selection());
+        }
+        result.pool = pool;
+        result.chunkSize = chunkSize;
+        return result;
+    }
+
+    private void requireSameSource(ResultSet other) throws IllegalArgumentException {
+        if (other == null) {
+            throw new IllegalArgumentException("Invalid result set ('null' found)");
+        }
+        if (other.source != source) {
+            throw new IllegalArgumentException("Cannot combine result sets drawn from different tables");
+        }
+    }
+
+    /**
+     * @return the selection vector of this result set, once all rows are
+     * fetched. It must not be modified.
+     */
+    Selection getSelection() {
+        fetchAll();
+        return selection;
+    }
+
+    /**
+     * @return the bitmap of the source indices of the rows in this result
+     * set, which is built once all rows are fetched
+     */
+    RowBitmap getBitmap() {
+        fetchAll();
+        if (bitmap == null) {
+            bitmap = selection.toBitmap();
+        }
+        return bitmap;
     }
 
 
 
     @Override
     public Row getRow(int rowIndex) {
+        return source.getRow(sourceIndexOf(rowIndex));
+    }
+
+    @Override
+    public Object getData(int rowIndex, int columnIndex) {
+        return source.getData(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public int getInteger(int rowIndex, int columnIndex) {
+        return source.getInteger(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public long getLong(int rowIndex, int columnIndex) {
+        return source.getLong(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public float getFloat(int rowIndex, int columnIndex) {
+        return source.getFloat(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public double getDouble(int rowIndex, int columnIndex) {
+        return source.getDouble(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public boolean getBoolean(int rowIndex, int columnIndex) {
+        return source.getBoolean(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public char getCharacter(int rowIndex, int columnIndex) {
+        return source.getCharacter(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public String getString(int rowIndex, int columnIndex) {
+        return source.getString(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    /**
+     * Reduce the values of the source at the selected rows, without going
+     * through the row indices of this result set
+     */
+    @Override
+    public ColumnStatistics statisticsOf(String fieldName) {
+        final int columnIndex = numericColumnIndexOf(fieldName);
+        final Selection rows = getSelection();
+        final ColumnStatistics statistics = new ColumnStatistics();
+        summarizeRows(source, columnIndex, rows, rows.size(), statistics);
+        return statistics;
+    }
+
+    /**
+     * @return the index, in the source table, of the given row of this result
+     * set
+     * @param rowIndex the index of the row of interest, from 1 to n
+     */
+    private int sourceIndexOf(int rowIndex) {
         fetch(rowIndex);
-        return source.getRow(cache.get(rowIndex));
+        if (!selection.contains(rowIndex)) {
+            final String error = String.format("Invalid row id %d (should be within [1, %d])", rowIndex, getRowCount());
+            throw new IllegalArgumentException(error);
+        }
+        return selection.get(rowIndex);
     }
 
     /**
-     * Fetch the ith row that match the local criteria, if it does.
+     * Fetch rows from the source until the ith matching one is found, or until
+     * the source is exhausted.
      *
      * @param rowIndex the index of the row of interest
      */
     private void fetch(int rowIndex) {
         if (!allFetched) {
-            while (iterator.hasNext()) {
-                updateCacheIfNeeded();
-                if (cache.containsKey(rowIndex)) {
-                    return;
-                }
+            final int candidateCount = candidateCount();
+            while (selection.size() < rowIndex && selection.size() < limit && scanned < candidateCount) {
+                fetchNext();
+            }
+            if (scanned == candidateCount || selection.size() == limit) {
+                markAllFetched();
             }
-            allFetched = true;
-            if (!cache.containsKey(rowIndex)) {
-                final String error = String.format("Invalid row id %d (should be within [1, %d])", rowIndex, getRowCount());
-                throw new IllegalArgumentException(error);
+        }
+    }
+
+    /**
+     * @return the number of source rows to scan
+     */
+    private int candidateCount() {
+        if (candidates == null) {
+            return source.getRowCount();
+        }
+        return candidates.size();
+    }
+
+    /**
+     * @return true if no row satisfies the criteria, which is found out as
+     * soon as the first matching row is
+     */
+    @Override
+    public boolean isEmpty() {
+        fetch(1);
+        return !selection.contains(1);
+    }
+
+    @Override
+    public int count(Expression query) {
+        requireValidCriteria(query);
+        return where(query).countMatches();
+    }
+
+    /**
+     * @return the number of rows of this result set, counted without
+     * recording the rows that are not fetched yet
+     */
+    private int countMatches() {
+        int count = selection.size();
+        if (allFetched) {
+            return count;
+        }
+        final int candidateCount = candidateCount();
+        final Cursor counter = new Cursor(source, 0);
+        for (int position = scanned + 1; position <= candidateCount && count < limit; position++) {
+            counter.moveTo(candidateAt(position));
+            if ((boolean) filter.evaluate(counter)) {
+                count++;
             }
         }
+        return count;
+    }
+
+    /**
+     * @return a result set holding at most the given number of rows, the
+     * first ones of this result set. Rows are fetched lazily, and the scan
+     * stops as soon as enough rows are found.
+     * @param count the maximum number of rows
+     */
+    public ResultSet limit(int count) {
+        if (count < 0) {
+            final String error = String.format("Invalid limit (found %d, expected a positive or null limit)", count);
+            throw new IllegalArgumentException(error);
+        }
+        final ResultSet result;
+        if (allFetched) {
+            result = new ResultSet(source, criteria, new True(), selection, new Selection());
+        } else {
+            result = new ResultSet(source, criteria, filter, candidates, new Selection());
+        }
+        result.limit = Math.min(limit, count);
+        result.pool = pool;
+        result.chunkSize = chunkSize;
+        return result;
+    }
+
+    /**
+     * @return true if this result set is bounded by a limit, in which case it
+     * is always fetched sequentially
+     */
+    public boolean isLimited() {
+        return limit != Integer.MAX_VALUE;
     }
 
     @Override
     public int getRowCount() {
         fetchAll();
-        return cache.size();
+        return selection.size();
     }
 
 
+    /**
+     * @return a spliterator over the rows of this result set, which is fetched
+     * entirely beforehand so that it can be split evenly
+     */
+    @Override
+    public Spliterator<Row> spliterator() {
+        fetchAll();
+        return super.spliterator();
+    }
+
     private void fetchAll() {
         if (!allFetched) {
-            while (iterator.hasNext()) {
-                updateCacheIfNeeded();
+            final int candidateCount = candidateCount();
+            if (isParallel() && !isLimited()) {
+                if (scanned < candidateCount) {
+                    ParallelFilter.select(source, filter, candidates, scanned + 1, candidateCount, pool, chunkSize, selection);
+                    scanned = candidateCount;
+                }
+            } else {
+                while (scanned < candidateCount && selection.size() < limit) {
+                    fetchNext();
+                }
             }
-            allFetched = true;
+            markAllFetched();
         }
     }
 
-    private void updateCacheIfNeeded() {
-        assert cache.size() < source.getRowCount() : "Invalid cache";
+    private void markAllFetched() {
+        allFetched = true;
+        selection.trim();
+        if (whenFetched != null && !isLimited()) {
+            final Consumer<Selection> action = whenFetched;
+            whenFetched = null;
+            action.accept(selection);
+        }
+    }
+
+    /**
+     * @return the index, in the source, of the given candidate row
+     * @param position the position of the candidate, from 1 to n
+     */
+    private int candidateAt(int position) {
+        if (candidates == null) {
+            return position;
+        }
+        return candidates.get(position);
+    }
+
+    /**
+     * Move to the next candidate row and select it if it matches the filter
+     */
+    private void fetchNext() {
+        assert scanned < candidateCount() : "No candidate left";
 
-        final Row row = iterator.next();
-        boolean isSatisfied = (boolean) criteria.evaluate(row);
+        scanned++;
+        cursor.moveTo(candidateAt(scanned));
+        boolean isSatisfied = (boolean) filter.evaluate(cursor);
         if (isSatisfied) {
-            cache.put(cache.size() + 1, row.getRowIndex());
+            selection.add(cursor.getRowIndex());
         }
     }
 
@@ -105,6 +105,34 @@ public interface Row {
      */
     boolean getBoolean(int fieldIndex);
 
+    /**
+     * @return the value contained is a specific field/column of this row,
+     * casted as a char
+     * @param fieldName the name of the field
+     */
+    char getCharacter(String fieldName);
+
+    /**
+     * @return the value contained is a specific field/column of this row casted
+     * as a char
+     * @param fieldIndex the position of the field starting at 1
+     */
+    char getCharacter(int fieldIndex);
+
+    /**
+     * @return the value contained is a specific field/column of this row,
+     * casted as a string
+     * @param fieldName the name of the field
+     */
+    String getString(String fieldName);
+
+    /**
+     * @return the value contained is a specific field/column of this row casted
+     * as a string
+     * @param fieldIndex the position of the field starting at 1
+     */
+    String getString(int fieldIndex);
+
     /**
      * @return the index of this row in the table, starting at 1
      */
@@ -0,0 +1,38 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+/**
+ * Behavior of an operation applied to every row of a table, during a scan.
+ *
+ * The row given to the consumer is a flyweight: the same instance is moved
+ * from one row to the next, so it must not be kept beyond the call to
+ * {@link #accept(Row)}.
+ */
+@FunctionalInterface
+public interface RowConsumer {
+
+    /**
+     * Process the current row of the scan
+     *
+     * @param row the current row, only valid during this call
+     */
+    void accept(Row row);
+
+}
@@ -23,9 +23,20 @@ import java.util.Iterator;
 public class RowIterator implements Iterator<Row> {
 
     private final Cursor current;
+    private final boolean reuseRows;
 
     public RowIterator(Cursor startPosition) {
+        this(startPosition, false);
+    }
+
+    /**
+     * @param startPosition the cursor to move along the rows
+     * @param reuseRows true if next() shall return the cursor itself rather
+     * than a copy, in which case the returned row changes on every call
+     */
+    public RowIterator(Cursor startPosition, boolean reuseRows) {
         this.current = startPosition;
+        this.reuseRows = reuseRows;
     }
 
     @Override
@@ -37,6 +48,9 @@ public class RowIterator implements Iterator<Row> {
     public Row next() {
         if (current.hasNext()) {
             current.moveToNext();
+            if (reuseRows) {
+                return current;
+            }
             return new Cursor(current);
         }
         throw new IllegalStateException("There is no next row!");
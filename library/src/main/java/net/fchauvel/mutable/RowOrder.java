@@ -0,0 +1,397 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.Arrays;
+
+/**
+ * The order of the rows of a table, w.r.t. one or more sort keys. Ties are
+ * broken by row index, so that the order is total and sorts are stable.
+ *
+ * Numeric, boolean and character values are compared as primitive longs,
+ * encoded so that their order matches the requested one. Strings are
+ * compared as strings.
+ */
+final class RowOrder {
+
+    /**
+     * @return the order of the rows of the given table, where the values of
+     * the keys are first copied out of the table, so that comparisons are
+     * plain array accesses
+     */
+    static RowOrder extracted(Table source, SortKey[] keys) {
+        requireValidKeys(source, keys);
+        final Key[] extractedKeys = new Key[keys.length];
+        for (int index = 0; index < keys.length; index++) {
+            extractedKeys[index] = extract(source, keys[index]);
+        }
+        return new RowOrder(source, extractedKeys);
+    }
+
+    /**
+     * @return the order of the rows of the given table, where values are read
+     * from the table at each comparison, without copying whole columns
+     */
+    static RowOrder direct(Table source, SortKey[] keys) {
+        requireValidKeys(source, keys);
+        final Key[] directKeys = new Key[keys.length];
+        for (int index = 0; index < keys.length; index++) {
+            directKeys[index] = new DirectKey(source, keys[index]);
+        }
+        return new RowOrder(source, directKeys);
+    }
+
+    private static void requireValidKeys(Table source, SortKey[] keys) throws IllegalArgumentException {
+        if (keys == null || keys.length == 0) {
+            throw new IllegalArgumentException("Invalid sort keys (expected at least one key)");
+        }
+        for (SortKey eachKey : keys) {
+            if (eachKey == null) {
+                throw new IllegalArgumentException("Invalid sort keys ('null' found)");
+            }
+            if (!source.getSchema().hasFieldNamed(eachKey.getFieldName())) {
+                final String error = String.format("Unknown field name '%s' (fields are %s)", eachKey.getFieldName(), source.getSchema().getFieldNames());
+                throw new IllegalArgumentException(error);
+            }
+        }
+    }
+
+    private final Table source;
+    private final Key[] keys;
+
+    private RowOrder(Table source, Key[] keys) {
+        this.source = source;
+        this.keys = keys;
+    }
+
+    /**
+     * @return a negative number, zero, or a positive number, if the first row
+     * comes before, is, or comes after the second one
+     * @param rowA the index of the first row, from 1 to n
+     * @param rowB the index of the second row, from 1 to n
+     */
+    int compare(int rowA, int rowB) {
+        for (Key eachKey : keys) {
+            final int comparison = eachKey.compare(rowA, rowB);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(rowA, rowB);
+    }
+
+    /**
+     * @return the indices of all the rows, from 1 to n, in order
+     */
+    int[] sort() {
+        final int rowCount = source.getRowCount();
+        if (keys.length == 1 && keys[0] instanceof NarrowKey) {
+            return ((NarrowKey) keys[0]).sort(rowCount);
+        }
+        final int[] rows = new int[rowCount];
+        for (int index = 0; index < rowCount; index++) {
+            rows[index] = index + 1;
+        }
+        mergeSort(rows);
+        return rows;
+    }
+
+    /**
+     * @return the indices of the first k rows, in order, which are selected
+     * through a bounded heap rather than by sorting all rows
+     * @param k the number of rows to select
+     */
+    int[] top(int k) {
+        final int rowCount = source.getRowCount();
+        final int[] heap = new int[Math.min(k, rowCount)];
+        if (heap.length == 0) {
+            return heap;
+        }
+        int size = 0;
+        for (int row = 1; row <= rowCount; row++) {
+            if (size < heap.length) {
+                heap[size] = row;
+                siftUp(heap, size);
+                size++;
+            } else if (compare(row, heap[0]) < 0) {
+                heap[0] = row;
+                siftDown(heap, 0, size);
+            }
+        }
+        mergeSort(heap);
+        return heap;
+    }
+
+    /**
+     * Move up the given entry of a heap where the last row in order sits at
+     * the root
+     */
+    private void siftUp(int[] heap, int position) {
+        final int row = heap[position];
+        while (position > 0) {
+            final int parent = (position - 1) >>> 1;
+            if (compare(heap[parent], row) >= 0) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = row;
+    }
+
+    private void siftDown(int[] heap, int position, int size) {
+        final int row = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (compare(heap[child], row) <= 0) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = row;
+    }
+
+    private void mergeSort(int[] rows) {
+        final int[] buffer = rows.clone();
+        mergeSort(buffer, rows, 0, rows.length);
+    }
+
+    /**
+     * Sort the rows of the source within [from, to[ into the target
+     */
+    private void mergeSort(int[] source, int[] target, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        final int middle = (from + to) >>> 1;
+        mergeSort(target, source, from, middle);
+        mergeSort(target, source, middle, to);
+        int left = from, right = middle;
+        for (int index = from; index < to; index++) {
+            if (right >= to || (left < middle && compare(source[left], source[right]) <= 0)) {
+                target[index] = source[left++];
+            } else {
+                target[index] = source[right++];
+            }
+        }
+    }
+
+    /**
+     * The values of a sort key, for all rows
+     */
+    private static abstract class Key {
+
+        /**
+         * @return the comparison of the two rows, w.r.t. this key only
+         */
+        abstract int compare(int rowA, int rowB);
+
+    }
+
+    private static Key extract(Table source, SortKey key) {
+        final FieldType type = source.getSchema().getField(key.getFieldName()).getType();
+        final int rowCount = source.getRowCount();
+        switch (type) {
+            case INTEGER: {
+                final int[] values = new int[rowCount];
+                source.integerColumn(key.getFieldName()).copyTo(values);
+                final long[] keys = new long[rowCount];
+                for (int index = 0; index < rowCount; index++) {
+                    keys[index] = values[index];
+                }
+                return new NarrowKey(keys, key.isAscending());
+            }
+            case CHARACTER: {
+                final char[] values = new char[rowCount];
+                source.characterColumn(key.getFieldName()).copyTo(values);
+                final long[] keys = new long[rowCount];
+                for (int index = 0; index < rowCount; index++) {
+                    keys[index] = values[index];
+                }
+                return new NarrowKey(keys, key.isAscending());
+            }
+            case BOOLEAN: {
+                final boolean[] values = new boolean[rowCount];
+                source.booleanColumn(key.getFieldName()).copyTo(values);
+                final long[] keys = new long[rowCount];
+                for (int index = 0; index < rowCount; index++) {
+                    keys[index] = values[index] ? 1 : 0;
+                }
+                return new NarrowKey(keys, key.isAscending());
+            }
+            case LONG: {
+                final long[] keys = new long[rowCount];
+                source.longColumn(key.getFieldName()).copyTo(keys);
+                return new LongKey(keys, key.isAscending());
+            }
+            case FLOAT: {
+                final float[] values = new float[rowCount];
+                source.floatColumn(key.getFieldName()).copyTo(values);
+                final long[] keys = new long[rowCount];
+                for (int index = 0; index < rowCount; index++) {
+                    keys[index] = sortable(values[index]);
+                }
+                return new LongKey(keys, key.isAscending());
+            }
+            case DOUBLE: {
+                final double[] values = new double[rowCount];
+                source.doubleColumn(key.getFieldName()).copyTo(values);
+                final long[] keys = new long[rowCount];
+                for (int index = 0; index < rowCount; index++) {
+                    keys[index] = sortable(values[index]);
+                }
+                return new LongKey(keys, key.isAscending());
+            }
+            case STRING: {
+                final String[] values = new String[rowCount];
+                source.stringColumn(key.getFieldName()).copyTo(values);
+                return new StringKey(values, key.isAscending());
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported sort key type " + type);
+        }
+    }
+
+    /**
+     * @return a long whose signed order matches the order of doubles, as
+     * defined by Double.compare
+     */
+    static long sortable(double value) {
+        final long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Values encoded as longs, in the requested direction
+     */
+    private static class LongKey extends Key {
+
+        protected final long[] values;
+
+        LongKey(long[] values, boolean ascending) {
+            if (!ascending) {
+                for (int index = 0; index < values.length; index++) {
+                    values[index] = ~values[index];
+                }
+            }
+            this.values = values;
+        }
+
+        @Override
+        int compare(int rowA, int rowB) {
+            return Long.compare(values[rowA - 1], values[rowB - 1]);
+        }
+
+    }
+
+    /**
+     * Values that fit in 32 bits (int, char, boolean), which can be sorted by
+     * packing each value with its row index into a single long
+     */
+    private static final class NarrowKey extends LongKey {
+
+        NarrowKey(long[] values, boolean ascending) {
+            super(values, ascending);
+        }
+
+        int[] sort(int rowCount) {
+            final long[] packed = new long[rowCount];
+            for (int index = 0; index < rowCount; index++) {
+                packed[index] = (values[index] << 32) | index;
+            }
+            Arrays.sort(packed);
+            final int[] rows = new int[rowCount];
+            for (int index = 0; index < rowCount; index++) {
+                rows[index] = (int) packed[index] + 1;
+            }
+            return rows;
+        }
+
+    }
+
+    private static final class StringKey extends Key {
+
+        private final String[] values;
+        private final int direction;
+
+        StringKey(String[] values, boolean ascending) {
+            this.values = values;
+            this.direction = ascending ? 1 : -1;
+        }
+
+        @Override
+        int compare(int rowA, int rowB) {
+            return direction * values[rowA - 1].compareTo(values[rowB - 1]);
+        }
+
+    }
+
+    /**
+     * Values read from the table at each comparison
+     */
+    private static final class DirectKey extends Key {
+
+        private final Table source;
+        private final int columnIndex;
+        private final FieldType type;
+        private final int direction;
+
+        DirectKey(Table source, SortKey key) {
+            this.source = source;
+            this.columnIndex = source.getSchema().getFieldIndex(key.getFieldName());
+            this.type = source.getSchema().getField(columnIndex).getType();
+            this.direction = key.isAscending() ? 1 : -1;
+        }
+
+        @Override
+        int compare(int rowA, int rowB) {
+            return direction * compareValues(rowA, rowB);
+        }
+
+        private int compareValues(int rowA, int rowB) {
+            switch (type) {
+                case INTEGER:
+                    return Integer.compare(source.getInteger(rowA, columnIndex), source.getInteger(rowB, columnIndex));
+                case LONG:
+                    return Long.compare(source.getLong(rowA, columnIndex), source.getLong(rowB, columnIndex));
+                case FLOAT:
+                    return Float.compare(source.getFloat(rowA, columnIndex), source.getFloat(rowB, columnIndex));
+                case DOUBLE:
+                    return Double.compare(source.getDouble(rowA, columnIndex), source.getDouble(rowB, columnIndex));
+                case BOOLEAN:
+                    return Boolean.compare(source.getBoolean(rowA, columnIndex), source.getBoolean(rowB, columnIndex));
+                case CHARACTER:
+                    return Character.compare(source.getCharacter(rowA, columnIndex), source.getCharacter(rowB, columnIndex));
+                case STRING:
+                    return source.getString(rowA, columnIndex).compareTo(source.getString(rowB, columnIndex));
+                default:
+                    throw new IllegalArgumentException("Unsupported sort key type " + type);
+            }
+        }
+
+    }
+
+}
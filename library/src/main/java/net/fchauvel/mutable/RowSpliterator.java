@@ -0,0 +1,103 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Split the rows of a table into ranges of row indices, so that they can be
+ * processed in parallel. Each row is given as a distinct cursor, which stream
+ * operations may safely retain.
+ */
+public class RowSpliterator implements Spliterator<Row> {
+
+    private final Table source;
+    private int next;
+    private final int last;
+
+    /**
+     * @param source the table whose rows are traversed
+     */
+    public RowSpliterator(Table source) {
+        this(source, 1, source.getRowCount());
+    }
+
+    /**
+     * @param source the table whose rows are traversed
+     * @param first the index of the first row to traverse, from 1 to n
+     * @param last the index of the last row to traverse, from 1 to n
+     */
+    private RowSpliterator(Table source, int first, int last) {
+        assert source != null : "Invalid spliterator source ('null' found)";
+        assert first > 0 : "Invalid first row index " + first;
+        assert last <= source.getRowCount() : "Invalid last row index " + last;
+
+        this.source = source;
+        this.next = first;
+        this.last = last;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Row> action) {
+        if (action == null) {
+            throw new NullPointerException("Invalid action ('null' found)");
+        }
+        if (next > last) {
+            return false;
+        }
+        action.accept(new Cursor(source, next++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Row> action) {
+        if (action == null) {
+            throw new NullPointerException("Invalid action ('null' found)");
+        }
+        final int end = last;
+        for (int index = next; index <= end; index++) {
+            action.accept(new Cursor(source, index));
+        }
+        next = end + 1;
+    }
+
+    @Override
+    public Spliterator<Row> trySplit() {
+        final int remaining = last - next + 1;
+        if (remaining < 2) {
+            return null;
+        }
+        final int first = next;
+        final int middle = first + remaining / 2;
+        next = middle;
+        return new RowSpliterator(source, first, middle - 1);
+    }
+
+    @Override
+    public long estimateSize() {
+        return last - next + 1;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+
+}
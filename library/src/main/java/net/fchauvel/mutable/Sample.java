@@ -0,0 +1,328 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.Arrays;
+import java.util.Random;
+import net.fchauvel.mutable.expression.Expression;
+import net.fchauvel.mutable.expression.True;
+
+/**
+ * A random sample of the rows of a table, which remembers how it was drawn,
+ * so that counts and sums over the whole table can be estimated from it,
+ * with confidence intervals.
+ *
+ * Samples are either uniform (reservoir sampling), or stratified, where rows
+ * are first split by the values of some fields, and each stratum is sampled
+ * at the same rate, so that small strata remain represented. Each sampled
+ * row then stands for N/n rows of the table, where N and n are the sizes of
+ * its stratum in the table and in the sample.
+ *
+ * A sample is a regular data table, but modifying it invalidates the
+ * estimates.
+ */
+public class Sample extends DataTable {
+
+    /**
+     * @return a uniform random sample of the given size, drawn in a single
+     * pass over the given table. Following Li's algorithm L, the number of
+     * rows to skip before the next replacement is drawn directly, so that
+     * only O(k log(N/k)) random numbers are needed.
+     * @param source the table to sample
+     * @param size the number of rows to draw
+     * @param seed the seed of the random generator
+     */
+    public static Sample reservoir(Table source, int size, long seed) {
+        if (source == null) {
+            throw new IllegalArgumentException("Invalid table to sample ('null' found)");
+        }
+        if (size < 0) {
+            throw new IllegalArgumentException("Invalid sample size " + size + " (should be positive)");
+        }
+        final int population = source.getRowCount();
+        final int sampleSize = Math.min(size, population);
+        final Random random = new Random(seed);
+        final int[] rows = new int[sampleSize];
+        for (int index = 0; index < sampleSize; index++) {
+            rows[index] = index + 1;
+        }
+        if (sampleSize > 0) {
+            double threshold = Math.exp(Math.log(uniform(random)) / sampleSize);
+            long row = sampleSize;
+            while (true) {
+                row += (long) Math.floor(Math.log(uniform(random)) / Math.log(1 - threshold)) + 1;
+                if (row > population) {
+                    break;
+                }
+                rows[random.nextInt(sampleSize)] = (int) row;
+                threshold *= Math.exp(Math.log(uniform(random)) / sampleSize);
+            }
+        }
+        Arrays.sort(rows);
+        final Sample sample = new Sample(source.getSchema(), new long[]{population}, new int[]{sampleSize});
+        sample.draw(source, rows, new int[sampleSize]);
+        return sample;
+    }
+
+    /**
+     * @return a uniform random number within ]0, 1]
+     */
+    private static double uniform(Random random) {
+        return 1 - random.nextDouble();
+    }
+
+    /**
+     * @return a sample where the rows sharing the same values on the given
+     * fields are sampled at the given rate, at least one row per stratum.
+     * The table is read twice: once to size the strata, and once to draw a
+     * reservoir sample from each.
+     * @param source the table to sample
+     * @param rate the fraction of the rows of each stratum to draw, within
+     * ]0, 1]
+     * @param seed the seed of the random generator
+     * @param strataFields the names of the fields defining the strata (none
+     * for a uniform sample)
+     */
+    public static Sample stratified(Table source, double rate, long seed, String... strataFields) {
+        if (source == null) {
+            throw new IllegalArgumentException("Invalid table to sample ('null' found)");
+        }
+        if (!(rate > 0 && rate <= 1)) {
+            throw new IllegalArgumentException("Invalid sampling rate " + rate + " (should be within ]0, 1])");
+        }
+        if (strataFields == null) {
+            throw new IllegalArgumentException("Invalid strata fields ('null' found)");
+        }
+        final int[] strataColumns = new int[strataFields.length];
+        for (int index = 0; index < strataFields.length; index++) {
+            if (strataFields[index] == null || !source.getSchema().hasFieldNamed(strataFields[index])) {
+                final String error = String.format("Unknown field name '%s' (fields are %s)", strataFields[index], source.getSchema().getFieldNames());
+                throw new IllegalArgumentException(error);
+            }
+            strataColumns[index] = source.getSchema().getFieldIndex(strataFields[index]);
+        }
+
+        final GroupIndex strata = new GroupIndex(source, strataColumns);
+        long[] populationSizes = new long[16];
+        for (int row = 1; row <= source.getRowCount(); row++) {
+            final int stratum = strata.groupOf(row);
+            if (stratum == populationSizes.length) {
+                populationSizes = Arrays.copyOf(populationSizes, populationSizes.length * 2);
+            }
+            populationSizes[stratum]++;
+        }
+        populationSizes = Arrays.copyOf(populationSizes, strata.size());
+
+        final int[] sampleSizes = new int[populationSizes.length];
+        final int[][] reservoirs = new int[populationSizes.length][];
+        int sampleSize = 0;
+        for (int stratum = 0; stratum < populationSizes.length; stratum++) {
+            sampleSizes[stratum] = (int) Math.min(populationSizes[stratum], Math.max(1, Math.round(rate * populationSizes[stratum])));
+            reservoirs[stratum] = new int[sampleSizes[stratum]];
+            sampleSize += sampleSizes[stratum];
+        }
+        final Random random = new Random(seed);
+        final int[] seen = new int[populationSizes.length];
+        for (int row = 1; row <= source.getRowCount(); row++) {
+            final int stratum = strata.groupOf(row);
+            final int position = seen[stratum]++;
+            if (position < sampleSizes[stratum]) {
+                reservoirs[stratum][position] = row;
+            } else {
+                final int replaced = random.nextInt(position + 1);
+                if (replaced < sampleSizes[stratum]) {
+                    reservoirs[stratum][replaced] = row;
+                }
+            }
+        }
+
+        final long[] sampled = new long[sampleSize];
+        int count = 0;
+        for (int stratum = 0; stratum < reservoirs.length; stratum++) {
+            for (int row : reservoirs[stratum]) {
+                sampled[count++] = ((long) row << 32) | stratum;
+            }
+        }
+        Arrays.sort(sampled);
+        final int[] rows = new int[sampleSize];
+        final int[] rowStrata = new int[sampleSize];
+        for (int index = 0; index < sampleSize; index++) {
+            rows[index] = (int) (sampled[index] >>> 32);
+            rowStrata[index] = (int) sampled[index];
+        }
+        final Sample sample = new Sample(source.getSchema(), populationSizes, sampleSizes);
+        sample.draw(source, rows, rowStrata);
+        return sample;
+    }
+
+    private final long[] populationSizes;
+    private final int[] sampleSizes;
+    private int[] strata;
+    private long drawnAt;
+
+    private Sample(Schema schema, long[] populationSizes, int[] sampleSizes) {
+        super(schema);
+        this.populationSizes = populationSizes;
+        this.sampleSizes = sampleSizes;
+        this.strata = new int[0];
+        this.drawnAt = 0;
+    }
+
+    /**
+     * Copy the given rows of the source, column by column
+     */
+    private void draw(Table source, int[] rows, int[] rowStrata) {
+        if (rows.length > 0) {
+            final Object[] columns = new Object[source.getColumnCount()];
+            for (int column = 1; column <= columns.length; column++) {
+                columns[column - 1] = valuesAt(source, column, rows);
+            }
+            appendColumns(columns);
+        }
+        this.strata = rowStrata;
+        this.drawnAt = getModificationCount();
+    }
+
+    /**
+     * @return the number of rows of the sampled table
+     */
+    public long getPopulationSize() {
+        long total = 0;
+        for (long each : populationSizes) {
+            total += each;
+        }
+        return total;
+    }
+
+    /**
+     * @return the fraction of the rows of the sampled table that are in this
+     * sample
+     */
+    public double getSamplingRate() {
+        final long population = getPopulationSize();
+        return population == 0 ? 0 : (double) strata.length / population;
+    }
+
+    /**
+     * @return the number of strata (1 for a uniform sample)
+     */
+    public int getStrataCount() {
+        return populationSizes.length;
+    }
+
+    /**
+     * @return the number of rows of the sampled table that the given row of
+     * this sample stands for
+     * @param rowIndex the index of the row, from 1 to n
+     */
+    public double getWeight(int rowIndex) {
+        requireUnmodified();
+        requireValidRowIndex(rowIndex);
+        final int stratum = strata[rowIndex - 1];
+        return (double) populationSizes[stratum] / sampleSizes[stratum];
+    }
+
+    /**
+     * @return the estimated number of rows of the sampled table that satisfy
+     * the given criteria
+     * @param criteria the predicate that must be satisfied
+     */
+    public Estimate estimateCount(Expression criteria) {
+        requireValidCriteria(criteria);
+        return estimateTotal(criteria, 0);
+    }
+
+    /**
+     * @return the estimated sum of the given numeric field over the whole
+     * sampled table
+     * @param fieldName the name of the numeric field
+     */
+    public Estimate estimateSum(String fieldName) {
+        return estimateSum(fieldName, new True());
+    }
+
+    /**
+     * @return the estimated sum of the given numeric field over the rows of
+     * the sampled table that satisfy the given criteria
+     * @param fieldName the name of the numeric field
+     * @param criteria the predicate that must be satisfied
+     */
+    public Estimate estimateSum(String fieldName, Expression criteria) {
+        final int columnIndex = numericColumnIndexOf(fieldName);
+        requireValidCriteria(criteria);
+        return estimateTotal(criteria, columnIndex);
+    }
+
+    /**
+     * Estimate the total of a variable that is the value of the given column
+     * (or 1 if none) on matching rows, and 0 elsewhere. Each stratum is
+     * extrapolated from its sample mean, and the variance of the estimate
+     * accounts for sampling without replacement.
+     *
+     * @param columnIndex the index of the summed column, or 0 to count rows
+     */
+    private Estimate estimateTotal(Expression criteria, int columnIndex) {
+        requireUnmodified();
+        final double[] sums = new double[populationSizes.length];
+        final double[] squares = new double[populationSizes.length];
+        final Selection matches = where(criteria).getSelection();
+        for (int position = 1; position <= matches.size(); position++) {
+            final int row = matches.get(position);
+            final double value = columnIndex == 0 ? 1 : valueAt(row, columnIndex);
+            sums[strata[row - 1]] += value;
+            squares[strata[row - 1]] += value * value;
+        }
+        double total = 0;
+        double variance = 0;
+        for (int stratum = 0; stratum < populationSizes.length; stratum++) {
+            final int sampleSize = sampleSizes[stratum];
+            if (sampleSize == 0) {
+                continue;
+            }
+            final double population = populationSizes[stratum];
+            final double mean = sums[stratum] / sampleSize;
+            total += population * mean;
+            if (sampleSize > 1) {
+                final double sampleVariance = Math.max(0, (squares[stratum] - sums[stratum] * mean) / (sampleSize - 1));
+                variance += population * population * (1 - sampleSize / population) * sampleVariance / sampleSize;
+            }
+        }
+        return new Estimate(total, Math.sqrt(variance));
+    }
+
+    private double valueAt(int rowIndex, int columnIndex) {
+        switch (getSchema().getField(columnIndex).getType()) {
+            case INTEGER:
+                return getInteger(rowIndex, columnIndex);
+            case LONG:
+                return getLong(rowIndex, columnIndex);
+            case FLOAT:
+                return getFloat(rowIndex, columnIndex);
+            default:
+                return getDouble(rowIndex, columnIndex);
+        }
+    }
+
+    private void requireUnmodified() throws IllegalStateException {
+        if (getModificationCount() != drawnAt) {
+            throw new IllegalStateException("The sample was modified after it was drawn (estimates would be biased)");
+        }
+    }
+
+}
@@ -166,6 +166,28 @@ public class Schema {
         return indexByName.get(name) + 1 ;
     }
 
+    /**
+     * @return a handle on the field whose name is given, which gives access to
+     * this field in rows without any further lookup
+     * @param name the name of the field of interest
+     */
+    public FieldHandle getFieldHandle(String name) {
+        requireValidFieldName(name);
+        final int index = indexByName.get(name);
+        return new FieldHandle(fields.get(index), index + 1);
+    }
+
+    /**
+     * @return the handles on all the fields, in order
+     */
+    public List<FieldHandle> getFieldHandles() {
+        final List<FieldHandle> handles = new ArrayList<>(fields.size());
+        for (int index = 0; index < fields.size(); index++) {
+            handles.add(new FieldHandle(fields.get(index), index + 1));
+        }
+        return handles;
+    }
+
     /**
      * Check whether there is a field whose name matches the given one
      */
@@ -0,0 +1,165 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.Arrays;
+import net.fchauvel.mutable.bitmap.RowBitmap;
+
+/**
+ * A selection vector: the indices, in a source table, of the rows selected
+ * in a result set, in order. The ith selected row (from 1 to n) maps to the
+ * ith stored index.
+ */
+class Selection {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * @return a selection of the row indices held in the given bitmap, in
+     * increasing order
+     * @param rows the bitmap of selected row indices
+     */
+    static Selection of(RowBitmap rows) {
+        final Selection selection = new Selection(rows.cardinality());
+        rows.forEach(selection::add);
+        return selection;
+    }
+
+    private int[] sourceIndices;
+    private int size;
+
+    Selection() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the number of indices that fit in without growing
+     */
+    Selection(int capacity) {
+        if (capacity < 0) {
+            final String error = String.format("Invalid selection capacity (found %d)", capacity);
+            throw new IllegalArgumentException(error);
+        }
+        this.sourceIndices = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * @return the number of selected rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the given row index is part of the selection
+     * @param rowIndex the index of the row in the selection, from 1 to n
+     */
+    public boolean contains(int rowIndex) {
+        return rowIndex > 0 && rowIndex <= size;
+    }
+
+    /**
+     * @return the index in the source table of the selected row
+     * @param rowIndex the index of the row in the selection, from 1 to n
+     */
+    public int get(int rowIndex) {
+        assert contains(rowIndex) : "Invalid selection index " + rowIndex + " (should be within [1, " + size + "])";
+
+        return sourceIndices[rowIndex - 1];
+    }
+
+    /**
+     * Append the given source row to the selection
+     *
+     * @param sourceIndex the index of the row in the source table
+     */
+    public void add(int sourceIndex) {
+        if (size == sourceIndices.length) {
+            final int capacity = sourceIndices.length;
+            sourceIndices = Arrays.copyOf(sourceIndices, Math.max(capacity + (capacity >> 1), DEFAULT_CAPACITY));
+        }
+        sourceIndices[size++] = sourceIndex;
+    }
+
+    /**
+     * Append all the source rows of the given selection, in order
+     *
+     * @param other the selection to append
+     */
+    public void addAll(Selection other) {
+        final int newSize = size + other.size;
+        if (newSize > sourceIndices.length) {
+            final int capacity = sourceIndices.length;
+            sourceIndices = Arrays.copyOf(sourceIndices, Math.max(capacity + (capacity >> 1), newSize));
+        }
+        System.arraycopy(other.sourceIndices, 0, sourceIndices, size, other.size);
+        size = newSize;
+    }
+
+    /**
+     * @return a compressed bitmap holding the selected source indices
+     */
+    public RowBitmap toBitmap() {
+        final RowBitmap rows = new RowBitmap();
+        for (int index = 0; index < size; index++) {
+            rows.add(sourceIndices[index]);
+        }
+        rows.runOptimize();
+        return rows;
+    }
+
+    /**
+     * @return an estimate of the number of bytes used by this selection
+     */
+    public long sizeInBytes() {
+        return 32 + (long) Integer.BYTES * sourceIndices.length;
+    }
+
+    /**
+     * Remove all the selected rows
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return a new selection holding the selected rows from the given one,
+     * included, to the last one
+     * @param rowIndex the index of the first row to copy, from 1 to n + 1
+     */
+    public Selection suffix(int rowIndex) {
+        assert rowIndex > 0 && rowIndex <= size + 1 : "Invalid selection index " + rowIndex;
+
+        final Selection suffix = new Selection(size - rowIndex + 1);
+        System.arraycopy(sourceIndices, rowIndex - 1, suffix.sourceIndices, 0, suffix.sourceIndices.length);
+        suffix.size = suffix.sourceIndices.length;
+        return suffix;
+    }
+
+    /**
+     * Release the capacity that exceeds the current size
+     */
+    public void trim() {
+        if (size < sourceIndices.length) {
+            sourceIndices = Arrays.copyOf(sourceIndices, size);
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+/**
+ * A field by which rows are sorted, in ascending or descending order
+ */
+public final class SortKey {
+
+    /**
+     * @return a key that sorts rows by increasing values of the given field
+     * @param fieldName the name of the field
+     */
+    public static SortKey ascending(String fieldName) {
+        return new SortKey(fieldName, true);
+    }
+
+    /**
+     * @return a key that sorts rows by decreasing values of the given field
+     * @param fieldName the name of the field
+     */
+    public static SortKey descending(String fieldName) {
+        return new SortKey(fieldName, false);
+    }
+
+    private final String fieldName;
+    private final boolean ascending;
+
+    private SortKey(String fieldName, boolean ascending) {
+        if (fieldName == null) {
+            throw new IllegalArgumentException("Invalid sort key ('null' field name)");
+        }
+        this.fieldName = fieldName;
+        this.ascending = ascending;
+    }
+
+    /**
+     * @return the name of the field
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * @return true if rows are sorted by increasing values
+     */
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    @Override
+    public String toString() {
+        return (ascending ? "ascending(" : "descending(") + fieldName + ")";
+    }
+
+}
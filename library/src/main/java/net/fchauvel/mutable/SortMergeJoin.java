@@ -0,0 +1,206 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.Arrays;
+
+/**
+ * Join two tables by merging their rows in the order of their keys. A table
+ * already sorted on its key (as detected by a single pass) is read as is;
+ * otherwise, a permutation of its rows is sorted first.
+ *
+ * The merge is a single pass over both tables, which only remembers the
+ * bounds of the current run of equal right keys.
+ */
+class SortMergeJoin {
+
+    private final Side left;
+    private final Side right;
+
+    SortMergeJoin(Table left, int leftColumn, Table right, int rightColumn) {
+        this.left = new Side(left, leftColumn);
+        this.right = new Side(right, rightColumn);
+    }
+
+    /**
+     * @return the matching rows, packed as (left row, right row) longs, in
+     * the order of the left table and then of the right one. A right row of 0
+     * stands for a left row that matches nothing.
+     * @param keepUnmatched true to report left rows that match nothing
+     */
+    long[] pairs(boolean keepUnmatched) {
+        final Join.Pairs pairs = new Join.Pairs();
+        int leftPosition = 0;
+        int rightPosition = 0;
+        while (leftPosition < left.size) {
+            final int leftRow = left.rowAt(leftPosition);
+            final int comparison = rightPosition < right.size ? compare(leftRow, right.rowAt(rightPosition)) : -1;
+            if (comparison > 0) {
+                rightPosition++;
+                continue;
+            }
+            if (comparison < 0) {
+                if (keepUnmatched) {
+                    pairs.add(leftRow, 0);
+                }
+                leftPosition++;
+                continue;
+            }
+            final int runEnd = endOfRun(leftRow, rightPosition);
+            while (leftPosition < left.size && compare(left.rowAt(leftPosition), right.rowAt(rightPosition)) == 0) {
+                for (int position = rightPosition; position < runEnd; position++) {
+                    pairs.add(left.rowAt(leftPosition), right.rowAt(position));
+                }
+                leftPosition++;
+            }
+            rightPosition = runEnd;
+        }
+        final long[] result = pairs.toArray();
+        if (!left.isSorted()) {
+            Arrays.sort(result);
+        }
+        return result;
+    }
+
+    /**
+     * @return the left rows that match at least one right row, in increasing
+     * order
+     */
+    Selection matchingLeftRows() {
+        final int[] rows = new int[left.size];
+        int count = 0;
+        int leftPosition = 0;
+        int rightPosition = 0;
+        while (leftPosition < left.size && rightPosition < right.size) {
+            final int leftRow = left.rowAt(leftPosition);
+            final int comparison = compare(leftRow, right.rowAt(rightPosition));
+            if (comparison > 0) {
+                rightPosition++;
+            } else {
+                if (comparison == 0) {
+                    rows[count++] = leftRow;
+                }
+                leftPosition++;
+            }
+        }
+        if (!left.isSorted()) {
+            Arrays.sort(rows, 0, count);
+        }
+        final Selection selection = new Selection();
+        for (int index = 0; index < count; index++) {
+            selection.add(rows[index]);
+        }
+        return selection;
+    }
+
+    /**
+     * @return the position after the last right row whose key equals the key
+     * of the given left row, starting from the given position
+     */
+    private int endOfRun(int leftRow, int rightPosition) {
+        int end = rightPosition + 1;
+        while (end < right.size && compare(leftRow, right.rowAt(end)) == 0) {
+            end++;
+        }
+        return end;
+    }
+
+    private int compare(int leftRow, int rightRow) {
+        if (left.type == FieldType.STRING) {
+            return left.string(leftRow).compareTo(right.string(rightRow));
+        }
+        return Long.compare(left.sortable(leftRow), right.sortable(rightRow));
+    }
+
+    /**
+     * One of the joined tables, with its rows in the order of their keys
+     */
+    private static final class Side {
+
+        private final Table table;
+        private final int column;
+        private final FieldType type;
+        private final int size;
+        private final int[] permutation;
+
+        Side(Table table, int column) {
+            this.table = table;
+            this.column = column;
+            this.type = table.getSchema().getField(column).getType();
+            this.size = table.getRowCount();
+            this.permutation = detectSortedness() ? null : sortedRows();
+        }
+
+        boolean isSorted() {
+            return permutation == null;
+        }
+
+        /**
+         * @return the row at the given position, in the order of the keys
+         * @param position the position, from 0 to n-1
+         */
+        int rowAt(int position) {
+            return permutation == null ? position + 1 : permutation[position];
+        }
+
+        private boolean detectSortedness() {
+            for (int row = 2; row <= size; row++) {
+                final int comparison = type == FieldType.STRING
+                        ? string(row - 1).compareTo(string(row))
+                        : Long.compare(sortable(row - 1), sortable(row));
+                if (comparison > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int[] sortedRows() {
+            final String fieldName = table.getSchema().getField(column).getName();
+            return RowOrder.extracted(table, new SortKey[]{SortKey.ascending(fieldName)}).sort();
+        }
+
+        String string(int row) {
+            return table.getString(row, column);
+        }
+
+        /**
+         * @return the key of the given row, as a long whose order matches the
+         * order of the keys
+         */
+        long sortable(int row) {
+            switch (type) {
+                case INTEGER:
+                    return table.getInteger(row, column);
+                case LONG:
+                    return table.getLong(row, column);
+                case FLOAT:
+                    return RowOrder.sortable(table.getFloat(row, column));
+                case DOUBLE:
+                    return RowOrder.sortable(table.getDouble(row, column));
+                case BOOLEAN:
+                    return table.getBoolean(row, column) ? 1 : 0;
+                default:
+                    return table.getCharacter(row, column);
+            }
+        }
+
+    }
+
+}
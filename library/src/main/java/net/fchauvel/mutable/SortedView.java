@@ -0,0 +1,111 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+/**
+ * The rows of a table, in a given order. The view holds no data but the
+ * permutation of the source row indices, so sorting never copies rows.
+ */
+public class SortedView extends AbstractTable {
+
+    private final Table source;
+    private final int[] rows;
+
+    /**
+     * @param source the table whose rows are ordered
+     * @param rows the indices of the source rows, from 1 to n, in order
+     */
+    SortedView(Table source, int[] rows) {
+        assert source != null : "Invalid sorted view source ('null' found)";
+        assert rows != null : "Invalid sorted view permutation ('null' found)";
+
+        this.source = source;
+        this.rows = rows;
+    }
+
+    /**
+     * @return the index, in the source table, of the given row
+     * @param rowIndex the index of the row of interest, from 1 to n
+     */
+    private int sourceIndexOf(int rowIndex) {
+        requireValidRowIndex(rowIndex);
+        return rows[rowIndex - 1];
+    }
+
+    @Override
+    public Row getRow(int rowIndex) {
+        return source.getRow(sourceIndexOf(rowIndex));
+    }
+
+    @Override
+    public Object getData(int rowIndex, int columnIndex) {
+        return source.getData(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public int getInteger(int rowIndex, int columnIndex) {
+        return source.getInteger(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public long getLong(int rowIndex, int columnIndex) {
+        return source.getLong(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public float getFloat(int rowIndex, int columnIndex) {
+        return source.getFloat(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public double getDouble(int rowIndex, int columnIndex) {
+        return source.getDouble(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public boolean getBoolean(int rowIndex, int columnIndex) {
+        return source.getBoolean(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public char getCharacter(int rowIndex, int columnIndex) {
+        return source.getCharacter(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public String getString(int rowIndex, int columnIndex) {
+        return source.getString(sourceIndexOf(rowIndex), columnIndex);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return source.getColumnCount();
+    }
+
+    @Override
+    public Schema getSchema() {
+        return source.getSchema();
+    }
+
+}
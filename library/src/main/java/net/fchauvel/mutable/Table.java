@@ -18,7 +18,17 @@
  */
 package net.fchauvel.mutable;
 
+import java.util.stream.Stream;
+import net.fchauvel.mutable.column.BooleanColumn;
+import net.fchauvel.mutable.column.CharacterColumn;
+import net.fchauvel.mutable.column.DoubleColumn;
+import net.fchauvel.mutable.column.FloatColumn;
+import net.fchauvel.mutable.column.IntegerColumn;
+import net.fchauvel.mutable.column.LongColumn;
+import net.fchauvel.mutable.column.StringColumn;
 import net.fchauvel.mutable.expression.Expression;
+import net.fchauvel.mutable.sketch.HyperLogLog;
+import net.fchauvel.mutable.sketch.QuantileSketch;
 
 /**
  * Behavior of table
@@ -49,6 +59,111 @@ public interface Table extends Iterable<Row> {
      */
     Object getData(int rowIndex, String fieldName);
 
+    /**
+     * @return the INTEGER value at the specified position
+     * @param rowIndex the row number, from 1 to n
+     * @param columnIndex the column index, from 1 to n
+     * @throws IllegalArgumentException if the field is not of type INTEGER
+     */
+    int getInteger(int rowIndex, int columnIndex);
+
+    /**
+     * @return the LONG value at the specified position
+     * @param rowIndex the row number, from 1 to n
+     * @param columnIndex the column index, from 1 to n
+     * @throws IllegalArgumentException if the field is not of type LONG
+     */
+    long getLong(int rowIndex, int columnIndex);
+
+    /**
+     * @return the FLOAT value at the specified position
+     * @param rowIndex the row number, from 1 to n
+     * @param columnIndex the column index, from 1 to n
+     * @throws IllegalArgumentException if the field is not of type FLOAT
+     */
+    float getFloat(int rowIndex, int columnIndex);
+
+    /**
+     * @return the DOUBLE value at the specified position
+     * @param rowIndex the row number, from 1 to n
+     * @param columnIndex the column index, from 1 to n
+     * @throws IllegalArgumentException if the field is not of type DOUBLE
+     */
+    double getDouble(int rowIndex, int columnIndex);
+
+    /**
+     * @return the BOOLEAN value at the specified position
+     * @param rowIndex the row number, from 1 to n
+     * @param columnIndex the column index, from 1 to n
+     * @throws IllegalArgumentException if the field is not of type BOOLEAN
+     */
+    boolean getBoolean(int rowIndex, int columnIndex);
+
+    /**
+     * @return the CHARACTER value at the specified position
+     * @param rowIndex the row number, from 1 to n
+     * @param columnIndex the column index, from 1 to n
+     * @throws IllegalArgumentException if the field is not of type CHARACTER
+     */
+    char getCharacter(int rowIndex, int columnIndex);
+
+    /**
+     * @return the STRING value at the specified position
+     * @param rowIndex the row number, from 1 to n
+     * @param columnIndex the column index, from 1 to n
+     * @throws IllegalArgumentException if the field is not of type STRING
+     */
+    String getString(int rowIndex, int columnIndex);
+
+    /**
+     * @return a read-only view on the values of the given INTEGER field
+     * @param fieldName the name of the field of interest
+     * @throws IllegalArgumentException if the field is not of type INTEGER
+     */
+    IntegerColumn integerColumn(String fieldName);
+
+    /**
+     * @return a read-only view on the values of the given LONG field
+     * @param fieldName the name of the field of interest
+     * @throws IllegalArgumentException if the field is not of type LONG
+     */
+    LongColumn longColumn(String fieldName);
+
+    /**
+     * @return a read-only view on the values of the given FLOAT field
+     * @param fieldName the name of the field of interest
+     * @throws IllegalArgumentException if the field is not of type FLOAT
+     */
+    FloatColumn floatColumn(String fieldName);
+
+    /**
+     * @return a read-only view on the values of the given DOUBLE field
+     * @param fieldName the name of the field of interest
+     * @throws IllegalArgumentException if the field is not of type DOUBLE
+     */
+    DoubleColumn doubleColumn(String fieldName);
+
+    /**
+     * @return a read-only view on the values of the given BOOLEAN field
+     * @param fieldName the name of the field of interest
+     * @throws IllegalArgumentException if the field is not of type BOOLEAN
+     */
+    BooleanColumn booleanColumn(String fieldName);
+
+    /**
+     * @return a read-only view on the values of the given CHARACTER field
+     * @param fieldName the name of the field of interest
+     * @throws IllegalArgumentException if the field is not of type CHARACTER
+     */
+    CharacterColumn characterColumn(String fieldName);
+
+    /**
+     * @return a read-only view on the values of the given STRING field
+     * @param fieldName the name of the field of interest
+     * @throws IllegalArgumentException if the field is not of type STRING
+     */
+    StringColumn stringColumn(String fieldName);
+
     /**
      * @return the number of data (i.e., values or cells) in this table
      */
@@ -78,9 +193,161 @@ public interface Table extends Iterable<Row> {
      */
     ResultSet where(Expression criteria);
 
+    /**
+     * @return the number of rows where the given criteria holds. Contrary to
+     * where(criteria).getRowCount(), matching rows are counted but not
+     * recorded.
+     * @param criteria the predicate that must be satisfied
+     */
+    int count(Expression criteria);
+
+    /**
+     * @return true if at least one row satisfies the given criteria. The scan
+     * stops at the first matching row.
+     * @param criteria the predicate that must be satisfied
+     */
+    boolean exists(Expression criteria);
+
+    /**
+     * @return a view of the rows of this table, sorted by increasing values of
+     * the given fields. Rows that are equal on all fields keep their relative
+     * order.
+     * @param fieldNames the names of the fields to sort by, by priority
+     */
+    SortedView orderBy(String... fieldNames);
+
+    /**
+     * @return a view of the rows of this table, sorted w.r.t. the given keys.
+     * Rows that are equal on all keys keep their relative order.
+     * @param keys the sort keys, by priority
+     */
+    SortedView orderBy(SortKey... keys);
+
+    /**
+     * @return a view of the k rows having the largest values of the given
+     * field, by decreasing values. Rows are selected without sorting the whole
+     * table.
+     * @param fieldName the name of the field to rank rows by
+     * @param k the number of rows to select
+     */
+    SortedView topK(String fieldName, int k);
+
+    /**
+     * @return a view of the k first rows w.r.t. the given keys, in order. Rows
+     * are selected without sorting the whole table.
+     * @param k the number of rows to select
+     * @param keys the sort keys, by priority
+     */
+    SortedView topK(int k, SortKey... keys);
+
+    /**
+     * @return the count, sum, extrema, mean and variance of the given numeric
+     * field, computed in a single pass over the column
+     * @param fieldName the name of the numeric field
+     */
+    ColumnStatistics statisticsOf(String fieldName);
+
+    /**
+     * @return the sum of the values of the given numeric field
+     * @param fieldName the name of the numeric field
+     */
+    double sum(String fieldName);
+
+    /**
+     * @return the smallest value of the given numeric field, or NaN if this
+     * table is empty
+     * @param fieldName the name of the numeric field
+     */
+    double min(String fieldName);
+
+    /**
+     * @return the largest value of the given numeric field, or NaN if this
+     * table is empty
+     * @param fieldName the name of the numeric field
+     */
+    double max(String fieldName);
+
+    /**
+     * @return the arithmetic mean of the given numeric field, or NaN if this
+     * table is empty
+     * @param fieldName the name of the numeric field
+     */
+    double mean(String fieldName);
+
+    /**
+     * @return the population variance of the given numeric field, or NaN if
+     * this table is empty
+     * @param fieldName the name of the numeric field
+     */
+    double variance(String fieldName);
+
+    /**
+     * @return a sketch estimating the number of distinct values of the given
+     * field, built in a single pass
+     * @param fieldName the name of the field
+     */
+    HyperLogLog distinctCountSketch(String fieldName);
+
+    /**
+     * @return a sketch estimating the quantiles of the given numeric field,
+     * built in a single pass
+     * @param fieldName the name of the numeric field
+     */
+    QuantileSketch quantileSketch(String fieldName);
+
+    /**
+     * @return a new table holding the distinct values of the given fields (or
+     * of all fields if none is given), in the order of their first occurrence
+     * @param fieldNames the names of the fields of interest
+     */
+    DataTable distinct(String... fieldNames);
+
+    /**
+     * @return the rows of this table, except those having the same values as
+     * a previous row on the given fields (or on all fields if none is given)
+     * @param fieldNames the names of the fields that identify duplicates
+     */
+    ResultSet dropDuplicates(String... fieldNames);
+
+    /**
+     * @return the join of this table (on the left) with the given one (on the
+     * right), whose keys remain to be specified
+     * @param right the table to join with
+     */
+    Join join(Table right);
+
+    /**
+     * @return the rows of this table, grouped by the values of the given
+     * fields, ready for aggregation
+     * @param fieldNames the names of the key fields
+     */
+    GroupBy groupBy(String... fieldNames);
+
     /**
      * @return a new cursor pointing on the first row of this table
      */
     Cursor newCursor();
 
+    /**
+     * Pass every row of this table, in order, to the given consumer.
+     *
+     * Contrary to iteration, no row object is allocated: the consumer receives
+     * the same row instance, moved from one row to the next. It must therefore
+     * copy any data it needs beyond the call.
+     *
+     * @param consumer the operation applied to each row
+     */
+    void scan(RowConsumer consumer);
+
+    /**
+     * @return a sequential stream over the rows of this table
+     */
+    Stream<Row> stream();
+
+    /**
+     * @return a parallel stream over the rows of this table, which splits
+     * evenly on row indices
+     */
+    Stream<Row> parallelStream();
+
 }
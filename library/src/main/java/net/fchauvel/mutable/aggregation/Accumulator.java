@@ -0,0 +1,136 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.aggregation;
+
+import net.fchauvel.mutable.FieldType;
+import net.fchauvel.mutable.Table;
+
+/**
+ * The running state of an aggregate, for all the groups of a table. Each
+ * group is identified by its index, from 0 to n-1, and its state is kept in
+ * primitive arrays indexed by group, so that no object is allocated per
+ * group or per row.
+ */
+public abstract class Accumulator {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    protected final Table source;
+    protected final int columnIndex;
+    protected final FieldType inputType;
+    private int capacity;
+
+    /**
+     * @param source the table whose rows are aggregated
+     * @param columnIndex the index of the aggregated column, from 1 to n, or 0
+     * if the aggregate does not read any value
+     */
+    protected Accumulator(Table source, int columnIndex) {
+        this.source = source;
+        this.columnIndex = columnIndex;
+        this.inputType = columnIndex == 0 ? null : source.getSchema().getField(columnIndex).getType();
+        this.capacity = 0;
+    }
+
+    /**
+     * @return the type of the aggregated values
+     */
+    public abstract FieldType getType();
+
+    /**
+     * Make room for the given number of groups
+     *
+     * @param groupCount the number of groups to hold
+     */
+    public final void ensureCapacity(int groupCount) {
+        if (groupCount > capacity) {
+            final int newCapacity = Math.max(groupCount, Math.max(capacity + (capacity >> 1), DEFAULT_CAPACITY));
+            resize(capacity, newCapacity);
+            capacity = newCapacity;
+        }
+    }
+
+    /**
+     * Grow the state arrays, initializing the state of the new groups
+     *
+     * @param oldCapacity the number of groups the arrays hold so far
+     * @param newCapacity the number of groups the arrays must hold
+     */
+    protected abstract void resize(int oldCapacity, int newCapacity);
+
+    /**
+     * Account for the given row in the given group
+     *
+     * @param group the index of the group, from 0 to n-1
+     * @param rowIndex the index of the row, from 1 to n
+     */
+    public abstract void add(int group, int rowIndex);
+
+    /**
+     * Account for the state of a group of another accumulator of the same
+     * aggregate, which was computed over different rows
+     *
+     * @param group the index of the group to update
+     * @param other the other accumulator
+     * @param otherGroup the index of the group in the other accumulator
+     */
+    public abstract void merge(int group, Accumulator other, int otherGroup);
+
+    /**
+     * @return the aggregated values of the first groups, as an array of
+     * primitive values matching the type of this accumulator (e.g., long[]
+     * for LONG)
+     * @param groupCount the number of groups
+     */
+    public abstract Object toArray(int groupCount);
+
+    /**
+     * @return the value of the aggregated column at the given row, as a long
+     */
+    protected final long longValue(int rowIndex) {
+        if (inputType == FieldType.INTEGER) {
+            return source.getInteger(rowIndex, columnIndex);
+        }
+        return source.getLong(rowIndex, columnIndex);
+    }
+
+    /**
+     * @return the value of the aggregated column at the given row, as a double
+     */
+    protected final double doubleValue(int rowIndex) {
+        switch (inputType) {
+            case INTEGER:
+                return source.getInteger(rowIndex, columnIndex);
+            case LONG:
+                return source.getLong(rowIndex, columnIndex);
+            case FLOAT:
+                return source.getFloat(rowIndex, columnIndex);
+            default:
+                return source.getDouble(rowIndex, columnIndex);
+        }
+    }
+
+    /**
+     * @return true if the given type holds integral values
+     */
+    protected static boolean isIntegral(FieldType type) {
+        return type == FieldType.INTEGER || type == FieldType.LONG;
+    }
+
+}
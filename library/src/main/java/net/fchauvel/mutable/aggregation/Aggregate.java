@@ -0,0 +1,190 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.aggregation;
+
+import net.fchauvel.mutable.FieldType;
+import net.fchauvel.mutable.Table;
+
+/**
+ * An aggregate computed over groups of rows, such as the sum or the mean of
+ * a column. Aggregates are created by factory methods, part of the fluent
+ * interface pattern, e.g., 'sum("amount").as("total")'.
+ */
+public final class Aggregate {
+
+    private enum Function {
+        COUNT, SUM, AVG, MIN, MAX, APPROX_COUNT_DISTINCT, APPROX_QUANTILE
+    }
+
+    private static final int SKETCH_PRECISION = 12;
+
+    /**
+     * @return the number of rows in each group
+     */
+    public static Aggregate count() {
+        return new Aggregate(Function.COUNT, null, "count");
+    }
+
+    /**
+     * @return the sum of the given numeric field in each group, as a long for
+     * integral fields and as a double otherwise
+     * @param fieldName the name of the summed field
+     */
+    public static Aggregate sum(String fieldName) {
+        return new Aggregate(Function.SUM, fieldName, null);
+    }
+
+    /**
+     * @return the arithmetic mean of the given numeric field in each group
+     * @param fieldName the name of the averaged field
+     */
+    public static Aggregate avg(String fieldName) {
+        return new Aggregate(Function.AVG, fieldName, null);
+    }
+
+    /**
+     * @return the smallest value of the given numeric field in each group
+     * @param fieldName the name of the field
+     */
+    public static Aggregate min(String fieldName) {
+        return new Aggregate(Function.MIN, fieldName, null);
+    }
+
+    /**
+     * @return the largest value of the given numeric field in each group
+     * @param fieldName the name of the field
+     */
+    public static Aggregate max(String fieldName) {
+        return new Aggregate(Function.MAX, fieldName, null);
+    }
+
+    /**
+     * @return the estimated number of distinct values of the given field in
+     * each group, using a HyperLogLog sketch of precision 12 per group (i.e.,
+     * about 1.6% of relative error)
+     * @param fieldName the name of the field
+     */
+    public static Aggregate approxCountDistinct(String fieldName) {
+        return new Aggregate(Function.APPROX_COUNT_DISTINCT, fieldName, "approxCountDistinct(" + fieldName + ")", 0);
+    }
+
+    /**
+     * @return the estimated quantile of the given numeric field in each
+     * group, using a KLL sketch per group
+     * @param fieldName the name of the field
+     * @param fraction the fraction of values below the quantile, within
+     * [0, 1] (e.g., 0.5 for the median)
+     */
+    public static Aggregate approxQuantile(String fieldName, double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("Invalid fraction " + fraction + " (should be within [0, 1])");
+        }
+        return new Aggregate(Function.APPROX_QUANTILE, fieldName, "approxQuantile(" + fieldName + ", " + fraction + ")", fraction);
+    }
+
+    private final Function function;
+    private final String fieldName;
+    private final String name;
+    private final double fraction;
+
+    private Aggregate(Function function, String fieldName, String name) {
+        this(function, fieldName, name, 0);
+    }
+
+    private Aggregate(Function function, String fieldName, String name, double fraction) {
+        if (function != Function.COUNT && fieldName == null) {
+            throw new IllegalArgumentException("Illegal field name (found 'null')");
+        }
+        this.function = function;
+        this.fieldName = fieldName;
+        this.name = name != null ? name : function.name().toLowerCase() + "(" + fieldName + ")";
+        this.fraction = fraction;
+    }
+
+    /**
+     * @return the same aggregate, under the given name
+     * @param name the name of the resulting field
+     */
+    public Aggregate as(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Illegal aggregate name (found '" + name + "')");
+        }
+        return new Aggregate(function, fieldName, name, fraction);
+    }
+
+    /**
+     * @return the name of the field holding the result of this aggregate
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return a new accumulator computing this aggregate over the rows of the
+     * given table
+     * @param source the table whose rows are aggregated
+     * @throws IllegalArgumentException if the aggregated field does not exist
+     * in the given table, or is not numeric
+     */
+    public Accumulator accumulatorFor(Table source) throws IllegalArgumentException {
+        if (function == Function.COUNT) {
+            return new Count(source);
+        }
+        if (function == Function.APPROX_COUNT_DISTINCT) {
+            return new DistinctCount(source, columnOf(source), SKETCH_PRECISION);
+        }
+        final int columnIndex = numericColumnOf(source);
+        switch (function) {
+            case SUM:
+                return new Sum(source, columnIndex);
+            case AVG:
+                return new Average(source, columnIndex);
+            case MIN:
+                return new Extremum(source, columnIndex, true);
+            case APPROX_QUANTILE:
+                return new Quantile(source, columnIndex, fraction);
+            default:
+                return new Extremum(source, columnIndex, false);
+        }
+    }
+
+    private int columnOf(Table source) {
+        if (!source.getSchema().hasFieldNamed(fieldName)) {
+            final String error = String.format("Unknown field name '%s' (fields are %s)", fieldName, source.getSchema().getFieldNames());
+            throw new IllegalArgumentException(error);
+        }
+        return source.getSchema().getFieldIndex(fieldName);
+    }
+
+    private int numericColumnOf(Table source) {
+        columnOf(source);
+        final FieldType type = source.getSchema().getField(fieldName).getType();
+        if (type != FieldType.INTEGER && type != FieldType.LONG && type != FieldType.FLOAT && type != FieldType.DOUBLE) {
+            final String error = String.format("Cannot aggregate field '%s' (expected a numeric field, found %s)", fieldName, type);
+            throw new IllegalArgumentException(error);
+        }
+        return source.getSchema().getFieldIndex(fieldName);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
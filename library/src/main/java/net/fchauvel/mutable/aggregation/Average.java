@@ -0,0 +1,72 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.aggregation;
+
+import java.util.Arrays;
+import net.fchauvel.mutable.FieldType;
+import net.fchauvel.mutable.Table;
+
+/**
+ * The arithmetic mean of the values of a numeric column in each group
+ */
+class Average extends Accumulator {
+
+    private double[] sums;
+    private int[] counts;
+
+    Average(Table source, int columnIndex) {
+        super(source, columnIndex);
+        this.sums = new double[0];
+        this.counts = new int[0];
+    }
+
+    @Override
+    public FieldType getType() {
+        return FieldType.DOUBLE;
+    }
+
+    @Override
+    protected void resize(int oldCapacity, int newCapacity) {
+        sums = Arrays.copyOf(sums, newCapacity);
+        counts = Arrays.copyOf(counts, newCapacity);
+    }
+
+    @Override
+    public void add(int group, int rowIndex) {
+        sums[group] += doubleValue(rowIndex);
+        counts[group]++;
+    }
+
+    @Override
+    public void merge(int group, Accumulator other, int otherGroup) {
+        final Average otherAverage = (Average) other;
+        sums[group] += otherAverage.sums[otherGroup];
+        counts[group] += otherAverage.counts[otherGroup];
+    }
+
+    @Override
+    public Object toArray(int groupCount) {
+        final double[] averages = new double[groupCount];
+        for (int group = 0; group < groupCount; group++) {
+            averages[group] = sums[group] / counts[group];
+        }
+        return averages;
+    }
+
+}
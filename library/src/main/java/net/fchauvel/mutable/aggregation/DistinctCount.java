@@ -0,0 +1,73 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.aggregation;
+
+import java.util.Arrays;
+import net.fchauvel.mutable.FieldType;
+import net.fchauvel.mutable.Table;
+import net.fchauvel.mutable.sketch.HyperLogLog;
+
+/**
+ * The estimated number of distinct values of a column in each group, with a
+ * HyperLogLog sketch per group
+ */
+class DistinctCount extends Accumulator {
+
+    private final int precision;
+    private HyperLogLog[] sketches;
+
+    DistinctCount(Table source, int columnIndex, int precision) {
+        super(source, columnIndex);
+        this.precision = precision;
+        this.sketches = new HyperLogLog[0];
+    }
+
+    @Override
+    public FieldType getType() {
+        return FieldType.LONG;
+    }
+
+    @Override
+    protected void resize(int oldCapacity, int newCapacity) {
+        sketches = Arrays.copyOf(sketches, newCapacity);
+        for (int group = oldCapacity; group < newCapacity; group++) {
+            sketches[group] = new HyperLogLog(precision);
+        }
+    }
+
+    @Override
+    public void add(int group, int rowIndex) {
+        sketches[group].add(source, rowIndex, columnIndex);
+    }
+
+    @Override
+    public void merge(int group, Accumulator other, int otherGroup) {
+        sketches[group].merge(((DistinctCount) other).sketches[otherGroup]);
+    }
+
+    @Override
+    public Object toArray(int groupCount) {
+        final long[] estimates = new long[groupCount];
+        for (int group = 0; group < groupCount; group++) {
+            estimates[group] = sketches[group].estimate();
+        }
+        return estimates;
+    }
+
+}
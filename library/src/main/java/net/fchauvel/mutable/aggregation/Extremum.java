@@ -0,0 +1,115 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.aggregation;
+
+import java.util.Arrays;
+import net.fchauvel.mutable.FieldType;
+import net.fchauvel.mutable.Table;
+
+/**
+ * The smallest or the largest value of a numeric column in each group. The
+ * result has the type of the column.
+ */
+class Extremum extends Accumulator {
+
+    private final boolean minimum;
+    private final boolean integral;
+    private long[] longValues;
+    private double[] doubleValues;
+
+    Extremum(Table source, int columnIndex, boolean minimum) {
+        super(source, columnIndex);
+        this.minimum = minimum;
+        this.integral = isIntegral(inputType);
+        this.longValues = new long[0];
+        this.doubleValues = new double[0];
+    }
+
+    @Override
+    public FieldType getType() {
+        return inputType;
+    }
+
+    @Override
+    protected void resize(int oldCapacity, int newCapacity) {
+        if (integral) {
+            longValues = Arrays.copyOf(longValues, newCapacity);
+            Arrays.fill(longValues, oldCapacity, newCapacity, minimum ? Long.MAX_VALUE : Long.MIN_VALUE);
+        } else {
+            doubleValues = Arrays.copyOf(doubleValues, newCapacity);
+            Arrays.fill(doubleValues, oldCapacity, newCapacity, minimum ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY);
+        }
+    }
+
+    @Override
+    public void add(int group, int rowIndex) {
+        if (integral) {
+            update(group, longValue(rowIndex));
+        } else {
+            update(group, doubleValue(rowIndex));
+        }
+    }
+
+    private void update(int group, long value) {
+        if (minimum ? value < longValues[group] : value > longValues[group]) {
+            longValues[group] = value;
+        }
+    }
+
+    private void update(int group, double value) {
+        if (minimum ? value < doubleValues[group] : value > doubleValues[group]) {
+            doubleValues[group] = value;
+        }
+    }
+
+    @Override
+    public void merge(int group, Accumulator other, int otherGroup) {
+        final Extremum otherExtremum = (Extremum) other;
+        if (integral) {
+            update(group, otherExtremum.longValues[otherGroup]);
+        } else {
+            update(group, otherExtremum.doubleValues[otherGroup]);
+        }
+    }
+
+    @Override
+    public Object toArray(int groupCount) {
+        switch (inputType) {
+            case INTEGER: {
+                final int[] values = new int[groupCount];
+                for (int group = 0; group < groupCount; group++) {
+                    values[group] = (int) longValues[group];
+                }
+                return values;
+            }
+            case LONG:
+                return Arrays.copyOf(longValues, groupCount);
+            case FLOAT: {
+                final float[] values = new float[groupCount];
+                for (int group = 0; group < groupCount; group++) {
+                    values[group] = (float) doubleValues[group];
+                }
+                return values;
+            }
+            default:
+                return Arrays.copyOf(doubleValues, groupCount);
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.aggregation;
+
+import java.util.Arrays;
+import net.fchauvel.mutable.FieldType;
+import net.fchauvel.mutable.Table;
+import net.fchauvel.mutable.sketch.QuantileSketch;
+
+/**
+ * The estimated quantile of a numeric column in each group, with a KLL
+ * sketch per group
+ */
+class Quantile extends Accumulator {
+
+    private final double fraction;
+    private QuantileSketch[] sketches;
+
+    Quantile(Table source, int columnIndex, double fraction) {
+        super(source, columnIndex);
+        this.fraction = fraction;
+        this.sketches = new QuantileSketch[0];
+    }
+
+    @Override
+    public FieldType getType() {
+        return FieldType.DOUBLE;
+    }
+
+    @Override
+    protected void resize(int oldCapacity, int newCapacity) {
+        sketches = Arrays.copyOf(sketches, newCapacity);
+        for (int group = oldCapacity; group < newCapacity; group++) {
+            sketches[group] = new QuantileSketch();
+        }
+    }
+
+    @Override
+    public void add(int group, int rowIndex) {
+        sketches[group].add(doubleValue(rowIndex));
+    }
+
+    @Override
+    public void merge(int group, Accumulator other, int otherGroup) {
+        sketches[group].merge(((Quantile) other).sketches[otherGroup]);
+    }
+
+    @Override
+    public Object toArray(int groupCount) {
+        final double[] quantiles = new double[groupCount];
+        for (int group = 0; group < groupCount; group++) {
+            quantiles[group] = sketches[group].quantile(fraction);
+        }
+        return quantiles;
+    }
+
+}
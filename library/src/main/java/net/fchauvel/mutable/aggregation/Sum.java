@@ -0,0 +1,83 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.aggregation;
+
+import java.util.Arrays;
+import net.fchauvel.mutable.FieldType;
+import net.fchauvel.mutable.Table;
+
+/**
+ * The sum of the values of a numeric column in each group. Integral values
+ * are summed as longs, other values as doubles.
+ */
+class Sum extends Accumulator {
+
+    private final boolean integral;
+    private long[] longSums;
+    private double[] doubleSums;
+
+    Sum(Table source, int columnIndex) {
+        super(source, columnIndex);
+        this.integral = isIntegral(inputType);
+        this.longSums = new long[0];
+        this.doubleSums = new double[0];
+    }
+
+    @Override
+    public FieldType getType() {
+        return integral ? FieldType.LONG : FieldType.DOUBLE;
+    }
+
+    @Override
+    protected void resize(int oldCapacity, int newCapacity) {
+        if (integral) {
+            longSums = Arrays.copyOf(longSums, newCapacity);
+        } else {
+            doubleSums = Arrays.copyOf(doubleSums, newCapacity);
+        }
+    }
+
+    @Override
+    public void add(int group, int rowIndex) {
+        if (integral) {
+            longSums[group] += longValue(rowIndex);
+        } else {
+            doubleSums[group] += doubleValue(rowIndex);
+        }
+    }
+
+    @Override
+    public void merge(int group, Accumulator other, int otherGroup) {
+        final Sum otherSum = (Sum) other;
+        if (integral) {
+            longSums[group] += otherSum.longSums[otherGroup];
+        } else {
+            doubleSums[group] += otherSum.doubleSums[otherGroup];
+        }
+    }
+
+    @Override
+    public Object toArray(int groupCount) {
+        if (integral) {
+            return Arrays.copyOf(longSums, groupCount);
+        }
+        return Arrays.copyOf(doubleSums, groupCount);
+    }
+
+}
@@ -0,0 +1,198 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.bitmap;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A container that stores its values as a sorted array, suited to sparse
+ * containers (up to 4096 values)
+ */
+final class ArrayContainer extends Container {
+
+    private static final int DEFAULT_CAPACITY = 4;
+
+    /**
+     * @return the number of bytes used to store the given number of values
+     */
+    static int sizeInBytes(int cardinality) {
+        return cardinality * Character.BYTES;
+    }
+
+    /**
+     * @return an array container holding the same values as the given one,
+     * which must not hold more than 4096 values
+     */
+    static ArrayContainer from(Container container) {
+        assert container.cardinality() <= MAX_ARRAY_SIZE : "Too many values for an array container";
+
+        final ArrayContainer array = new ArrayContainer(new char[container.cardinality()], 0);
+        container.forEach(0, value -> array.values[array.cardinality++] = (char) value);
+        return array;
+    }
+
+    private char[] values;
+    private int cardinality;
+
+    ArrayContainer() {
+        this(new char[DEFAULT_CAPACITY], 0);
+    }
+
+    private ArrayContainer(char[] values, int cardinality) {
+        this.values = values;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    boolean contains(char value) {
+        return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+    }
+
+    @Override
+    Container add(char value) {
+        int position = cardinality;
+        if (cardinality > 0 && value <= values[cardinality - 1]) {
+            position = Arrays.binarySearch(values, 0, cardinality, value);
+            if (position >= 0) {
+                return this;
+            }
+            position = -position - 1;
+        }
+        if (cardinality == MAX_ARRAY_SIZE) {
+            return toBitmap().add(value);
+        }
+        if (cardinality == values.length) {
+            values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, Math.max(DEFAULT_CAPACITY, 2 * cardinality)));
+        }
+        System.arraycopy(values, position, values, position + 1, cardinality - position);
+        values[position] = value;
+        cardinality++;
+        return this;
+    }
+
+    @Override
+    int runCount() {
+        int runs = 0;
+        for (int index = 0; index < cardinality; index++) {
+            if (index == 0 || values[index] != values[index - 1] + 1) {
+                runs++;
+            }
+        }
+        return runs;
+    }
+
+    @Override
+    int sizeInBytes() {
+        return sizeInBytes(cardinality);
+    }
+
+    @Override
+    Container copy() {
+        return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+    }
+
+    @Override
+    BitmapContainer toBitmap() {
+        return BitmapContainer.from(this);
+    }
+
+    @Override
+    void forEach(int base, IntConsumer action) {
+        for (int index = 0; index < cardinality; index++) {
+            action.accept(base + values[index]);
+        }
+    }
+
+    @Override
+    Container and(Container other) {
+        final char[] result = new char[Math.min(cardinality, other.cardinality())];
+        int count = 0;
+        for (int index = 0; index < cardinality; index++) {
+            if (other.contains(values[index])) {
+                result[count++] = values[index];
+            }
+        }
+        return new ArrayContainer(result, count);
+    }
+
+    @Override
+    Container or(Container other) {
+        if (other instanceof ArrayContainer && cardinality + other.cardinality() <= MAX_ARRAY_SIZE) {
+            return merge((ArrayContainer) other);
+        }
+        return super.or(other);
+    }
+
+    /**
+     * @return the union of two array containers, whose size fits in an array
+     */
+    private ArrayContainer merge(ArrayContainer other) {
+        final char[] result = new char[cardinality + other.cardinality];
+        int left = 0, right = 0, count = 0;
+        while (left < cardinality && right < other.cardinality) {
+            final char leftValue = values[left];
+            final char rightValue = other.values[right];
+            if (leftValue < rightValue) {
+                result[count++] = leftValue;
+                left++;
+            } else if (leftValue > rightValue) {
+                result[count++] = rightValue;
+                right++;
+            } else {
+                result[count++] = leftValue;
+                left++;
+                right++;
+            }
+        }
+        while (left < cardinality) {
+            result[count++] = values[left++];
+        }
+        while (right < other.cardinality) {
+            result[count++] = other.values[right++];
+        }
+        return new ArrayContainer(result, count);
+    }
+
+    @Override
+    Container andNot(Container other) {
+        final char[] result = new char[cardinality];
+        int count = 0;
+        for (int index = 0; index < cardinality; index++) {
+            if (!other.contains(values[index])) {
+                result[count++] = values[index];
+            }
+        }
+        return new ArrayContainer(result, count);
+    }
+
+    @Override
+    Container optimize() {
+        if (RunContainer.sizeInBytes(runCount()) < sizeInBytes()) {
+            return RunContainer.from(this);
+        }
+        return this;
+    }
+
+}
@@ -0,0 +1,187 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.bitmap;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A container that stores one bit for each of the 2^16 possible values
+ */
+final class BitmapContainer extends Container {
+
+    static final int WORD_COUNT = CAPACITY / Long.SIZE;
+
+    static final int SIZE_IN_BYTES = WORD_COUNT * Long.BYTES;
+
+    /**
+     * @return a bitmap holding the same values as the given container
+     */
+    static BitmapContainer from(Container container) {
+        final BitmapContainer bitmap = new BitmapContainer();
+        container.forEach(0, value -> bitmap.add((char) value));
+        return bitmap;
+    }
+
+    private final long[] words;
+    private int cardinality;
+
+    BitmapContainer() {
+        this(new long[WORD_COUNT], 0);
+    }
+
+    private BitmapContainer(long[] words, int cardinality) {
+        assert words.length == WORD_COUNT : "Invalid bitmap length " + words.length;
+
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    boolean contains(char value) {
+        return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    Container add(char value) {
+        final int index = value >>> 6;
+        final long before = words[index];
+        words[index] = before | (1L << value);
+        if (words[index] != before) {
+            cardinality++;
+        }
+        return this;
+    }
+
+    @Override
+    int runCount() {
+        int runs = 0;
+        long previous = 0;
+        for (long each : words) {
+            runs += Long.bitCount(each & ~((each << 1) | (previous >>> 63)));
+            previous = each;
+        }
+        return runs;
+    }
+
+    @Override
+    int sizeInBytes() {
+        return SIZE_IN_BYTES;
+    }
+
+    @Override
+    Container copy() {
+        return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    @Override
+    BitmapContainer toBitmap() {
+        return this;
+    }
+
+    @Override
+    void forEach(int base, IntConsumer action) {
+        for (int index = 0; index < WORD_COUNT; index++) {
+            long word = words[index];
+            while (word != 0) {
+                action.accept(base + (index << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * @return a new bitmap, intersection of this one and the given one
+     */
+    BitmapContainer andWords(BitmapContainer other) {
+        final long[] result = new long[WORD_COUNT];
+        for (int index = 0; index < WORD_COUNT; index++) {
+            result[index] = words[index] & other.words[index];
+        }
+        return new BitmapContainer(result, countBits(result));
+    }
+
+    /**
+     * @return a new bitmap, union of this one and the given one
+     */
+    BitmapContainer orWords(BitmapContainer other) {
+        final long[] result = new long[WORD_COUNT];
+        for (int index = 0; index < WORD_COUNT; index++) {
+            result[index] = words[index] | other.words[index];
+        }
+        return new BitmapContainer(result, countBits(result));
+    }
+
+    /**
+     * @return a new bitmap, difference of this one and the given one
+     */
+    BitmapContainer andNotWords(BitmapContainer other) {
+        final long[] result = new long[WORD_COUNT];
+        for (int index = 0; index < WORD_COUNT; index++) {
+            result[index] = words[index] & ~other.words[index];
+        }
+        return new BitmapContainer(result, countBits(result));
+    }
+
+    /**
+     * Set all the values within [from, to[
+     */
+    void setRange(int from, int to) {
+        applyRange(from, to, false);
+    }
+
+    /**
+     * Flip all the values within [from, to[
+     */
+    void flipRange(int from, int to) {
+        applyRange(from, to, true);
+    }
+
+    private void applyRange(int from, int to, boolean flip) {
+        assert 0 <= from && from <= to && to <= CAPACITY : "Invalid range [" + from + ", " + to + "[";
+
+        int value = from;
+        while (value < to) {
+            final int index = value >>> 6;
+            final int start = value & 63;
+            final int end = Math.min(Long.SIZE, start + (to - value));
+            final long mask = (end == Long.SIZE ? -1L : (1L << end) - 1) & -(1L << start);
+            if (flip) {
+                words[index] ^= mask;
+            } else {
+                words[index] |= mask;
+            }
+            value += end - start;
+        }
+        cardinality = countBits(words);
+    }
+
+    private static int countBits(long[] words) {
+        int count = 0;
+        for (long each : words) {
+            count += Long.bitCount(each);
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,153 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.bitmap;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A set of 16-bit values, the lower halves of the row indices that share the
+ * same upper half in a row bitmap.
+ *
+ * Operations never modify their operands, except add() which may modify the
+ * receiver, and return whatever container best fits their result.
+ */
+abstract class Container {
+
+    /**
+     * The number of distinct values a container holds at most
+     */
+    static final int CAPACITY = 1 << 16;
+
+    /**
+     * Above this cardinality, a bitmap is smaller than an array of values
+     */
+    static final int MAX_ARRAY_SIZE = 4096;
+
+    /**
+     * @return the smallest container that holds the same values as the given
+     * bitmap
+     * @param bitmap the values to hold
+     */
+    static Container optimal(BitmapContainer bitmap) {
+        final int cardinality = bitmap.cardinality();
+        final int arrayBytes = cardinality <= MAX_ARRAY_SIZE ? ArrayContainer.sizeInBytes(cardinality) : Integer.MAX_VALUE;
+        final int runBytes = RunContainer.sizeInBytes(bitmap.runCount());
+        if (runBytes < Math.min(arrayBytes, BitmapContainer.SIZE_IN_BYTES)) {
+            return RunContainer.from(bitmap);
+        }
+        if (arrayBytes <= BitmapContainer.SIZE_IN_BYTES) {
+            return ArrayContainer.from(bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * @return the number of values in this container
+     */
+    abstract int cardinality();
+
+    /**
+     * @return true if the given value belongs to this container
+     * @param value the value of interest
+     */
+    abstract boolean contains(char value);
+
+    /**
+     * Add the given value to this container
+     *
+     * @return the container that holds the result, possibly this one
+     * @param value the value to add
+     */
+    abstract Container add(char value);
+
+    /**
+     * @return the number of runs of consecutive values in this container
+     */
+    abstract int runCount();
+
+    /**
+     * @return the number of bytes used to store the values
+     */
+    abstract int sizeInBytes();
+
+    /**
+     * @return an independent copy of this container
+     */
+    abstract Container copy();
+
+    /**
+     * @return a bitmap holding the same values, which may be this container
+     * itself but must not be modified
+     */
+    abstract BitmapContainer toBitmap();
+
+    /**
+     * Pass every value, in increasing order, to the given action
+     *
+     * @param base the value added to each value of this container
+     * @param action the action to apply
+     */
+    abstract void forEach(int base, IntConsumer action);
+
+    /**
+     * @return the values held by both this container and the given one
+     */
+    Container and(Container other) {
+        if (other instanceof ArrayContainer) {
+            return other.and(this);
+        }
+        return optimal(toBitmap().andWords(other.toBitmap()));
+    }
+
+    /**
+     * @return the values held by either this container or the given one
+     */
+    Container or(Container other) {
+        return optimal(toBitmap().orWords(other.toBitmap()));
+    }
+
+    /**
+     * @return the values of this container that the given one does not hold
+     */
+    Container andNot(Container other) {
+        return optimal(toBitmap().andNotWords(other.toBitmap()));
+    }
+
+    /**
+     * @return the values of this container, where values within [from, to[
+     * are flipped
+     * @param from the first value to flip
+     * @param to the value that follows the last value to flip
+     */
+    Container flip(int from, int to) {
+        assert 0 <= from && from <= to && to <= CAPACITY : "Invalid range [" + from + ", " + to + "[";
+
+        final BitmapContainer result = (BitmapContainer) toBitmap().copy();
+        result.flipRange(from, to);
+        return optimal(result);
+    }
+
+    /**
+     * @return the smallest container that holds the same values
+     */
+    Container optimize() {
+        return optimal(toBitmap());
+    }
+
+}
@@ -0,0 +1,339 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.bitmap;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of row indices, in the spirit of Roaring bitmaps. Indices
+ * are split by their upper 16 bits, and the lower 16 bits of each group are
+ * held in the container that best fits their density: a sorted array for
+ * sparse groups, a plain bitmap for dense ones, or runs for contiguous
+ * ranges.
+ *
+ * The set operations (and, or, andNot, flip) leave their operands untouched
+ * and return new bitmaps.
+ */
+public final class RowBitmap {
+
+    private static final int DEFAULT_CAPACITY = 4;
+
+    /**
+     * @return a bitmap that contains the given row indices
+     * @param rowIndices the row indices, which must not be negative
+     */
+    public static RowBitmap of(int... rowIndices) {
+        final RowBitmap bitmap = new RowBitmap();
+        for (int each : rowIndices) {
+            bitmap.add(each);
+        }
+        return bitmap;
+    }
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public RowBitmap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    private RowBitmap(int capacity) {
+        this.keys = new char[capacity];
+        this.containers = new Container[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Add the given row index to this bitmap
+     *
+     * @param rowIndex the index to add, which must not be negative
+     */
+    public void add(int rowIndex) {
+        requireValidIndex(rowIndex);
+
+        final char key = highBits(rowIndex);
+        int position = size - 1;
+        if (size == 0 || keys[position] != key) {
+            position = Arrays.binarySearch(keys, 0, size, key);
+            if (position < 0) {
+                position = -position - 1;
+                insert(position, key, new ArrayContainer());
+            }
+        }
+        containers[position] = containers[position].add(lowBits(rowIndex));
+    }
+
+    private static void requireValidIndex(int rowIndex) throws IllegalArgumentException {
+        if (rowIndex < 0) {
+            final String error = String.format("Invalid row index (found %d, expected a positive index)", rowIndex);
+            throw new IllegalArgumentException(error);
+        }
+    }
+
+    private void insert(int position, char key, Container container) {
+        if (size == keys.length) {
+            final int capacity = Math.max(DEFAULT_CAPACITY, 2 * size);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, position, keys, position + 1, size - position);
+        System.arraycopy(containers, position, containers, position + 1, size - position);
+        keys[position] = key;
+        containers[position] = container;
+        size++;
+    }
+
+    /**
+     * Append a container whose key is greater than all the existing ones,
+     * unless it is empty
+     */
+    private void append(char key, Container container) {
+        assert size == 0 || keys[size - 1] < key : "Keys must be appended in increasing order";
+
+        if (container.cardinality() > 0) {
+            insert(size, key, container);
+        }
+    }
+
+    /**
+     * @return true if the given row index belongs to this bitmap
+     * @param rowIndex the row index of interest
+     */
+    public boolean contains(int rowIndex) {
+        if (rowIndex < 0) {
+            return false;
+        }
+        final int position = Arrays.binarySearch(keys, 0, size, highBits(rowIndex));
+        return position >= 0 && containers[position].contains(lowBits(rowIndex));
+    }
+
+    /**
+     * @return the number of row indices in this bitmap
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int index = 0; index < size; index++) {
+            cardinality += containers[index].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return true if this bitmap contains no row index
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the row indices that belong to both this bitmap and the given one
+     * @param other the other bitmap
+     */
+    public RowBitmap and(RowBitmap other) {
+        requireValidBitmap(other);
+
+        final RowBitmap result = new RowBitmap(Math.max(DEFAULT_CAPACITY, Math.min(size, other.size)));
+        int left = 0, right = 0;
+        while (left < size && right < other.size) {
+            if (keys[left] < other.keys[right]) {
+                left++;
+            } else if (keys[left] > other.keys[right]) {
+                right++;
+            } else {
+                result.append(keys[left], containers[left].and(other.containers[right]));
+                left++;
+                right++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the row indices that belong to this bitmap or the given one
+     * @param other the other bitmap
+     */
+    public RowBitmap or(RowBitmap other) {
+        requireValidBitmap(other);
+
+        final RowBitmap result = new RowBitmap(Math.max(DEFAULT_CAPACITY, size + other.size));
+        int left = 0, right = 0;
+        while (left < size || right < other.size) {
+            if (right == other.size || (left < size && keys[left] < other.keys[right])) {
+                result.append(keys[left], containers[left].copy());
+                left++;
+            } else if (left == size || keys[left] > other.keys[right]) {
+                result.append(other.keys[right], other.containers[right].copy());
+                right++;
+            } else {
+                result.append(keys[left], containers[left].or(other.containers[right]));
+                left++;
+                right++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the row indices of this bitmap that do not belong to the given
+     * one
+     * @param other the other bitmap
+     */
+    public RowBitmap andNot(RowBitmap other) {
+        requireValidBitmap(other);
+
+        final RowBitmap result = new RowBitmap(Math.max(DEFAULT_CAPACITY, size));
+        int right = 0;
+        for (int left = 0; left < size; left++) {
+            while (right < other.size && other.keys[right] < keys[left]) {
+                right++;
+            }
+            if (right < other.size && other.keys[right] == keys[left]) {
+                result.append(keys[left], containers[left].andNot(other.containers[right]));
+            } else {
+                result.append(keys[left], containers[left].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a copy of this bitmap where the row indices within [from, to[
+     * are flipped: the ones absent are added and the ones present removed
+     * @param from the first index to flip
+     * @param to the index that follows the last index to flip
+     */
+    public RowBitmap flip(int from, int to) {
+        requireValidIndex(from);
+        if (to < from) {
+            final String error = String.format("Invalid range (found [%d, %d[)", from, to);
+            throw new IllegalArgumentException(error);
+        }
+
+        final RowBitmap result = new RowBitmap(Math.max(DEFAULT_CAPACITY, size));
+        if (from == to) {
+            for (int index = 0; index < size; index++) {
+                result.append(keys[index], containers[index].copy());
+            }
+            return result;
+        }
+        final int firstKey = highBits(from);
+        final int lastKey = highBits(to - 1);
+        int position = 0;
+        while (position < size && keys[position] < firstKey) {
+            result.append(keys[position], containers[position].copy());
+            position++;
+        }
+        for (int key = firstKey; key <= lastKey; key++) {
+            final int start = key == firstKey ? lowBits(from) : 0;
+            final int end = key == lastKey ? lowBits(to - 1) + 1 : Container.CAPACITY;
+            if (position < size && keys[position] == key) {
+                result.append((char) key, containers[position].flip(start, end));
+                position++;
+            } else {
+                result.append((char) key, RunContainer.ofRange(start, end));
+            }
+        }
+        while (position < size) {
+            result.append(keys[position], containers[position].copy());
+            position++;
+        }
+        return result;
+    }
+
+    private static void requireValidBitmap(RowBitmap other) throws IllegalArgumentException {
+        if (other == null) {
+            throw new IllegalArgumentException("Invalid bitmap ('null' found)");
+        }
+    }
+
+    /**
+     * Convert each container into the representation that uses the least
+     * memory, in particular into runs where rows are contiguous
+     */
+    public void runOptimize() {
+        for (int index = 0; index < size; index++) {
+            containers[index] = containers[index].optimize();
+        }
+    }
+
+    /**
+     * @return an estimate of the number of bytes used to store the row
+     * indices
+     */
+    public long sizeInBytes() {
+        long bytes = (long) size * (Character.BYTES + Integer.BYTES);
+        for (int index = 0; index < size; index++) {
+            bytes += containers[index].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Pass every row index, in increasing order, to the given action
+     *
+     * @param action the action to apply
+     */
+    public void forEach(IntConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Invalid action ('null' found)");
+        }
+        for (int index = 0; index < size; index++) {
+            containers[index].forEach(keys[index] << 16, action);
+        }
+    }
+
+    /**
+     * @return the row indices, in increasing order
+     */
+    public int[] toArray() {
+        final int[] indices = new int[cardinality()];
+        final int[] count = new int[1];
+        forEach(each -> indices[count[0]++] = each);
+        return indices;
+    }
+
+    private static char highBits(int rowIndex) {
+        return (char) (rowIndex >>> 16);
+    }
+
+    private static char lowBits(int rowIndex) {
+        return (char) rowIndex;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof RowBitmap) {
+            return Arrays.equals(toArray(), ((RowBitmap) other).toArray());
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+}
@@ -0,0 +1,158 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.bitmap;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A container that stores its values as runs of consecutive values, suited
+ * to dense containers such as contiguous ranges of rows
+ */
+final class RunContainer extends Container {
+
+    /**
+     * @return the number of bytes used to store the given number of runs
+     */
+    static int sizeInBytes(int runCount) {
+        return Character.BYTES + 2 * Character.BYTES * runCount;
+    }
+
+    /**
+     * @return a run container holding the same values as the given one
+     */
+    static RunContainer from(Container container) {
+        final RunContainer runs = new RunContainer(container.runCount());
+        container.forEach(0, runs::append);
+        return runs;
+    }
+
+    /**
+     * @return a run container holding all the values within [from, to[
+     */
+    static RunContainer ofRange(int from, int to) {
+        assert 0 <= from && from < to && to <= CAPACITY : "Invalid range [" + from + ", " + to + "[";
+
+        final RunContainer runs = new RunContainer(1);
+        runs.starts[0] = (char) from;
+        runs.lengths[0] = (char) (to - from - 1);
+        runs.runCount = 1;
+        runs.cardinality = to - from;
+        return runs;
+    }
+
+    private final char[] starts;
+    private final char[] lengths;
+    private int runCount;
+    private int cardinality;
+
+    private RunContainer(int capacity) {
+        this.starts = new char[capacity];
+        this.lengths = new char[capacity];
+        this.runCount = 0;
+        this.cardinality = 0;
+    }
+
+    /**
+     * Append a value greater than all the ones already held
+     */
+    private void append(int value) {
+        assert runCount == 0 || value > starts[runCount - 1] + lengths[runCount - 1] : "Values must be appended in increasing order";
+
+        if (runCount > 0 && value == starts[runCount - 1] + lengths[runCount - 1] + 1) {
+            lengths[runCount - 1]++;
+        } else {
+            starts[runCount] = (char) value;
+            lengths[runCount] = 0;
+            runCount++;
+        }
+        cardinality++;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    boolean contains(char value) {
+        int index = Arrays.binarySearch(starts, 0, runCount, value);
+        if (index >= 0) {
+            return true;
+        }
+        index = -index - 2;
+        return index >= 0 && value - starts[index] <= lengths[index];
+    }
+
+    @Override
+    Container add(char value) {
+        if (contains(value)) {
+            return this;
+        }
+        return toBitmap().add(value);
+    }
+
+    @Override
+    int runCount() {
+        return runCount;
+    }
+
+    @Override
+    int sizeInBytes() {
+        return sizeInBytes(runCount);
+    }
+
+    @Override
+    Container copy() {
+        final RunContainer copy = new RunContainer(runCount);
+        System.arraycopy(starts, 0, copy.starts, 0, runCount);
+        System.arraycopy(lengths, 0, copy.lengths, 0, runCount);
+        copy.runCount = runCount;
+        copy.cardinality = cardinality;
+        return copy;
+    }
+
+    @Override
+    BitmapContainer toBitmap() {
+        final BitmapContainer bitmap = new BitmapContainer();
+        for (int index = 0; index < runCount; index++) {
+            bitmap.setRange(starts[index], starts[index] + lengths[index] + 1);
+        }
+        return bitmap;
+    }
+
+    @Override
+    void forEach(int base, IntConsumer action) {
+        for (int index = 0; index < runCount; index++) {
+            final int last = starts[index] + lengths[index];
+            for (int value = starts[index]; value <= last; value++) {
+                action.accept(base + value);
+            }
+        }
+    }
+
+    @Override
+    Container optimize() {
+        if (sizeInBytes() <= Math.min(BitmapContainer.SIZE_IN_BYTES, cardinality <= MAX_ARRAY_SIZE ? ArrayContainer.sizeInBytes(cardinality) : Integer.MAX_VALUE)) {
+            return this;
+        }
+        return optimal(toBitmap());
+    }
+
+}
@@ -0,0 +1,46 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.column;
+
+/**
+ * Read-only view on the BOOLEAN values of a single column, without boxing
+ */
+public interface BooleanColumn {
+
+    /**
+     * @return the number of values in this column
+     */
+    int size();
+
+    /**
+     * @return the value found at the given row
+     * @param rowIndex the row number, from 1 to n
+     */
+    boolean get(int rowIndex);
+
+    /**
+     * Copy all the values of this column into the given array, starting at
+     * its first cell
+     *
+     * @param destination the array that receives the values, whose length
+     * must be at least the size of this column
+     */
+    void copyTo(boolean[] destination);
+
+}
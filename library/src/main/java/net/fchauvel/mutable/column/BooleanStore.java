@@ -0,0 +1,159 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.column;
+
+import java.util.Arrays;
+import net.fchauvel.mutable.FieldType;
+
+/**
+ * Store BOOLEAN values as bits, packed in chunks of long
+ */
+public class BooleanStore extends ColumnStore {
+
+    private static final int ADDRESS_BITS = 6;
+    private static final int WORD_SIZE = 1 << ADDRESS_BITS;
+    private static final int WORDS_PER_CHUNK = CHUNK_SIZE >>> ADDRESS_BITS;
+    private static final int WORD_CHUNK_BITS = CHUNK_BITS - ADDRESS_BITS;
+    private static final int WORD_CHUNK_MASK = WORDS_PER_CHUNK - 1;
+
+    private long[][] chunks;
+
+    public BooleanStore() {
+        this.chunks = new long[][]{new long[1]};
+    }
+
+    @Override
+    public FieldType getType() {
+        return FieldType.BOOLEAN;
+    }
+
+    @Override
+    public Object get(int index) {
+        return getBoolean(index);
+    }
+
+    /**
+     * @return the value at the given position, without boxing
+     * @param index the position of the value, from 0 to n-1
+     */
+    public boolean getBoolean(int index) {
+        requireValidIndex(index);
+        return (chunks[index >>> CHUNK_BITS][(index & CHUNK_MASK) >>> ADDRESS_BITS] & (1L << index)) != 0;
+    }
+
+    @Override
+    public void append(Object value) {
+        appendBoolean((Boolean) value);
+    }
+
+    /**
+     * Append the given value, without boxing
+     *
+     * @param value the value to append
+     */
+    public void appendBoolean(boolean value) {
+        final int chunkIndex = size >>> CHUNK_BITS;
+        final int wordOffset = (size & CHUNK_MASK) >>> ADDRESS_BITS;
+        if (chunkIndex == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkIndex + 1);
+            chunks[chunkIndex] = new long[WORDS_PER_CHUNK];
+
+        } else if (wordOffset == chunks[chunkIndex].length) {
+            chunks[chunkIndex] = Arrays.copyOf(chunks[chunkIndex], Math.min(WORDS_PER_CHUNK, grow(wordOffset, wordOffset + 1)));
+
+        }
+        set(size, value);
+        size++;
+    }
+
+    @Override
+    public boolean acceptsArray(Object values) {
+        return values instanceof boolean[];
+    }
+
+    @Override
+    public void appendArray(Object values) {
+        appendBooleans((boolean[]) values);
+    }
+
+    /**
+     * Append all the given values
+     *
+     * @param values the values to append
+     */
+    public void appendBooleans(boolean[] values) {
+        for (boolean eachValue : values) {
+            appendBoolean(eachValue);
+        }
+    }
+
+    /**
+     * Set the bit at the given position
+     */
+    private void set(int index, boolean value) {
+        final long[] chunk = chunks[index >>> CHUNK_BITS];
+        final int wordOffset = (index & CHUNK_MASK) >>> ADDRESS_BITS;
+        if (value) {
+            chunk[wordOffset] |= 1L << index;
+        } else {
+            chunk[wordOffset] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * @return the word with the given global index
+     */
+    private long word(int wordIndex) {
+        return chunks[wordIndex >>> WORD_CHUNK_BITS][wordIndex & WORD_CHUNK_MASK];
+    }
+
+    /**
+     * Copy the values found in the given range into the given array, unpacking them one by one
+     *
+     * @param from the position of the first value
+     * @param to the position after the last value
+     * @param destination the array that receives the values
+     * @param offset the cell of the destination that receives the first value
+     */
+    public void copyTo(int from, int to, boolean[] destination, int offset) {
+        assert from >= 0 && from <= to && to <= size : "Invalid range [" + from + ", " + to + "[ (size is " + size + ")";
+        for (int position = from; position < to; position++) {
+            destination[offset + position - from] = getBoolean(position);
+        }
+    }
+
+    @Override
+    public void compact(DeletionVector deletions) {
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            if (!deletions.isDeleted(read)) {
+                set(write, (word(read >>> ADDRESS_BITS) & (1L << read)) != 0);
+                write++;
+            }
+        }
+        truncate(write);
+    }
+
+    @Override
+    public void truncate(int newSize) {
+        super.truncate(newSize);
+        chunks = Arrays.copyOf(chunks, chunksFor(newSize));
+    }
+
+}
@@ -0,0 +1,188 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.column;
+
+import net.fchauvel.mutable.ColumnStatistics;
+import net.fchauvel.mutable.FieldType;
+
+/**
+ * Storage for the values of a single column. Values are indexed from 0 to n-1
+ * and are kept in primitive arrays whenever the type of the field permits it.
+ * These arrays are fixed-size chunks, so that appending values never copies
+ * the ones already stored: only the first chunk grows, until it reaches the
+ * chunk size.
+ */
+public abstract class ColumnStore {
+
+    protected static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The number of values held in a single chunk
+     */
+    public static final int CHUNK_SIZE = 1 << 16;
+
+    protected static final int CHUNK_BITS = 16;
+    protected static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * @return a new empty store, suited for the given type of field
+     * @param type the type of the values to be stored
+     */
+    public static ColumnStore of(FieldType type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Illegal field type (found 'null')");
+        }
+        switch (type) {
+            case INTEGER:
+                return new IntegerStore();
+            case LONG:
+                return new LongStore();
+            case FLOAT:
+                return new FloatStore();
+            case DOUBLE:
+                return new DoubleStore();
+            case BOOLEAN:
+                return new BooleanStore();
+            case CHARACTER:
+                return new CharacterStore();
+            default:
+                return new StringStore();
+        }
+    }
+
+    protected int size;
+
+    protected ColumnStore() {
+        this.size = 0;
+    }
+
+    /**
+     * @return the number of values in this store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the type of the values held in this store
+     */
+    public abstract FieldType getType();
+
+    /**
+     * @return the value at the given position, boxed if needed
+     * @param index the position of the value, from 0 to n-1
+     */
+    public abstract Object get(int index);
+
+    /**
+     * Append a value at the end of this store. The type of the value must
+     * match the type of the store.
+     *
+     * @param value the value to append
+     */
+    public abstract void append(Object value);
+
+    /**
+     * @return true if the given object is an array of values that can be
+     * appended in bulk to this store
+     * @param values the candidate array
+     */
+    public abstract boolean acceptsArray(Object values);
+
+    /**
+     * Append all the values of the given array at once. The array must be
+     * accepted by this store.
+     *
+     * @param values the array of values to append
+     */
+    public abstract void appendArray(Object values);
+
+    /**
+     * Account for the values from the first position (included) to the last
+     * one (excluded) in the given statistics, chunk by chunk. Only numeric
+     * stores support this.
+     *
+     * @param from the position of the first value
+     * @param to the position after the last value
+     * @param statistics the statistics to update
+     * @throws IllegalArgumentException if the values are not numeric
+     */
+    public void summarize(int from, int to, ColumnStatistics statistics) throws IllegalArgumentException {
+        throw new IllegalArgumentException("Cannot summarize values of type " + getType() + " (expected numeric values)");
+    }
+
+    /**
+     * Drop all the values found at deleted positions, moving the remaining
+     * ones down in a single pass
+     *
+     * @param deletions the positions to drop
+     */
+    public abstract void compact(DeletionVector deletions);
+
+    /**
+     * Drop all the values beyond the given size
+     *
+     * @param newSize the number of values to keep
+     */
+    public void truncate(int newSize) {
+        assert newSize >= 0 && newSize <= size : "Invalid size " + newSize + " (should be within [0, " + size + "])";
+        size = newSize;
+    }
+
+    /**
+     * @return the capacity to allocate so that at least the given number of
+     * values fits in
+     * @param capacity the current capacity
+     * @param minimum the number of values that must fit in
+     */
+    protected static int grow(int capacity, int minimum) {
+        int newCapacity = Math.max(capacity + (capacity >> 1), DEFAULT_CAPACITY);
+        if (newCapacity < minimum) {
+            newCapacity = minimum;
+        }
+        return newCapacity;
+    }
+
+    /**
+     * @return the capacity of the first chunk, so that at least the given
+     * number of values fits in
+     * @param capacity the current capacity of the first chunk
+     * @param minimum the number of values that must fit in
+     */
+    protected static int growChunk(int capacity, int minimum) {
+        return Math.min(CHUNK_SIZE, grow(capacity, minimum));
+    }
+
+    /**
+     * @return the number of chunks needed to hold the given number of values
+     * (at least one)
+     * @param valueCount the number of values to hold
+     */
+    protected static int chunksFor(int valueCount) {
+        return Math.max(1, (valueCount + CHUNK_MASK) >>> CHUNK_BITS);
+    }
+
+    /**
+     * Check that the given position points to an existing value
+     */
+    protected final void requireValidIndex(int index) {
+        assert index >= 0 && index < size : "Invalid index " + index + " (should be within [0, " + (size - 1) + "])";
+    }
+
+}
@@ -0,0 +1,170 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.column;
+
+import java.util.Arrays;
+
+/**
+ * Record which positions of a set of columns have been deleted, without
+ * moving any value. Deleted positions are kept as bits, and a Fenwick tree
+ * counts the deletions per block of positions, so that marking a position and
+ * finding the n-th remaining one both take a logarithmic time.
+ */
+public class DeletionVector {
+
+    private static final int ADDRESS_BITS = 6;
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BLOCK_BITS = ADDRESS_BITS + 3;
+    private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+
+    private long[] words;
+    private int[] tree;
+    private int count;
+
+    public DeletionVector() {
+        this.words = new long[WORDS_PER_BLOCK];
+        this.tree = new int[2];
+        this.count = 0;
+    }
+
+    /**
+     * @return the number of deleted positions
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return true if no position has been deleted
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return true if the given position has been deleted
+     * @param position the position to check, from 0 to n-1
+     */
+    public boolean isDeleted(int position) {
+        final int wordIndex = position >>> ADDRESS_BITS;
+        return wordIndex < words.length && (words[wordIndex] & (1L << position)) != 0;
+    }
+
+    /**
+     * Mark the given position as deleted
+     *
+     * @param position the position to delete, from 0 to n-1
+     * @return true if the position was not deleted yet
+     */
+    public boolean delete(int position) {
+        assert position >= 0 : "Invalid position " + position;
+
+        if (isDeleted(position)) {
+            return false;
+        }
+        ensureCapacity(position);
+        words[position >>> ADDRESS_BITS] |= 1L << position;
+        for (int node = (position >>> BLOCK_BITS) + 1; node < tree.length; node += node & -node) {
+            tree[node]++;
+        }
+        count++;
+        return true;
+    }
+
+    /**
+     * @return the position of the n-th position that has not been deleted
+     * @param rank the number of remaining positions to skip, from 0 to n-1
+     */
+    public int select(int rank) {
+        assert rank >= 0 : "Invalid rank " + rank;
+
+        int block = 0;
+        int remaining = rank;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>>= 1) {
+            final int next = block + step;
+            if (next < tree.length) {
+                final int live = step * BLOCK_SIZE - tree[next];
+                if (live <= remaining) {
+                    block = next;
+                    remaining -= live;
+                }
+            }
+        }
+
+        int wordIndex = block * WORDS_PER_BLOCK;
+        while (wordIndex < words.length) {
+            final long live = ~words[wordIndex];
+            final int liveCount = Long.bitCount(live);
+            if (remaining < liveCount) {
+                return (wordIndex << ADDRESS_BITS) + nthSetBit(live, remaining);
+            }
+            remaining -= liveCount;
+            wordIndex++;
+        }
+        return (wordIndex << ADDRESS_BITS) + remaining;
+    }
+
+    /**
+     * @return the position of the n-th bit set in the given word
+     */
+    private static int nthSetBit(long word, int rank) {
+        long bits = word;
+        for (int i = 0; i < rank; i++) {
+            bits &= bits - 1;
+        }
+        return Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Forget all the deletions
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+        Arrays.fill(tree, 0);
+        count = 0;
+    }
+
+    /**
+     * Grow the bits and the tree so that the given position fits in
+     */
+    private void ensureCapacity(int position) {
+        final int wordIndex = position >>> ADDRESS_BITS;
+        if (wordIndex < words.length) {
+            return;
+        }
+        int blockCount = words.length / WORDS_PER_BLOCK;
+        while (blockCount * WORDS_PER_BLOCK <= wordIndex) {
+            blockCount <<= 1;
+        }
+        words = Arrays.copyOf(words, blockCount * WORDS_PER_BLOCK);
+        tree = new int[blockCount + 1];
+        for (int block = 0; block < blockCount; block++) {
+            int deleted = 0;
+            for (int i = block * WORDS_PER_BLOCK; i < (block + 1) * WORDS_PER_BLOCK; i++) {
+                deleted += Long.bitCount(words[i]);
+            }
+            tree[block + 1] += deleted;
+            final int parent = (block + 1) + ((block + 1) & -(block + 1));
+            if (parent <= blockCount) {
+                tree[parent] += tree[block + 1];
+            }
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.column;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A dictionary of distinct strings, each identified by an integer code. Codes
+ * are given in order of insertion, from 0 to n-1, and never change.
+ */
+public class Dictionary {
+
+    /**
+     * The code of the values that are not in the dictionary
+     */
+    public static final int UNKNOWN = -1;
+
+    private final Map<String, Integer> codes;
+    private String[] values;
+
+    public Dictionary() {
+        this.codes = new HashMap<>();
+        this.values = new String[ColumnStore.DEFAULT_CAPACITY];
+    }
+
+    /**
+     * @return the number of distinct values in this dictionary
+     */
+    public int size() {
+        return codes.size();
+    }
+
+    /**
+     * @return the code of the given value, or UNKNOWN if the value is not in
+     * the dictionary
+     * @param value the value whose code is needed
+     */
+    public int codeOf(String value) {
+        final Integer code = codes.get(value);
+        if (code == null) {
+            return UNKNOWN;
+        }
+        return code;
+    }
+
+    /**
+     * @return the code of the given value, which is added to the dictionary
+     * if needed
+     * @param value the value to encode
+     */
+    public int encode(String value) {
+        final Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        final int newCode = codes.size();
+        if (newCode == values.length) {
+            values = Arrays.copyOf(values, ColumnStore.grow(values.length, newCode + 1));
+        }
+        values[newCode] = value;
+        codes.put(value, newCode);
+        return newCode;
+    }
+
+    /**
+     * @return a new dictionary holding the first values of this one, under
+     * the same codes
+     * @param size the number of values to keep, from 0 to n
+     */
+    public Dictionary prefix(int size) {
+        assert size >= 0 && size <= codes.size() : "Invalid size " + size + " (should be within [0, " + codes.size() + "])";
+        final Dictionary prefix = new Dictionary();
+        for (int code = 0; code < size; code++) {
+            prefix.encode(values[code]);
+        }
+        return prefix;
+    }
+
+    /**
+     * @return the value associated with the given code
+     * @param code the code to decode, from 0 to n-1
+     */
+    public String decode(int code) {
+        assert code >= 0 && code < codes.size() : "Invalid code " + code + " (should be within [0, " + (codes.size() - 1) + "])";
+        return values[code];
+    }
+
+}
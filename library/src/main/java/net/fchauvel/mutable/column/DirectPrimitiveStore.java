@@ -0,0 +1,368 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.column;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import net.fchauvel.mutable.FieldType;
+
+/**
+ * Store fixed-width values (numbers, booleans and characters) in chunks of
+ * direct memory
+ */
+public class DirectPrimitiveStore extends DirectStore {
+
+    private final int width;
+    private final ByteBuffer[] chunks;
+
+    public DirectPrimitiveStore(FieldType type, int capacity) {
+        super(type, capacity);
+        this.width = widthOf(type);
+        this.chunks = new ByteBuffer[chunkCount()];
+    }
+
+    /**
+     * @return the number of bytes needed to store a single value of the given
+     * type
+     */
+    private static int widthOf(FieldType type) {
+        switch (type) {
+            case INTEGER:
+            case FLOAT:
+                return Integer.BYTES;
+            case LONG:
+            case DOUBLE:
+                return Long.BYTES;
+            case CHARACTER:
+                return Character.BYTES;
+            case BOOLEAN:
+                return Byte.BYTES;
+            default:
+                throw new IllegalArgumentException("Unsupported fixed-width type '" + type.name() + "'");
+        }
+    }
+
+    @Override
+    public Object get(int index) {
+        switch (type) {
+            case INTEGER:
+                return getInteger(index);
+            case LONG:
+                return getLong(index);
+            case FLOAT:
+                return getFloat(index);
+            case DOUBLE:
+                return getDouble(index);
+            case CHARACTER:
+                return getCharacter(index);
+            default:
+                return getBoolean(index);
+        }
+    }
+
+    /**
+     * @return the INTEGER value at the given position, without boxing
+     * @param index the position of the value, from 0 to n-1
+     */
+    public int getInteger(int index) {
+        requireValidIndex(index);
+        return chunks[index >>> CHUNK_BITS].getInt((index & CHUNK_MASK) * width);
+    }
+
+    /**
+     * @return the LONG value at the given position, without boxing
+     * @param index the position of the value, from 0 to n-1
+     */
+    public long getLong(int index) {
+        requireValidIndex(index);
+        return chunks[index >>> CHUNK_BITS].getLong((index & CHUNK_MASK) * width);
+    }
+
+    /**
+     * @return the FLOAT value at the given position, without boxing
+     * @param index the position of the value, from 0 to n-1
+     */
+    public float getFloat(int index) {
+        requireValidIndex(index);
+        return chunks[index >>> CHUNK_BITS].getFloat((index & CHUNK_MASK) * width);
+    }
+
+    /**
+     * @return the DOUBLE value at the given position, without boxing
+     * @param index the position of the value, from 0 to n-1
+     */
+    public double getDouble(int index) {
+        requireValidIndex(index);
+        return chunks[index >>> CHUNK_BITS].getDouble((index & CHUNK_MASK) * width);
+    }
+
+    /**
+     * @return the CHARACTER value at the given position, without boxing
+     * @param index the position of the value, from 0 to n-1
+     */
+    public char getCharacter(int index) {
+        requireValidIndex(index);
+        return chunks[index >>> CHUNK_BITS].getChar((index & CHUNK_MASK) * width);
+    }
+
+    /**
+     * @return the BOOLEAN value at the given position, without boxing
+     * @param index the position of the value, from 0 to n-1
+     */
+    public boolean getBoolean(int index) {
+        requireValidIndex(index);
+        return chunks[index >>> CHUNK_BITS].get(index & CHUNK_MASK) != 0;
+    }
+
+    /**
+     * Copy the INTEGER values found in the given range into the given array,
+     * with one bulk read per chunk
+     *
+     * @param from the position of the first value
+     * @param to the position after the last value
+     * @param destination the array that receives the values
+     * @param offset the cell of the destination that receives the first value
+     */
+    public void copyTo(int from, int to, int[] destination, int offset) {
+        requireValidRange(from, to);
+        int position = from;
+        while (position < to) {
+            final int count = Math.min(CHUNK_SIZE - (position & CHUNK_MASK), to - position);
+            viewAt(position).asIntBuffer().get(destination, offset + position - from, count);
+            position += count;
+        }
+    }
+
+    /**
+     * Copy the LONG values found in the given range into the given array,
+     * with one bulk read per chunk
+     *
+     * @param from the position of the first value
+     * @param to the position after the last value
+     * @param destination the array that receives the values
+     * @param offset the cell of the destination that receives the first value
+     */
+    public void copyTo(int from, int to, long[] destination, int offset) {
+        requireValidRange(from, to);
+        int position = from;
+        while (position < to) {
+            final int count = Math.min(CHUNK_SIZE - (position & CHUNK_MASK), to - position);
+            viewAt(position).asLongBuffer().get(destination, offset + position - from, count);
+            position += count;
+        }
+    }
+
+    /**
+     * Copy the FLOAT values found in the given range into the given array,
+     * with one bulk read per chunk
+     *
+     * @param from the position of the first value
+     * @param to the position after the last value
+     * @param destination the array that receives the values
+     * @param offset the cell of the destination that receives the first value
+     */
+    public void copyTo(int from, int to, float[] destination, int offset) {
+        requireValidRange(from, to);
+        int position = from;
+        while (position < to) {
+            final int count = Math.min(CHUNK_SIZE - (position & CHUNK_MASK), to - position);
+            viewAt(position).asFloatBuffer().get(destination, offset + position - from, count);
+            position += count;
+        }
+    }
+
+    /**
+     * Copy the DOUBLE values found in the given range into the given array,
+     * with one bulk read per chunk
+     *
+     * @param from the position of the first value
+     * @param to the position after the last value
+     * @param destination the array that receives the values
+     * @param offset the cell of the destination that receives the first value
+     */
+    public void copyTo(int from, int to, double[] destination, int offset) {
+        requireValidRange(from, to);
+        int position = from;
+        while (position < to) {
+            final int count = Math.min(CHUNK_SIZE - (position & CHUNK_MASK), to - position);
+            viewAt(position).asDoubleBuffer().get(destination, offset + position - from, count);
+            position += count;
+        }
+    }
+
+    /**
+     * Copy the CHARACTER values found in the given range into the given array,
+     * with one bulk read per chunk
+     *
+     * @param from the position of the first value
+     * @param to the position after the last value
+     * @param destination the array that receives the values
+     * @param offset the cell of the destination that receives the first value
+     */
+    public void copyTo(int from, int to, char[] destination, int offset) {
+        requireValidRange(from, to);
+        int position = from;
+        while (position < to) {
+            final int count = Math.min(CHUNK_SIZE - (position & CHUNK_MASK), to - position);
+            viewAt(position).asCharBuffer().get(destination, offset + position - from, count);
+            position += count;
+        }
+    }
+
+    /**
+     * Copy the BOOLEAN values found in the given range into the given array
+     *
+     * @param from the position of the first value
+     * @param to the position after the last value
+     * @param destination the array that receives the values
+     * @param offset the cell of the destination that receives the first value
+     */
+    public void copyTo(int from, int to, boolean[] destination, int offset) {
+        requireValidRange(from, to);
+        for (int position = from; position < to; position++) {
+            destination[offset + position - from] = chunks[position >>> CHUNK_BITS].get(position & CHUNK_MASK) != 0;
+        }
+    }
+
+    /**
+     * @return a view on the chunk holding the given position, starting at
+     * this position. Views are independent, so that concurrent readers never
+     * share a buffer position.
+     */
+    private ByteBuffer viewAt(int index) {
+        final ByteBuffer view = chunks[index >>> CHUNK_BITS].duplicate().order(ByteOrder.nativeOrder());
+        view.position((index & CHUNK_MASK) * width);
+        return view;
+    }
+
+    @Override
+    public void append(Object value) {
+        switch (type) {
+            case INTEGER:
+                appendInteger((Integer) value);
+                break;
+            case LONG:
+                appendLong((Long) value);
+                break;
+            case FLOAT:
+                appendFloat((Float) value);
+                break;
+            case DOUBLE:
+                appendDouble((Double) value);
+                break;
+            case CHARACTER:
+                appendCharacter((Character) value);
+                break;
+            default:
+                appendBoolean((Boolean) value);
+        }
+    }
+
+    /**
+     * Append the given INTEGER value, without boxing
+     *
+     * @param value the value to append
+     */
+    public void appendInteger(int value) {
+        currentChunk().putInt(nextOffset(), value);
+        size++;
+    }
+
+    /**
+     * Append the given LONG value, without boxing
+     *
+     * @param value the value to append
+     */
+    public void appendLong(long value) {
+        currentChunk().putLong(nextOffset(), value);
+        size++;
+    }
+
+    /**
+     * Append the given FLOAT value, without boxing
+     *
+     * @param value the value to append
+     */
+    public void appendFloat(float value) {
+        currentChunk().putFloat(nextOffset(), value);
+        size++;
+    }
+
+    /**
+     * Append the given DOUBLE value, without boxing
+     *
+     * @param value the value to append
+     */
+    public void appendDouble(double value) {
+        currentChunk().putDouble(nextOffset(), value);
+        size++;
+    }
+
+    /**
+     * Append the given CHARACTER value, without boxing
+     *
+     * @param value the value to append
+     */
+    public void appendCharacter(char value) {
+        currentChunk().putChar(nextOffset(), value);
+        size++;
+    }
+
+    /**
+     * Append the given BOOLEAN value, without boxing
+     *
+     * @param value the value to append
+     */
+    public void appendBoolean(boolean value) {
+        currentChunk().put(nextOffset(), (byte) (value ? 1 : 0));
+        size++;
+    }
+
+    /**
+     * @return the offset, within its chunk, of the next value to be written
+     */
+    private int nextOffset() {
+        return (size & CHUNK_MASK) * width;
+    }
+
+    /**
+     * @return the chunk where the next value shall be written, allocated on
+     * first use
+     * @throws IllegalStateException if the store is full
+     */
+    private ByteBuffer currentChunk() throws IllegalStateException {
+        requireRemainingCapacity();
+        final int chunkIndex = size >>> CHUNK_BITS;
+        if (chunks[chunkIndex] == null) {
+            chunks[chunkIndex] = ByteBuffer
+                    .allocateDirect(chunkLength(chunkIndex) * width)
+                    .order(ByteOrder.nativeOrder());
+        }
+        return chunks[chunkIndex];
+    }
+
+    @Override
+    protected void releaseBuffers() {
+        for (int index = 0; index < chunks.length; index++) {
+            free(chunks[index]);
+            chunks[index] = null;
+        }
+    }
+
+}
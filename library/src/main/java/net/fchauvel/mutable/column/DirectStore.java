@@ -0,0 +1,206 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.column;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import net.fchauvel.mutable.FieldType;
+
+/**
+ * Read-only storage for the values of a single column, kept outside the Java
+ * heap in direct buffers. Values are appended once, then the store is sealed
+ * and can only be read until it is released.
+ */
+public abstract class DirectStore {
+
+    /**
+     * The number of values held in a single direct buffer, so that no buffer
+     * exceeds the 2 GB limit
+     */
+    public static final int CHUNK_SIZE = ColumnStore.CHUNK_SIZE;
+
+    protected static final int CHUNK_BITS = ColumnStore.CHUNK_BITS;
+    protected static final int CHUNK_MASK = ColumnStore.CHUNK_MASK;
+
+    /**
+     * @return a new empty store, able to hold the given number of values of
+     * the given type
+     * @param type the type of the values to be stored
+     * @param capacity the number of values to be stored
+     */
+    public static DirectStore allocate(FieldType type, int capacity) {
+        if (type == null) {
+            throw new IllegalArgumentException("Illegal field type (found 'null')");
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity (found " + capacity + ")");
+        }
+        if (type == FieldType.STRING) {
+            return new DirectStringStore(capacity);
+        }
+        return new DirectPrimitiveStore(type, capacity);
+    }
+
+    protected final FieldType type;
+    protected final int capacity;
+    protected int size;
+    private boolean released;
+
+    protected DirectStore(FieldType type, int capacity) {
+        this.type = type;
+        this.capacity = capacity;
+        this.size = 0;
+        this.released = false;
+    }
+
+    /**
+     * @return the type of the values held in this store
+     */
+    public FieldType getType() {
+        return type;
+    }
+
+    /**
+     * @return the number of values in this store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the value at the given position, boxed if needed
+     * @param index the position of the value, from 0 to n-1
+     */
+    public abstract Object get(int index);
+
+    /**
+     * Append a value at the end of this store. The type of the value must
+     * match the type of the store.
+     *
+     * @param value the value to append
+     */
+    public abstract void append(Object value);
+
+    /**
+     * Release the direct memory held by this store. The store cannot be read
+     * anymore afterwards.
+     */
+    public void release() {
+        if (!released) {
+            released = true;
+            releaseBuffers();
+        }
+    }
+
+    /**
+     * @return true if the memory held by this store has been released
+     */
+    public boolean isReleased() {
+        return released;
+    }
+
+    /**
+     * Free the direct buffers held by the concrete store
+     */
+    protected abstract void releaseBuffers();
+
+    /**
+     * @return the number of chunks needed to hold the whole capacity
+     */
+    protected int chunkCount() {
+        return (capacity + CHUNK_MASK) >>> CHUNK_BITS;
+    }
+
+    /**
+     * @return the number of values held by the given chunk
+     * @param chunkIndex the index of the chunk
+     */
+    protected int chunkLength(int chunkIndex) {
+        return Math.min(CHUNK_SIZE, capacity - (chunkIndex << CHUNK_BITS));
+    }
+
+    protected final void requireValidIndex(int index) {
+        assert !released : "Invalid access to a released store";
+        assert index >= 0 && index < size : "Invalid index " + index + " (should be within [0, " + (size - 1) + "])";
+    }
+
+    protected final void requireValidRange(int from, int to) {
+        assert !released : "Invalid access to a released store";
+        assert from >= 0 && from <= to && to <= size : "Invalid range [" + from + ", " + to + "[ (size is " + size + ")";
+    }
+
+    protected final void requireRemainingCapacity() {
+        if (size == capacity) {
+            throw new IllegalStateException("Direct store is full (capacity " + capacity + ")");
+        }
+    }
+
+    private static final Method INVOKE_CLEANER;
+    private static final Object UNSAFE;
+
+    static {
+        Method invokeCleaner = null;
+        Object unsafe = null;
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            final java.lang.reflect.Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+
+        } catch (ReflectiveOperationException | RuntimeException notAvailable) {
+            invokeCleaner = null;
+            unsafe = null;
+
+        }
+        INVOKE_CLEANER = invokeCleaner;
+        UNSAFE = unsafe;
+    }
+
+    /**
+     * Free the memory of the given direct buffer right away, if the running
+     * JVM permits it. Otherwise, the memory is freed once the buffer is
+     * garbage collected.
+     *
+     * @param buffer the direct buffer to free
+     */
+    protected static void free(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+
+            } else {
+                final Method cleanerAccessor = buffer.getClass().getMethod("cleaner");
+                cleanerAccessor.setAccessible(true);
+                final Object cleaner = cleanerAccessor.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+
+        } catch (ReflectiveOperationException | RuntimeException notSupported) {
+            // The garbage collector will free the memory
+
+        }
+    }
+
+}
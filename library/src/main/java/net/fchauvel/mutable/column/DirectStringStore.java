@@ -0,0 +1,141 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.column;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import net.fchauvel.mutable.FieldType;
+
+/**
+ * Store STRING values as UTF-8 bytes in chunks of direct memory. Each chunk
+ * holds the offsets of its strings, followed by their bytes. Strings are
+ * buffered on the heap until their chunk is complete.
+ */
+public class DirectStringStore extends DirectStore {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer[] chunks;
+    private byte[][] pending;
+
+    public DirectStringStore(int capacity) {
+        super(FieldType.STRING, capacity);
+        this.chunks = new ByteBuffer[chunkCount()];
+        this.pending = null;
+    }
+
+    @Override
+    public Object get(int index) {
+        return getString(index);
+    }
+
+    /**
+     * @return the value at the given position
+     * @param index the position of the value, from 0 to n-1
+     */
+    public String getString(int index) {
+        requireValidIndex(index);
+        final int chunkIndex = index >>> CHUNK_BITS;
+        final int position = index & CHUNK_MASK;
+        if (chunks[chunkIndex] == null) {
+            return new String(pending[position], UTF_8);
+        }
+        final ByteBuffer chunk = chunks[chunkIndex];
+        final int start = chunk.getInt(position * Integer.BYTES);
+        final int end = chunk.getInt((position + 1) * Integer.BYTES);
+        final byte[] bytes = new byte[end - start];
+        final ByteBuffer view = chunk.duplicate();
+        view.position(start);
+        view.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Copy the values found in the given range into the given array
+     *
+     * @param from the position of the first value
+     * @param to the position after the last value
+     * @param destination the array that receives the values
+     * @param offset the cell of the destination that receives the first value
+     */
+    public void copyTo(int from, int to, String[] destination, int offset) {
+        requireValidRange(from, to);
+        for (int position = from; position < to; position++) {
+            destination[offset + position - from] = getString(position);
+        }
+    }
+
+    @Override
+    public void append(Object value) {
+        appendString((String) value);
+    }
+
+    /**
+     * Append the given STRING value
+     *
+     * @param value the value to append
+     */
+    public void appendString(String value) {
+        requireRemainingCapacity();
+        final int chunkIndex = size >>> CHUNK_BITS;
+        if (pending == null) {
+            pending = new byte[chunkLength(chunkIndex)][];
+        }
+        pending[size & CHUNK_MASK] = value.getBytes(UTF_8);
+        size++;
+        if ((size & CHUNK_MASK) == 0 || size == capacity) {
+            chunks[chunkIndex] = flush(pending);
+            pending = null;
+        }
+    }
+
+    /**
+     * @return a direct buffer containing the offsets and the bytes of the
+     * given strings
+     */
+    private static ByteBuffer flush(byte[][] strings) {
+        final int header = (strings.length + 1) * Integer.BYTES;
+        long length = header;
+        for (byte[] eachString : strings) {
+            length += eachString.length;
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Strings too large for a single chunk (" + length + " bytes)");
+        }
+        final ByteBuffer chunk = ByteBuffer.allocateDirect((int) length).order(ByteOrder.nativeOrder());
+        chunk.position(header);
+        for (int index = 0; index < strings.length; index++) {
+            chunk.putInt(index * Integer.BYTES, chunk.position());
+            chunk.put(strings[index]);
+        }
+        chunk.putInt(strings.length * Integer.BYTES, chunk.position());
+        return chunk;
+    }
+
+    @Override
+    protected void releaseBuffers() {
+        for (int index = 0; index < chunks.length; index++) {
+            free(chunks[index]);
+            chunks[index] = null;
+        }
+        pending = null;
+    }
+
+}
@@ -0,0 +1,164 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.column;
+
+import java.util.Arrays;
+import net.fchauvel.mutable.ColumnStatistics;
+import net.fchauvel.mutable.FieldType;
+
+/**
+ * Store INTEGER values in chunks of int
+ */
+public class IntegerStore extends ColumnStore {
+
+    private int[][] chunks;
+
+    public IntegerStore() {
+        this.chunks = new int[][]{new int[DEFAULT_CAPACITY]};
+    }
+
+    @Override
+    public FieldType getType() {
+        return FieldType.INTEGER;
+    }
+
+    @Override
+    public Object get(int index) {
+        return getInteger(index);
+    }
+
+    /**
+     * @return the value at the given position, without boxing
+     * @param index the position of the value, from 0 to n-1
+     */
+    public int getInteger(int index) {
+        requireValidIndex(index);
+        return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    @Override
+    public void append(Object value) {
+        appendInteger((Integer) value);
+    }
+
+    /**
+     * Append the given value, without boxing
+     *
+     * @param value the value to append
+     */
+    public void appendInteger(int value) {
+        chunkFor(size, 1)[size & CHUNK_MASK] = value;
+        size++;
+    }
+
+    @Override
+    public boolean acceptsArray(Object values) {
+        return values instanceof int[];
+    }
+
+    @Override
+    public void appendArray(Object values) {
+        appendIntegers((int[]) values);
+    }
+
+    /**
+     * Append all the given values, copying them chunk by chunk
+     *
+     * @param values the values to append
+     */
+    public void appendIntegers(int[] values) {
+        int from = 0;
+        while (from < values.length) {
+            final int offset = size & CHUNK_MASK;
+            final int count = Math.min(CHUNK_SIZE - offset, values.length - from);
+            System.arraycopy(values, from, chunkFor(size, count), offset, count);
+            size += count;
+            from += count;
+        }
+    }
+
+    /**
+     * @return the chunk that holds the given position, allocated or grown so
+     * that the given number of values fits in from that position
+     */
+    private int[] chunkFor(int position, int count) {
+        final int chunkIndex = position >>> CHUNK_BITS;
+        final int end = (position & CHUNK_MASK) + count;
+        if (chunkIndex == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkIndex + 1);
+            chunks[chunkIndex] = new int[CHUNK_SIZE];
+
+        } else if (end > chunks[chunkIndex].length) {
+            chunks[chunkIndex] = Arrays.copyOf(chunks[chunkIndex], growChunk(chunks[chunkIndex].length, end));
+
+        }
+        return chunks[chunkIndex];
+    }
+
+    @Override
+    public void summarize(int from, int to, ColumnStatistics statistics) {
+        assert from >= 0 && from <= to && to <= size : "Invalid range [" + from + ", " + to + "[ (size is " + size + ")";
+        int position = from;
+        while (position < to) {
+            final int offset = position & CHUNK_MASK;
+            final int count = Math.min(CHUNK_SIZE - offset, to - position);
+            statistics.accept(chunks[position >>> CHUNK_BITS], offset, offset + count);
+            position += count;
+        }
+    }
+
+    /**
+     * Copy the values found in the given range into the given array, chunk
+     * by chunk
+     *
+     * @param from the position of the first value
+     * @param to the position after the last value
+     * @param destination the array that receives the values
+     * @param offset the cell of the destination that receives the first value
+     */
+    public void copyTo(int from, int to, int[] destination, int offset) {
+        assert from >= 0 && from <= to && to <= size : "Invalid range [" + from + ", " + to + "[ (size is " + size + ")";
+        int position = from;
+        while (position < to) {
+            final int start = position & CHUNK_MASK;
+            final int count = Math.min(CHUNK_SIZE - start, to - position);
+            System.arraycopy(chunks[position >>> CHUNK_BITS], start, destination, offset + position - from, count);
+            position += count;
+        }
+    }
+
+    @Override
+    public void compact(DeletionVector deletions) {
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            if (!deletions.isDeleted(read)) {
+                chunks[write >>> CHUNK_BITS][write & CHUNK_MASK] = chunks[read >>> CHUNK_BITS][read & CHUNK_MASK];
+                write++;
+            }
+        }
+        truncate(write);
+    }
+
+    @Override
+    public void truncate(int newSize) {
+        super.truncate(newSize);
+        chunks = Arrays.copyOf(chunks, chunksFor(newSize));
+    }
+
+}
@@ -0,0 +1,306 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.column;
+
+import java.util.Arrays;
+import net.fchauvel.mutable.FieldType;
+
+/**
+ * Store STRING values. As long as the number of distinct values remains under
+ * the dictionary limit, values are stored as integer codes that refer to a
+ * shared dictionary, so that each distinct value is kept only once. Beyond
+ * that limit, the store falls back to plain chunks of references.
+ *
+ * Codes are given in the order of the first occurrence of each value. When
+ * rows are removed (by compaction or truncation), the values that are not
+ * used anymore are dropped, so that they do not count toward the limit. The
+ * dictionary is then replaced by a new one, and codes taken from the former
+ * dictionary do not apply anymore.
+ */
+public class StringStore extends ColumnStore {
+
+    /**
+     * The number of distinct values beyond which the dictionary is dropped
+     */
+    public static final int DEFAULT_DICTIONARY_LIMIT = 1 << 16;
+
+    private final int dictionaryLimit;
+    private Dictionary dictionary;
+    private int[][] codes;
+    private int[] firstPositions;
+    private String[][] values;
+
+    public StringStore() {
+        this(DEFAULT_DICTIONARY_LIMIT);
+    }
+
+    /**
+     * @param dictionaryLimit the number of distinct values beyond which the
+     * values are not encoded anymore (0 disables the encoding)
+     */
+    public StringStore(int dictionaryLimit) {
+        if (dictionaryLimit < 0) {
+            throw new IllegalArgumentException("Invalid dictionary limit (found " + dictionaryLimit + ")");
+        }
+        this.dictionaryLimit = dictionaryLimit;
+        if (dictionaryLimit > 0) {
+            this.dictionary = new Dictionary();
+            this.codes = new int[][]{new int[DEFAULT_CAPACITY]};
+            this.firstPositions = new int[DEFAULT_CAPACITY];
+        } else {
+            this.values = new String[][]{new String[DEFAULT_CAPACITY]};
+        }
+    }
+
+    @Override
+    public FieldType getType() {
+        return FieldType.STRING;
+    }
+
+    /**
+     * @return true if the values are stored as codes in a dictionary
+     */
+    public boolean isDictionaryEncoded() {
+        return dictionary != null;
+    }
+
+    /**
+     * @return the dictionary shared by the values, or null if the values are
+     * not encoded
+     */
+    public Dictionary getDictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public Object get(int index) {
+        return getString(index);
+    }
+
+    /**
+     * @return the value at the given position
+     * @param index the position of the value, from 0 to n-1
+     */
+    public String getString(int index) {
+        requireValidIndex(index);
+        if (dictionary != null) {
+            return dictionary.decode(codes[index >>> CHUNK_BITS][index & CHUNK_MASK]);
+        }
+        return values[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    /**
+     * @return the dictionary code of the value at the given position, or
+     * UNKNOWN if the values are not encoded
+     * @param index the position of the value, from 0 to n-1
+     */
+    public int getCode(int index) {
+        requireValidIndex(index);
+        if (dictionary != null) {
+            return codes[index >>> CHUNK_BITS][index & CHUNK_MASK];
+        }
+        return Dictionary.UNKNOWN;
+    }
+
+    @Override
+    public void append(Object value) {
+        appendString((String) value);
+    }
+
+    /**
+     * Append the given value
+     *
+     * @param value the value to append
+     */
+    public void appendString(String value) {
+        final int chunkIndex = size >>> CHUNK_BITS;
+        final int offset = size & CHUNK_MASK;
+        if (dictionary != null) {
+            final int knownValues = dictionary.size();
+            final int code = dictionary.encode(value);
+            if (dictionary.size() <= dictionaryLimit) {
+                if (code == knownValues) {
+                    if (code == firstPositions.length) {
+                        firstPositions = Arrays.copyOf(firstPositions, grow(firstPositions.length, code + 1));
+                    }
+                    firstPositions[code] = size;
+                }
+                if (chunkIndex == codes.length) {
+                    codes = Arrays.copyOf(codes, chunkIndex + 1);
+                    codes[chunkIndex] = new int[CHUNK_SIZE];
+
+                } else if (offset == codes[chunkIndex].length) {
+                    codes[chunkIndex] = Arrays.copyOf(codes[chunkIndex], growChunk(offset, offset + 1));
+
+                }
+                codes[chunkIndex][offset] = code;
+                size++;
+                return;
+            }
+            decodeAll();
+        }
+        if (chunkIndex == values.length) {
+            values = Arrays.copyOf(values, chunkIndex + 1);
+            values[chunkIndex] = new String[CHUNK_SIZE];
+
+        } else if (offset == values[chunkIndex].length) {
+            values[chunkIndex] = Arrays.copyOf(values[chunkIndex], growChunk(offset, offset + 1));
+
+        }
+        values[chunkIndex][offset] = value;
+        size++;
+    }
+
+    @Override
+    public boolean acceptsArray(Object values) {
+        return values instanceof String[];
+    }
+
+    @Override
+    public void appendArray(Object values) {
+        appendStrings((String[]) values);
+    }
+
+    /**
+     * Append all the given values
+     *
+     * @param values the values to append
+     */
+    public void appendStrings(String[] values) {
+        for (String eachValue : values) {
+            appendString(eachValue);
+        }
+    }
+
+    /**
+     * Replace the codes by the values they stand for, and drop the dictionary
+     */
+    private void decodeAll() {
+        values = new String[codes.length][];
+        for (int chunkIndex = 0; chunkIndex < codes.length; chunkIndex++) {
+            final int[] chunk = codes[chunkIndex];
+            values[chunkIndex] = new String[chunk.length];
+            for (int offset = 0; offset < chunk.length && (chunkIndex << CHUNK_BITS) + offset < size; offset++) {
+                values[chunkIndex][offset] = dictionary.decode(chunk[offset]);
+            }
+            codes[chunkIndex] = null;
+        }
+        codes = null;
+        firstPositions = null;
+        dictionary = null;
+    }
+
+    /**
+     * Copy the values found in the given range into the given array, decoding them one by one
+     *
+     * @param from the position of the first value
+     * @param to the position after the last value
+     * @param destination the array that receives the values
+     * @param offset the cell of the destination that receives the first value
+     */
+    public void copyTo(int from, int to, String[] destination, int offset) {
+        assert from >= 0 && from <= to && to <= size : "Invalid range [" + from + ", " + to + "[ (size is " + size + ")";
+        for (int position = from; position < to; position++) {
+            destination[offset + position - from] = getString(position);
+        }
+    }
+
+    @Override
+    public void compact(DeletionVector deletions) {
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            if (!deletions.isDeleted(read)) {
+                move(read, write);
+                write++;
+            }
+        }
+        if (dictionary != null && write < size) {
+            reencode(write);
+        }
+        truncate(write);
+    }
+
+    /**
+     * Renumber the values used by the first rows in the order of their first
+     * occurrence, and rebuild the dictionary if some values are not used
+     * anymore
+     *
+     * @param rowCount the number of rows whose values are kept
+     */
+    private void reencode(int rowCount) {
+        final int[] newCodes = new int[dictionary.size()];
+        Arrays.fill(newCodes, Dictionary.UNKNOWN);
+        final int[] positions = new int[Math.max(DEFAULT_CAPACITY, dictionary.size())];
+        int used = 0;
+        for (int position = 0; position < rowCount; position++) {
+            final int code = codes[position >>> CHUNK_BITS][position & CHUNK_MASK];
+            if (newCodes[code] == Dictionary.UNKNOWN) {
+                newCodes[code] = used;
+                positions[used++] = position;
+            }
+        }
+        firstPositions = positions;
+        if (used == dictionary.size()) {
+            return;
+        }
+        final Dictionary rebuilt = new Dictionary();
+        for (int code = 0; code < used; code++) {
+            final int position = positions[code];
+            rebuilt.encode(dictionary.decode(codes[position >>> CHUNK_BITS][position & CHUNK_MASK]));
+        }
+        for (int position = 0; position < rowCount; position++) {
+            final int[] chunk = codes[position >>> CHUNK_BITS];
+            chunk[position & CHUNK_MASK] = newCodes[chunk[position & CHUNK_MASK]];
+        }
+        dictionary = rebuilt;
+    }
+
+    /**
+     * Copy the value (or the code) found at one position into another one
+     */
+    private void move(int from, int to) {
+        if (dictionary != null) {
+            codes[to >>> CHUNK_BITS][to & CHUNK_MASK] = codes[from >>> CHUNK_BITS][from & CHUNK_MASK];
+        } else {
+            values[to >>> CHUNK_BITS][to & CHUNK_MASK] = values[from >>> CHUNK_BITS][from & CHUNK_MASK];
+        }
+    }
+
+    @Override
+    public void truncate(int newSize) {
+        final int oldSize = size;
+        super.truncate(newSize);
+        if (dictionary != null) {
+            codes = Arrays.copyOf(codes, chunksFor(newSize));
+            int usedValues = dictionary.size();
+            while (usedValues > 0 && firstPositions[usedValues - 1] >= newSize) {
+                usedValues--;
+            }
+            if (usedValues < dictionary.size()) {
+                dictionary = dictionary.prefix(usedValues);
+            }
+            return;
+        }
+        for (int position = newSize; position < oldSize && (position >>> CHUNK_BITS) < chunksFor(newSize); position++) {
+            values[position >>> CHUNK_BITS][position & CHUNK_MASK] = null;
+        }
+        values = Arrays.copyOf(values, chunksFor(newSize));
+    }
+
+}
@@ -18,8 +18,18 @@
  */
 package net.fchauvel.mutable.expression;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import net.fchauvel.mutable.Table;
+
 /**
  * Binary operators, such as AND, OR, equality tests
+ *
+ * Comparisons hold for no missing (i.e., null) value, as found in the right
+ * fields of left outer joins.
  */
 public abstract class BinaryExpression extends Expression {
 
@@ -51,4 +61,106 @@ public abstract class BinaryExpression extends Expression {
         return rightOperand;
     }
 
+    @Override
+    public Expression bindTo(Table table) {
+        final Expression left = leftOperand.bindTo(table);
+        final Expression right = rightOperand.bindTo(table);
+        if (left == leftOperand && right == rightOperand) {
+            return this;
+        }
+        return withOperands(left, right);
+    }
+
+    /**
+     * Normalize both operands. The operands of commutative operators are also
+     * sorted, and nested applications of associative operators are flattened.
+     */
+    @Override
+    public Expression normalize() {
+        final List<Expression> operands = new ArrayList<>();
+        if (isAssociative()) {
+            collectOperands(this, operands);
+        } else {
+            operands.add(leftOperand.normalize());
+            operands.add(rightOperand.normalize());
+        }
+        if (isCommutative()) {
+            Collections.sort(operands, CANONICAL_ORDER);
+        }
+        Expression result = withOperands(operands.get(0), operands.get(1));
+        for (int index = 2; index < operands.size(); index++) {
+            result = withOperands(result, operands.get(index));
+        }
+        return result;
+    }
+
+    private static final Comparator<Expression> CANONICAL_ORDER = Comparator
+            .comparing(Expression::toString)
+            .thenComparing(Expression::canonicalDescription);
+
+    /**
+     * Collect, in order, the normalized operands of nested applications of
+     * this operator
+     */
+    private void collectOperands(Expression expression, List<Expression> operands) {
+        if (expression.getClass() == getClass()) {
+            final BinaryExpression binary = (BinaryExpression) expression;
+            collectOperands(binary.leftOperand, operands);
+            collectOperands(binary.rightOperand, operands);
+            return;
+        }
+        final Expression normalized = expression.normalize();
+        if (normalized.getClass() == getClass()) {
+            collectOperands(normalized, operands);
+        } else {
+            operands.add(normalized);
+        }
+    }
+
+    /**
+     * @return true if the operands of this operator can be swapped
+     */
+    protected boolean isCommutative() {
+        return false;
+    }
+
+    /**
+     * @return true if nested applications of this operator can be regrouped
+     */
+    protected boolean isAssociative() {
+        return false;
+    }
+
+    /**
+     * @return the same operator, applied on the given operands
+     * @param left the new left operand
+     * @param right the new right operand
+     */
+    protected abstract BinaryExpression withOperands(Expression left, Expression right);
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        final BinaryExpression otherExpression = (BinaryExpression) other;
+        return leftOperand.equals(otherExpression.leftOperand)
+                && rightOperand.equals(otherExpression.rightOperand);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass().getName(), leftOperand, rightOperand);
+    }
+
+    @Override
+    String canonicalDescription() {
+        return getClass().getSimpleName() + "(" + leftOperand.canonicalDescription() + ", " + rightOperand.canonicalDescription() + ")";
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + leftOperand + ", " + rightOperand + ")";
+    }
+
 }
@@ -39,12 +39,35 @@ public class CloseTo extends BinaryExpression {
 
     @Override
     public Object evaluate(Row row) {
-        double left = asNumber(getLeftOperand().evaluate(row)).doubleValue();
-        double right = asNumber(getRightOperand().evaluate(row)).doubleValue();
+        Object leftValue = getLeftOperand().evaluate(row);
+        Object rightValue = getRightOperand().evaluate(row);
+        if (leftValue == null || rightValue == null) {
+            return false;
+        }
+        double left = asNumber(leftValue).doubleValue();
+        double right = asNumber(rightValue).doubleValue();
         Double delta = Math.abs(left - right);
         return delta.compareTo(tolerance) < 0;
     }
 
-   
+    @Override
+    protected BinaryExpression withOperands(Expression left, Expression right) {
+        return new CloseTo(left, right).by(tolerance);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return super.equals(other) && Double.compare(tolerance, ((CloseTo) other).tolerance) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Double.hashCode(tolerance);
+    }
+
+    @Override
+    public String toString() {
+        return "CloseTo(" + getLeftOperand() + ", " + getRightOperand() + ", " + tolerance + ")";
+    }
 
 }
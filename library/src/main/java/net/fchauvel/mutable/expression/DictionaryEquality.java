@@ -0,0 +1,147 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.expression;
+
+import net.fchauvel.mutable.DataTable;
+import net.fchauvel.mutable.Row;
+import net.fchauvel.mutable.column.Dictionary;
+
+/**
+ * Equality test between a dictionary-encoded field of a data table and a
+ * literal string. The literal is resolved to its code once, and each row is
+ * then tested by comparing codes.
+ *
+ * Such a test equals the generic equality test it specializes, and so do
+ * the expressions that contain them, so that bound criteria compare equal
+ * to their unbound form.
+ */
+class DictionaryEquality extends Expression {
+
+    /**
+     * @return the equality test specialized for the given table, or the given
+     * generic one when the field is not dictionary-encoded
+     */
+    static Expression bind(DataTable table, FieldReference field, Literal literal, IsEqualTo generic) {
+        if (!(literal.getValue() instanceof String)) {
+            return generic;
+        }
+        if (!table.getSchema().hasFieldNamed(field.getFieldName())) {
+            return generic;
+        }
+        final int columnIndex = table.getSchema().getFieldIndex(field.getFieldName());
+        if (!table.isDictionaryEncoded(columnIndex)) {
+            return generic;
+        }
+        return new DictionaryEquality(table, columnIndex, (String) literal.getValue(), generic);
+    }
+
+    private final DataTable table;
+    private final int columnIndex;
+    private final String value;
+    private final IsEqualTo generic;
+    private volatile Resolution resolution;
+
+    private DictionaryEquality(DataTable table, int columnIndex, String value, IsEqualTo generic) {
+        this.table = table;
+        this.columnIndex = columnIndex;
+        this.value = value;
+        this.generic = generic;
+        this.resolution = new Resolution(table.getDictionary(columnIndex), value);
+    }
+
+    @Override
+    public Object evaluate(Row row) {
+        final Dictionary dictionary = table.getDictionary(columnIndex);
+        if (dictionary == null) {
+            return generic.evaluate(row);
+        }
+        final int expected = resolveCode(dictionary);
+        if (expected == Dictionary.UNKNOWN) {
+            return false;
+        }
+        return table.getCode(row.getRowIndex(), columnIndex) == expected;
+    }
+
+    /**
+     * @return the code of the literal in the given dictionary. The literal is
+     * looked up again if the dictionary was replaced, or if it was not found
+     * and new values were added since.
+     */
+    private int resolveCode(Dictionary dictionary) {
+        Resolution current = resolution;
+        if (current.dictionary != dictionary || (current.code == Dictionary.UNKNOWN && current.size != dictionary.size())) {
+            current = new Resolution(dictionary, value);
+            resolution = current;
+        }
+        return current.code;
+    }
+
+    /**
+     * The code of the literal, together with the dictionary (and its size)
+     * it was resolved against, so that concurrent evaluations never see one
+     * updated without the others
+     */
+    private static final class Resolution {
+
+        private final Dictionary dictionary;
+        private final int size;
+        private final int code;
+
+        Resolution(Dictionary dictionary, String value) {
+            this.dictionary = dictionary;
+            this.size = dictionary.size();
+            this.code = dictionary.codeOf(value);
+        }
+
+    }
+
+    /**
+     * Normalize the generic equality test this one specializes
+     */
+    @Override
+    public Expression normalize() {
+        return generic.normalize();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof DictionaryEquality) {
+            return generic.equals(((DictionaryEquality) other).generic);
+        }
+        return generic.equals(other);
+    }
+
+    /**
+     * @return the generic equality test this one specializes
+     */
+    IsEqualTo getGeneric() {
+        return generic;
+    }
+
+    @Override
+    public int hashCode() {
+        return generic.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return generic.toString();
+    }
+
+}
@@ -19,6 +19,7 @@
 package net.fchauvel.mutable.expression;
 
 import net.fchauvel.mutable.Row;
+import net.fchauvel.mutable.Table;
 
 /**
  * The protocol of the expression that can be evaluate against a given row
@@ -33,6 +34,37 @@ public abstract class Expression {
      */
     public abstract Object evaluate(Row row);
 
+    /**
+     * Specialize this expression for the storage of the given table. The
+     * resulting expression must only be evaluated on rows of that table.
+     *
+     * @param table the table whose rows will be evaluated
+     * @return an equivalent expression, possibly this very one
+     */
+    public Expression bindTo(Table table) {
+        return this;
+    }
+
+    /**
+     * Rewrite this expression in a canonical form, so that equivalent
+     * expressions written differently (e.g., 'a and b' and 'b and a') are
+     * equal. The result never shares mutable state with this expression.
+     *
+     * @return an equivalent expression, in canonical form
+     */
+    public Expression normalize() {
+        return this;
+    }
+
+    /**
+     * @return a description of this expression that, unlike its string form,
+     * tells apart literals of different types (e.g., 1 and "1"), so that
+     * operands can be sorted without ties
+     */
+    String canonicalDescription() {
+        return toString();
+    }
+
     /**
      * Logical conjunction of this expression and the given one
      *
@@ -19,7 +19,10 @@
 
 package net.fchauvel.mutable.expression;
 
+import net.fchauvel.mutable.FieldHandle;
 import net.fchauvel.mutable.Row;
+import net.fchauvel.mutable.Schema;
+import net.fchauvel.mutable.Table;
 
 /**
  * The reference to a field in a table
@@ -34,19 +37,65 @@ public class FieldReference extends Expression {
     }
     
     private final String fieldName;
+    private final FieldHandle handle;
     
     // TODO check for null reference
     public FieldReference(String fieldName) {
+        this(fieldName, null);
+    }
+
+    private FieldReference(String fieldName, FieldHandle handle) {
         assert fieldName != null: "Illegal field name request (found 'null')";
         
         this.fieldName = fieldName;
+        this.handle = handle;
+    }
+
+    /**
+     * @return the name of the referenced field
+     */
+    public String getFieldName() {
+        return fieldName;
     }
 
     @Override
     public Object evaluate(Row cursor) {
+        if (handle != null) {
+            return handle.get(cursor);
+        }
         return cursor.getField(fieldName);
     }
+
+    /**
+     * Resolve the position of the field in the given table, so that rows are
+     * accessed by index rather than by name
+     */
+    @Override
+    public Expression bindTo(Table table) {
+        final Schema schema = table.getSchema();
+        if (schema.hasFieldNamed(fieldName)) {
+            return new FieldReference(fieldName, schema.getFieldHandle(fieldName));
+        }
+        return this;
+    }
     
+    /**
+     * @return true if the given expression refers to the same field, whether
+     * or not either is bound to a table
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof FieldReference) {
+            return fieldName.equals(((FieldReference) other).fieldName);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return fieldName.hashCode();
+    }
+
     @Override
     public String toString() {
         return "field(" + fieldName + ")";
@@ -31,9 +31,19 @@ public class IsAbove extends BinaryExpression {
 
     @Override
     public Object evaluate(Row row) {
-        Comparable left = asComparable(getLeftOperand().evaluate(row));
-        Comparable right = asComparable(getRightOperand().evaluate(row));
+        Object leftValue = getLeftOperand().evaluate(row);
+        Object rightValue = getRightOperand().evaluate(row);
+        if (leftValue == null || rightValue == null) {
+            return false;
+        }
+        Comparable left = asComparable(leftValue);
+        Comparable right = asComparable(rightValue);
         return left.compareTo(right) > 0;
     }
 
+    @Override
+    protected BinaryExpression withOperands(Expression left, Expression right) {
+        return new IsAbove(left, right);
+    }
+
 }
@@ -19,7 +19,9 @@
 
 package net.fchauvel.mutable.expression;
 
+import net.fchauvel.mutable.DataTable;
 import net.fchauvel.mutable.Row;
+import net.fchauvel.mutable.Table;
 
 
 public class IsEqualTo extends BinaryExpression {
@@ -32,9 +34,54 @@ public class IsEqualTo extends BinaryExpression {
     public Object evaluate(Row row) {
         Object leftValue = getLeftOperand().evaluate(row);
         Object rightValue = getRightOperand().evaluate(row);
-        return leftValue.equals(rightValue);
+        return leftValue != null && leftValue.equals(rightValue);
     }
     
+    /**
+     * When comparing a STRING field of a data table with a literal, compare
+     * dictionary codes rather than strings
+     */
+    @Override
+    public Expression bindTo(Table table) {
+        if (table instanceof DataTable) {
+            final DataTable data = (DataTable) table;
+            if (getLeftOperand() instanceof FieldReference && getRightOperand() instanceof Literal) {
+                return DictionaryEquality.bind(data, (FieldReference) getLeftOperand(), (Literal) getRightOperand(), this);
+            }
+            if (getLeftOperand() instanceof Literal && getRightOperand() instanceof FieldReference) {
+                return DictionaryEquality.bind(data, (FieldReference) getRightOperand(), (Literal) getLeftOperand(), this);
+            }
+        }
+        return super.bindTo(table);
+    }
+
+    /**
+     * An equality test specialized for a dictionary-encoded field equals the
+     * generic test it stands for
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof DictionaryEquality) {
+            return super.equals(((DictionaryEquality) other).getGeneric());
+        }
+        return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    @Override
+    protected boolean isCommutative() {
+        return true;
+    }
+
+    @Override
+    protected BinaryExpression withOperands(Expression left, Expression right) {
+        return new IsEqualTo(left, right);
+    }
+
     @Override
     public String toString() {
         return getLeftOperand() + " is " + getRightOperand();
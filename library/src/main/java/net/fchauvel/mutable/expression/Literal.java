@@ -18,6 +18,7 @@
  */
 package net.fchauvel.mutable.expression;
 
+import java.util.Objects;
 import net.fchauvel.mutable.Row;
 
 public class Literal extends Expression {
@@ -36,11 +37,39 @@ public class Literal extends Expression {
         this.value = value;
     }
 
+    /**
+     * @return the value of this literal
+     */
+    public Object getValue() {
+        return value;
+    }
+
     @Override
     public Object evaluate(Row row) {
         return value;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof Literal) {
+            return Objects.equals(value, ((Literal) other).value);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(value);
+    }
+
+    @Override
+    String canonicalDescription() {
+        if (value == null) {
+            return toString();
+        }
+        return "value(" + value.getClass().getName() + ":" + value + ")";
+    }
+
     @Override
     public String toString() {
         return "value(" + value + ")";
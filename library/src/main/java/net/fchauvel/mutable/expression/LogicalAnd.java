@@ -32,8 +32,25 @@ public class LogicalAnd extends BinaryExpression {
     @Override
     public Object evaluate(Row row) {
         Boolean leftValue = asBoolean(getLeftOperand().evaluate(row));        
-        Boolean rightValue = asBoolean(getRightOperand().evaluate(row));
-        return leftValue && rightValue;
+        if (!leftValue) {
+            return false;
+        }
+        return asBoolean(getRightOperand().evaluate(row));
+    }
+
+    @Override
+    protected boolean isCommutative() {
+        return true;
+    }
+
+    @Override
+    protected boolean isAssociative() {
+        return true;
+    }
+
+    @Override
+    protected BinaryExpression withOperands(Expression left, Expression right) {
+        return new LogicalAnd(left, right);
     }
 
 }
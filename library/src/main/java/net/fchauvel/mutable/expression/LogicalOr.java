@@ -40,6 +40,20 @@ public class LogicalOr extends BinaryExpression {
         Boolean rightValue = asBoolean(getRightOperand().evaluate(row));
         return leftValue || rightValue;
     }
-    
-       
+
+    @Override
+    protected boolean isCommutative() {
+        return true;
+    }
+
+    @Override
+    protected boolean isAssociative() {
+        return true;
+    }
+
+    @Override
+    protected BinaryExpression withOperands(Expression left, Expression right) {
+        return new LogicalOr(left, right);
+    }
+
 }
@@ -20,6 +20,7 @@
 package net.fchauvel.mutable.expression;
 
 import net.fchauvel.mutable.Row;
+import net.fchauvel.mutable.Table;
 
 /**
  * The logical negation
@@ -41,5 +42,49 @@ public class Negation extends Expression {
         Boolean value = asBoolean(operand.evaluate(row));
         return !value;
     }
+
+    @Override
+    public Expression bindTo(Table table) {
+        final Expression boundOperand = operand.bindTo(table);
+        if (boundOperand == operand) {
+            return this;
+        }
+        return new Negation(boundOperand);
+    }
+
+    /**
+     * Normalize the operand, and remove double negations
+     */
+    @Override
+    public Expression normalize() {
+        final Expression normalized = operand.normalize();
+        if (normalized instanceof Negation) {
+            return ((Negation) normalized).operand;
+        }
+        return new Negation(normalized);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof Negation) {
+            return operand.equals(((Negation) other).operand);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Negation.class.getName().hashCode() + operand.hashCode();
+    }
+
+    @Override
+    String canonicalDescription() {
+        return "not(" + operand.canonicalDescription() + ")";
+    }
+
+    @Override
+    public String toString() {
+        return "not(" + operand + ")";
+    }
     
 }
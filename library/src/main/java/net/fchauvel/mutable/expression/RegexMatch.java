@@ -36,9 +36,19 @@ public class RegexMatch extends BinaryExpression {
 
     @Override
     public Object evaluate(Row row) {
-        String text = asString(getLeftOperand().evaluate(row));
-        String pattern = asString(getRightOperand().evaluate(row));
+        Object textValue = getLeftOperand().evaluate(row);
+        Object patternValue = getRightOperand().evaluate(row);
+        if (textValue == null || patternValue == null) {
+            return false;
+        }
+        String text = asString(textValue);
+        String pattern = asString(patternValue);
         return text.matches(pattern);
     }
 
+    @Override
+    protected BinaryExpression withOperands(Expression left, Expression right) {
+        return new RegexMatch(left, right);
+    }
+
 }
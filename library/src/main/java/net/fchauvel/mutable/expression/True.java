@@ -30,5 +30,20 @@ public final class True extends Expression {
     public Object evaluate(Row row) {
         return true;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof True;
+    }
+
+    @Override
+    public int hashCode() {
+        return True.class.getName().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "true";
+    }
         
 }
@@ -0,0 +1,229 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.sketch;
+
+import java.util.Arrays;
+import net.fchauvel.mutable.Table;
+
+/**
+ * Estimate the number of distinct values in a single pass and in constant
+ * memory, using the HyperLogLog algorithm of Flajolet et al.
+ *
+ * The sketch holds 2^p registers of one byte each, and its relative standard
+ * error is about 1.04 / sqrt(2^p) (e.g., 0.8% for the default precision of
+ * 14). Sketches of the same precision can be merged, for instance to combine
+ * the sketches of several partitions of a table.
+ */
+public final class HyperLogLog {
+
+    /**
+     * The default number of bits used to select a register
+     */
+    public static final int DEFAULT_PRECISION = 14;
+
+    private static final int MIN_PRECISION = 4;
+    private static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * Create an empty sketch, with the default precision
+     */
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Create an empty sketch
+     *
+     * @param precision the number of bits used to select a register, within
+     * [4, 18]
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            final String error = String.format("Invalid precision %d (should be within [%d, %d])", precision, MIN_PRECISION, MAX_PRECISION);
+            throw new IllegalArgumentException(error);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    private HyperLogLog(HyperLogLog other) {
+        this.precision = other.precision;
+        this.registers = other.registers.clone();
+    }
+
+    /**
+     * @return the number of bits used to select a register
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Account for the given integral value (int, long, char or boolean)
+     *
+     * @param value the value to account for
+     */
+    public void add(long value) {
+        addHash(Hashing.hash(value));
+    }
+
+    /**
+     * Account for the given floating-point value
+     *
+     * @param value the value to account for
+     */
+    public void add(double value) {
+        addHash(Hashing.hash(Double.doubleToLongBits(value)));
+    }
+
+    /**
+     * Account for the given string
+     *
+     * @param value the value to account for
+     */
+    public void add(String value) {
+        addHash(Hashing.hash(value));
+    }
+
+    /**
+     * Account for the value of the given table at the given position
+     *
+     * @param table the table holding the value
+     * @param rowIndex the index of the row, from 1 to n
+     * @param columnIndex the index of the column, from 1 to n
+     */
+    public void add(Table table, int rowIndex, int columnIndex) {
+        switch (table.getSchema().getField(columnIndex).getType()) {
+            case INTEGER:
+                add(table.getInteger(rowIndex, columnIndex));
+                break;
+            case LONG:
+                add(table.getLong(rowIndex, columnIndex));
+                break;
+            case FLOAT:
+                add((double) table.getFloat(rowIndex, columnIndex));
+                break;
+            case DOUBLE:
+                add(table.getDouble(rowIndex, columnIndex));
+                break;
+            case BOOLEAN:
+                add(table.getBoolean(rowIndex, columnIndex) ? 1L : 0L);
+                break;
+            case CHARACTER:
+                add((long) table.getCharacter(rowIndex, columnIndex));
+                break;
+            default:
+                add(table.getString(rowIndex, columnIndex));
+        }
+    }
+
+    private void addHash(long hash) {
+        final int register = (int) (hash >>> (64 - precision));
+        final int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), 64 - precision) + 1;
+        if (rank > registers[register]) {
+            registers[register] = (byte) rank;
+        }
+    }
+
+    /**
+     * Account for all the values accounted for by the given sketch
+     *
+     * @param other a sketch of the same precision
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            final String error = String.format("Cannot merge sketches of different precisions (%d and %d)", precision, other.precision);
+            throw new IllegalArgumentException(error);
+        }
+        for (int index = 0; index < registers.length; index++) {
+            if (other.registers[index] > registers[index]) {
+                registers[index] = other.registers[index];
+            }
+        }
+    }
+
+    /**
+     * @return the estimated number of distinct values accounted for
+     */
+    public long estimate() {
+        final int registerCount = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte each : registers) {
+            sum += 1.0 / (1L << each);
+            if (each == 0) {
+                zeros++;
+            }
+        }
+        final double estimate = alpha(registerCount) * registerCount * registerCount / sum;
+        if (estimate <= 2.5 * registerCount && zeros > 0) {
+            return Math.round(registerCount * Math.log((double) registerCount / zeros));
+        }
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int registerCount) {
+        switch (registerCount) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / registerCount);
+        }
+    }
+
+    /**
+     * @return an independent copy of this sketch
+     */
+    public HyperLogLog copy() {
+        return new HyperLogLog(this);
+    }
+
+    /**
+     * @return the number of bytes used by the registers
+     */
+    public int sizeInBytes() {
+        return registers.length;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof HyperLogLog) {
+            return Arrays.equals(registers, ((HyperLogLog) other).registers);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(registers);
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog(precision=" + precision + ", estimate=" + estimate() + ")";
+    }
+
+}
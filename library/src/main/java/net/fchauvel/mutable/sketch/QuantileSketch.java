@@ -0,0 +1,340 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.sketch;
+
+import java.util.Arrays;
+import net.fchauvel.mutable.Table;
+
+/**
+ * Estimate the quantiles of numeric values in a single pass and in small
+ * memory, using the KLL sketch of Karnin, Lang and Liberty.
+ *
+ * Values are kept in a hierarchy of compactors, where each value at level h
+ * stands for 2^h values. When a level is full, its values are sorted and
+ * every other value (starting at a random offset) is promoted to the next
+ * level. The capacity of the levels shrinks geometrically from the top one,
+ * which holds k values. The rank error is about 1.65 / k (e.g., 1% for the
+ * default k of 200). Sketches of the same k can be merged.
+ *
+ * NaN values are ignored.
+ */
+public final class QuantileSketch {
+
+    /**
+     * The default capacity of the top level
+     */
+    public static final int DEFAULT_K = 200;
+
+    private static final int MIN_K = 8;
+    private static final double CAPACITY_RATIO = 2.0 / 3.0;
+
+    private final int k;
+    private double[][] levels;
+    private int[] sizes;
+    private int[] capacities;
+    private long count;
+    private double min;
+    private double max;
+    private long random;
+
+    /**
+     * Create an empty sketch, whose top level holds the default number of
+     * values
+     */
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Create an empty sketch
+     *
+     * @param k the capacity of the top level, at least 8
+     */
+    public QuantileSketch(int k) {
+        if (k < MIN_K) {
+            final String error = String.format("Invalid capacity %d (should be at least %d)", k, MIN_K);
+            throw new IllegalArgumentException(error);
+        }
+        this.k = k;
+        this.levels = new double[][]{new double[k]};
+        this.sizes = new int[1];
+        this.capacities = capacitiesOf(k, 1);
+        this.count = 0;
+        this.min = Double.NaN;
+        this.max = Double.NaN;
+        this.random = 0x9e3779b97f4a7c15L;
+    }
+
+    private QuantileSketch(QuantileSketch other) {
+        this.k = other.k;
+        this.levels = new double[other.levels.length][];
+        for (int level = 0; level < levels.length; level++) {
+            levels[level] = other.levels[level].clone();
+        }
+        this.sizes = other.sizes.clone();
+        this.capacities = other.capacities.clone();
+        this.count = other.count;
+        this.min = other.min;
+        this.max = other.max;
+        this.random = other.random;
+    }
+
+    /**
+     * @return the capacity of the top level
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * @return the number of values accounted for
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the smallest value accounted for, or NaN if there is none
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return the largest value accounted for, or NaN if there is none
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Account for the given value
+     *
+     * @param value the value to account for
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        append(0, value);
+        count++;
+        min = count == 1 ? value : Math.min(min, value);
+        max = count == 1 ? value : Math.max(max, value);
+        if (sizes[0] >= capacities[0]) {
+            compress();
+        }
+    }
+
+    /**
+     * Account for the value of the given table at the given position, which
+     * must be numeric
+     *
+     * @param table the table holding the value
+     * @param rowIndex the index of the row, from 1 to n
+     * @param columnIndex the index of a numeric column, from 1 to n
+     */
+    public void add(Table table, int rowIndex, int columnIndex) {
+        switch (table.getSchema().getField(columnIndex).getType()) {
+            case INTEGER:
+                add(table.getInteger(rowIndex, columnIndex));
+                break;
+            case LONG:
+                add(table.getLong(rowIndex, columnIndex));
+                break;
+            case FLOAT:
+                add(table.getFloat(rowIndex, columnIndex));
+                break;
+            case DOUBLE:
+                add(table.getDouble(rowIndex, columnIndex));
+                break;
+            default:
+                final String error = String.format("Cannot estimate quantiles of field '%s' (expected a numeric field)", table.getSchema().getField(columnIndex).getName());
+                throw new IllegalArgumentException(error);
+        }
+    }
+
+    /**
+     * Account for all the values accounted for by the given sketch
+     *
+     * @param other a sketch with the same k
+     */
+    public void merge(QuantileSketch other) {
+        if (other.k != k) {
+            final String error = String.format("Cannot merge sketches of different capacities (%d and %d)", k, other.k);
+            throw new IllegalArgumentException(error);
+        }
+        if (other.count == 0) {
+            return;
+        }
+        while (levels.length < other.levels.length) {
+            addLevel();
+        }
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int index = 0; index < other.sizes[level]; index++) {
+                append(level, other.levels[level][index]);
+            }
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        compress();
+    }
+
+    /**
+     * @return the estimated value below which the given fraction of the
+     * values falls, or NaN if there is no value
+     * @param fraction the fraction of values, within [0, 1] (e.g., 0.95 for
+     * the 95th percentile)
+     */
+    public double quantile(double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("Invalid fraction " + fraction + " (should be within [0, 1])");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (fraction == 0) {
+            return min;
+        }
+        if (fraction == 1) {
+            return max;
+        }
+        double[] values = new double[0];
+        long[] weights = new long[0];
+        for (int level = 0; level < levels.length; level++) {
+            final double[] sorted = Arrays.copyOf(levels[level], sizes[level]);
+            Arrays.sort(sorted);
+            final double[] mergedValues = new double[values.length + sorted.length];
+            final long[] mergedWeights = new long[mergedValues.length];
+            int left = 0, right = 0;
+            for (int index = 0; index < mergedValues.length; index++) {
+                if (right >= sorted.length || (left < values.length && values[left] <= sorted[right])) {
+                    mergedValues[index] = values[left];
+                    mergedWeights[index] = weights[left++];
+                } else {
+                    mergedValues[index] = sorted[right++];
+                    mergedWeights[index] = 1L << level;
+                }
+            }
+            values = mergedValues;
+            weights = mergedWeights;
+        }
+        long totalWeight = 0;
+        for (long each : weights) {
+            totalWeight += each;
+        }
+        final double target = fraction * totalWeight;
+        long cumulated = 0;
+        for (int index = 0; index < values.length; index++) {
+            cumulated += weights[index];
+            if (cumulated >= target) {
+                return values[index];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return an independent copy of this sketch
+     */
+    public QuantileSketch copy() {
+        return new QuantileSketch(this);
+    }
+
+    /**
+     * @return the number of values retained by this sketch
+     */
+    public int getRetainedCount() {
+        int retained = 0;
+        for (int each : sizes) {
+            retained += each;
+        }
+        return retained;
+    }
+
+    /**
+     * @return the capacity of each level, which only changes when a level is
+     * added on top
+     */
+    private static int[] capacitiesOf(int k, int levelCount) {
+        final int[] capacities = new int[levelCount];
+        for (int level = 0; level < levelCount; level++) {
+            final int depth = levelCount - 1 - level;
+            capacities[level] = Math.max(2, (int) Math.ceil(k * Math.pow(CAPACITY_RATIO, depth)));
+        }
+        return capacities;
+    }
+
+    private void append(int level, double value) {
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], Math.max(2, sizes[level] * 2));
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levels.length + 1);
+        levels[levels.length - 1] = new double[2];
+        sizes = Arrays.copyOf(sizes, sizes.length + 1);
+        capacities = capacitiesOf(k, levels.length);
+    }
+
+    /**
+     * Compact the full levels, from the bottom up, so that values promoted
+     * from one level may in turn fill the next one
+     */
+    private void compress() {
+        for (int level = 0; level < levels.length; level++) {
+            if (sizes[level] >= capacities[level]) {
+                compact(level);
+            }
+        }
+    }
+
+    /**
+     * Promote every other value of the given level to the next one. When the
+     * level holds an odd number of values, its smallest one stays.
+     */
+    private void compact(int level) {
+        if (level == levels.length - 1) {
+            addLevel();
+        }
+        final double[] values = levels[level];
+        final int size = sizes[level];
+        Arrays.sort(values, 0, size);
+        final int kept = size & 1;
+        for (int index = kept + nextBit(); index < size; index += 2) {
+            append(level + 1, values[index]);
+        }
+        sizes[level] = kept;
+    }
+
+    private int nextBit() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return (int) (random >>> 63);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("QuantileSketch(k=%d, count=%d, median=%s)", k, count, quantile(0.5));
+    }
+
+}
@@ -23,6 +23,8 @@ import net.fchauvel.mutable.storage.Writer;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
+import java.util.List;
+import net.fchauvel.mutable.FieldHandle;
 import net.fchauvel.mutable.Row;
 import net.fchauvel.mutable.Schema;
 import net.fchauvel.mutable.Table;
@@ -49,9 +51,8 @@ public class CSVWriter implements Writer {
             printHeaderLine(schema, out, csvOptions);
         }
         
-        for (Row eachRow : table) {
-            printRow(schema, out, eachRow, csvOptions);
-        }
+        final List<FieldHandle> fields = schema.getFieldHandles();
+        table.scan(eachRow -> printRow(fields, out, eachRow, csvOptions));
     }
 
     private PrintStream openStream(OutputStream output) throws RuntimeException {
@@ -103,10 +104,10 @@ public class CSVWriter implements Writer {
     /**
      * Format a single row
      */
-    private void printRow(final Schema schema, final PrintStream out, Row eachRow, CSVOptions options) {
-        for (String eachField : schema.getFieldNames()) {
-            out.print(eachRow.getField(eachField));
-            if (schema.getFieldIndex(eachField) < schema.getFieldCount()) {
+    private void printRow(final List<FieldHandle> fields, final PrintStream out, Row eachRow, CSVOptions options) {
+        for (FieldHandle eachField : fields) {
+            out.print(eachField.get(eachRow));
+            if (eachField.getIndex() < fields.size()) {
                 out.print(options.getFieldSeparator());
             }
         }
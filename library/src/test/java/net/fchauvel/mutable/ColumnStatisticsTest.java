@@ -0,0 +1,95 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.Random;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ColumnStatisticsTest {
+
+    @Test
+    public void shouldHaveNoValueInitially() {
+        final ColumnStatistics statistics = new ColumnStatistics();
+
+        assertThat(statistics.getCount(), is(equalTo(0L)));
+        assertThat(statistics.getSum(), is(equalTo(0.0)));
+        assertThat(Double.isNaN(statistics.getMean()), is(true));
+        assertThat(Double.isNaN(statistics.getVariance()), is(true));
+    }
+
+    @Test
+    public void shouldSummarizeIntegers() {
+        final ColumnStatistics statistics = new ColumnStatistics();
+
+        statistics.accept(new int[]{0, 2, 4, 4, 4, 5, 5, 7, 9, 0}, 1, 9);
+
+        assertThat(statistics.getCount(), is(equalTo(8L)));
+        assertThat(statistics.getSum(), is(equalTo(40.0)));
+        assertThat(statistics.getMin(), is(equalTo(2.0)));
+        assertThat(statistics.getMax(), is(equalTo(9.0)));
+        assertThat(statistics.getMean(), is(equalTo(5.0)));
+        assertThat(statistics.getVariance(), is(equalTo(4.0)));
+    }
+
+    @Test
+    public void shouldSummarizeSeveralBlocksAccurately() {
+        final Random random = new Random(11);
+        final double[] values = new double[3 * ColumnStatistics.BLOCK_SIZE + 17];
+        double sum = 0;
+        for (int index = 0; index < values.length; index++) {
+            values[index] = 1e9 + random.nextGaussian();
+            sum += values[index];
+        }
+        final double mean = sum / values.length;
+        double squaredDeviations = 0;
+        for (double each : values) {
+            squaredDeviations += (each - mean) * (each - mean);
+        }
+
+        final ColumnStatistics statistics = new ColumnStatistics();
+        statistics.accept(values, 0, values.length);
+
+        assertThat(statistics.getCount(), is(equalTo((long) values.length)));
+        assertThat(Math.abs(statistics.getMean() - mean) < 1e-4, is(true));
+        assertThat(Math.abs(statistics.getVariance() - squaredDeviations / values.length) < 1e-3, is(true));
+        assertThat(Math.abs(statistics.getSampleVariance() - squaredDeviations / (values.length - 1)) < 1e-3, is(true));
+    }
+
+    @Test
+    public void shouldCombineStatistics() {
+        final ColumnStatistics left = new ColumnStatistics();
+        left.accept(new long[]{1, 2, 3}, 0, 3);
+        final ColumnStatistics right = new ColumnStatistics();
+        right.accept(new float[]{4f, 5f}, 0, 2);
+
+        left.combine(right);
+
+        assertThat(left.getCount(), is(equalTo(5L)));
+        assertThat(left.getMean(), is(equalTo(3.0)));
+        assertThat(left.getVariance(), is(equalTo(2.0)));
+        assertThat(left.getMax(), is(equalTo(5.0)));
+    }
+
+}
@@ -54,6 +54,19 @@ public class CursorTest {
         assertThat(cursor.getRowIndex(), is(equalTo(1)));
     }
 
+    @Test
+    public void shouldMoveToAnyRow() {
+        cursor.moveTo(3);
+
+        assertThat(cursor.getRowIndex(), is(equalTo(3)));
+        assertThat(cursor.getField("name"), is(equalTo("derek")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMovingBeyondTheLastRow() {
+        cursor.moveTo(4);
+    }
+
     @Test
     public void shouldExposeDataByFieldName() {
         assertThat(cursor.getField("name"), is(equalTo("bob")));
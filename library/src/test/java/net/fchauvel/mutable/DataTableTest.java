@@ -24,7 +24,13 @@ import net.fchauvel.mutable.Row;
 import net.fchauvel.mutable.Cursor;
 import net.fchauvel.mutable.ResultSet;
 import net.fchauvel.mutable.samples.Employees;
+import net.fchauvel.mutable.column.ColumnStore;
+import net.fchauvel.mutable.column.Dictionary;
+import net.fchauvel.mutable.column.DoubleColumn;
+import net.fchauvel.mutable.column.IntegerColumn;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItems;
@@ -172,6 +178,335 @@ public class DataTableTest {
         }
     }
 
+    @Test
+    public void appendingRowsThatAreRolledBackShouldNotGrowTheDictionary() {
+        DataTable table = Employees.getTable();
+        final int dictionarySize = table.getDictionarySize(1);
+
+        try {
+            table.appendRows(
+                    new Object[][]{
+                        {"Brandon", 32, true, 123.4},
+                        {"Steven", 35, "should be a boolean", 345.5}
+                    }
+            );
+            fail("Expecting IllegalArgumentException");
+
+        } catch (IllegalArgumentException iae) {
+            assertThat(table.getDictionarySize(1), is(equalTo(dictionarySize)));
+            assertThat(table.codeOf(1, "Brandon"), is(equalTo(Dictionary.UNKNOWN)));
+        }
+    }
+
+    @Test
+    public void compactionShouldDropTheStringsNoRowUsesAnymore() {
+        DataTable table = Employees.getTable();
+
+        table.removeRow(1);
+        table.compact();
+
+        assertThat(table.getDictionarySize(1), is(equalTo(2)));
+        assertThat(table.codeOf(1, "john"), is(equalTo(Dictionary.UNKNOWN)));
+        assertThat(table.getData(2, "name"), is(equalTo((Object) "derek")));
+        assertThat(table.where(field("name").is(value("derek"))).getRowCount(), is(equalTo(1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldDetectAppendingRowsWithTooManyValues() {
+        DataTable table = Employees.getTable();
+        table.appendRow(new Object[]{"Steven", 35, false, 345.5, "extra"});
+    }
+
+    @Test
+    public void shouldKeepAppendedValuesWithTheirOriginalType() {
+        DataTable table = Employees.getTable();
+        table.appendRow(new Object[]{"Steven", 35, false, 345.5});
+
+        assertThat(table.getData(4, "age"), is(equalTo((Object) 35)));
+        assertThat(table.getData(4, "isMarried"), is(equalTo((Object) false)));
+        assertThat(table.getData(4, "salary"), is(equalTo((Object) 345.5)));
+    }
+
+    @Test
+    public void shouldShiftRowsOnRemoval() {
+        DataTable table = Employees.getTable();
+        table.removeRow(0);
+
+        assertThat(table.getRowCount(), is(equalTo(2)));
+        assertThat(table.getData(1, "name"), is(equalTo((Object) "john")));
+    }
+
+    @Test
+    public void shouldDeferTheCompactionOfRemovedRows() {
+        DataTable table = Employees.getTable();
+        table.setCompactionThreshold(1);
+
+        table.removeRow(1);
+
+        assertThat(table.getDeletedRowCount(), is(equalTo(1)));
+        assertThat(table.getRowCount(), is(equalTo(2)));
+        assertThat(table.getData(2, "name"), is(equalTo((Object) "derek")));
+    }
+
+    @Test
+    public void shouldCompactRemovedRowsOnDemand() {
+        DataTable table = Employees.getTable();
+        table.setCompactionThreshold(1);
+        table.removeRow(0);
+
+        table.compact();
+
+        assertThat(table.getDeletedRowCount(), is(equalTo(0)));
+        assertThat(table.getRowCount(), is(equalTo(2)));
+        assertThat(table.getData(1, "name"), is(equalTo((Object) "john")));
+    }
+
+    @Test
+    public void shouldCompactOnceTheThresholdIsExceeded() {
+        DataTable table = Employees.getTable();
+        table.setCompactionThreshold(0.5);
+
+        table.removeRow(0);
+        assertThat(table.getDeletedRowCount(), is(equalTo(1)));
+
+        table.removeRow(0);
+        assertThat(table.getDeletedRowCount(), is(equalTo(0)));
+        assertThat(table.getData(1, "name"), is(equalTo((Object) "derek")));
+    }
+
+    @Test
+    public void shouldRemoveRangesOfRows() {
+        DataTable table = Employees.getTable();
+        table.setCompactionThreshold(1);
+        table.appendRow(new Object[]{"Steven", 35, false, 345.5});
+
+        table.removeRows(1, 2);
+
+        assertThat(table.getRowCount(), is(equalTo(2)));
+        assertThat(table.getData(1, "name"), is(equalTo((Object) "bob")));
+        assertThat(table.getData(2, "name"), is(equalTo((Object) "Steven")));
+    }
+
+    @Test
+    public void shouldAppendRowsAfterDeletedOnes() {
+        DataTable table = Employees.getTable();
+        table.setCompactionThreshold(1);
+        table.removeRow(2);
+
+        table.appendRow(new Object[]{"Steven", 35, false, 345.5});
+
+        assertThat(table.getRowCount(), is(equalTo(3)));
+        assertThat(table.getData(3, "name"), is(equalTo((Object) "Steven")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidCompactionThresholds() {
+        Employees.getTable().setCompactionThreshold(1.5);
+    }
+
+    @Test
+    public void shouldEncodeStringColumnsWithADictionary() {
+        DataTable table = Employees.getTable();
+        table.appendRow(new Object[]{"bob", 35, false, 345.5});
+
+        assertThat(table.isDictionaryEncoded(1), is(true));
+        assertThat(table.isDictionaryEncoded(2), is(false));
+        assertThat(table.getDictionarySize(1), is(equalTo(3)));
+        assertThat(table.getCode(4, 1), is(equalTo(table.codeOf(1, "bob"))));
+        assertThat(table.getData(4, 1), is(equalTo((Object) "bob")));
+    }
+
+    @Test
+    public void shouldAppendRowsColumnByColumn() {
+        DataTable table = Employees.getTable();
+        table.appendColumns(
+                new String[]{"Steven", "Brandon"},
+                new int[]{35, 32},
+                new boolean[]{false, true},
+                new double[]{345.5, 123.4});
+
+        assertThat(table.getRowCount(), is(equalTo(5)));
+        assertThat(table.getData(5, "name"), is(equalTo((Object) "Brandon")));
+        assertThat(table.getData(5, "age"), is(equalTo((Object) 32)));
+        assertThat(table.getData(5, "isMarried"), is(equalTo((Object) true)));
+        assertThat(table.getData(5, "salary"), is(equalTo((Object) 123.4)));
+    }
+
+    @Test
+    public void appendingColumnsOfTheWrongTypeShouldNotChangeTheTable() {
+        DataTable table = Employees.getTable();
+        final int dataCount = table.getDataCount();
+
+        try {
+            table.appendColumns(
+                    new String[]{"Steven"},
+                    new long[]{35L},
+                    new boolean[]{false},
+                    new double[]{345.5});
+            fail("Expecting IllegalArgumentException");
+
+        } catch (IllegalArgumentException iae) {
+            assertThat(table.getDataCount(), is(equalTo(dataCount)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectColumnsOfDifferentLengths() {
+        DataTable table = Employees.getTable();
+        table.appendColumns(
+                new String[]{"Steven", "Brandon"},
+                new int[]{35},
+                new boolean[]{false, true},
+                new double[]{345.5, 123.4});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMissingColumns() {
+        DataTable table = Employees.getTable();
+        table.appendColumns(new String[]{"Steven"}, new int[]{35});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullValuesInColumns() {
+        DataTable table = Employees.getTable();
+        table.appendColumns(
+                new String[]{null},
+                new int[]{35},
+                new boolean[]{false},
+                new double[]{345.5});
+    }
+
+    @Test
+    public void shouldExposeTypedValues() {
+        DataTable table = Employees.getTable();
+
+        assertThat(table.getString(2, 1), is(equalTo("john")));
+        assertThat(table.getInteger(2, 2), is(equalTo(34)));
+        assertThat(table.getBoolean(2, 3), is(false));
+        assertThat(table.getDouble(2, 4), is(equalTo(34.45)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTypedValuesOfTheWrongType() {
+        Employees.getTable().getInteger(1, 4);
+    }
+
+    @Test
+    public void shouldExposeTypedColumns() {
+        DataTable table = Employees.getTable();
+        IntegerColumn ages = table.integerColumn("age");
+
+        assertThat(ages.size(), is(equalTo(3)));
+        assertThat(ages.get(3), is(equalTo(56)));
+    }
+
+    @Test
+    public void typedColumnsShouldSkipRemovedRows() {
+        DataTable table = Employees.getTable();
+        table.setCompactionThreshold(1);
+        DoubleColumn salaries = table.doubleColumn("salary");
+
+        table.removeRow(0);
+
+        double[] values = new double[salaries.size()];
+        salaries.copyTo(values);
+        assertThat(values[0], is(equalTo(34.45)));
+        assertThat(values[1], is(equalTo(67.34)));
+    }
+
+    @Test
+    public void typedColumnsShouldCopyValuesAcrossChunks() {
+        final int count = 2 * ColumnStore.CHUNK_SIZE + 10;
+        final int[] ids = new int[count];
+        for (int index = 0; index < count; index++) {
+            ids[index] = index;
+        }
+        DataTable table = new DataTable(aSchema().with(aField("id").ofType(INTEGER)).build());
+        table.appendColumns((Object) ids);
+
+        int[] values = new int[count];
+        table.integerColumn("id").copyTo(values);
+
+        assertThat(Arrays.equals(values, ids), is(true));
+    }
+
+    @Test
+    public void typedColumnsShouldCopyLiveRunsAcrossChunks() {
+        final int count = 2 * ColumnStore.CHUNK_SIZE + 10;
+        final String[] names = new String[count];
+        for (int index = 0; index < count; index++) {
+            names[index] = "name " + index;
+        }
+        DataTable table = new DataTable(aSchema().with(aField("name").ofType(STRING)).build());
+        table.setCompactionThreshold(1);
+        table.appendColumns((Object) names);
+        table.removeRow(ColumnStore.CHUNK_SIZE);
+        table.removeRow(ColumnStore.CHUNK_SIZE - 1);
+        table.removeRow(0);
+
+        String[] values = new String[table.getRowCount()];
+        table.stringColumn("name").copyTo(values);
+
+        assertThat(values.length, is(equalTo(count - 3)));
+        assertThat(values[0], is(equalTo("name 1")));
+        assertThat(values[ColumnStore.CHUNK_SIZE - 3], is(equalTo("name " + (ColumnStore.CHUNK_SIZE - 2))));
+        assertThat(values[ColumnStore.CHUNK_SIZE - 2], is(equalTo("name " + (ColumnStore.CHUNK_SIZE + 1))));
+        assertThat(values[count - 4], is(equalTo("name " + (count - 1))));
+        assertThat(table.stringColumn("name").get(ColumnStore.CHUNK_SIZE - 1), is(equalTo("name " + (ColumnStore.CHUNK_SIZE + 1))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTypedColumnsOfTheWrongType() {
+        Employees.getTable().integerColumn("name");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectCopyingColumnsIntoSmallerArrays() {
+        Employees.getTable().stringColumn("name").copyTo(new String[2]);
+    }
+
+    @Test
+    public void scanShouldVisitEveryRowThroughASingleRow() {
+        DataTable table = Employees.getTable();
+        final List<String> names = new ArrayList<>();
+        final List<Row> rows = new ArrayList<>();
+
+        table.scan(row -> {
+            names.add(row.getField("name").toString());
+            if (!rows.contains(row)) {
+                rows.add(row);
+            }
+        });
+
+        assertThat(names, is(equalTo(Arrays.asList("bob", "john", "derek"))));
+        assertThat(rows.size(), is(equalTo(1)));
+    }
+
+    @Test
+    public void scanShouldSkipRemovedRows() {
+        DataTable table = Employees.getTable();
+        table.setCompactionThreshold(1);
+        table.removeRow(1);
+        final List<Integer> ages = new ArrayList<>();
+
+        table.scan(row -> ages.add(row.getInteger("age")));
+
+        assertThat(ages, is(equalTo(Arrays.asList(25, 56))));
+    }
+
+    @Test
+    public void reusingIteratorShouldReturnTheSameRow() {
+        DataTable table = Employees.getTable();
+        Iterator<Row> rows = table.reusingIterator();
+
+        Row first = rows.next();
+        assertThat(first.getRowIndex(), is(equalTo(1)));
+        Row second = rows.next();
+
+        assertThat(second == first, is(true));
+        assertThat(first.getRowIndex(), is(equalTo(2)));
+    }
+
 // TODO: refactor test getRow()
 //    @Test
 //    public void shouldExposeSingleRowsAsArrays() {
@@ -215,4 +550,83 @@ public class DataTableTest {
         assertThat(names, hasItems("bob", "john", "derek"));
     }
 
+    @Test
+    public void shouldComputeColumnStatistics() {
+        final DataTable table = Employees.getTable();
+
+        final ColumnStatistics statistics = table.statisticsOf("age");
+
+        assertThat(statistics.getCount(), is(equalTo(3L)));
+        assertThat(statistics.getSum(), is(equalTo(115.0)));
+        assertThat(statistics.getMin(), is(equalTo(25.0)));
+        assertThat(statistics.getMax(), is(equalTo(56.0)));
+        assertThat(Math.abs(table.mean("age") - 115.0 / 3) < 1e-9, is(true));
+    }
+
+    @Test
+    public void columnStatisticsShouldSkipRemovedRows() {
+        final DataTable table = Employees.getTable();
+        table.setCompactionThreshold(1.0);
+        table.removeRow(1);
+
+        assertThat(table.sum("age"), is(equalTo(81.0)));
+        assertThat(table.max("salary"), is(equalTo(67.34)));
+        assertThat(table.variance("age"), is(equalTo(240.25)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void columnStatisticsShouldRejectNonNumericFields() {
+        Employees.getTable().statisticsOf("name");
+    }
+
+    @Test
+    public void shouldListDistinctValues() {
+        final DataTable table = Employees.getTable();
+
+        final DataTable distinct = table.distinct("isMarried");
+
+        assertThat(distinct.getRowCount(), is(equalTo(2)));
+        assertThat(distinct.getBoolean(1, 1), is(true));
+        assertThat(distinct.getBoolean(2, 1), is(false));
+    }
+
+    @Test
+    public void shouldDropDuplicatedRows() {
+        final DataTable table = Employees.getTable();
+        table.appendRow(new Object[]{"bob", 25, true, 23.54});
+        table.appendRow(new Object[]{"bob", 26, true, 23.54});
+
+        assertThat(table.dropDuplicates().getRowCount(), is(equalTo(4)));
+        assertThat(table.dropDuplicates("name").getRowCount(), is(equalTo(3)));
+        assertThat(table.dropDuplicates("name", "salary").getInteger(1, 2), is(equalTo(25)));
+        assertThat(table.distinct().getRowCount(), is(equalTo(4)));
+    }
+
+    @Test
+    public void shouldMaintainSketchesAsRowsAreAppended() {
+        final DataTable table = new DataTable(aSchema().with(aField("value").ofType(INTEGER)).build());
+        table.maintainDistinctCount("value");
+        table.maintainQuantiles("value");
+
+        for (int value = 1; value <= 1000; value++) {
+            table.appendRow(new Object[]{value % 100});
+        }
+        table.appendColumns((Object) new int[]{500, 600});
+
+        assertThat(table.distinctCountSketch("value").estimate(), is(equalTo(102L)));
+        assertThat(table.quantileSketch("value").getCount(), is(equalTo(1002L)));
+        assertThat(table.quantileSketch("value").getMax(), is(equalTo(600.0)));
+    }
+
+    @Test
+    public void maintainedSketchesShouldForgetRemovedRows() {
+        final DataTable table = Employees.getTable();
+        table.maintainQuantiles("age");
+
+        table.removeRow(2);
+
+        assertThat(table.quantileSketch("age").getCount(), is(equalTo(2L)));
+        assertThat(table.quantileSketch("age").getMax(), is(equalTo(34.0)));
+    }
+
 }
@@ -0,0 +1,63 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class EstimateTest {
+
+    @Test
+    public void shouldUseTheNormalQuantileOfTheConfidence() {
+        assertThat(Math.abs(Estimate.normalQuantile(0.975) - 1.959964) <= 1e-6, is(true));
+        assertThat(Math.abs(Estimate.normalQuantile(0.5) - 0.0) <= 1e-9, is(true));
+        assertThat(Math.abs(Estimate.normalQuantile(0.005) - -2.575829) <= 1e-6, is(true));
+    }
+
+    @Test
+    public void shouldBoundTheValueAt95Percent() {
+        final Estimate estimate = new Estimate(100, 10);
+
+        assertThat(Math.abs(estimate.getLowerBound() - 80.40) <= 1e-2, is(true));
+        assertThat(Math.abs(estimate.getUpperBound() - 119.60) <= 1e-2, is(true));
+    }
+
+    @Test
+    public void shouldWidenTheIntervalWithTheConfidence() {
+        final Estimate estimate = new Estimate(100, 10);
+
+        assertThat(Math.abs(estimate.getUpperBound(0.99) - 125.76) <= 1e-2, is(true));
+        assertThat(Math.abs(estimate.getLowerBound(0.90) - 83.55) <= 1e-2, is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeStandardErrors() {
+        new Estimate(100, -1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidConfidences() {
+        new Estimate(100, 1).getLowerBound(1.0);
+    }
+
+}
@@ -0,0 +1,94 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import net.fchauvel.mutable.samples.Employees;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static net.fchauvel.mutable.FieldBuilder.aField;
+import static net.fchauvel.mutable.FieldType.CHARACTER;
+import static net.fchauvel.mutable.SchemaBuilder.aSchema;
+
+@RunWith(JUnit4.class)
+public class FieldHandleTest {
+
+    @Test
+    public void shouldBeResolvedFromTheSchema() {
+        final Schema schema = Employees.getTable().getSchema();
+
+        final FieldHandle age = schema.getFieldHandle("age");
+
+        assertThat(age.getName(), is(equalTo("age")));
+        assertThat(age.getIndex(), is(equalTo(2)));
+        assertThat(age.getType(), is(equalTo(FieldType.INTEGER)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownFields() {
+        Employees.getTable().getSchema().getFieldHandle("unknown");
+    }
+
+    @Test
+    public void shouldAccessRowsByPosition() {
+        final DataTable table = Employees.getTable();
+        final Schema schema = table.getSchema();
+        final Row john = table.getRow(2);
+
+        assertThat(schema.getFieldHandle("name").get(john), is(equalTo("john")));
+        assertThat(schema.getFieldHandle("name").getString(john), is(equalTo("john")));
+        assertThat(schema.getFieldHandle("age").getInteger(john), is(equalTo(34)));
+        assertThat(schema.getFieldHandle("isMarried").getBoolean(john), is(false));
+        assertThat(schema.getFieldHandle("salary").getDouble(john), is(equalTo(34.45)));
+    }
+
+    @Test
+    public void shouldAccessCharactersByPosition() {
+        final DataTable table = new DataTable(aSchema()
+                .with(aField("grade").ofType(CHARACTER))
+                .build());
+        table.appendRow(new Object[]{'B'});
+
+        assertThat(table.getSchema().getFieldHandle("grade").getCharacter(table.getRow(1)), is(equalTo('B')));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTypeMismatches() {
+        final DataTable table = Employees.getTable();
+
+        table.getSchema().getFieldHandle("name").getInteger(table.getRow(1));
+    }
+
+    @Test
+    public void shouldListEveryFieldInOrder() {
+        final Schema schema = Employees.getTable().getSchema();
+
+        int expectedIndex = 1;
+        for (FieldHandle each : schema.getFieldHandles()) {
+            assertThat(each.getIndex(), is(equalTo(expectedIndex)));
+            assertThat(each.getName(), is(equalTo(schema.getField(expectedIndex).getName())));
+            expectedIndex++;
+        }
+        assertThat(expectedIndex, is(equalTo(schema.getFieldCount() + 1)));
+    }
+
+}
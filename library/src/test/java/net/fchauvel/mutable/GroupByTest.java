@@ -0,0 +1,239 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static net.fchauvel.mutable.FieldBuilder.aField;
+import static net.fchauvel.mutable.FieldType.DOUBLE;
+import static net.fchauvel.mutable.FieldType.INTEGER;
+import static net.fchauvel.mutable.FieldType.LONG;
+import static net.fchauvel.mutable.FieldType.STRING;
+import static net.fchauvel.mutable.SchemaBuilder.aSchema;
+import static net.fchauvel.mutable.aggregation.Aggregate.approxCountDistinct;
+import static net.fchauvel.mutable.aggregation.Aggregate.approxQuantile;
+import static net.fchauvel.mutable.aggregation.Aggregate.avg;
+import static net.fchauvel.mutable.aggregation.Aggregate.count;
+import static net.fchauvel.mutable.aggregation.Aggregate.max;
+import static net.fchauvel.mutable.aggregation.Aggregate.min;
+import static net.fchauvel.mutable.aggregation.Aggregate.sum;
+import static net.fchauvel.mutable.expression.FieldReference.field;
+import static net.fchauvel.mutable.expression.Literal.value;
+
+@RunWith(JUnit4.class)
+public class GroupByTest {
+
+    private static DataTable sales() {
+        final DataTable table = new DataTable(aSchema()
+                .with(aField("region").ofType(STRING))
+                .with(aField("product").ofType(STRING))
+                .with(aField("quantity").ofType(INTEGER))
+                .with(aField("price").ofType(DOUBLE))
+                .build());
+        table.appendRow(new Object[]{"north", "apple", 10, 1.5});
+        table.appendRow(new Object[]{"south", "apple", 5, 2.0});
+        table.appendRow(new Object[]{"north", "pear", 3, 3.0});
+        table.appendRow(new Object[]{"north", "apple", 20, 2.5});
+        table.appendRow(new Object[]{"south", "pear", 7, 1.0});
+        return table;
+    }
+
+    @Test
+    public void shouldGroupOnASingleField() {
+        final DataTable result = sales().groupBy("region").aggregate(count(), sum("quantity"));
+
+        assertThat(result.getRowCount(), is(equalTo(2)));
+        assertThat(result.getSchema().getFieldNames().toString(), is(equalTo("[region, count, sum(quantity)]")));
+        assertThat(result.getString(1, 1), is(equalTo("north")));
+        assertThat(result.getInteger(1, 2), is(equalTo(3)));
+        assertThat(result.getLong(1, 3), is(equalTo(33L)));
+        assertThat(result.getString(2, 1), is(equalTo("south")));
+        assertThat(result.getInteger(2, 2), is(equalTo(2)));
+        assertThat(result.getLong(2, 3), is(equalTo(12L)));
+    }
+
+    @Test
+    public void shouldGroupOnSeveralFields() {
+        final DataTable result = sales().groupBy("region", "product").aggregate(avg("price"), min("quantity"), max("price"));
+
+        assertThat(result.getRowCount(), is(equalTo(4)));
+        assertThat(result.getString(1, 1), is(equalTo("north")));
+        assertThat(result.getString(1, 2), is(equalTo("apple")));
+        assertThat(result.getDouble(1, 3), is(equalTo(2.0)));
+        assertThat(result.getInteger(1, 4), is(equalTo(10)));
+        assertThat(result.getDouble(1, 5), is(equalTo(2.5)));
+    }
+
+    @Test
+    public void shouldUseTheGivenNames() {
+        final DataTable result = sales().groupBy("product").aggregate(sum("price").as("total"));
+
+        assertThat(result.getData(2, "total"), is(equalTo((Object) 4.0)));
+    }
+
+    @Test
+    public void shouldAggregateAllRowsWithoutKeys() {
+        final DataTable result = sales().groupBy().aggregate(count(), max("quantity"));
+
+        assertThat(result.getRowCount(), is(equalTo(1)));
+        assertThat(result.getInteger(1, 1), is(equalTo(5)));
+        assertThat(result.getInteger(1, 2), is(equalTo(20)));
+    }
+
+    @Test
+    public void shouldProduceAnEmptyTableFromAnEmptyTable() {
+        final DataTable empty = new DataTable(aSchema().with(aField("key").ofType(INTEGER)).build());
+
+        final DataTable result = empty.groupBy("key").aggregate(count());
+
+        assertThat(result.getRowCount(), is(equalTo(0)));
+        assertThat(result.getColumnCount(), is(equalTo(2)));
+    }
+
+    @Test
+    public void shouldGroupResultSets() {
+        final DataTable result = sales().where(field("quantity").isAbove(value(4))).groupBy("product").aggregate(count());
+
+        assertThat(result.getInteger(1, 2), is(equalTo(3)));
+        assertThat(result.getInteger(2, 2), is(equalTo(1)));
+    }
+
+    @Test
+    public void parallelAggregationShouldMatchSequentialAggregation() {
+        final DataTable table = new DataTable(aSchema()
+                .with(aField("key").ofType(INTEGER))
+                .with(aField("value").ofType(LONG))
+                .build());
+        final Random random = new Random(3);
+        final Map<Integer, Long> expected = new HashMap<>();
+        for (int row = 0; row < 10000; row++) {
+            final int key = random.nextInt(100);
+            final long value = random.nextInt(1000);
+            table.appendRow(new Object[]{key, value});
+            expected.put(key, expected.getOrDefault(key, 0L) + value);
+        }
+
+        final DataTable sequential = table.groupBy("key").aggregate(sum("value"), count());
+        final DataTable parallel = table.groupBy("key").inParallel(new ForkJoinPool(4), 700).aggregate(sum("value"), count());
+
+        assertThat(parallel.getRowCount(), is(equalTo(expected.size())));
+        for (int row = 1; row <= parallel.getRowCount(); row++) {
+            assertThat(parallel.getInteger(row, 1), is(equalTo(sequential.getInteger(row, 1))));
+            assertThat(parallel.getLong(row, 2), is(equalTo(expected.get(parallel.getInteger(row, 1)))));
+            assertThat(parallel.getInteger(row, 3), is(equalTo(sequential.getInteger(row, 3))));
+        }
+    }
+
+    @Test
+    public void shouldListDistinctKeys() {
+        final DataTable products = sales().groupBy("product").distinct();
+
+        assertThat(products.getColumnCount(), is(equalTo(1)));
+        assertThat(products.getRowCount(), is(equalTo(2)));
+        assertThat(products.getString(1, 1), is(equalTo("apple")));
+        assertThat(products.getString(2, 1), is(equalTo("pear")));
+    }
+
+    @Test
+    public void shouldSelectTheFirstRowOfEachGroup() {
+        final ResultSet first = sales().groupBy("region", "product").first();
+
+        assertThat(first.getRowCount(), is(equalTo(4)));
+        assertThat(first.getInteger(3, 3), is(equalTo(3)));
+        assertThat(first.getInteger(4, 3), is(equalTo(7)));
+    }
+
+    @Test
+    public void parallelDeduplicationShouldMatchSequentialDeduplication() {
+        final DataTable table = new DataTable(aSchema()
+                .with(aField("id").ofType(INTEGER))
+                .with(aField("name").ofType(STRING))
+                .build());
+        final Random random = new Random(8);
+        for (int row = 0; row < 5000; row++) {
+            final int id = random.nextInt(300);
+            table.appendRow(new Object[]{id, "name" + (id % 7)});
+        }
+
+        final ResultSet sequential = table.groupBy("id", "name").first();
+        final ResultSet parallel = table.groupBy("id", "name").inParallel(new ForkJoinPool(3), 250).first();
+
+        assertThat(parallel.getSelection().toBitmap(), is(equalTo(sequential.getSelection().toBitmap())));
+    }
+
+    @Test
+    public void parallelDistinctShouldKeepTheOrderOfFirstOccurrences() {
+        final DataTable table = new DataTable(aSchema().with(aField("name").ofType(STRING)).build());
+        for (int row = 0; row < 3000; row++) {
+            table.appendRow(new Object[]{"name" + (row / 40 + row % 3)});
+        }
+
+        final DataTable sequential = table.groupBy("name").distinct();
+        final DataTable parallel = table.groupBy("name").inParallel(new ForkJoinPool(4), 110).distinct();
+
+        assertThat(parallel.getRowCount(), is(equalTo(sequential.getRowCount())));
+        for (int row = 1; row <= parallel.getRowCount(); row++) {
+            assertThat(parallel.getString(row, 1), is(equalTo(sequential.getString(row, 1))));
+        }
+    }
+
+    @Test
+    public void shouldEstimateAggregatesWithSketches() {
+        final DataTable table = new DataTable(aSchema()
+                .with(aField("key").ofType(INTEGER))
+                .with(aField("user").ofType(STRING))
+                .with(aField("latency").ofType(DOUBLE))
+                .build());
+        for (int row = 0; row < 20000; row++) {
+            table.appendRow(new Object[]{row % 2, "user" + (row % 1000), (double) (row % 100)});
+        }
+
+        final DataTable result = table.groupBy("key")
+                .inParallel(new ForkJoinPool(4), 1500)
+                .aggregate(approxCountDistinct("user"), approxQuantile("latency", 0.5));
+
+        assertThat(result.getRowCount(), is(equalTo(2)));
+        assertThat(Math.abs(result.getLong(1, 2) - 500) <= 25, is(true));
+        assertThat(Math.abs(result.getDouble(2, 3) - 50) <= 3, is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownKeys() {
+        sales().groupBy("country");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDuplicatedNames() {
+        sales().groupBy("region").aggregate(count(), count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidChunkSizes() {
+        sales().groupBy("region").inParallel(ForkJoinPool.commonPool(), 0);
+    }
+
+}
@@ -0,0 +1,424 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static net.fchauvel.mutable.FieldBuilder.aField;
+import static net.fchauvel.mutable.FieldType.DOUBLE;
+import static net.fchauvel.mutable.FieldType.INTEGER;
+import static net.fchauvel.mutable.FieldType.LONG;
+import static net.fchauvel.mutable.FieldType.STRING;
+import static net.fchauvel.mutable.SchemaBuilder.aSchema;
+import static net.fchauvel.mutable.expression.FieldReference.field;
+import static net.fchauvel.mutable.expression.Literal.value;
+
+@RunWith(JUnit4.class)
+public class JoinTest {
+
+    private static DataTable orders() {
+        final DataTable table = new DataTable(aSchema()
+                .with(aField("id").ofType(INTEGER))
+                .with(aField("customer_id").ofType(INTEGER))
+                .with(aField("amount").ofType(DOUBLE))
+                .build());
+        table.appendRow(new Object[]{1, 10, 5.0});
+        table.appendRow(new Object[]{2, 20, 7.5});
+        table.appendRow(new Object[]{3, 10, 1.0});
+        table.appendRow(new Object[]{4, 30, 2.0});
+        table.appendRow(new Object[]{5, 20, 3.0});
+        return table;
+    }
+
+    private static DataTable customers() {
+        final DataTable table = new DataTable(aSchema()
+                .with(aField("id").ofType(LONG))
+                .with(aField("name").ofType(STRING))
+                .build());
+        table.appendRow(new Object[]{10L, "alice"});
+        table.appendRow(new Object[]{20L, "bob"});
+        table.appendRow(new Object[]{40L, "carol"});
+        return table;
+    }
+
+    @Test
+    public void innerJoinShouldPairMatchingRows() {
+        final JoinedView joined = orders().join(customers()).on("customer_id", "id").inner();
+
+        assertThat(joined.getRowCount(), is(equalTo(4)));
+        assertThat(joined.getSchema().getFieldNames().toString(), is(equalTo("[id, customer_id, amount, id_right, name]")));
+        assertThat(joined.getInteger(1, 1), is(equalTo(1)));
+        assertThat(joined.getString(1, 5), is(equalTo("alice")));
+        assertThat(joined.getInteger(2, 1), is(equalTo(2)));
+        assertThat(joined.getString(2, 5), is(equalTo("bob")));
+        assertThat(joined.getLeftRowIndex(4), is(equalTo(5)));
+        assertThat(joined.getRightRowIndex(4), is(equalTo(2)));
+    }
+
+    @Test
+    public void innerJoinShouldIndexTheSmallerTable() {
+        final JoinedView joined = customers().join(orders()).on("id", "customer_id").inner();
+
+        assertThat(joined.getRowCount(), is(equalTo(4)));
+        assertThat(joined.getString(1, 2), is(equalTo("alice")));
+        assertThat(joined.getInteger(1, 3), is(equalTo(1)));
+        assertThat(joined.getInteger(2, 3), is(equalTo(3)));
+        assertThat(joined.getString(3, 2), is(equalTo("bob")));
+        assertThat(joined.getInteger(3, 3), is(equalTo(2)));
+    }
+
+    @Test
+    public void leftOuterJoinShouldKeepUnmatchedRows() {
+        final JoinedView joined = customers().join(orders()).on("id", "customer_id").leftOuter();
+
+        assertThat(joined.getRowCount(), is(equalTo(5)));
+        assertThat(joined.getString(5, 2), is(equalTo("carol")));
+        assertThat(joined.getRightRowIndex(5), is(equalTo(0)));
+        assertThat(joined.getData(5, 5), is(nullValue()));
+        assertThat(joined.getDouble(5, 5), is(equalTo(0.0)));
+    }
+
+    @Test
+    public void semiJoinShouldReturnMatchingLeftRowsOnce() {
+        final ResultSet customersWithOrders = customers().join(orders()).on("id", "customer_id").semi();
+
+        assertThat(customersWithOrders.getRowCount(), is(equalTo(2)));
+        assertThat(customersWithOrders.getString(1, 2), is(equalTo("alice")));
+        assertThat(customersWithOrders.getString(2, 2), is(equalTo("bob")));
+    }
+
+    @Test
+    public void semiJoinShouldWorkFromTheLargerSide() {
+        final ResultSet ordersOfKnownCustomers = orders().join(customers()).on("customer_id", "id").semi();
+
+        assertThat(ordersOfKnownCustomers.getRowCount(), is(equalTo(4)));
+        assertThat(ordersOfKnownCustomers.getInteger(4, 1), is(equalTo(5)));
+    }
+
+    @Test
+    public void semiJoinShouldReturnEveryLeftRowSharingAKey() {
+        final DataTable manyCustomers = new DataTable(aSchema().with(aField("id").ofType(LONG)).build());
+        for (long id : new long[]{10L, 20L, 10L, 50L, 60L, 20L, 70L}) {
+            manyCustomers.appendRow(new Object[]{id});
+        }
+
+        final ResultSet ordersOfKnownCustomers = orders().join(manyCustomers).on("customer_id", "id").semi();
+
+        assertThat(ordersOfKnownCustomers.getRowCount(), is(equalTo(4)));
+        assertThat(ordersOfKnownCustomers.getSelection().toBitmap().toString(), is(equalTo("[1, 2, 3, 5]")));
+    }
+
+    @Test
+    public void semiJoinShouldMatchANestedLoopFromEitherSide() {
+        final Random random = new Random(13);
+        for (int[] sizes : new int[][]{{50, 300}, {300, 50}, {100, 100}}) {
+            final DataTable left = randomKeys(random, sizes[0], false);
+            final DataTable right = randomKeys(random, sizes[1], false);
+            final Selection expected = new Selection();
+            for (int leftRow = 1; leftRow <= left.getRowCount(); leftRow++) {
+                for (int rightRow = 1; rightRow <= right.getRowCount(); rightRow++) {
+                    if (left.getInteger(leftRow, 1) == right.getInteger(rightRow, 1)) {
+                        expected.add(leftRow);
+                        break;
+                    }
+                }
+            }
+
+            assertThat(left.join(right).on("key").semi().getSelection().toBitmap(), is(equalTo(expected.toBitmap())));
+        }
+    }
+
+    @Test
+    public void probedStringsShouldNotBeGivenCodes() {
+        final DataTable strangers = new DataTable(aSchema().with(aField("name").ofType(STRING)).build());
+        strangers.appendRow(new Object[]{"dave"});
+        strangers.appendRow(new Object[]{"alice"});
+        final KeyEncoder[] encoders = KeyEncoder.pairOf(customers(), 2, strangers, 1);
+
+        assertThat(encoders[0].encode(1), is(equalTo(0L)));
+        assertThat(encoders[0].encode(2), is(equalTo(1L)));
+        assertThat(encoders[1].encode(1), is(equalTo(KeyEncoder.UNKNOWN)));
+        assertThat(encoders[1].encode(2), is(equalTo(0L)));
+        assertThat(encoders[0].encode(3), is(equalTo(2L)));
+    }
+
+    @Test
+    public void shouldJoinOnStrings() {
+        final DataTable nicknames = new DataTable(aSchema()
+                .with(aField("name").ofType(STRING))
+                .with(aField("nickname").ofType(STRING))
+                .build());
+        nicknames.appendRow(new Object[]{"bob", "bobby"});
+
+        final JoinedView joined = customers().join(nicknames).on("name").inner();
+
+        assertThat(joined.getRowCount(), is(equalTo(1)));
+        assertThat(joined.getString(1, 4), is(equalTo("bobby")));
+    }
+
+    @Test
+    public void shouldMaterializeJoins() {
+        final DataTable joined = customers().join(orders()).on("id", "customer_id").inner().materialize();
+
+        assertThat(joined.getRowCount(), is(equalTo(4)));
+        assertThat(joined.getLong(1, 1), is(equalTo(10L)));
+        assertThat(joined.getDouble(2, 5), is(equalTo(1.0)));
+        assertThat(joined.getString(4, 2), is(equalTo("bob")));
+    }
+
+    @Test
+    public void shouldMaterializeOuterJoinsWhereEveryRowMatches() {
+        final DataTable paidOrders = orders();
+        paidOrders.removeRow(3);
+
+        final JoinedView joined = paidOrders.join(customers()).on("customer_id", "id").leftOuter();
+        final DataTable table = joined.materialize();
+
+        assertThat(joined.hasUnmatchedRows(), is(false));
+        assertThat(table.getRowCount(), is(equalTo(4)));
+        assertThat(table.getString(4, 5), is(equalTo("bob")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectMaterializingUnmatchedRowsOfTextualColumns() {
+        final JoinedView joined = orders().join(customers()).on("customer_id", "id").leftOuter();
+
+        assertThat(joined.hasUnmatchedRows(), is(true));
+        joined.materialize();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectMaterializingUnmatchedRowsOfNumericColumns() {
+        final JoinedView joined = customers().join(orders()).on("id", "customer_id").leftOuter();
+
+        assertThat(joined.hasUnmatchedRows(), is(true));
+        joined.materialize();
+    }
+
+    @Test
+    public void queriesShouldMatchNoMissingValue() {
+        final JoinedView joined = orders().join(customers()).on("customer_id", "id").leftOuter();
+
+        assertThat(joined.where(field("name").is(value("bob"))).getRowCount(), is(2));
+        assertThat(joined.count(field("id_right").isBelow(value(15L))), is(2));
+        assertThat(joined.count(field("id_right").isAbove(value(15L))), is(2));
+        assertThat(joined.count(field("id_right").isCloseTo(value(10D))), is(2));
+        assertThat(joined.count(field("name").matches(value("a.*"))), is(2));
+        assertThat(joined.exists(field("name").is(value("carol"))), is(false));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectSortingByFieldsMissingInUnmatchedRows() {
+        final JoinedView joined = orders().join(customers()).on("customer_id", "id").leftOuter();
+
+        joined.orderBy("name");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectTopRowsByFieldsMissingInUnmatchedRows() {
+        final JoinedView joined = orders().join(customers()).on("customer_id", "id").leftOuter();
+
+        joined.topK("id_right", 2);
+    }
+
+    @Test
+    public void shouldSortLeftOuterJoinsByLeftFields() {
+        final JoinedView joined = orders().join(customers()).on("customer_id", "id").leftOuter();
+
+        final Table sorted = joined.orderBy("amount");
+
+        assertThat(sorted.getRowCount(), is(5));
+        assertThat(sorted.getInteger(1, 1), is(3));
+        assertThat(sorted.getData(2, 5), is(nullValue()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectGroupingByFieldsMissingInUnmatchedRows() {
+        final JoinedView joined = orders().join(customers()).on("customer_id", "id").leftOuter();
+
+        joined.groupBy("customer_id", "name");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectDistinctValuesOfFieldsMissingInUnmatchedRows() {
+        final JoinedView joined = orders().join(customers()).on("customer_id", "id").leftOuter();
+
+        joined.distinct("name");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectDroppingDuplicatesOverAllFieldsOfUnmatchedRows() {
+        final JoinedView joined = orders().join(customers()).on("customer_id", "id").leftOuter();
+
+        joined.dropDuplicates();
+    }
+
+    @Test
+    public void shouldGroupLeftOuterJoinsByLeftFields() {
+        final JoinedView joined = orders().join(customers()).on("customer_id", "id").leftOuter();
+
+        assertThat(joined.distinct("customer_id").getRowCount(), is(3));
+    }
+
+    @Test
+    public void statisticsShouldSkipMissingValues() {
+        final JoinedView joined = orders().join(customers()).on("customer_id", "id").leftOuter();
+
+        final ColumnStatistics statistics = joined.statisticsOf("id_right");
+
+        assertThat(statistics.getCount(), is(4L));
+        assertThat(joined.min("id_right"), is(10D));
+        assertThat(joined.mean("id_right"), is(15D));
+        assertThat(joined.sum("amount"), is(18.5D));
+        assertThat(joined.quantileSketch("id_right").getCount(), is(4L));
+        assertThat(joined.quantileSketch("id_right").getMin(), is(10D));
+        assertThat(joined.distinctCountSketch("name").estimate(), is(2L));
+    }
+
+    @Test
+    public void matchedRowsShouldDropUnmatchedRows() {
+        final JoinedView joined = orders().join(customers()).on("customer_id", "id").leftOuter();
+
+        final ResultSet matched = joined.matchedRows();
+
+        assertThat(matched.getRowCount(), is(4));
+        assertThat(matched.orderBy("name").getString(1, 5), is("alice"));
+        assertThat(matched.distinct("name").getRowCount(), is(2));
+    }
+
+    @Test
+    public void shouldMatchANestedLoopJoin() {
+        final Random random = new Random(5);
+        final DataTable left = new DataTable(aSchema().with(aField("key").ofType(INTEGER)).build());
+        final DataTable right = new DataTable(aSchema().with(aField("key").ofType(INTEGER)).build());
+        for (int row = 0; row < 300; row++) {
+            left.appendRow(new Object[]{random.nextInt(50)});
+        }
+        for (int row = 0; row < 200; row++) {
+            right.appendRow(new Object[]{random.nextInt(50)});
+        }
+        final List<String> expected = new ArrayList<>();
+        for (int leftRow = 1; leftRow <= left.getRowCount(); leftRow++) {
+            for (int rightRow = 1; rightRow <= right.getRowCount(); rightRow++) {
+                if (left.getInteger(leftRow, 1) == right.getInteger(rightRow, 1)) {
+                    expected.add(leftRow + "-" + rightRow);
+                }
+            }
+        }
+
+        final JoinedView joined = left.join(right).on("key").inner();
+        final JoinedView reversed = right.join(left).on("key").inner();
+
+        final List<String> actual = new ArrayList<>();
+        for (int row = 1; row <= joined.getRowCount(); row++) {
+            actual.add(joined.getLeftRowIndex(row) + "-" + joined.getRightRowIndex(row));
+        }
+        assertThat(actual, is(equalTo(expected)));
+        assertThat(reversed.getRowCount(), is(equalTo(expected.size())));
+    }
+
+    private static DataTable randomKeys(Random random, int rowCount, boolean sorted) {
+        final int[] keys = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            keys[row] = random.nextInt(50) - 25;
+        }
+        if (sorted) {
+            Arrays.sort(keys);
+        }
+        final DataTable table = new DataTable(aSchema().with(aField("key").ofType(INTEGER)).build());
+        table.appendColumns((Object) keys);
+        return table;
+    }
+
+    private static List<String> pairsOf(JoinedView joined) {
+        final List<String> pairs = new ArrayList<>();
+        for (int row = 1; row <= joined.getRowCount(); row++) {
+            pairs.add(joined.getLeftRowIndex(row) + "-" + joined.getRightRowIndex(row));
+        }
+        return pairs;
+    }
+
+    @Test
+    public void sortMergeJoinsShouldMatchHashJoins() {
+        final Random random = new Random(9);
+        for (boolean leftSorted : new boolean[]{true, false}) {
+            for (boolean rightSorted : new boolean[]{true, false}) {
+                final DataTable left = randomKeys(random, 300, leftSorted);
+                final DataTable right = randomKeys(random, 200, rightSorted);
+
+                assertThat(pairsOf(left.join(right).on("key").usingSortMerge().inner()), is(equalTo(pairsOf(left.join(right).on("key").inner()))));
+                assertThat(pairsOf(left.join(right).on("key").usingSortMerge().leftOuter()), is(equalTo(pairsOf(left.join(right).on("key").leftOuter()))));
+                assertThat(left.join(right).on("key").usingSortMerge().semi().getSelection().toBitmap(), is(equalTo(left.join(right).on("key").semi().getSelection().toBitmap())));
+            }
+        }
+    }
+
+    @Test
+    public void sortMergeJoinsShouldWorkOnResultSets() {
+        final ResultSet bigOrders = orders().where(field("amount").isAbove(value(2.5)));
+
+        final JoinedView joined = bigOrders.join(customers()).on("customer_id", "id").usingSortMerge().leftOuter();
+
+        assertThat(joined.getRowCount(), is(equalTo(3)));
+        assertThat(joined.getString(1, 5), is(equalTo("alice")));
+        assertThat(joined.getString(2, 5), is(equalTo("bob")));
+        assertThat(joined.getDouble(3, 3), is(equalTo(3.0)));
+    }
+
+    @Test
+    public void sortMergeJoinsShouldCompareStrings() {
+        final DataTable nicknames = new DataTable(aSchema()
+                .with(aField("name").ofType(STRING))
+                .with(aField("nickname").ofType(STRING))
+                .build());
+        nicknames.appendRow(new Object[]{"carol", "caro"});
+        nicknames.appendRow(new Object[]{"alice", "ali"});
+
+        final JoinedView joined = customers().join(nicknames).on("name").usingSortMerge().inner();
+
+        assertThat(joined.getRowCount(), is(equalTo(2)));
+        assertThat(joined.getString(1, 4), is(equalTo("ali")));
+        assertThat(joined.getString(2, 4), is(equalTo("caro")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownKeys() {
+        orders().join(customers()).on("customer", "id");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectIncomparableKeys() {
+        orders().join(customers()).on("amount", "id");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRequireKeys() {
+        orders().join(customers()).inner();
+    }
+
+}
@@ -0,0 +1,136 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static net.fchauvel.mutable.FieldBuilder.aField;
+import static net.fchauvel.mutable.FieldType.INTEGER;
+import static net.fchauvel.mutable.SchemaBuilder.aSchema;
+import static net.fchauvel.mutable.expression.FieldReference.field;
+import static net.fchauvel.mutable.expression.Literal.value;
+
+@RunWith(JUnit4.class)
+public class LiveResultSetTest {
+
+    private static DataTable numbers(int from, int to) {
+        final DataTable table = new DataTable(aSchema().with(aField("value").ofType(INTEGER)).build());
+        append(table, from, to);
+        return table;
+    }
+
+    private static void append(DataTable table, int from, int to) {
+        for (int value = from; value <= to; value++) {
+            table.appendRow(new Object[]{value});
+        }
+    }
+
+    @Test
+    public void shouldSelectTheExistingRows() {
+        final LiveResultSet even = numbers(1, 10).liveWhere(field("value").isAbove(value(5)));
+
+        assertThat(even.getRowCount(), is(equalTo(5)));
+        assertThat(even.getInteger(1, 1), is(equalTo(6)));
+    }
+
+    @Test
+    public void shouldFollowAppendedRows() {
+        final DataTable table = numbers(1, 10);
+        final LiveResultSet results = table.liveWhere(field("value").isAbove(value(5)));
+        results.getRowCount();
+
+        append(table, 11, 20);
+
+        assertThat(results.getRowCount(), is(equalTo(15)));
+        assertThat(results.getData(15, 1), is(equalTo(20)));
+    }
+
+    @Test
+    public void shouldFollowAppendedColumns() {
+        final DataTable table = numbers(1, 10);
+        final LiveResultSet results = table.liveWhere(field("value").isAbove(value(5)));
+        results.getRowCount();
+
+        table.appendColumns((Object) new int[]{3, 30, 300});
+
+        assertThat(results.getRowCount(), is(equalTo(7)));
+    }
+
+    @Test
+    public void pollsShouldOnlyReturnTheNewMatches() {
+        final DataTable table = numbers(1, 10);
+        final LiveResultSet results = table.liveWhere(field("value").isAbove(value(5)));
+
+        assertThat(results.poll().getRowCount(), is(equalTo(5)));
+        assertThat(results.poll().getRowCount(), is(equalTo(0)));
+
+        append(table, 11, 13);
+        final ResultSet delta = results.poll();
+
+        assertThat(delta.getRowCount(), is(equalTo(3)));
+        assertThat(delta.getData(1, 1), is(equalTo(11)));
+        assertThat(delta.getRow(1).getRowIndex(), is(equalTo(11)));
+    }
+
+    @Test
+    public void shouldBeRebuiltWhenRowsAreRemoved() {
+        final DataTable table = numbers(1, 10);
+        final LiveResultSet results = table.liveWhere(field("value").isAbove(value(5)));
+        results.poll();
+
+        table.removeRow(0);
+
+        assertThat(results.getRowCount(), is(equalTo(5)));
+        assertThat(results.getRow(1).getRowIndex(), is(equalTo(5)));
+        assertThat(results.poll().getRowCount(), is(equalTo(5)));
+    }
+
+    @Test
+    public void shouldBeRebuiltWhenRowsAreBothRemovedAndAppended() {
+        final DataTable table = numbers(1, 10);
+        final LiveResultSet results = table.liveWhere(field("value").isAbove(value(5)));
+        results.getRowCount();
+
+        table.removeRow(9);
+        append(table, 11, 11);
+
+        assertThat(results.getRowCount(), is(equalTo(5)));
+        assertThat(results.getData(5, 1), is(equalTo(11)));
+    }
+
+    @Test
+    public void shouldCountModifications() {
+        final DataTable table = numbers(1, 10);
+
+        table.removeRow(0);
+        table.removeRow(100);
+
+        assertThat(table.getModificationCount(), is(equalTo(11L)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMissingCriteria() {
+        numbers(1, 10).liveWhere(null);
+    }
+
+}
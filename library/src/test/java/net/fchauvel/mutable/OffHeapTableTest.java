@@ -0,0 +1,191 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import net.fchauvel.mutable.column.DirectStore;
+import net.fchauvel.mutable.samples.Employees;
+import net.fchauvel.mutable.storage.csv.CSVOptions;
+import net.fchauvel.mutable.storage.csv.CSVWriter;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static net.fchauvel.mutable.FieldBuilder.aField;
+import static net.fchauvel.mutable.FieldType.*;
+import static net.fchauvel.mutable.SchemaBuilder.aSchema;
+import static net.fchauvel.mutable.expression.FieldReference.field;
+import static net.fchauvel.mutable.expression.Literal.value;
+
+/**
+ * Specification of the off-heap table
+ */
+@RunWith(JUnit4.class)
+public class OffHeapTableTest {
+
+    @Test
+    public void shouldCopyTheSourceSchema() {
+        try (OffHeapTable table = OffHeapTable.copyOf(Employees.getTable())) {
+            assertThat(table.getSchema(), is(equalTo(Employees.getSchema())));
+        }
+    }
+
+    @Test
+    public void shouldCopyTheSourceData() {
+        try (OffHeapTable table = OffHeapTable.copyOf(Employees.getTable())) {
+            assertThat(table.getRowCount(), is(equalTo(3)));
+            assertThat(table.getData(2, "name"), is(equalTo((Object) "john")));
+            assertThat(table.getData(2, "age"), is(equalTo((Object) 34)));
+            assertThat(table.getData(2, "isMarried"), is(equalTo((Object) false)));
+            assertThat(table.getData(2, "salary"), is(equalTo((Object) 34.45)));
+        }
+    }
+
+    @Test
+    public void shouldCopyAllTypesAcrossSeveralChunks() {
+        final Schema schema = aSchema()
+                .with(aField("id").ofType(LONG))
+                .with(aField("ratio").ofType(FLOAT))
+                .with(aField("code").ofType(CHARACTER))
+                .with(aField("label").ofType(STRING))
+                .build();
+        final DataTable source = new DataTable(schema);
+        final int rowCount = 70000;
+        for (int i = 0; i < rowCount; i++) {
+            source.appendRow(new Object[]{(long) i, i / 2F, (char) ('a' + i % 26), "label " + i});
+        }
+
+        try (OffHeapTable table = OffHeapTable.copyOf(source)) {
+            assertThat(table.getData(rowCount, "id"), is(equalTo((Object) (long) (rowCount - 1))));
+            assertThat(table.getData(rowCount, "ratio"), is(equalTo((Object) ((rowCount - 1) / 2F))));
+            assertThat(table.getData(rowCount, "code"), is(equalTo((Object) (char) ('a' + (rowCount - 1) % 26))));
+            assertThat(table.getData(rowCount, "label"), is(equalTo((Object) ("label " + (rowCount - 1)))));
+            assertThat(table.getData(1, "label"), is(equalTo((Object) "label 0")));
+        }
+    }
+
+    @Test
+    public void shouldResolveQuery() {
+        try (OffHeapTable table = OffHeapTable.copyOf(Employees.getTable())) {
+            ResultSet results = table.where(field("isMarried").is(value(false)));
+
+            assertThat(results.getRowCount(), is(equalTo(2)));
+            assertThat(results.getData(2, "name"), is(equalTo((Object) "derek")));
+        }
+    }
+
+    @Test
+    public void shouldBeWritableAsCSV() {
+        try (OffHeapTable table = OffHeapTable.copyOf(Employees.getTable())) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            new CSVWriter().write(table, output, new CSVOptions());
+
+            assertThat(output.toString(), is(equalTo(Employees.getCsvWithoutHeader())));
+        }
+    }
+
+    @Test
+    public void shouldCopyViewsOverOtherTables() {
+        try (OffHeapTable table = OffHeapTable.copyOf(Employees.getTable().where(field("isMarried").is(value(false))))) {
+            assertThat(table.getRowCount(), is(equalTo(2)));
+            assertThat(table.getData(2, "name"), is(equalTo((Object) "derek")));
+            assertThat(table.getInteger(1, 2), is(equalTo(34)));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldPropagateFailuresWhileCopying() {
+        final DataTable source = new DataTable(aSchema()
+                .with(aField("id").ofType(INTEGER))
+                .with(aField("label").ofType(STRING))
+                .build()) {
+
+            @Override
+            public String getString(int rowIndex, int columnIndex) {
+                throw new IllegalStateException("Unreadable label");
+            }
+
+        };
+        source.appendRow(new Object[]{1, "one"});
+
+        OffHeapTable.copyOf(source);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectAccessOnceClosed() {
+        OffHeapTable table = OffHeapTable.copyOf(Employees.getTable());
+        table.close();
+
+        table.getData(1, 1);
+    }
+
+    @Test
+    public void shouldTellWhenItIsClosed() {
+        OffHeapTable table = OffHeapTable.copyOf(Employees.getTable());
+        table.close();
+
+        assertThat(table.isClosed(), is(true));
+    }
+
+    @Test
+    public void shouldExposeTypedColumns() {
+        try (OffHeapTable table = OffHeapTable.copyOf(Employees.getTable())) {
+            assertThat(table.doubleColumn("salary").get(3), is(equalTo(67.34)));
+            assertThat(table.stringColumn("name").get(1), is(equalTo("bob")));
+        }
+    }
+
+    @Test
+    public void shouldCopyTypedColumnsInBulk() {
+        try (OffHeapTable table = OffHeapTable.copyOf(Employees.getTable())) {
+            final double[] salaries = new double[3];
+            table.doubleColumn("salary").copyTo(salaries);
+            final boolean[] married = new boolean[3];
+            table.booleanColumn("isMarried").copyTo(married);
+            final String[] names = new String[4];
+            table.stringColumn("name").copyTo(names);
+
+            assertThat(Arrays.toString(salaries), is(equalTo("[23.54, 34.45, 67.34]")));
+            assertThat(Arrays.toString(married), is(equalTo("[true, false, false]")));
+            assertThat(Arrays.toString(names), is(equalTo("[bob, john, derek, null]")));
+        }
+    }
+
+    @Test
+    public void shouldCopyTypedColumnsAcrossChunks() {
+        final int count = DirectStore.CHUNK_SIZE + 10;
+        final long[] ids = new long[count];
+        for (int index = 0; index < count; index++) {
+            ids[index] = 3L * index;
+        }
+        final DataTable source = new DataTable(aSchema().with(aField("id").ofType(LONG)).build());
+        source.appendColumns((Object) ids);
+
+        try (OffHeapTable table = OffHeapTable.copyOf(source)) {
+            final long[] values = new long[count];
+            table.longColumn("id").copyTo(values);
+
+            assertThat(Arrays.equals(values, ids), is(true));
+        }
+    }
+
+}
@@ -0,0 +1,218 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import net.fchauvel.mutable.expression.Expression;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static net.fchauvel.mutable.FieldBuilder.aField;
+import static net.fchauvel.mutable.FieldType.INTEGER;
+import static net.fchauvel.mutable.SchemaBuilder.aSchema;
+import static net.fchauvel.mutable.expression.FieldReference.field;
+import static net.fchauvel.mutable.expression.Literal.value;
+
+@RunWith(JUnit4.class)
+public class QueryCacheTest {
+
+    private static DataTable numbers(int count) {
+        final DataTable table = new DataTable(aSchema().with(aField("value").ofType(INTEGER)).build());
+        for (int value = 1; value <= count; value++) {
+            table.appendRow(new Object[]{value});
+        }
+        return table;
+    }
+
+    @Test
+    public void shouldAnswerRepeatedQueriesFromTheCache() {
+        final DataTable table = numbers(100);
+        table.enableQueryCache(1 << 20);
+
+        table.where(field("value").isAbove(value(50))).getRowCount();
+        final ResultSet results = table.where(field("value").isAbove(value(50)));
+
+        assertThat(results.getRowCount(), is(equalTo(50)));
+        assertThat(results.getData(1, 1), is(equalTo(51)));
+        assertThat(table.getQueryCache().getHitCount(), is(equalTo(1L)));
+        assertThat(table.getQueryCache().getMissCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void shouldShareEntriesBetweenEquivalentQueries() {
+        final DataTable table = numbers(100);
+        table.enableQueryCache(1 << 20);
+        final Expression above = field("value").isAbove(value(10));
+        final Expression below = field("value").isBelow(value(20));
+
+        table.where(above.and(below)).getRowCount();
+        final ResultSet results = table.where(below.and(above));
+
+        assertThat(results.getRowCount(), is(equalTo(9)));
+        assertThat(table.getQueryCache().getHitCount(), is(equalTo(1L)));
+        assertThat(table.getQueryCache().size(), is(equalTo(1)));
+    }
+
+    @Test
+    public void shouldBeInvalidatedByAppendedRows() {
+        final DataTable table = numbers(100);
+        table.enableQueryCache(1 << 20);
+        table.where(field("value").isAbove(value(50))).getRowCount();
+
+        table.appendRow(new Object[]{101});
+        final ResultSet results = table.where(field("value").isAbove(value(50)));
+
+        assertThat(results.getRowCount(), is(equalTo(51)));
+        assertThat(table.getQueryCache().getHitCount(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void shouldBeInvalidatedByRemovedRows() {
+        final DataTable table = numbers(100);
+        table.enableQueryCache(1 << 20);
+        table.where(field("value").isAbove(value(50))).getRowCount();
+
+        table.removeRow(99);
+        final ResultSet results = table.where(field("value").isAbove(value(50)));
+
+        assertThat(results.getRowCount(), is(equalTo(49)));
+        assertThat(table.getQueryCache().getHitCount(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void shouldEvictTheLeastRecentlyUsedEntries() {
+        final DataTable table = numbers(1000);
+        table.enableQueryCache(6000);
+        final Expression first = field("value").isAbove(value(500));
+        final Expression second = field("value").isBelow(value(501));
+        final Expression third = field("value").isAbove(value(400));
+
+        table.where(first).getRowCount();
+        table.where(second).getRowCount();
+        table.where(first);
+        table.where(third).getRowCount();
+
+        assertThat(table.getQueryCache().size(), is(equalTo(2)));
+        assertThat(table.getQueryCache().getSizeInBytes() <= 6000, is(true));
+        table.where(first);
+        assertThat(table.getQueryCache().getHitCount(), is(equalTo(2L)));
+        table.where(second);
+        assertThat(table.getQueryCache().getHitCount(), is(equalTo(2L)));
+    }
+
+    @Test
+    public void shouldOnlyCacheFullyFetchedResults() {
+        final DataTable table = numbers(100);
+        table.enableQueryCache(1 << 20);
+        final ResultSet results = table.where(field("value").isAbove(value(50)));
+
+        results.getData(1, 1);
+        table.where(field("value").isAbove(value(50))).limit(5).getRowCount();
+        assertThat(table.getQueryCache().size(), is(equalTo(0)));
+
+        results.getRowCount();
+        assertThat(table.getQueryCache().size(), is(equalTo(1)));
+    }
+
+    @Test
+    public void shouldNotCacheResultsFetchedAfterAModification() {
+        final DataTable table = numbers(100);
+        table.enableQueryCache(1 << 20);
+        final ResultSet results = table.where(field("value").isAbove(value(50)));
+
+        table.appendRow(new Object[]{101});
+        results.getRowCount();
+
+        assertThat(table.getQueryCache().size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void existsShouldStopAtTheFirstMatchWhenCaching() {
+        final DataTable table = numbers(1000);
+        table.enableQueryCache(1 << 20);
+        final CountingExpression criteria = new CountingExpression(field("value").isAbove(value(0)));
+
+        assertThat(table.exists(criteria), is(true));
+        assertThat(criteria.evaluationCount, is(equalTo(1)));
+        assertThat(table.getQueryCache().size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void limitsShouldStopEarlyWhenCaching() {
+        final DataTable table = numbers(1000);
+        table.enableQueryCache(1 << 20);
+        final CountingExpression criteria = new CountingExpression(field("value").isAbove(value(0)));
+
+        assertThat(table.where(criteria).limit(3).getRowCount(), is(equalTo(3)));
+        assertThat(criteria.evaluationCount, is(equalTo(3)));
+    }
+
+    /**
+     * Count how many rows the wrapped criteria is evaluated on
+     */
+    private static class CountingExpression extends Expression {
+
+        private final Expression criteria;
+        private int evaluationCount;
+
+        CountingExpression(Expression criteria) {
+            this.criteria = criteria;
+            this.evaluationCount = 0;
+        }
+
+        @Override
+        public Object evaluate(Row row) {
+            evaluationCount++;
+            return criteria.evaluate(row);
+        }
+
+        @Override
+        public Expression bindTo(Table table) {
+            return this;
+        }
+
+    }
+
+    @Test
+    public void shouldNotCacheResultsLargerThanTheBudget() {
+        final DataTable table = numbers(1000);
+        table.enableQueryCache(100);
+
+        final ResultSet results = table.where(field("value").isAbove(value(0)));
+
+        assertThat(results.getRowCount(), is(equalTo(1000)));
+        assertThat(table.getQueryCache().size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void shouldBeDisabledByDefault() {
+        final DataTable table = numbers(10);
+
+        assertThat(table.getQueryCache() == null, is(true));
+        assertThat(table.where(field("value").isAbove(value(5))).getRowCount(), is(equalTo(5)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidBudgets() {
+        new QueryCache(0);
+    }
+
+}
@@ -22,16 +22,20 @@ import net.fchauvel.mutable.Table;
 import net.fchauvel.mutable.Row;
 import net.fchauvel.mutable.ResultSet;
 import net.fchauvel.mutable.samples.Employees;
+import net.fchauvel.mutable.column.IntegerColumn;
+import net.fchauvel.mutable.column.StringColumn;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import org.junit.Test;
 import net.fchauvel.mutable.expression.Expression;
+import static net.fchauvel.mutable.FieldBuilder.aField;
+import static net.fchauvel.mutable.FieldType.INTEGER;
+import static net.fchauvel.mutable.SchemaBuilder.aSchema;
 import static net.fchauvel.mutable.expression.FieldReference.field;
 import static net.fchauvel.mutable.expression.Literal.value;
 
@@ -39,23 +43,23 @@ import static net.fchauvel.mutable.expression.Literal.value;
 
 public class ResultSetTest {
 
-    private ResultSet sampleResultSetWithCache(Map<Integer, Integer> cache) {
-        ResultSet results = makeResultSet(field("isMarried").is(value(false)), cache);
+    private ResultSet sampleResultSetWithSelection(Selection selection) {
+        ResultSet results = makeResultSet(field("isMarried").is(value(false)), selection);
         return results;
     }
 
-    private ResultSet makeResultSet(final Expression query, Map<Integer, Integer> cache) {
+    private ResultSet makeResultSet(final Expression query, Selection selection) {
         Table table = Employees.getTable();
-        ResultSet results = new ResultSet(table, query, cache);
+        ResultSet results = new ResultSet(table, query, selection);
         return results;
     }
 
     private ResultSet sampleResultSet() {
-        return sampleResultSetWithCache(defaultCache());
+        return sampleResultSetWithSelection(defaultSelection());
     }
 
-    private static HashMap<Integer, Integer> defaultCache() {
-        return new HashMap<>();
+    private static Selection defaultSelection() {
+        return new Selection();
     }
 
     @Test
@@ -66,7 +70,7 @@ public class ResultSetTest {
     }
 
     private ResultSet emptyResultSet() {
-        ResultSet results = makeResultSet(field("name").is(value("brandon")), defaultCache());
+        ResultSet results = makeResultSet(field("name").is(value("brandon")), defaultSelection());
         return results;
     }
 
@@ -85,23 +89,23 @@ public class ResultSetTest {
     }
 
     @Test
-    public void shouldGraduallyFillItsCache() {
-        final Map<Integer, Integer> cache = defaultCache();
-        final ResultSet results = sampleResultSetWithCache(cache);
+    public void shouldGraduallyFillItsSelection() {
+        final Selection selection = defaultSelection();
+        final ResultSet results = sampleResultSetWithSelection(selection);
 
         results.getRow(1).getField("name");
 
-        assertThat(cache.size(), is(equalTo(1)));
+        assertThat(selection.size(), is(equalTo(1)));
     }
 
     @Test
-    public void shouldFillItsCacheAsNeeded() {
-        final Map<Integer, Integer> cache = defaultCache();
-        final ResultSet results = sampleResultSetWithCache(cache);
+    public void shouldFillItsSelectionAsNeeded() {
+        final Selection selection = defaultSelection();
+        final ResultSet results = sampleResultSetWithSelection(selection);
 
         results.getRow(2).getField("name");
 
-        assertThat(cache.size(), is(equalTo(2)));
+        assertThat(selection.size(), is(equalTo(2)));
     }
 
     @Test
@@ -162,4 +166,293 @@ public class ResultSetTest {
         assertThat(names, hasItems("john", "derek"));
     }
 
+    @Test
+    public void shouldExposeTypedColumnsThroughTheSelection() {
+        final ResultSet results = sampleResultSet();
+        StringColumn names = results.stringColumn("name");
+        IntegerColumn ages = results.integerColumn("age");
+
+        assertThat(names.size(), is(equalTo(2)));
+        assertThat(names.get(2), is(equalTo("derek")));
+        int[] values = new int[2];
+        ages.copyTo(values);
+        assertThat(values[0], is(equalTo(34)));
+        assertThat(values[1], is(equalTo(56)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectRowsBeyondTheSelection() {
+        final ResultSet results = sampleResultSet();
+        results.getRowCount();
+
+        results.getInteger(3, 2);
+    }
+
+    @Test
+    public void shouldNotFetchBeyondTheRequestedRow() {
+        final Selection selection = defaultSelection();
+        final ResultSet results = makeResultSet(field("age").isAbove(value(0)), selection);
+
+        results.getData(2, "name");
+
+        assertThat(selection.size(), is(equalTo(2)));
+        assertThat(selection.get(2), is(equalTo(2)));
+    }
+
+    @Test
+    public void shouldMapRowsToTheirSourceIndex() {
+        final Selection selection = defaultSelection();
+        final ResultSet results = sampleResultSetWithSelection(selection);
+
+        results.getRowCount();
+
+        assertThat(selection.get(1), is(equalTo(2)));
+        assertThat(selection.get(2), is(equalTo(3)));
+    }
+
+    @Test
+    public void shouldIntersectResultSets() {
+        final Table table = Employees.getTable();
+        final ResultSet unmarried = table.where(field("isMarried").is(value(false)));
+        final ResultSet older = table.where(field("age").isAbove(value(30)));
+
+        final ResultSet results = unmarried.and(older);
+
+        assertThat(results.getRowCount(), is(equalTo(2)));
+        assertThat(results.getData(1, "name"), is(equalTo("john")));
+    }
+
+    @Test
+    public void shouldUniteResultSets() {
+        final Table table = Employees.getTable();
+        final ResultSet bob = table.where(field("name").is(value("bob")));
+        final ResultSet derek = table.where(field("name").is(value("derek")));
+
+        final ResultSet results = bob.or(derek);
+
+        assertThat(results.getRowCount(), is(equalTo(2)));
+        assertThat(results.getData(2, "name"), is(equalTo("derek")));
+    }
+
+    @Test
+    public void shouldSubtractResultSets() {
+        final Table table = Employees.getTable();
+        final ResultSet unmarried = table.where(field("isMarried").is(value(false)));
+        final ResultSet john = table.where(field("name").is(value("john")));
+
+        final ResultSet results = unmarried.andNot(john);
+
+        assertThat(results.getRowCount(), is(equalTo(1)));
+        assertThat(results.getData(1, "name"), is(equalTo("derek")));
+    }
+
+    @Test
+    public void shouldInvertResultSets() {
+        final ResultSet results = sampleResultSet().invert();
+
+        assertThat(results.getRowCount(), is(equalTo(1)));
+        assertThat(results.getData(1, "name"), is(equalTo("bob")));
+        assertThat(results.invert().getRowCount(), is(equalTo(2)));
+    }
+
+    @Test
+    public void combinedResultSetsShouldSupportQueries() {
+        final ResultSet unmarried = sampleResultSet();
+        final ResultSet results = unmarried.invert().or(unmarried);
+
+        assertThat(results.where(field("age").isBelow(value(40))).getRowCount(), is(equalTo(2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectCombiningResultSetsOfDifferentTables() {
+        sampleResultSet().and(sampleResultSet());
+    }
+
+    private static Table numbers(int count) {
+        final DataTable table = new DataTable(aSchema().with(aField("value").ofType(INTEGER)).build());
+        for (int value = 1; value <= count; value++) {
+            table.appendRow(new Object[]{value});
+        }
+        return table;
+    }
+
+    @Test
+    public void columnStatisticsShouldOnlyCoverTheSelectedRows() {
+        final ResultSet results = numbers(10000).where(field("value").isAbove(value(5000)));
+
+        final ColumnStatistics statistics = results.statisticsOf("value");
+
+        assertThat(statistics.getCount(), is(equalTo(5000L)));
+        assertThat(statistics.getSum(), is(equalTo(37502500.0)));
+        assertThat(statistics.getMin(), is(equalTo(5001.0)));
+        assertThat(results.max("value"), is(equalTo(10000.0)));
+    }
+
+    @Test
+    public void parallelScansShouldMatchSequentialOnes() {
+        final Table table = numbers(10000);
+        final Expression query = field("value").isAbove(value(2500)).and(field("value").isBelow(value(9000)));
+        final ResultSet sequential = table.where(query);
+        final ResultSet parallel = table.where(query).inParallel(new ForkJoinPool(4), 100);
+
+        assertThat(parallel.getRowCount(), is(equalTo(sequential.getRowCount())));
+        for (int index = 1; index <= sequential.getRowCount(); index++) {
+            assertThat(parallel.getData(index, 1), is(equalTo(sequential.getData(index, 1))));
+        }
+    }
+
+    @Test
+    public void parallelScansShouldResumeAfterTheRowsAlreadyFetched() {
+        final ResultSet results = numbers(1000).where(field("value").isAbove(value(0))).inParallel(new ForkJoinPool(2), 64);
+
+        assertThat(results.getData(10, 1), is(equalTo(10)));
+        assertThat(results.getRowCount(), is(equalTo(1000)));
+        assertThat(results.getData(1000, 1), is(equalTo(1000)));
+    }
+
+    @Test
+    public void shouldUseTheCommonPoolByDefault() {
+        final ResultSet results = sampleResultSet().inParallel();
+
+        assertThat(results.isParallel(), is(true));
+        assertThat(results.getRowCount(), is(equalTo(2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidChunkSizes() {
+        sampleResultSet().inParallel(ForkJoinPool.commonPool(), 0);
+    }
+
+    @Test
+    public void nestedQueriesShouldSelectRowsOfTheUnderlyingTable() {
+        final ResultSet unmarried = sampleResultSet();
+        final ResultSet derek = unmarried.where(field("age").isAbove(value(40)));
+
+        assertThat(derek.getRowCount(), is(equalTo(1)));
+        assertThat(derek.getRow(1).getRowIndex(), is(equalTo(3)));
+    }
+
+    @Test
+    public void nestedQueriesShouldOnlyScanTheRowsAlreadySelected() {
+        final Table table = numbers(1000);
+        final ResultSet last = table.where(field("value").isAbove(value(900)));
+        last.getRowCount();
+
+        final ResultSet results = last.where(field("value").isBelow(value(911)));
+
+        assertThat(results.getRowCount(), is(equalTo(10)));
+        assertThat(results.getData(10, 1), is(equalTo(910)));
+    }
+
+    @Test
+    public void deepChainsOfQueriesShouldResolveToTheUnderlyingTable() {
+        final Table table = numbers(1000);
+        final ResultSet first = table.where(field("value").isAbove(value(100)));
+        first.getRowCount();
+        final ResultSet second = first.where(field("value").isBelow(value(500)));
+        final ResultSet third = second.where(field("value").isAbove(value(400)));
+
+        assertThat(third.getRowCount(), is(equalTo(99)));
+        assertThat(third.getRow(1).getRowIndex(), is(equalTo(401)));
+        assertThat(third.getData(99, 1), is(equalTo(499)));
+    }
+
+    @Test
+    public void nestedQueriesShouldKeepTheParallelMode() {
+        final ResultSet first = numbers(1000).where(field("value").isAbove(value(0))).inParallel(new ForkJoinPool(2), 50);
+        first.getRowCount();
+
+        final ResultSet second = first.where(field("value").isBelow(value(501)));
+
+        assertThat(second.isParallel(), is(true));
+        assertThat(second.getRowCount(), is(equalTo(500)));
+        assertThat(second.getData(500, 1), is(equalTo(500)));
+    }
+
+    /**
+     * A criteria that counts how many rows it is evaluated on
+     */
+    private static class CountingCriteria extends Expression {
+
+        private final Expression criteria;
+        private int evaluationCount;
+
+        CountingCriteria(Expression criteria) {
+            this.criteria = criteria;
+            this.evaluationCount = 0;
+        }
+
+        @Override
+        public Object evaluate(Row row) {
+            evaluationCount++;
+            return criteria.evaluate(row);
+        }
+
+    }
+
+    @Test
+    public void shouldCountMatchingRows() {
+        final Table table = numbers(1000);
+
+        assertThat(table.count(field("value").isAbove(value(250))), is(equalTo(750)));
+        assertThat(table.count(field("value").isAbove(value(1000))), is(equalTo(0)));
+    }
+
+    @Test
+    public void shouldCountMatchingRowsWithinAResultSet() {
+        final ResultSet results = numbers(1000).where(field("value").isBelow(value(101)));
+
+        assertThat(results.count(field("value").isAbove(value(90))), is(equalTo(10)));
+        assertThat(results.getRowCount(), is(equalTo(100)));
+        assertThat(results.count(field("value").isAbove(value(90))), is(equalTo(10)));
+    }
+
+    @Test
+    public void existenceChecksShouldStopAtTheFirstMatch() {
+        final CountingCriteria criteria = new CountingCriteria(field("value").isAbove(value(9)));
+
+        assertThat(numbers(1000).exists(criteria), is(true));
+        assertThat(criteria.evaluationCount, is(equalTo(10)));
+    }
+
+    @Test
+    public void existenceChecksShouldDetectMissingRows() {
+        assertThat(numbers(1000).exists(field("value").isAbove(value(1000))), is(false));
+    }
+
+    @Test
+    public void limitsShouldStopTheScanEarly() {
+        final CountingCriteria criteria = new CountingCriteria(field("value").isAbove(value(100)));
+        final ResultSet results = numbers(1000).where(criteria).limit(5);
+
+        assertThat(results.getRowCount(), is(equalTo(5)));
+        assertThat(results.getData(5, 1), is(equalTo(105)));
+        assertThat(criteria.evaluationCount, is(equalTo(105)));
+    }
+
+    @Test
+    public void limitsShouldApplyToFetchedResultSets() {
+        final ResultSet results = numbers(1000).where(field("value").isAbove(value(100)));
+        results.getRowCount();
+
+        final ResultSet firstOnes = results.limit(3);
+
+        assertThat(firstOnes.isLimited(), is(true));
+        assertThat(firstOnes.getRowCount(), is(equalTo(3)));
+        assertThat(firstOnes.getData(3, 1), is(equalTo(103)));
+    }
+
+    @Test
+    public void queriesOnLimitedResultSetsShouldOnlySeeTheirRows() {
+        final ResultSet firstOnes = numbers(1000).where(field("value").isAbove(value(100))).limit(10);
+
+        assertThat(firstOnes.where(field("value").isAbove(value(105))).getRowCount(), is(equalTo(5)));
+        assertThat(firstOnes.count(field("value").isAbove(value(105))), is(equalTo(5)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeLimits() {
+        sampleResultSet().limit(-1);
+    }
+
 }
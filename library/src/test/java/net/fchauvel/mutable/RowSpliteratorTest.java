@@ -0,0 +1,110 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import net.fchauvel.mutable.samples.Employees;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static net.fchauvel.mutable.FieldBuilder.aField;
+import static net.fchauvel.mutable.FieldType.INTEGER;
+import static net.fchauvel.mutable.SchemaBuilder.aSchema;
+import static net.fchauvel.mutable.expression.FieldReference.field;
+import static net.fchauvel.mutable.expression.Literal.value;
+
+@RunWith(JUnit4.class)
+public class RowSpliteratorTest {
+
+    @Test
+    public void shouldKnowItsExactSize() {
+        final Spliterator<Row> rows = Employees.getTable().spliterator();
+
+        assertThat(rows.estimateSize(), is(equalTo(3L)));
+        assertThat(rows.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED), is(true));
+    }
+
+    @Test
+    public void shouldSplitInHalves() {
+        final Spliterator<Row> rows = Employees.getTable().spliterator();
+
+        final Spliterator<Row> prefix = rows.trySplit();
+
+        assertThat(prefix.estimateSize(), is(equalTo(1L)));
+        assertThat(rows.estimateSize(), is(equalTo(2L)));
+        assertThat(prefix.trySplit(), is(nullValue()));
+    }
+
+    @Test
+    public void splitsShouldCoverEveryRowOnce() {
+        final Spliterator<Row> rows = Employees.getTable().spliterator();
+        final Spliterator<Row> prefix = rows.trySplit();
+        final List<Integer> indices = new ArrayList<>();
+
+        prefix.forEachRemaining(row -> indices.add(row.getRowIndex()));
+        while (rows.tryAdvance(row -> indices.add(row.getRowIndex()))) {
+        }
+
+        assertThat(indices, is(equalTo(Arrays.asList(1, 2, 3))));
+        assertThat(rows.estimateSize(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void streamsShouldReturnIndependentRows() {
+        final List<String> names = Employees.getTable().stream()
+                .collect(Collectors.toList())
+                .stream()
+                .map(row -> (String) row.getField("name"))
+                .collect(Collectors.toList());
+
+        assertThat(names, is(equalTo(Arrays.asList("bob", "john", "derek"))));
+    }
+
+    @Test
+    public void parallelStreamsShouldReduceAllRows() {
+        final DataTable table = new DataTable(aSchema().with(aField("value").ofType(INTEGER)).build());
+        long expected = 0;
+        for (int value = 0; value < 10000; value++) {
+            table.appendRow(new Object[]{value});
+            expected += value;
+        }
+
+        final long sum = table.parallelStream().mapToLong(row -> row.getInteger("value")).sum();
+
+        assertThat(sum, is(equalTo(expected)));
+    }
+
+    @Test
+    public void resultSetsShouldStreamTheirSelection() {
+        final ResultSet unmarried = Employees.getTable().where(field("isMarried").is(value(false)));
+
+        final int totalAge = unmarried.parallelStream().mapToInt(row -> row.getInteger("age")).sum();
+
+        assertThat(totalAge, is(equalTo(90)));
+    }
+
+}
@@ -0,0 +1,212 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static net.fchauvel.mutable.FieldBuilder.aField;
+import static net.fchauvel.mutable.FieldType.INTEGER;
+import static net.fchauvel.mutable.FieldType.STRING;
+import static net.fchauvel.mutable.SchemaBuilder.aSchema;
+import static net.fchauvel.mutable.expression.FieldReference.field;
+import static net.fchauvel.mutable.expression.Literal.value;
+
+@RunWith(JUnit4.class)
+public class SampleTest {
+
+    private static final int ROW_COUNT = 10000;
+
+    /**
+     * @return a table where 90% of the rows are in the 'large' category and
+     * 10% in the 'small' one, and where 'amount' cycles from 0 to 99
+     */
+    private static DataTable orders() {
+        final int[] ids = new int[ROW_COUNT];
+        final String[] categories = new String[ROW_COUNT];
+        final int[] amounts = new int[ROW_COUNT];
+        for (int index = 0; index < ROW_COUNT; index++) {
+            ids[index] = index + 1;
+            categories[index] = index % 10 == 0 ? "small" : "large";
+            amounts[index] = index % 100;
+        }
+        final DataTable table = new DataTable(aSchema()
+                .with(aField("id").ofType(INTEGER))
+                .with(aField("category").ofType(STRING))
+                .with(aField("amount").ofType(INTEGER))
+                .build());
+        table.appendColumns(ids, categories, amounts);
+        return table;
+    }
+
+    @Test
+    public void shouldDrawAReservoirSampleOfTheGivenSize() {
+        final Sample sample = Sample.reservoir(orders(), 500, 42L);
+
+        assertThat(sample.getRowCount(), is(equalTo(500)));
+        assertThat(sample.getPopulationSize(), is(equalTo((long) ROW_COUNT)));
+        assertThat(Math.abs(sample.getSamplingRate() - 0.05) <= 1e-9, is(true));
+        assertThat(Math.abs(sample.getWeight(1) - 20.0) <= 1e-9, is(true));
+    }
+
+    @Test
+    public void shouldKeepSampledRowsInTableOrderWithoutDuplicates() {
+        final Sample sample = Sample.reservoir(orders(), 500, 7L);
+
+        for (int row = 2; row <= sample.getRowCount(); row++) {
+            assertThat(sample.getInteger(row, 1) > sample.getInteger(row - 1, 1), is(true));
+        }
+    }
+
+    @Test
+    public void shouldSpreadTheReservoirSampleOverTheWholeTable() {
+        final Sample sample = Sample.reservoir(orders(), 1000, 3L);
+
+        int inFirstHalf = 0;
+        for (int row = 1; row <= sample.getRowCount(); row++) {
+            if (sample.getInteger(row, 1) <= ROW_COUNT / 2) {
+                inFirstHalf++;
+            }
+        }
+        assertThat(inFirstHalf > 400, is(true));
+        assertThat(inFirstHalf <= 600, is(true));
+    }
+
+    @Test
+    public void shouldBeReproducibleForAGivenSeed() {
+        final Sample first = Sample.reservoir(orders(), 100, 11L);
+        final Sample second = Sample.reservoir(orders(), 100, 11L);
+
+        for (int row = 1; row <= first.getRowCount(); row++) {
+            assertThat(first.getInteger(row, 1), is(equalTo(second.getInteger(row, 1))));
+        }
+    }
+
+    @Test
+    public void shouldKeepAllRowsWhenTheTableIsSmallerThanTheReservoir() {
+        final Sample sample = Sample.reservoir(orders(), 2 * ROW_COUNT, 1L);
+
+        assertThat(sample.getRowCount(), is(equalTo(ROW_COUNT)));
+        assertThat(Math.abs(sample.estimateCount(field("category").is(value("small"))).getValue() - 1000) <= 1e-9, is(true));
+        assertThat(Math.abs(sample.estimateCount(field("category").is(value("small"))).getStandardError() - 0) <= 1e-9, is(true));
+    }
+
+    @Test
+    public void shouldEstimateCountsWithinTheirConfidenceInterval() {
+        final Sample sample = Sample.reservoir(orders(), 1000, 21L);
+
+        final Estimate count = sample.estimateCount(field("amount").isBelow(value(25)));
+
+        assertThat(Math.abs(count.getValue() - 2500) <= 500, is(true));
+        assertThat(count.getLowerBound() <= 2500.0, is(true));
+        assertThat(count.getUpperBound() >= 2500.0, is(true));
+    }
+
+    @Test
+    public void shouldEstimateSumsWithinTheirConfidenceInterval() {
+        final long actual = 100L * (99 * 100 / 2);
+        final Sample sample = Sample.reservoir(orders(), 1000, 9L);
+
+        final Estimate sum = sample.estimateSum("amount");
+
+        assertThat(Math.abs(sum.getValue() - actual) <= 0.1 * actual, is(true));
+        assertThat(sum.getLowerBound(0.99) <= (double) actual, is(true));
+        assertThat(sum.getUpperBound(0.99) >= (double) actual, is(true));
+    }
+
+    @Test
+    public void shouldSampleEachStratumAtTheGivenRate() {
+        final Sample sample = Sample.stratified(orders(), 0.1, 13L, "category");
+
+        assertThat(sample.getStrataCount(), is(equalTo(2)));
+        assertThat(sample.getRowCount(), is(equalTo(1000)));
+        assertThat(sample.where(field("category").is(value("small"))).getRowCount(), is(equalTo(100)));
+        assertThat(sample.where(field("category").is(value("large"))).getRowCount(), is(equalTo(900)));
+    }
+
+    @Test
+    public void shouldEstimateStratumCountsExactly() {
+        final Sample sample = Sample.stratified(orders(), 0.05, 17L, "category");
+
+        final Estimate count = sample.estimateCount(field("category").is(value("small")));
+
+        assertThat(Math.abs(count.getValue() - 1000) <= 1e-9, is(true));
+        assertThat(Math.abs(count.getStandardError() - 0) <= 1e-9, is(true));
+    }
+
+    @Test
+    public void shouldEstimateSumsOverStrata() {
+        final Sample sample = Sample.stratified(orders(), 0.1, 19L, "category");
+
+        final Estimate sum = sample.estimateSum("amount", field("category").is(value("small")));
+
+        // 'small' rows are those whose id is 1 mod 10, with amounts 0, 10, ..., 90
+        final double actual = 100 * (0 + 10 + 20 + 30 + 40 + 50 + 60 + 70 + 80 + 90);
+        assertThat(sum.getLowerBound(0.99) <= actual, is(true));
+        assertThat(sum.getUpperBound(0.99) >= actual, is(true));
+    }
+
+    @Test
+    public void shouldKeepAtLeastOneRowPerStratum() {
+        final DataTable table = new DataTable(aSchema()
+                .with(aField("group").ofType(STRING))
+                .build());
+        table.appendRow(new Object[]{"a"});
+        table.appendRow(new Object[]{"b"});
+        table.appendRow(new Object[]{"b"});
+
+        final Sample sample = Sample.stratified(table, 0.01, 1L, "group");
+
+        assertThat(sample.getRowCount(), is(equalTo(2)));
+        assertThat(Math.abs(sample.getWeight(1) - 1.0) <= 1e-9, is(true));
+        assertThat(Math.abs(sample.getWeight(2) - 2.0) <= 1e-9, is(true));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectEstimatesOnceTheSampleIsModified() {
+        final Sample sample = Sample.reservoir(orders(), 10, 1L);
+        sample.appendRow(new Object[]{0, "small", 1000});
+
+        sample.estimateSum("amount");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeSampleSizes() {
+        Sample.reservoir(orders(), -1, 1L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidSamplingRates() {
+        Sample.stratified(orders(), 1.5, 1L, "category");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownStrataFields() {
+        Sample.stratified(orders(), 0.1, 1L, "unknown");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectSumsOfNonNumericFields() {
+        Sample.reservoir(orders(), 10, 1L).estimateSum("category");
+    }
+
+}
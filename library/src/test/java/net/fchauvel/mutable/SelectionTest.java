@@ -0,0 +1,88 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class SelectionTest {
+
+    @Test
+    public void shouldBeEmptyInitially() {
+        final Selection selection = new Selection();
+
+        assertThat(selection.size(), is(equalTo(0)));
+        assertThat(selection.contains(1), is(false));
+    }
+
+    @Test
+    public void shouldGrowAsIndicesAreAdded() {
+        final Selection selection = new Selection(0);
+
+        for (int index = 1; index <= 1000; index++) {
+            selection.add(2 * index);
+        }
+
+        assertThat(selection.size(), is(equalTo(1000)));
+        assertThat(selection.get(1), is(equalTo(2)));
+        assertThat(selection.get(1000), is(equalTo(2000)));
+        assertThat(selection.contains(1001), is(false));
+    }
+
+    @Test
+    public void shouldKeepItsIndicesWhenTrimmed() {
+        final Selection selection = new Selection();
+        selection.add(7);
+        selection.add(9);
+
+        selection.trim();
+        selection.add(11);
+
+        assertThat(selection.size(), is(equalTo(3)));
+        assertThat(selection.get(2), is(equalTo(9)));
+        assertThat(selection.get(3), is(equalTo(11)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeCapacities() {
+        new Selection(-1);
+    }
+
+    @Test
+    public void shouldAppendOtherSelections() {
+        final Selection selection = new Selection(1);
+        selection.add(1);
+        final Selection other = new Selection();
+        for (int index = 5; index < 100; index++) {
+            other.add(index);
+        }
+
+        selection.addAll(other);
+
+        assertThat(selection.size(), is(equalTo(96)));
+        assertThat(selection.get(2), is(equalTo(5)));
+        assertThat(selection.get(96), is(equalTo(99)));
+    }
+
+}
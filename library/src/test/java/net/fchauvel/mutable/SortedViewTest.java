@@ -0,0 +1,186 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable;
+
+import java.util.Arrays;
+import java.util.Random;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static net.fchauvel.mutable.FieldBuilder.aField;
+import static net.fchauvel.mutable.FieldType.DOUBLE;
+import static net.fchauvel.mutable.FieldType.INTEGER;
+import static net.fchauvel.mutable.FieldType.STRING;
+import static net.fchauvel.mutable.SchemaBuilder.aSchema;
+import static net.fchauvel.mutable.SortKey.ascending;
+import static net.fchauvel.mutable.SortKey.descending;
+import static net.fchauvel.mutable.expression.FieldReference.field;
+import static net.fchauvel.mutable.expression.Literal.value;
+
+@RunWith(JUnit4.class)
+public class SortedViewTest {
+
+    private static DataTable people() {
+        final DataTable table = new DataTable(aSchema()
+                .with(aField("name").ofType(STRING))
+                .with(aField("age").ofType(INTEGER))
+                .with(aField("salary").ofType(DOUBLE))
+                .build());
+        table.appendRow(new Object[]{"derek", 34, 67.34});
+        table.appendRow(new Object[]{"bob", 25, -23.54});
+        table.appendRow(new Object[]{"john", 34, 34.45});
+        table.appendRow(new Object[]{"alice", 19, 0.0});
+        return table;
+    }
+
+    private static String[] names(Table table) {
+        final String[] names = new String[table.getRowCount()];
+        for (int row = 1; row <= table.getRowCount(); row++) {
+            names[row - 1] = table.getString(row, 1);
+        }
+        return names;
+    }
+
+    @Test
+    public void shouldSortIntegersInAscendingOrder() {
+        final SortedView sorted = people().orderBy("age");
+
+        assertThat(names(sorted), is(equalTo(new String[]{"alice", "bob", "derek", "john"})));
+    }
+
+    @Test
+    public void shouldSortIntegersInDescendingOrderAndKeepTiesStable() {
+        final SortedView sorted = people().orderBy(descending("age"));
+
+        assertThat(names(sorted), is(equalTo(new String[]{"derek", "john", "bob", "alice"})));
+    }
+
+    @Test
+    public void shouldSortDoublesWithNegativeValues() {
+        final SortedView sorted = people().orderBy("salary");
+
+        assertThat(names(sorted), is(equalTo(new String[]{"bob", "alice", "john", "derek"})));
+    }
+
+    @Test
+    public void shouldSortStrings() {
+        final SortedView sorted = people().orderBy(descending("name"));
+
+        assertThat(names(sorted), is(equalTo(new String[]{"john", "derek", "bob", "alice"})));
+    }
+
+    @Test
+    public void shouldSortOnSeveralKeys() {
+        final SortedView sorted = people().orderBy(descending("age"), ascending("salary"));
+
+        assertThat(names(sorted), is(equalTo(new String[]{"john", "derek", "bob", "alice"})));
+    }
+
+    @Test
+    public void shouldGiveAccessToTypedValues() {
+        final SortedView sorted = people().orderBy("age");
+
+        assertThat(sorted.getInteger(1, 2), is(equalTo(19)));
+        assertThat(sorted.getDouble(2, 3), is(equalTo(-23.54)));
+        assertThat(sorted.getData(4, "name"), is(equalTo((Object) "john")));
+    }
+
+    @Test
+    public void shouldSortResultSets() {
+        final SortedView sorted = people().where(field("age").isAbove(value(20))).orderBy("name");
+
+        assertThat(names(sorted), is(equalTo(new String[]{"bob", "derek", "john"})));
+    }
+
+    @Test
+    public void shouldSelectTheTopRows() {
+        final SortedView top = people().topK("salary", 2);
+
+        assertThat(names(top), is(equalTo(new String[]{"derek", "john"})));
+    }
+
+    @Test
+    public void shouldSelectAllRowsWhenKExceedsTheRowCount() {
+        final SortedView top = people().topK(10, ascending("age"));
+
+        assertThat(names(top), is(equalTo(new String[]{"alice", "bob", "derek", "john"})));
+    }
+
+    @Test
+    public void shouldSelectNoRowWhenKIsZero() {
+        assertThat(people().topK("age", 0).getRowCount(), is(equalTo(0)));
+    }
+
+    @Test
+    public void topRowsShouldMatchTheSortedRows() {
+        final DataTable table = new DataTable(aSchema()
+                .with(aField("a").ofType(INTEGER))
+                .with(aField("b").ofType(DOUBLE))
+                .build());
+        final Random random = new Random(42);
+        for (int row = 0; row < 1000; row++) {
+            table.appendRow(new Object[]{random.nextInt(10), random.nextGaussian()});
+        }
+
+        final SortedView sorted = table.orderBy(descending("a"), ascending("b"));
+        final SortedView top = table.topK(50, descending("a"), ascending("b"));
+
+        for (int row = 1; row <= 50; row++) {
+            assertThat(top.getInteger(row, 1), is(equalTo(sorted.getInteger(row, 1))));
+            assertThat(top.getDouble(row, 2), is(equalTo(sorted.getDouble(row, 2))));
+        }
+    }
+
+    @Test
+    public void shouldMatchAReferenceSort() {
+        final DataTable table = new DataTable(aSchema().with(aField("value").ofType(INTEGER)).build());
+        final Random random = new Random(7);
+        final int[] values = new int[5000];
+        for (int row = 0; row < values.length; row++) {
+            values[row] = random.nextInt();
+            table.appendRow(new Object[]{values[row]});
+        }
+        Arrays.sort(values);
+
+        final SortedView sorted = table.orderBy("value");
+
+        for (int row = 1; row <= values.length; row++) {
+            assertThat(sorted.getInteger(row, 1), is(equalTo(values[row - 1])));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownFields() {
+        people().orderBy("height");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMissingKeys() {
+        people().orderBy(new SortKey[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeK() {
+        people().topK("age", -1);
+    }
+
+}
@@ -0,0 +1,123 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.aggregation;
+
+import net.fchauvel.mutable.DataTable;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static net.fchauvel.mutable.FieldBuilder.aField;
+import static net.fchauvel.mutable.FieldType.FLOAT;
+import static net.fchauvel.mutable.FieldType.INTEGER;
+import static net.fchauvel.mutable.FieldType.LONG;
+import static net.fchauvel.mutable.FieldType.STRING;
+import static net.fchauvel.mutable.SchemaBuilder.aSchema;
+import static net.fchauvel.mutable.aggregation.Aggregate.approxQuantile;
+import static net.fchauvel.mutable.aggregation.Aggregate.avg;
+import static net.fchauvel.mutable.aggregation.Aggregate.count;
+import static net.fchauvel.mutable.aggregation.Aggregate.max;
+import static net.fchauvel.mutable.aggregation.Aggregate.min;
+import static net.fchauvel.mutable.aggregation.Aggregate.sum;
+
+@RunWith(JUnit4.class)
+public class AggregateTest {
+
+    private static DataTable numbers() {
+        final DataTable table = new DataTable(aSchema()
+                .with(aField("name").ofType(STRING))
+                .with(aField("int").ofType(INTEGER))
+                .with(aField("long").ofType(LONG))
+                .with(aField("float").ofType(FLOAT))
+                .build());
+        table.appendRow(new Object[]{"a", 3, 30L, 0.5f});
+        table.appendRow(new Object[]{"b", -1, -10L, 1.5f});
+        return table;
+    }
+
+    private static Object aggregate(Aggregate aggregate) {
+        final Accumulator accumulator = aggregate.accumulatorFor(numbers());
+        accumulator.ensureCapacity(1);
+        accumulator.add(0, 1);
+        accumulator.add(0, 2);
+        return accumulator.toArray(1);
+    }
+
+    @Test
+    public void shouldBeNamedAfterTheirFunctionAndField() {
+        assertThat(sum("int").getName(), is(equalTo("sum(int)")));
+        assertThat(count().getName(), is(equalTo("count")));
+        assertThat(max("long").as("top").getName(), is(equalTo("top")));
+        assertThat(approxQuantile("float", 0.95).getName(), is(equalTo("approxQuantile(float, 0.95)")));
+    }
+
+    @Test
+    public void shouldCountRows() {
+        assertThat((int[]) aggregate(count()), is(equalTo(new int[]{2})));
+    }
+
+    @Test
+    public void shouldSumIntegersAsLongs() {
+        assertThat((long[]) aggregate(sum("int")), is(equalTo(new long[]{2})));
+    }
+
+    @Test
+    public void shouldSumFloatsAsDoubles() {
+        assertThat((double[]) aggregate(sum("float")), is(equalTo(new double[]{2.0})));
+    }
+
+    @Test
+    public void shouldAverage() {
+        assertThat((double[]) aggregate(avg("long")), is(equalTo(new double[]{10.0})));
+    }
+
+    @Test
+    public void extremaShouldKeepTheTypeOfTheField() {
+        assertThat((int[]) aggregate(min("int")), is(equalTo(new int[]{-1})));
+        assertThat((long[]) aggregate(max("long")), is(equalTo(new long[]{30})));
+        assertThat((float[]) aggregate(max("float")), is(equalTo(new float[]{1.5f})));
+    }
+
+    @Test
+    public void shouldMergePartialStates() {
+        final Accumulator left = avg("int").accumulatorFor(numbers());
+        left.ensureCapacity(1);
+        left.add(0, 1);
+        final Accumulator right = avg("int").accumulatorFor(numbers());
+        right.ensureCapacity(1);
+        right.add(0, 2);
+
+        left.merge(0, right, 0);
+
+        assertThat((double[]) left.toArray(1), is(equalTo(new double[]{1.0})));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonNumericFields() {
+        sum("name").accumulatorFor(numbers());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownFields() {
+        sum("height").accumulatorFor(numbers());
+    }
+
+}
@@ -0,0 +1,186 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.bitmap;
+
+import java.util.BitSet;
+import java.util.Random;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class RowBitmapTest {
+
+    @Test
+    public void shouldContainTheAddedIndices() {
+        final RowBitmap bitmap = RowBitmap.of(3, 1, 70000, 3);
+
+        assertThat(bitmap.cardinality(), is(equalTo(3)));
+        assertThat(bitmap.contains(1), is(true));
+        assertThat(bitmap.contains(70000), is(true));
+        assertThat(bitmap.contains(2), is(false));
+        assertThat(bitmap.toArray(), is(equalTo(new int[]{1, 3, 70000})));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeIndices() {
+        new RowBitmap().add(-1);
+    }
+
+    @Test
+    public void shouldSwitchToBitmapsWhenDense() {
+        final RowBitmap bitmap = new RowBitmap();
+        for (int index = 0; index < 20000; index += 2) {
+            bitmap.add(index);
+        }
+
+        assertThat(bitmap.cardinality(), is(equalTo(10000)));
+        assertThat(bitmap.contains(19998), is(true));
+        assertThat(bitmap.contains(19999), is(false));
+        assertThat(bitmap.sizeInBytes() < 10000 * Character.BYTES, is(true));
+    }
+
+    @Test
+    public void shouldCompressContiguousRowsIntoRuns() {
+        final RowBitmap bitmap = new RowBitmap();
+        for (int index = 1; index <= 200000; index++) {
+            bitmap.add(index);
+        }
+
+        bitmap.runOptimize();
+
+        assertThat(bitmap.cardinality(), is(equalTo(200000)));
+        assertThat(bitmap.contains(131072), is(true));
+        assertThat(bitmap.contains(200001), is(false));
+        assertThat(bitmap.sizeInBytes() < 100, is(true));
+    }
+
+    @Test
+    public void shouldIntersect() {
+        final RowBitmap result = RowBitmap.of(1, 2, 3, 70000).and(RowBitmap.of(2, 3, 4, 70001));
+
+        assertThat(result, is(equalTo(RowBitmap.of(2, 3))));
+    }
+
+    @Test
+    public void shouldUnite() {
+        final RowBitmap result = RowBitmap.of(1, 2, 70000).or(RowBitmap.of(2, 4, 140000));
+
+        assertThat(result, is(equalTo(RowBitmap.of(1, 2, 4, 70000, 140000))));
+    }
+
+    @Test
+    public void shouldSubtract() {
+        final RowBitmap result = RowBitmap.of(1, 2, 70000).andNot(RowBitmap.of(2, 70000));
+
+        assertThat(result, is(equalTo(RowBitmap.of(1))));
+    }
+
+    @Test
+    public void shouldFlipRangesAcrossContainers() {
+        final RowBitmap result = RowBitmap.of(2, 65537).flip(1, 65540);
+
+        assertThat(result.cardinality(), is(equalTo(65539 - 2)));
+        assertThat(result.contains(1), is(true));
+        assertThat(result.contains(2), is(false));
+        assertThat(result.contains(65536), is(true));
+        assertThat(result.contains(65537), is(false));
+        assertThat(result.contains(65540), is(false));
+    }
+
+    @Test
+    public void shouldLeaveOperandsUntouched() {
+        final RowBitmap left = RowBitmap.of(1, 2, 3);
+        final RowBitmap right = RowBitmap.of(3, 4);
+
+        left.or(right).add(10);
+        left.flip(0, 5);
+
+        assertThat(left, is(equalTo(RowBitmap.of(1, 2, 3))));
+        assertThat(right, is(equalTo(RowBitmap.of(3, 4))));
+    }
+
+    @Test
+    public void shouldMatchABitSetOnRandomData() {
+        final Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            final BitSet leftBits = new BitSet();
+            final BitSet rightBits = new BitSet();
+            final RowBitmap left = randomBitmap(random, leftBits);
+            final RowBitmap right = randomBitmap(random, rightBits);
+
+            assertMatches(left.and(right), and(leftBits, rightBits));
+            assertMatches(left.or(right), or(leftBits, rightBits));
+            assertMatches(left.andNot(right), andNot(leftBits, rightBits));
+            final BitSet flipped = (BitSet) leftBits.clone();
+            flipped.flip(1000, 150000);
+            assertMatches(left.flip(1000, 150000), flipped);
+        }
+    }
+
+    private static RowBitmap randomBitmap(Random random, BitSet bits) {
+        final RowBitmap bitmap = new RowBitmap();
+        final int density = random.nextInt(3);
+        for (int index = 0; index < 200000; index++) {
+            final boolean selected;
+            if (density == 0) {
+                selected = random.nextInt(100) == 0;
+            } else if (density == 1) {
+                selected = random.nextBoolean();
+            } else {
+                selected = (index / 5000) % 2 == 0;
+            }
+            if (selected) {
+                bitmap.add(index);
+                bits.set(index);
+            }
+        }
+        if (random.nextBoolean()) {
+            bitmap.runOptimize();
+        }
+        return bitmap;
+    }
+
+    private static BitSet and(BitSet left, BitSet right) {
+        final BitSet result = (BitSet) left.clone();
+        result.and(right);
+        return result;
+    }
+
+    private static BitSet or(BitSet left, BitSet right) {
+        final BitSet result = (BitSet) left.clone();
+        result.or(right);
+        return result;
+    }
+
+    private static BitSet andNot(BitSet left, BitSet right) {
+        final BitSet result = (BitSet) left.clone();
+        result.andNot(right);
+        return result;
+    }
+
+    private static void assertMatches(RowBitmap actual, BitSet expected) {
+        assertThat(actual.cardinality(), is(equalTo(expected.cardinality())));
+        assertThat(actual.toArray(), is(equalTo(expected.stream().toArray())));
+    }
+
+}
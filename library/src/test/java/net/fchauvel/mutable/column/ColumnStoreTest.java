@@ -0,0 +1,289 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.column;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static net.fchauvel.mutable.FieldType.*;
+
+/**
+ * Specification of the column stores
+ */
+@RunWith(JUnit4.class)
+public class ColumnStoreTest {
+
+    @Test
+    public void shouldSelectPrimitiveStoresFromFieldTypes() {
+        assertThat(ColumnStore.of(INTEGER), is(instanceOf(IntegerStore.class)));
+        assertThat(ColumnStore.of(LONG), is(instanceOf(LongStore.class)));
+        assertThat(ColumnStore.of(FLOAT), is(instanceOf(FloatStore.class)));
+        assertThat(ColumnStore.of(DOUBLE), is(instanceOf(DoubleStore.class)));
+        assertThat(ColumnStore.of(BOOLEAN), is(instanceOf(BooleanStore.class)));
+        assertThat(ColumnStore.of(CHARACTER), is(instanceOf(CharacterStore.class)));
+        assertThat(ColumnStore.of(STRING), is(instanceOf(StringStore.class)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullTypes() {
+        ColumnStore.of(null);
+    }
+
+    @Test
+    public void shouldGrowBeyondItsInitialCapacity() {
+        final IntegerStore store = new IntegerStore();
+        for (int i = 0; i < 1000; i++) {
+            store.appendInteger(i);
+        }
+
+        assertThat(store.size(), is(equalTo(1000)));
+        assertThat(store.getInteger(999), is(equalTo(999)));
+    }
+
+    @Test
+    public void shouldExposeBoxedValues() {
+        final ColumnStore store = ColumnStore.of(DOUBLE);
+        store.append(23.54);
+
+        assertThat(store.get(0), is(equalTo((Object) 23.54)));
+    }
+
+    @Test
+    public void shouldPackBooleansAcrossWords() {
+        final BooleanStore store = new BooleanStore();
+        for (int i = 0; i < 200; i++) {
+            store.appendBoolean(i % 3 == 0);
+        }
+
+        assertThat(store.getBoolean(63), is(true));
+        assertThat(store.getBoolean(64), is(false));
+        assertThat(store.getBoolean(198), is(true));
+    }
+
+    @Test
+    public void shouldDropDeletedValuesOnCompaction() {
+        final IntegerStore store = new IntegerStore();
+        for (int i = 0; i < 10; i++) {
+            store.appendInteger(i);
+        }
+        final DeletionVector deletions = new DeletionVector();
+        deletions.delete(0);
+        deletions.delete(5);
+
+        store.compact(deletions);
+
+        assertThat(store.size(), is(equalTo(8)));
+        assertThat(store.getInteger(0), is(equalTo(1)));
+        assertThat(store.getInteger(4), is(equalTo(6)));
+    }
+
+    @Test
+    public void shouldDropDeletedBooleansOnCompaction() {
+        final BooleanStore store = new BooleanStore();
+        for (int i = 0; i < 130; i++) {
+            store.appendBoolean(i % 2 == 0);
+        }
+        final DeletionVector deletions = new DeletionVector();
+        deletions.delete(1);
+
+        store.compact(deletions);
+
+        assertThat(store.size(), is(equalTo(129)));
+        for (int i = 1; i < 129; i++) {
+            assertThat(store.getBoolean(i), is(i % 2 == 1));
+        }
+    }
+
+    @Test
+    public void shouldDropTrailingValuesOnTruncation() {
+        final ColumnStore store = ColumnStore.of(STRING);
+        store.append("bob");
+        store.append("john");
+
+        store.truncate(1);
+
+        assertThat(store.size(), is(equalTo(1)));
+        assertThat(store.get(0), is(equalTo((Object) "bob")));
+    }
+
+    @Test
+    public void shouldEncodeStringsWithADictionary() {
+        final StringStore store = new StringStore();
+        store.appendString("france");
+        store.appendString("norway");
+        store.appendString("france");
+
+        assertThat(store.isDictionaryEncoded(), is(true));
+        assertThat(store.getDictionary().size(), is(equalTo(2)));
+        assertThat(store.getCode(2), is(equalTo(store.getCode(0))));
+        assertThat(store.getString(2), is(equalTo("france")));
+    }
+
+    @Test
+    public void shouldDropTheDictionaryBeyondItsLimit() {
+        final StringStore store = new StringStore(2);
+        store.appendString("france");
+        store.appendString("norway");
+        store.appendString("spain");
+
+        assertThat(store.isDictionaryEncoded(), is(false));
+        assertThat(store.getCode(0), is(equalTo(Dictionary.UNKNOWN)));
+        assertThat(store.getString(0), is(equalTo("france")));
+        assertThat(store.getString(2), is(equalTo("spain")));
+    }
+
+    @Test
+    public void shouldCompactDictionaryEncodedStrings() {
+        final StringStore store = new StringStore();
+        store.appendString("france");
+        store.appendString("norway");
+        store.appendString("spain");
+        final DeletionVector deletions = new DeletionVector();
+        deletions.delete(1);
+
+        store.compact(deletions);
+
+        assertThat(store.size(), is(equalTo(2)));
+        assertThat(store.getString(1), is(equalTo("spain")));
+    }
+
+    @Test
+    public void compactionShouldRenumberTheValuesStillInUse() {
+        final StringStore store = new StringStore();
+        store.appendString("france");
+        store.appendString("norway");
+        store.appendString("spain");
+        store.appendString("france");
+        final DeletionVector deletions = new DeletionVector();
+        deletions.delete(1);
+
+        store.compact(deletions);
+
+        assertThat(store.getDictionary().size(), is(equalTo(2)));
+        assertThat(store.getCode(1), is(equalTo(1)));
+        assertThat(store.getString(1), is(equalTo("spain")));
+        assertThat(store.getString(2), is(equalTo("france")));
+    }
+
+    @Test
+    public void truncationShouldFreeRoomInTheDictionary() {
+        final StringStore store = new StringStore(2);
+        store.appendString("france");
+        store.appendString("norway");
+
+        store.truncate(1);
+        store.appendString("spain");
+
+        assertThat(store.isDictionaryEncoded(), is(true));
+        assertThat(store.getDictionary().size(), is(equalTo(2)));
+        assertThat(store.getString(0), is(equalTo("france")));
+        assertThat(store.getString(1), is(equalTo("spain")));
+    }
+
+    @Test
+    public void shouldSpreadValuesOverSeveralChunks() {
+        final LongStore store = new LongStore();
+        final int count = 3 * ColumnStore.CHUNK_SIZE + 10;
+        for (int i = 0; i < count; i++) {
+            store.appendLong(i);
+        }
+
+        assertThat(store.size(), is(equalTo(count)));
+        assertThat(store.getLong(ColumnStore.CHUNK_SIZE - 1), is(equalTo((long) ColumnStore.CHUNK_SIZE - 1)));
+        assertThat(store.getLong(ColumnStore.CHUNK_SIZE), is(equalTo((long) ColumnStore.CHUNK_SIZE)));
+        assertThat(store.getLong(count - 1), is(equalTo((long) count - 1)));
+    }
+
+    @Test
+    public void shouldCompactValuesAcrossChunks() {
+        final DoubleStore store = new DoubleStore();
+        final int count = 2 * ColumnStore.CHUNK_SIZE;
+        final DeletionVector deletions = new DeletionVector();
+        for (int i = 0; i < count; i++) {
+            store.appendDouble(i);
+            if (i % 2 == 0) {
+                deletions.delete(i);
+            }
+        }
+
+        store.compact(deletions);
+        store.appendDouble(-1);
+
+        assertThat(store.size(), is(equalTo(count / 2 + 1)));
+        assertThat(store.getDouble(ColumnStore.CHUNK_SIZE - 1), is(equalTo((double) count - 1)));
+        assertThat(store.getDouble(ColumnStore.CHUNK_SIZE), is(equalTo(-1D)));
+    }
+
+    @Test
+    public void shouldPackBooleansAcrossChunks() {
+        final BooleanStore store = new BooleanStore();
+        final int count = ColumnStore.CHUNK_SIZE + 100;
+        for (int i = 0; i < count; i++) {
+            store.appendBoolean(i % 3 == 0);
+        }
+
+        for (int i = ColumnStore.CHUNK_SIZE - 70; i < count; i++) {
+            assertThat(store.getBoolean(i), is(i % 3 == 0));
+        }
+    }
+
+    @Test
+    public void shouldDecodeStringsAcrossChunks() {
+        final StringStore store = new StringStore(ColumnStore.CHUNK_SIZE);
+        final int count = ColumnStore.CHUNK_SIZE + 10;
+        for (int i = 0; i < count; i++) {
+            store.appendString("value " + i);
+        }
+
+        assertThat(store.isDictionaryEncoded(), is(false));
+        assertThat(store.getString(0), is(equalTo("value 0")));
+        assertThat(store.getString(ColumnStore.CHUNK_SIZE + 9), is(equalTo("value " + (ColumnStore.CHUNK_SIZE + 9))));
+    }
+
+    @Test
+    public void shouldAppendArraysAcrossChunks() {
+        final IntegerStore store = new IntegerStore();
+        store.appendInteger(-1);
+        final int[] values = new int[ColumnStore.CHUNK_SIZE + 10];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+
+        store.appendArray(values);
+
+        assertThat(store.size(), is(equalTo(values.length + 1)));
+        assertThat(store.getInteger(0), is(equalTo(-1)));
+        assertThat(store.getInteger(ColumnStore.CHUNK_SIZE), is(equalTo(ColumnStore.CHUNK_SIZE - 1)));
+        assertThat(store.getInteger(values.length), is(equalTo(values.length - 1)));
+    }
+
+    @Test
+    public void shouldOnlyAcceptArraysOfItsOwnType() {
+        assertThat(ColumnStore.of(INTEGER).acceptsArray(new int[0]), is(true));
+        assertThat(ColumnStore.of(INTEGER).acceptsArray(new long[0]), is(false));
+        assertThat(ColumnStore.of(BOOLEAN).acceptsArray(new boolean[0]), is(true));
+        assertThat(ColumnStore.of(STRING).acceptsArray(new String[0]), is(true));
+        assertThat(ColumnStore.of(STRING).acceptsArray(null), is(false));
+    }
+
+}
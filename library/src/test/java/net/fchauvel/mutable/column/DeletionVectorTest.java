@@ -0,0 +1,98 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.column;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Specification of the deletion vector
+ */
+@RunWith(JUnit4.class)
+public class DeletionVectorTest {
+
+    @Test
+    public void shouldBeEmptyInitially() {
+        final DeletionVector deletions = new DeletionVector();
+
+        assertThat(deletions.isEmpty(), is(true));
+        assertThat(deletions.select(5), is(equalTo(5)));
+    }
+
+    @Test
+    public void shouldCountDeletionsOnlyOnce() {
+        final DeletionVector deletions = new DeletionVector();
+        deletions.delete(3);
+        deletions.delete(3);
+
+        assertThat(deletions.count(), is(equalTo(1)));
+        assertThat(deletions.isDeleted(3), is(true));
+        assertThat(deletions.isDeleted(4), is(false));
+    }
+
+    @Test
+    public void shouldSkipDeletedPositions() {
+        final DeletionVector deletions = new DeletionVector();
+        deletions.delete(0);
+        deletions.delete(2);
+
+        assertThat(deletions.select(0), is(equalTo(1)));
+        assertThat(deletions.select(1), is(equalTo(3)));
+        assertThat(deletions.select(10), is(equalTo(12)));
+    }
+
+    @Test
+    public void shouldSelectTheSamePositionsAsAPlainList() {
+        final int size = 20000;
+        final List<Integer> remaining = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            remaining.add(i);
+        }
+        final DeletionVector deletions = new DeletionVector();
+        final Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            final int rank = random.nextInt(remaining.size());
+            deletions.delete(deletions.select(rank));
+            remaining.remove(rank);
+        }
+
+        for (int rank = 0; rank < remaining.size(); rank++) {
+            assertThat(deletions.select(rank), is(equalTo(remaining.get(rank))));
+        }
+    }
+
+    @Test
+    public void shouldForgetDeletionsWhenCleared() {
+        final DeletionVector deletions = new DeletionVector();
+        deletions.delete(1000);
+        deletions.clear();
+
+        assertThat(deletions.isEmpty(), is(true));
+        assertThat(deletions.isDeleted(1000), is(false));
+        assertThat(deletions.select(1000), is(equalTo(1000)));
+    }
+
+}
@@ -22,6 +22,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import org.junit.Test;
+import net.fchauvel.mutable.DataTable;
 import net.fchauvel.mutable.Table;
 import static net.fchauvel.mutable.expression.FieldReference.field;
 import static net.fchauvel.mutable.expression.Literal.value;
@@ -109,4 +110,119 @@ public class ExpressionTest {
         assertThat(selection.getData(1, "name"), is(equalTo("john")));
     }
 
+    @Test
+    public void equalityOnStringFieldsShouldCompareDictionaryCodes() {
+        Expression bound = field("name").is(value("derek")).bindTo(employees);
+
+        assertThat(bound instanceof DictionaryEquality, is(true));
+        assertThat(employees.where(field("name").is(value("derek"))).getRowCount(), is(equalTo(1)));
+        assertThat(employees.where(value("derek").is(field("name"))).getRowCount(), is(equalTo(1)));
+    }
+
+    @Test
+    public void equalityOnUnknownStringsShouldMatchRowsAppendedLater() {
+        DataTable table = Employees.getTable();
+        Expression bound = field("name").is(value("steven")).bindTo(table);
+
+        table.appendRow(new Object[]{"steven", 35, false, 345.5});
+
+        assertThat((Boolean) bound.evaluate(table.getRow(3)), is(false));
+        assertThat((Boolean) bound.evaluate(table.getRow(4)), is(true));
+    }
+
+    @Test
+    public void equalityOnStringsShouldHoldOnceTheDictionaryIsRebuilt() {
+        DataTable table = Employees.getTable();
+        Expression bound = field("name").is(value("derek")).bindTo(table);
+
+        table.removeRow(0);
+        table.compact();
+
+        assertThat(table.getDictionarySize(1), is(equalTo(2)));
+        assertThat((Boolean) bound.evaluate(table.getRow(1)), is(false));
+        assertThat((Boolean) bound.evaluate(table.getRow(2)), is(true));
+    }
+
+    @Test
+    public void bindingShouldPreserveTheOperators() {
+        Table selection = employees.where(not(field("name").is(value("derek"))).and(field("salary").isCloseTo(value(34D)).by(0.5)));
+
+        assertThat(selection.getRowCount(), is(equalTo(1)));
+        assertThat(selection.getData(1, "name"), is(equalTo("john")));
+    }
+
+    @Test
+    public void structurallyIdenticalExpressionsShouldBeEqual() {
+        Expression first = field("age").isAbove(value(30)).and(not(field("isMarried")));
+        Expression second = field("age").isAbove(value(30)).and(not(field("isMarried")));
+
+        assertThat(first, is(equalTo(second)));
+        assertThat(first.hashCode(), is(equalTo(second.hashCode())));
+    }
+
+    @Test
+    public void differentExpressionsShouldNotBeEqual() {
+        assertThat(field("age").isAbove(value(30)).equals(field("age").isBelow(value(30))), is(false));
+        assertThat(field("age").isAbove(value(30)).equals(field("age").isAbove(value(31))), is(false));
+        assertThat(field("salary").isCloseTo(value(30D)).by(1).equals(field("salary").isCloseTo(value(30D)).by(2)), is(false));
+    }
+
+    @Test
+    public void boundExpressionsShouldEqualTheirUnboundForm() {
+        assertThat(field("age").bindTo(employees), is(equalTo((Expression) field("age"))));
+    }
+
+    @Test
+    public void boundEqualitiesShouldEqualTheirUnboundForm() {
+        Expression unbound = field("name").is(value("derek")).and(field("age").isAbove(value(30)));
+        Expression bound = unbound.bindTo(employees);
+
+        assertThat(bound, is(equalTo(unbound)));
+        assertThat(unbound, is(equalTo(bound)));
+        assertThat(bound.hashCode(), is(equalTo(unbound.hashCode())));
+    }
+
+    @Test
+    public void normalizationShouldSortCommutativeOperands() {
+        Expression first = field("name").is(value("john")).and(field("age").isAbove(value(30)));
+        Expression second = field("age").isAbove(value(30)).and(value("john").is(field("name")));
+
+        assertThat(first.normalize(), is(equalTo(second.normalize())));
+    }
+
+    @Test
+    public void normalizationShouldFlattenAssociativeOperators() {
+        Expression a = field("age").isAbove(value(30));
+        Expression b = field("isMarried").is(value(true));
+        Expression c = field("name").is(value("bob"));
+
+        assertThat(a.and(b).and(c).normalize(), is(equalTo(a.and(c.and(b)).normalize())));
+        assertThat(a.or(b).or(c).normalize(), is(equalTo(c.or(b.or(a)).normalize())));
+        assertThat(a.or(b).and(c).normalize().equals(a.and(b).or(c).normalize()), is(false));
+    }
+
+    @Test
+    public void normalizationShouldTellLiteralsOfDifferentTypesApart() {
+        Expression number = field("code").is(value(1));
+        Expression text = field("code").is(value("1"));
+
+        assertThat(number.or(text).normalize(), is(equalTo(text.or(number).normalize())));
+        assertThat(number.and(text.or(number)).normalize(), is(equalTo(text.or(number).and(number).normalize())));
+    }
+
+    @Test
+    public void normalizationShouldRemoveDoubleNegations() {
+        Expression criteria = field("age").isAbove(value(30));
+
+        assertThat(not(not(criteria)).normalize(), is(equalTo(criteria)));
+    }
+
+    @Test
+    public void normalizationShouldKeepNonCommutativeOperands() {
+        Expression criteria = value(30).isAbove(field("age"));
+
+        assertThat(criteria.normalize(), is(equalTo(criteria)));
+        assertThat(criteria.normalize().equals(field("age").isAbove(value(30))), is(false));
+    }
+
 }
@@ -0,0 +1,98 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.sketch;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class HyperLogLogTest {
+
+    private static boolean isClose(long estimate, long expected, double tolerance) {
+        return Math.abs(estimate - expected) <= tolerance * expected;
+    }
+
+    @Test
+    public void shouldEstimateZeroWhenEmpty() {
+        assertThat(new HyperLogLog().estimate(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void shouldBeExactOnSmallCardinalities() {
+        final HyperLogLog sketch = new HyperLogLog();
+        for (int repeat = 0; repeat < 3; repeat++) {
+            for (int value = 0; value < 100; value++) {
+                sketch.add("value" + value);
+            }
+        }
+
+        assertThat(isClose(sketch.estimate(), 100, 0.02), is(true));
+    }
+
+    @Test
+    public void shouldEstimateLargeCardinalities() {
+        final HyperLogLog sketch = new HyperLogLog();
+        for (long value = 0; value < 1000000; value++) {
+            sketch.add(value);
+        }
+
+        assertThat(isClose(sketch.estimate(), 1000000, 0.03), is(true));
+    }
+
+    @Test
+    public void mergingShouldMatchASingleSketch() {
+        final HyperLogLog whole = new HyperLogLog(10);
+        final HyperLogLog left = new HyperLogLog(10);
+        final HyperLogLog right = new HyperLogLog(10);
+        for (int value = 0; value < 50000; value++) {
+            whole.add((double) value);
+            (value % 2 == 0 ? left : right).add((double) value);
+        }
+
+        left.merge(right);
+
+        assertThat(left, is(equalTo(whole)));
+    }
+
+    @Test
+    public void copiesShouldBeIndependent() {
+        final HyperLogLog sketch = new HyperLogLog();
+        final HyperLogLog copy = sketch.copy();
+
+        copy.add(42L);
+
+        assertThat(sketch.estimate(), is(equalTo(0L)));
+        assertThat(copy.estimate(), is(equalTo(1L)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMergingDifferentPrecisions() {
+        new HyperLogLog(10).merge(new HyperLogLog(12));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidPrecisions() {
+        new HyperLogLog(2);
+    }
+
+}
@@ -0,0 +1,145 @@
+/**
+ * This file is part of MuTable.
+ *
+ * Copyright (C) 2015 Franck Chauvel <franck.chauvel@gmail.com>
+ *
+ * MuTable is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Mutable is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MuTable.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.fchauvel.mutable.sketch;
+
+import java.util.Arrays;
+import java.util.Random;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class QuantileSketchTest {
+
+    /**
+     * @return true if the estimated quantile has a rank close enough to the
+     * expected one, among the given sorted values
+     */
+    private static boolean hasRankClose(double estimate, double fraction, double[] sorted, double tolerance) {
+        int rank = Arrays.binarySearch(sorted, estimate);
+        if (rank < 0) {
+            rank = -rank - 1;
+        }
+        return Math.abs((double) rank / sorted.length - fraction) <= tolerance;
+    }
+
+    private static double[] gaussianValues(int count, long seed) {
+        final Random random = new Random(seed);
+        final double[] values = new double[count];
+        for (int index = 0; index < count; index++) {
+            values[index] = random.nextGaussian() * 100;
+        }
+        return values;
+    }
+
+    @Test
+    public void shouldBeEmptyInitially() {
+        final QuantileSketch sketch = new QuantileSketch();
+
+        assertThat(sketch.getCount(), is(equalTo(0L)));
+        assertThat(Double.isNaN(sketch.quantile(0.5)), is(true));
+    }
+
+    @Test
+    public void shouldBeExactOnFewValues() {
+        final QuantileSketch sketch = new QuantileSketch();
+        for (int value = 1; value <= 99; value++) {
+            sketch.add(value);
+        }
+
+        assertThat(sketch.quantile(0.5), is(equalTo(50.0)));
+        assertThat(sketch.quantile(0), is(equalTo(1.0)));
+        assertThat(sketch.quantile(1), is(equalTo(99.0)));
+    }
+
+    @Test
+    public void shouldEstimateQuantilesInSmallMemory() {
+        final double[] values = gaussianValues(200000, 1);
+        final QuantileSketch sketch = new QuantileSketch();
+        for (double each : values) {
+            sketch.add(each);
+        }
+        Arrays.sort(values);
+
+        assertThat(sketch.getCount(), is(equalTo(200000L)));
+        assertThat(sketch.getRetainedCount() < 2000, is(true));
+        for (double fraction : new double[]{0.05, 0.5, 0.95, 0.99}) {
+            assertThat(hasRankClose(sketch.quantile(fraction), fraction, values, 0.02), is(true));
+        }
+    }
+
+    @Test
+    public void mergedSketchesShouldEstimateTheUnion() {
+        final double[] values = gaussianValues(100000, 2);
+        final QuantileSketch[] partitions = new QuantileSketch[4];
+        for (int index = 0; index < partitions.length; index++) {
+            partitions[index] = new QuantileSketch();
+        }
+        for (int index = 0; index < values.length; index++) {
+            partitions[index % partitions.length].add(values[index]);
+        }
+        final QuantileSketch merged = new QuantileSketch();
+        for (QuantileSketch each : partitions) {
+            merged.merge(each);
+        }
+        Arrays.sort(values);
+
+        assertThat(merged.getCount(), is(equalTo(100000L)));
+        assertThat(merged.getMin(), is(equalTo(values[0])));
+        assertThat(merged.getMax(), is(equalTo(values[values.length - 1])));
+        assertThat(hasRankClose(merged.quantile(0.5), 0.5, values, 0.02), is(true));
+        assertThat(hasRankClose(merged.quantile(0.95), 0.95, values, 0.02), is(true));
+    }
+
+    @Test
+    public void copiesShouldKeepCompactingOnTheirOwn() {
+        final double[] values = gaussianValues(50000, 4);
+        final QuantileSketch sketch = new QuantileSketch();
+        for (int index = 0; index < values.length / 2; index++) {
+            sketch.add(values[index]);
+        }
+        final QuantileSketch copy = sketch.copy();
+        for (int index = values.length / 2; index < values.length; index++) {
+            copy.add(values[index]);
+        }
+        Arrays.sort(values);
+
+        assertThat(sketch.getCount(), is(equalTo(25000L)));
+        assertThat(copy.getCount(), is(equalTo(50000L)));
+        assertThat(copy.getRetainedCount() < 2000, is(true));
+        assertThat(hasRankClose(copy.quantile(0.5), 0.5, values, 0.02), is(true));
+    }
+
+    @Test
+    public void shouldIgnoreNaN() {
+        final QuantileSketch sketch = new QuantileSketch();
+        sketch.add(Double.NaN);
+
+        assertThat(sketch.getCount(), is(equalTo(0L)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidFractions() {
+        new QuantileSketch().quantile(1.5);
+    }
+
+}